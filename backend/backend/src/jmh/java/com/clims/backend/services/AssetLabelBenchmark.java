@@ -0,0 +1,54 @@
+package com.clims.backend.services;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/** Label sheet PDFs of 1k/10k synthetic asset tags on the default 3 x 8 grid, with encoding on every core. */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class AssetLabelBenchmark {
+
+    @Param({"1000", "10000"})
+    int labels;
+
+    AssetLabelService service;
+    AssetLabelService.LabelSheet sheet;
+
+    @Setup
+    public void setup() {
+        service = new AssetLabelService(new JdbcTemplate(), Mockito.mock(AssetService.class), labels, 0, 8L * 1024 * 1024, "");
+        List<String> tags = IntStream.range(0, labels).mapToObj(i -> String.format("AST-%09d", i)).toList();
+        sheet = new AssetLabelService.LabelSheet(tags, AssetLabelService.DEFAULT_COLUMNS, AssetLabelService.DEFAULT_ROWS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    @Benchmark
+    public void write() {
+        service.write(sheet, OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,71 @@
+package com.clims.backend.services;
+
+import com.clims.backend.repositories.AssetRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.mockito.Mockito.when;
+
+/** Trigram lookups for the asset {@code q} filter over 1k/100k/1M synthetic assets. */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class AssetSearchIndexBenchmark {
+
+    private static final String[] MAKES = {"Dell", "Lenovo", "HP", "Apple", "Asus"};
+
+    @Param({"1000", "100000", "1000000"})
+    int rows;
+
+    AssetSearchIndex index;
+    String serialOfOne;
+
+    @Setup
+    public void setup() {
+        AssetRepository assetRepository = Mockito.mock(AssetRepository.class);
+        when(assetRepository.streamSearchFields()).thenAnswer(inv -> LongStream.rangeClosed(1, rows).mapToObj(i -> new Object[]{
+                i, String.format("AST-%08d", i), "SN" + Long.toString(i * 7919L, 36).toUpperCase(),
+                MAKES[(int) (i % MAKES.length)], "Model " + (i % 97)
+        }));
+        index = new AssetSearchIndex(assetRepository, Mockito.mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), true, 10_000);
+        index.rebuild();
+        serialOfOne = Long.toString((rows / 2) * 7919L, 36);
+    }
+
+    // One asset: the usual "paste a serial number" lookup
+    @Benchmark
+    public Set<Long> selectiveSerial() {
+        return index.find(serialOfOne);
+    }
+
+    // Prefix of a tag shared by up to a few hundred assets
+    @Benchmark
+    public Set<Long> tagPrefix() {
+        return index.find(String.format("%08d", rows / 2).substring(0, 6));
+    }
+
+    // Matches far more than max-matches: measures how quickly the index gives up and defers to SQL
+    @Benchmark
+    public Set<Long> broadTerm() {
+        return index.find("model 4");
+    }
+}
@@ -0,0 +1,75 @@
+package com.clims.backend.services;
+
+import com.clims.backend.BackendApplication;
+import com.clims.backend.dto.ReportDtos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dashboard KPIs at 1k/100k/1M assets (and as many maintenance rows) in the in-memory H2 database of the
+ * {@code test} profile: {@code computeKpis} runs the grouped count queries, {@code kpiSnapshot} is what
+ * {@code GET /api/reports/kpis} serves from {@link KpiStore}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class KpiBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int rows;
+
+    ConfigurableApplicationContext context;
+    ReportService reportService;
+    KpiStore kpiStore;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(BackendApplication.class)
+                .profiles("test")
+                .properties("server.port=0", "spring.main.banner-mode=off", "logging.level.root=WARN")
+                .run();
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        jdbc.update("INSERT INTO assets (asset_tag, serial_number, make, model, purchase_date, status, created_at, updated_at) "
+                + "SELECT 'AST-' || X, 'SN' || X, 'Dell', 'Model ' || MOD(X, 97), DATE '2020-01-01' + MOD(X, 1500), "
+                + "CASEWHEN(MOD(X, 4) = 0, 'AVAILABLE', CASEWHEN(MOD(X, 4) = 1, 'ASSIGNED', CASEWHEN(MOD(X, 4) = 2, 'UNDER_REPAIR', 'RETIRED'))), "
+                + "CURRENT_TIMESTAMP, CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, ?)", rows);
+        jdbc.update("INSERT INTO maintenance (asset_id, description, status, scheduled_date, created_at, updated_at) "
+                + "SELECT X, 'Service', CASEWHEN(MOD(X, 3) = 0, 'COMPLETED', 'SCHEDULED'), CURRENT_DATE + MOD(X, 60) - 30, "
+                + "CURRENT_TIMESTAMP, CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, ?)", rows);
+        reportService = context.getBean(ReportService.class);
+        kpiStore = context.getBean(KpiStore.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ReportDtos.KpiResponse computeKpis() {
+        return reportService.computeKpis();
+    }
+
+    @Benchmark
+    public ReportDtos.KpiResponse kpiSnapshot() {
+        return kpiStore.snapshot();
+    }
+}
@@ -0,0 +1,62 @@
+package com.clims.backend.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** Encoding an asset QR code against serving it from the QR cache, per size and format. */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class QrCodeBenchmark {
+
+    private static final int TAGS = 1_000;
+
+    @Param({"200", "512"})
+    int size;
+
+    @Param({"PNG", "PNG_DATA_URL", "SVG"})
+    QrCodeService.Format format;
+
+    QrCodeService cached;
+    QrCodeService uncached;
+    String[] tags;
+    int next;
+
+    @Setup
+    public void setup() {
+        cached = new QrCodeService(new SimpleMeterRegistry(), true, 256L << 20);
+        uncached = new QrCodeService(new SimpleMeterRegistry(), false, 0);
+        tags = new String[TAGS];
+        for (int i = 0; i < TAGS; i++) {
+            tags[i] = String.format("AST-%09d", i);
+            cached.qr(tags[i], size, format);
+        }
+    }
+
+    // A cold code: what every request paid before the cache
+    @Benchmark
+    public QrCodeService.QrCode encode() {
+        return uncached.qr(tags[next++ % TAGS], size, format);
+    }
+
+    // A label printed or viewed again
+    @Benchmark
+    public QrCodeService.QrCode cacheHit() {
+        return cached.qr(tags[next++ % TAGS], size, format);
+    }
+}
@@ -0,0 +1,141 @@
+package com.clims.backend.services;
+
+import com.clims.backend.models.entities.AppUser;
+import com.clims.backend.models.entities.Asset;
+import com.clims.backend.models.entities.Department;
+import com.clims.backend.models.entities.Location;
+import com.clims.backend.models.entities.Maintenance;
+import com.clims.backend.models.entities.Vendor;
+import com.clims.backend.models.enums.AssetStatus;
+import com.clims.backend.models.enums.MaintenanceStatus;
+import com.clims.backend.repositories.AssetRepository;
+import com.clims.backend.repositories.MaintenanceRepository;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Report rendering cost at 1k/100k/1M synthetic rows. Repositories are stubbed with in-memory rows so only
+ * the CSV/PDF generation is measured; {@link KpiBenchmark} covers the database-bound KPI path.
+ * SampleTime gives the p99, and the default {@code jmh.args} add the gc profiler for allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ReportServiceBenchmark {
+
+    private static final LongConsumer NO_PROGRESS = rows -> { };
+
+    @Param({"1000", "100000", "1000000"})
+    int rows;
+
+    List<Asset> assets;
+    List<Maintenance> maintenance;
+    ReportService reportService;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        assets = new ArrayList<>(rows);
+        maintenance = new ArrayList<>(rows);
+        List<Vendor> vendors = named(20, Vendor::new, Vendor::setName, "Vendor ");
+        List<Location> locations = named(50, Location::new, Location::setName, "Building ");
+        List<Department> departments = named(10, Department::new, Department::setName, "Department ");
+        List<AppUser> users = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            AppUser u = new AppUser();
+            u.setUsername("user" + i);
+            u.setDepartment(departments.get(i % departments.size()));
+            users.add(u);
+        }
+        AssetStatus[] statuses = AssetStatus.values();
+        MaintenanceStatus[] maintenanceStatuses = MaintenanceStatus.values();
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        for (int i = 0; i < rows; i++) {
+            Asset a = new Asset();
+            a.setId((long) i + 1);
+            a.setAssetTag(String.format("AST-%08d", i + 1));
+            a.setSerialNumber("SN" + (1_000_000_000L + i * 7919L));
+            a.setMake(i % 3 == 0 ? "Dell" : i % 3 == 1 ? "Lenovo" : "HP, Inc.");
+            a.setModel("Model " + (i % 97));
+            a.setPurchaseDate(start.plusDays(i % 1500));
+            a.setStatus(statuses[i % statuses.length]);
+            if (a.getStatus() == AssetStatus.ASSIGNED) a.setAssignedUser(users.get(i % users.size()));
+            a.setLocation(locations.get(i % locations.size()));
+            a.setVendor(vendors.get(i % vendors.size()));
+            assets.add(a);
+
+            Maintenance m = new Maintenance();
+            m.setId((long) i + 1);
+            m.setAsset(a);
+            m.setDescription("Scheduled service #" + i + " - replace battery and check \"fan\" noise");
+            m.setStatus(maintenanceStatuses[i % maintenanceStatuses.length]);
+            m.setScheduledDate(start.plusDays(i % 2000));
+            if (m.getStatus() == MaintenanceStatus.COMPLETED) m.setCompletedDate(m.getScheduledDate().plusDays(2));
+            maintenance.add(m);
+        }
+
+        AssetRepository assetRepository = Mockito.mock(AssetRepository.class);
+        MaintenanceRepository maintenanceRepository = Mockito.mock(MaintenanceRepository.class);
+        when(assetRepository.findAll(any(Specification.class), any(Sort.class))).thenReturn(assets);
+        when(assetRepository.streamAll(any(), any(), any())).thenAnswer(inv -> assets.stream());
+        when(maintenanceRepository.findAll(any(Specification.class), any(Sort.class))).thenReturn(maintenance);
+        when(maintenanceRepository.streamAll(any(), any(), any())).thenAnswer(inv -> maintenance.stream());
+        reportService = new ReportService(assetRepository, maintenanceRepository);
+    }
+
+    private static <T> List<T> named(int count, java.util.function.Supplier<T> factory,
+                                     java.util.function.BiConsumer<T, String> setName, String prefix) {
+        List<T> out = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            T t = factory.get();
+            setName.accept(t, prefix + i);
+            out.add(t);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public String inventoryCsv() {
+        return reportService.inventoryCsv(null);
+    }
+
+    @Benchmark
+    public ReportService.ReportResult writeInventoryCsv() {
+        return reportService.writeInventoryCsv(OutputStream.nullOutputStream(), null, null);
+    }
+
+    @Benchmark
+    public ReportService.ReportResult inventoryPdfInternal() {
+        return reportService.inventoryPdfInternal(assets.iterator(), null, OutputStream.nullOutputStream(), NO_PROGRESS);
+    }
+
+    @Benchmark
+    public ReportService.ReportResult maintenancePdfInternal() {
+        return reportService.maintenancePdfInternal(maintenance.iterator(), null, OutputStream.nullOutputStream(), NO_PROGRESS);
+    }
+}
@@ -45,7 +45,7 @@ public class CorsConfig {
         config.setAllowedHeaders(splitAndTrim(allowedHeadersProp));
         config.setAllowCredentials(true);
         // Expose headers that clients may need
-        config.setExposedHeaders(List.of("Content-Disposition", "X-Report-Limited", "X-Report-Limit"));
+        config.setExposedHeaders(List.of("Content-Disposition", "X-Report-Limited", "X-Report-Limit", "Location", "Retry-After"));
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/api/**", config);
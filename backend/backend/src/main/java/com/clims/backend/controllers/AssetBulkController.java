@@ -0,0 +1,33 @@
+package com.clims.backend.controllers;
+
+import com.clims.backend.dto.AssetDtos;
+import com.clims.backend.security.CurrentUserService;
+import com.clims.backend.services.AssetBulkService;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/assets")
+public class AssetBulkController {
+    private final AssetBulkService assetBulkService;
+    private final CurrentUserService currentUserService;
+
+    public AssetBulkController(AssetBulkService assetBulkService, CurrentUserService currentUserService) {
+        this.assetBulkService = assetBulkService;
+        this.currentUserService = currentUserService;
+    }
+
+    /**
+     * Assigns, disposes, re-statuses or moves the assets given by id or by the filters of the asset list, and
+     * answers with an outcome per asset. Roles are those of the single-asset endpoint of the same operation.
+     */
+    @PostMapping("/bulk")
+    @PreAuthorize("hasAnyRole('ADMIN','MANAGER') or (#req.operation() == T(com.clims.backend.dto.AssetDtos.BulkOperation).DISPOSE"
+            + " ? hasRole('FINANCE') : hasRole('IT_STAFF'))")
+    public AssetDtos.BulkSummary bulk(@RequestBody AssetDtos.BulkRequest req) {
+        return assetBulkService.apply(req, currentUserService.requireCurrentUser());
+    }
+}
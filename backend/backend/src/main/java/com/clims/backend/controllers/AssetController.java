@@ -1,52 +1,81 @@
 package com.clims.backend.controllers;
 
 import com.clims.backend.dto.AssetDtos;
+import com.clims.backend.dto.CountMode;
+import com.clims.backend.dto.CursorPage;
 import com.clims.backend.dto.PageResponse;
 import com.clims.backend.models.entities.Asset;
 import com.clims.backend.models.enums.AssetStatus;
-import com.clims.backend.models.entities.Maintenance;
 import com.clims.backend.dto.MaintenanceDtos;
 import com.clims.backend.models.enums.MaintenanceStatus;
 import com.clims.backend.security.CurrentUserService;
 import com.clims.backend.services.AssetService;
 import com.clims.backend.services.MaintenanceService;
 import com.clims.backend.services.AuditLogService;
+import com.clims.backend.services.ListVersions;
+import com.clims.backend.services.QrCodeService;
 import com.clims.backend.models.entities.AuditLog;
 import org.modelmapper.ModelMapper;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/assets")
 public class AssetController {
+    private static final MediaType SVG = new MediaType("image", "svg+xml");
+
+    private static final KeysetCursor CURSOR = new KeysetCursor(Map.of(
+            "id", Long.class, "assetTag", String.class, "serialNumber", String.class, "make", String.class,
+            "model", String.class, "purchaseDate", LocalDate.class, "status", AssetStatus.class));
 
     private final AssetService assetService;
     private final ModelMapper mapper;
     private final CurrentUserService currentUserService;
     private final MaintenanceService maintenanceService;
     private final AuditLogService auditLogService;
+    private final QrCodeService qrCodeService;
+    private final ListVersions listVersions;
 
-    public AssetController(AssetService assetService, ModelMapper mapper, CurrentUserService currentUserService, MaintenanceService maintenanceService, AuditLogService auditLogService) {
+    public AssetController(AssetService assetService, ModelMapper mapper, CurrentUserService currentUserService, MaintenanceService maintenanceService, AuditLogService auditLogService, QrCodeService qrCodeService, ListVersions listVersions) {
         this.assetService = assetService;
         this.mapper = mapper;
         this.currentUserService = currentUserService;
         this.maintenanceService = maintenanceService;
         this.auditLogService = auditLogService;
+        this.qrCodeService = qrCodeService;
+        this.listVersions = listVersions;
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN','IT_STAFF','MANAGER','AUDITOR')")
-    public ResponseEntity<AssetDtos.AssetResponse> getById(@PathVariable Long id) {
-        Asset asset = assetService.get(id);
-        return ResponseEntity.ok(toResponse(asset));
+    public ResponseEntity<AssetDtos.AssetResponse> getById(@PathVariable Long id, ServletWebRequest request) {
+        AssetDtos.AssetResponse response = assetService.getResponse(id);
+        if (ETags.notModified(request, ETags.ofContent(response))) return null;
+        return ResponseEntity.ok(response);
+    }
+
+    /** Resolves a scanned asset tag, e.g. from the QR label, to the asset. */
+    @GetMapping("/lookup")
+    @PreAuthorize("hasAnyRole('ADMIN','IT_STAFF','MANAGER','AUDITOR')")
+    public ResponseEntity<AssetDtos.AssetResponse> getByTag(@RequestParam String tag, ServletWebRequest request) {
+        AssetDtos.AssetResponse response = assetService.getResponseByTag(tag);
+        if (ETags.notModified(request, ETags.ofContent(response))) return null;
+        return ResponseEntity.ok(response);
     }
 
     @GetMapping
@@ -59,15 +88,72 @@ public class AssetController {
             @RequestParam(required = false) Long departmentId,
             @RequestParam(required = false) Long locationId,
             @RequestParam(required = false) Long vendorId,
-            @RequestParam(required = false) String q
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String count,
+            ServletWebRequest request
     ) {
         String[] sortParts = sort.split(",");
         Sort s = sortParts.length == 2 && sortParts[1].equalsIgnoreCase("asc")
                 ? Sort.by(sortParts[0]).ascending() : Sort.by(sortParts[0]).descending();
         Pageable pageable = PageRequest.of(Math.max(page,0), Math.max(size,1), s);
-        Page<Asset> result = assetService.search(pageable, status, departmentId, locationId, vendorId, q);
-        List<AssetDtos.AssetResponse> content = result.getContent().stream().map(this::toResponse).collect(Collectors.toList());
-        return new PageResponse<>(content, result.getTotalElements(), result.getTotalPages(), result.getNumber(), result.getSize());
+        CountMode countMode = CountMode.parse(count, CountMode.EXACT);
+        if (ETags.notModified(request, ETags.ofVersion(listVersions.version(ListVersions.ASSETS), request))) return null;
+        if (countMode == CountMode.EXACT) {
+            return PageResponse.of(assetService.search(pageable, status, departmentId, locationId, vendorId, q));
+        }
+        Slice<AssetDtos.AssetResponse> result = assetService.searchSlice(pageable, status, departmentId, locationId, vendorId, q);
+        return PageResponse.of(result, countMode, () -> assetService.estimateCount(status, departmentId, locationId, vendorId, q));
+    }
+
+    /**
+     * Per-value counts of status, department, location and vendor for the same filters as {@link #list}, each
+     * counted without its own filter, so facet navigation takes one request next to the page.
+     */
+    @GetMapping("/facets")
+    @PreAuthorize("hasAnyRole('ADMIN','IT_STAFF','MANAGER','AUDITOR')")
+    public ResponseEntity<AssetDtos.AssetFacets> facets(
+            @RequestParam(required = false) AssetStatus status,
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(required = false) Long locationId,
+            @RequestParam(required = false) Long vendorId,
+            @RequestParam(required = false) String q,
+            ServletWebRequest request
+    ) {
+        if (ETags.notModified(request, ETags.ofVersion(listVersions.version(ListVersions.ASSETS), request))) return null;
+        return ResponseEntity.ok(assetService.facets(status, departmentId, locationId, vendorId, q));
+    }
+
+    /**
+     * Cursor mode of {@link #list}, selected by the {@code after} parameter (empty for the first page). Each
+     * page seeks past the last row of the previous one, so deep pages cost the same as the first; the total is
+     * only filled in with {@code count=exact} or {@code count=estimate}.
+     */
+    @GetMapping(params = "after")
+    @PreAuthorize("hasAnyRole('ADMIN','IT_STAFF','MANAGER','AUDITOR')")
+    public CursorPage<AssetDtos.AssetResponse> listByCursor(
+            @RequestParam(defaultValue = "") String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id,desc") String sort,
+            @RequestParam(required = false) AssetStatus status,
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(required = false) Long locationId,
+            @RequestParam(required = false) Long vendorId,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String count,
+            ServletWebRequest request
+    ) {
+        Sort s = CURSOR.sort(sort);
+        int limit = Math.max(size, 1);
+        CountMode countMode = CountMode.parse(count, CountMode.NONE);
+        KeysetScrollPosition position = CURSOR.position(after, s);
+        if (ETags.notModified(request, ETags.ofVersion(listVersions.version(ListVersions.ASSETS), request))) return null;
+        Window<AssetDtos.AssetResponse> window = assetService.scroll(position, limit, s, status, departmentId, locationId, vendorId, q);
+        Long total = switch (countMode) {
+            case EXACT -> assetService.count(status, departmentId, locationId, vendorId, q);
+            case ESTIMATE -> assetService.estimateCount(status, departmentId, locationId, vendorId, q);
+            case NONE -> null;
+        };
+        return new CursorPage<>(window.getContent(), limit, CURSOR.next(window, s), total);
     }
 
     @PostMapping
@@ -105,18 +191,39 @@ public class AssetController {
         return ResponseEntity.ok(toResponse(saved));
     }
 
+    /**
+     * QR code of an asset tag: with {@code format=png} a PNG, or with {@code dataUrl=true} a {@code data:} URL of
+     * one, and with {@code format=svg} an SVG drawn straight from the QR matrix. {@code margin} is the quiet zone in
+     * modules and {@code ecc} the error correction level. Codes are cached and sent as immutable, so label printing
+     * only encodes each combination once.
+     */
     @GetMapping("/{assetTag}/qr")
     @PreAuthorize("hasAnyRole('ADMIN','IT_STAFF','MANAGER','AUDITOR')")
-    public ResponseEntity<?> getQr(@PathVariable String assetTag, @RequestParam(value = "dataUrl", defaultValue = "false") boolean dataUrl) {
-        byte[] png = assetService.generateQrPng(assetTag);
-        if (dataUrl) {
-            String base64 = java.util.Base64.getEncoder().encodeToString(png);
-            return ResponseEntity.ok("data:image/png;base64," + base64);
-        }
-        return ResponseEntity
-                .ok()
-                .header(org.springframework.http.HttpHeaders.CONTENT_TYPE, org.springframework.http.MediaType.IMAGE_PNG_VALUE)
-                .body(png);
+    public ResponseEntity<byte[]> getQr(@PathVariable String assetTag,
+                                        @RequestParam(value = "dataUrl", defaultValue = "false") boolean dataUrl,
+                                        @RequestParam(defaultValue = "png") String format,
+                                        @RequestParam(defaultValue = "" + QrCodeService.DEFAULT_SIZE) int size,
+                                        @RequestParam(defaultValue = "" + QrCodeService.DEFAULT_MARGIN) int margin,
+                                        @RequestParam(defaultValue = "L") String ecc,
+                                        ServletWebRequest request) {
+        QrCodeService.Format qrFormat = switch (format.toLowerCase(Locale.ROOT)) {
+            case "png" -> dataUrl ? QrCodeService.Format.PNG_DATA_URL : QrCodeService.Format.PNG;
+            case "svg" -> {
+                if (dataUrl) throw new IllegalArgumentException("dataUrl is only supported for png");
+                yield QrCodeService.Format.SVG;
+            }
+            default -> throw new IllegalArgumentException("format must be png or svg");
+        };
+        QrCodeService.QrCode qr = qrCodeService.qr(assetTag, qrFormat, size, margin, QrCodeService.errorCorrection(ecc));
+        if (ETags.notModifiedImmutable(request, qr.etag())) return null;
+        MediaType contentType = switch (qrFormat) {
+            case PNG -> MediaType.IMAGE_PNG;
+            case PNG_DATA_URL -> MediaType.TEXT_PLAIN;
+            case SVG -> SVG;
+        };
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .body(qr.bytes());
     }
 
     private AssetDtos.AssetResponse toResponse(Asset a) {
@@ -138,37 +245,30 @@ public class AssetController {
             @RequestParam(defaultValue = "id,desc") String sort,
             @RequestParam(required = false) MaintenanceStatus status,
             @RequestParam(required = false) java.time.LocalDate dateFrom,
-            @RequestParam(required = false) java.time.LocalDate dateTo
+            @RequestParam(required = false) java.time.LocalDate dateTo,
+            @RequestParam(required = false) String count,
+            ServletWebRequest request
     ) {
+        CountMode countMode = CountMode.parse(count, CountMode.EXACT);
         // Ensure asset exists or throw 404
-        assetService.get(id);
+        assetService.getResponse(id);
+        if (ETags.notModified(request, ETags.ofVersion(listVersions.version(ListVersions.MAINTENANCE), request))) return null;
         String[] sortParts = sort.split(",");
         Sort s = sortParts.length == 2 && sortParts[1].equalsIgnoreCase("asc")
                 ? Sort.by(sortParts[0]).ascending() : Sort.by(sortParts[0]).descending();
         Pageable pageable = PageRequest.of(Math.max(page,0), Math.max(size,1), s);
-        Page<Maintenance> result = maintenanceService.search(pageable, status, id, dateFrom, dateTo);
-        List<MaintenanceDtos.MaintenanceResponse> content = result.getContent().stream().map(this::toMaintenanceResponse).collect(Collectors.toList());
-        return new PageResponse<>(content, result.getTotalElements(), result.getTotalPages(), result.getNumber(), result.getSize());
-    }
-
-    private MaintenanceDtos.MaintenanceResponse toMaintenanceResponse(Maintenance m) {
-        return new MaintenanceDtos.MaintenanceResponse(
-                m.getId(),
-                m.getAsset() != null ? m.getAsset().getId() : null,
-                m.getAsset() != null ? m.getAsset().getAssetTag() : null,
-                m.getDescription(),
-                m.getStatus(),
-                m.getScheduledDate(),
-                m.getCompletedDate(),
-                m.getReportedBy() != null ? m.getReportedBy().getUsername() : null
-        );
+        if (countMode == CountMode.EXACT) {
+            return PageResponse.of(maintenanceService.search(pageable, status, id, dateFrom, dateTo));
+        }
+        Slice<MaintenanceDtos.MaintenanceResponse> result = maintenanceService.searchSlice(pageable, status, id, dateFrom, dateTo);
+        return PageResponse.of(result, countMode, () -> maintenanceService.estimateCount(status, id, dateFrom, dateTo));
     }
 
     @GetMapping("/{id}/audit")
     @PreAuthorize("hasAnyRole('ADMIN','AUDITOR','MANAGER','IT_STAFF')")
     public ResponseEntity<List<AuditLogResponse>> audit(@PathVariable Long id) {
         // ensure asset exists, will throw 404 if not
-        assetService.get(id);
+        assetService.getResponse(id);
         List<AuditLog> logs = auditLogService.findByEntity("Asset", id);
         List<AuditLogResponse> body = logs.stream().map(this::toAuditResponse).collect(Collectors.toList());
         return ResponseEntity.ok(body);
@@ -0,0 +1,49 @@
+package com.clims.backend.controllers;
+
+import com.clims.backend.security.CurrentUserService;
+import com.clims.backend.services.AssetImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/assets")
+public class AssetImportController {
+    static final String TEXT_CSV = "text/csv";
+    static final String NDJSON = "application/x-ndjson";
+
+    private final AssetImportService assetImportService;
+    private final CurrentUserService currentUserService;
+
+    public AssetImportController(AssetImportService assetImportService, CurrentUserService currentUserService) {
+        this.assetImportService = assetImportService;
+        this.currentUserService = currentUserService;
+    }
+
+    /**
+     * Creates assets from a CSV upload with a header row, or from NDJSON with one object per line. Fields are
+     * serialNumber, make, model, purchaseDate, warrantyExpiryDate and the location, vendor and department names.
+     * The report streams back as NDJSON: one line per rejected row, then {@code {"imported":..,"failed":..}}.
+     * <p>
+     * Written from the request thread rather than a {@code StreamingResponseBody}, which would be cut off by the
+     * async request timeout on a large import.
+     */
+    @PostMapping(value = "/import", consumes = {TEXT_CSV, NDJSON})
+    @PreAuthorize("hasAnyRole('ADMIN','IT_STAFF','MANAGER')")
+    public void importAssets(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        AssetImportService.Format format = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.parseMediaType(TEXT_CSV))
+                ? AssetImportService.Format.CSV : AssetImportService.Format.NDJSON;
+        var actor = currentUserService.requireCurrentUser();
+        try (AssetImportService.Upload upload = assetImportService.open(request.getInputStream(), format)) {
+            // Only once the header is accepted, so that a rejected upload still gets a JSON error
+            response.setContentType(NDJSON);
+            assetImportService.importAssets(upload, actor, response.getOutputStream());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.clims.backend.controllers;
+
+import com.clims.backend.dto.AssetDtos;
+import com.clims.backend.services.AssetLabelService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/assets")
+public class AssetLabelController {
+    private final AssetLabelService assetLabelService;
+
+    public AssetLabelController(AssetLabelService assetLabelService) {
+        this.assetLabelService = assetLabelService;
+    }
+
+    /**
+     * A PDF of QR labels for the assets given by id or by the filters of the asset list, {@code columns} by
+     * {@code rows} labels per page. The request is checked before the download starts, so errors are still JSON.
+     */
+    @PostMapping(value = "/labels", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN','IT_STAFF','MANAGER','AUDITOR')")
+    public ResponseEntity<StreamingResponseBody> labels(@RequestBody AssetDtos.LabelSheetRequest req) {
+        AssetLabelService.LabelSheet sheet = assetLabelService.prepare(req);
+        StreamingResponseBody body = outputStream -> assetLabelService.write(sheet, outputStream);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=labels_" + LocalDate.now() + ".pdf")
+                .contentType(MediaType.APPLICATION_PDF)
+                .body(body);
+    }
+}
@@ -0,0 +1,76 @@
+package com.clims.backend.controllers;
+
+import com.clims.backend.repositories.CollectionVersion;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Entity tags for conditional GETs. A list is tagged with the version {@code ListVersions} keeps for it, and a
+ * lookup with the {@link CollectionVersion} of its table, so an unchanged list is answered with a 304 before its
+ * page is loaded. A single resource is tagged with a hash of its response.
+ */
+final class ETags {
+    // Revalidated on every use, but kept by the browser so that its If-None-Match can be answered with a 304
+    private static final String CACHE_CONTROL = "private, no-cache";
+    // For content that never changes at its URL: browsers and shared caches keep it without asking again
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    private ETags() { }
+
+    /**
+     * Weak tag of a list. The query parameters are part of it because one version covers every page, sort and
+     * count mode of the same filters.
+     */
+    static String ofVersion(String version, ServletWebRequest request) {
+        StringBuilder source = new StringBuilder(version);
+        for (Map.Entry<String, String[]> param : new TreeMap<>(request.getParameterMap()).entrySet()) {
+            source.append('|').append(param.getKey()).append('=').append(Arrays.toString(param.getValue()));
+        }
+        return "W/\"" + hash(source.toString()) + "\"";
+    }
+
+    /** {@link #ofVersion(String, ServletWebRequest)} for the rows a {@link CollectionVersion} was read from. */
+    static String ofVersion(CollectionVersion version, ServletWebRequest request) {
+        return ofVersion(version.count() + "|" + version.lastModified(), request);
+    }
+
+    /** Strong tag of a response record, whose {@code toString()} covers every field. */
+    static String ofContent(Record response) {
+        return "\"" + hash(response.toString()) + "\"";
+    }
+
+    /**
+     * Whether the client's {@code If-None-Match} still matches {@code etag}. If so the response is already a 304
+     * and the handler returns null; otherwise the tag is set on the response that follows.
+     */
+    static boolean notModified(ServletWebRequest request, String etag) {
+        return check(request, etag, CACHE_CONTROL);
+    }
+
+    /** {@link #notModified} for a response that is the same for as long as its URL exists. */
+    static boolean notModifiedImmutable(ServletWebRequest request, String etag) {
+        return check(request, etag, IMMUTABLE);
+    }
+
+    private static boolean check(ServletWebRequest request, String etag, String cacheControl) {
+        if (request.getResponse() != null) request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        return request.checkNotModified(etag);
+    }
+
+    private static String hash(String source) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+}
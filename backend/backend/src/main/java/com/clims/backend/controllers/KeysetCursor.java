@@ -0,0 +1,103 @@
+package com.clims.backend.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Opaque {@code after} tokens for the cursor mode of the list endpoints. A token is the base64url JSON of
+ * the sort it was issued for plus the sort key and id of the last row served, so the next page seeks past
+ * that row instead of counting and skipping everything before it.
+ * <p>
+ * Only non-null columns may be sorted on in this mode: a null key would drop rows from the keyset predicate.
+ */
+final class KeysetCursor {
+    private static final ObjectMapper JSON = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private final Map<String, Class<?>> sortable;
+
+    /** @param sortable sortable properties and their Java types; must include {@code id} */
+    KeysetCursor(Map<String, Class<?>> sortable) {
+        this.sortable = sortable;
+    }
+
+    /** Parses the endpoints' {@code field,dir} sort syntax, restricted to this cursor's sortable properties. */
+    Sort sort(String sort) {
+        String[] parts = sort.split(",");
+        if (!sortable.containsKey(parts[0])) {
+            throw new IllegalArgumentException("Cursor pagination cannot sort by '" + parts[0] + "'; use one of " + sortable.keySet());
+        }
+        return parts.length == 2 && parts[1].equalsIgnoreCase("asc")
+                ? Sort.by(parts[0]).ascending() : Sort.by(parts[0]).descending();
+    }
+
+    /** Position after the row encoded in {@code after}; a blank token starts from the first row. */
+    KeysetScrollPosition position(String after, Sort sort) {
+        if (after == null || after.isBlank()) return ScrollPosition.keyset();
+        JsonNode token;
+        try {
+            token = JSON.readTree(Base64.getUrlDecoder().decode(after));
+        } catch (Exception ex) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        if (!describe(sort).equals(token.path("s").asText())) {
+            throw new IllegalArgumentException("Cursor was issued for a different sort");
+        }
+        JsonNode keys = token.path("k");
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String property : keyProperties(sort)) {
+            JsonNode value = keys.get(property);
+            if (value == null || value.isNull()) throw new IllegalArgumentException("Malformed cursor");
+            try {
+                values.put(property, JSON.treeToValue(value, sortable.get(property)));
+            } catch (Exception ex) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+        }
+        if (keys.size() != values.size()) throw new IllegalArgumentException("Malformed cursor");
+        return ScrollPosition.forward(values);
+    }
+
+    /** Token for the page after {@code window}, or null when it is the last page. */
+    String next(Window<?> window, Sort sort) {
+        if (!window.hasNext() || window.isEmpty()) return null;
+        KeysetScrollPosition last = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+        ObjectNode token = JSON.createObjectNode();
+        token.put("s", describe(sort));
+        token.set("k", JSON.valueToTree(last.getKeys()));
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(JSON.writeValueAsBytes(token));
+        } catch (Exception ex) {
+            throw new IllegalStateException("Could not encode cursor", ex);
+        }
+    }
+
+    private static String describe(Sort sort) {
+        Sort.Order order = sort.iterator().next();
+        return order.getProperty() + "," + order.getDirection().name().toLowerCase(Locale.ROOT);
+    }
+
+    // Spring Data appends the id to the sort so that ties on the sort key still page deterministically
+    private static Set<String> keyProperties(Sort sort) {
+        return new LinkedHashSet<>(List.of(sort.iterator().next().getProperty(), "id"));
+    }
+}
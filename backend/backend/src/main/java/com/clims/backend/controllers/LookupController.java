@@ -9,9 +9,11 @@ import com.clims.backend.repositories.VendorRepository;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 
+/** Reference data for pickers. It rarely changes, so clients revalidate it with If-None-Match. */
 @RestController
 @RequestMapping("/api/lookups")
 public class LookupController {
@@ -26,11 +28,20 @@ public class LookupController {
     }
 
     @GetMapping("/departments")
-    public List<Department> departments() { return departmentRepository.findAll(); }
+    public List<Department> departments(ServletWebRequest request) {
+        if (ETags.notModified(request, ETags.ofVersion(departmentRepository.findVersion(), request))) return null;
+        return departmentRepository.findAll();
+    }
 
     @GetMapping("/locations")
-    public List<Location> locations() { return locationRepository.findAll(); }
+    public List<Location> locations(ServletWebRequest request) {
+        if (ETags.notModified(request, ETags.ofVersion(locationRepository.findVersion(), request))) return null;
+        return locationRepository.findAll();
+    }
 
     @GetMapping("/vendors")
-    public List<Vendor> vendors() { return vendorRepository.findAll(); }
+    public List<Vendor> vendors(ServletWebRequest request) {
+        if (ETags.notModified(request, ETags.ofVersion(vendorRepository.findVersion(), request))) return null;
+        return vendorRepository.findAll();
+    }
 }
@@ -1,32 +1,42 @@
 package com.clims.backend.controllers;
 
+import com.clims.backend.dto.CountMode;
+import com.clims.backend.dto.CursorPage;
 import com.clims.backend.dto.MaintenanceDtos;
 import com.clims.backend.dto.PageResponse;
 import com.clims.backend.models.entities.Maintenance;
 import com.clims.backend.models.enums.MaintenanceStatus;
+import com.clims.backend.services.ListVersions;
 import com.clims.backend.services.MaintenanceService;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 import java.time.LocalDate;
 
 @RestController
 @RequestMapping("/api/maintenance")
 public class MaintenanceController {
+    private static final KeysetCursor CURSOR = new KeysetCursor(Map.of(
+        "id", Long.class, "status", MaintenanceStatus.class, "description", String.class));
+
     private final MaintenanceService maintenanceService;
     private final com.clims.backend.security.CurrentUserService currentUserService;
+    private final ListVersions listVersions;
 
-    public MaintenanceController(MaintenanceService maintenanceService, com.clims.backend.security.CurrentUserService currentUserService) {
+    public MaintenanceController(MaintenanceService maintenanceService, com.clims.backend.security.CurrentUserService currentUserService, ListVersions listVersions) {
         this.maintenanceService = maintenanceService;
         this.currentUserService = currentUserService;
+        this.listVersions = listVersions;
     }
 
     @GetMapping
@@ -38,15 +48,52 @@ public class MaintenanceController {
         @RequestParam(required = false) MaintenanceStatus status,
         @RequestParam(required = false) Long assetId,
         @RequestParam(required = false) LocalDate dateFrom,
-        @RequestParam(required = false) LocalDate dateTo
+        @RequestParam(required = false) LocalDate dateTo,
+        @RequestParam(required = false) String count,
+        ServletWebRequest request
     ) {
     String[] sortParts = sort.split(",");
     Sort s = sortParts.length == 2 && sortParts[1].equalsIgnoreCase("asc")
         ? Sort.by(sortParts[0]).ascending() : Sort.by(sortParts[0]).descending();
     Pageable pageable = PageRequest.of(Math.max(page,0), Math.max(size,1), s);
-    Page<Maintenance> result = maintenanceService.search(pageable, status, assetId, dateFrom, dateTo);
-    List<MaintenanceDtos.MaintenanceResponse> content = result.getContent().stream().map(this::toResponse).collect(Collectors.toList());
-    return new PageResponse<>(content, result.getTotalElements(), result.getTotalPages(), result.getNumber(), result.getSize());
+    CountMode countMode = CountMode.parse(count, CountMode.EXACT);
+    if (ETags.notModified(request, ETags.ofVersion(listVersions.version(ListVersions.MAINTENANCE), request))) return null;
+    if (countMode == CountMode.EXACT) {
+        return PageResponse.of(maintenanceService.search(pageable, status, assetId, dateFrom, dateTo));
+    }
+    Slice<MaintenanceDtos.MaintenanceResponse> result = maintenanceService.searchSlice(pageable, status, assetId, dateFrom, dateTo);
+    return PageResponse.of(result, countMode, () -> maintenanceService.estimateCount(status, assetId, dateFrom, dateTo));
+    }
+
+    /**
+     * Cursor mode of {@link #list}, selected by the {@code after} parameter (empty for the first page). The
+     * total is only filled in with {@code count=exact} or {@code count=estimate}. The nullable scheduled date cannot be a keyset sort key.
+     */
+    @GetMapping(params = "after")
+    @PreAuthorize("hasAnyRole('ADMIN','IT_STAFF','TECHNICIAN','MANAGER','AUDITOR')")
+    public CursorPage<MaintenanceDtos.MaintenanceResponse> listByCursor(
+        @RequestParam(defaultValue = "") String after,
+        @RequestParam(defaultValue = "10") int size,
+        @RequestParam(defaultValue = "id,desc") String sort,
+        @RequestParam(required = false) MaintenanceStatus status,
+        @RequestParam(required = false) Long assetId,
+        @RequestParam(required = false) LocalDate dateFrom,
+        @RequestParam(required = false) LocalDate dateTo,
+        @RequestParam(required = false) String count,
+        ServletWebRequest request
+    ) {
+        Sort s = CURSOR.sort(sort);
+        int limit = Math.max(size, 1);
+        CountMode countMode = CountMode.parse(count, CountMode.NONE);
+        KeysetScrollPosition position = CURSOR.position(after, s);
+        if (ETags.notModified(request, ETags.ofVersion(listVersions.version(ListVersions.MAINTENANCE), request))) return null;
+        Window<MaintenanceDtos.MaintenanceResponse> window = maintenanceService.scroll(position, limit, s, status, assetId, dateFrom, dateTo);
+        Long total = switch (countMode) {
+            case EXACT -> maintenanceService.count(status, assetId, dateFrom, dateTo);
+            case ESTIMATE -> maintenanceService.estimateCount(status, assetId, dateFrom, dateTo);
+            case NONE -> null;
+        };
+        return new CursorPage<>(window.getContent(), limit, CURSOR.next(window, s), total);
     }
 
     @PostMapping
@@ -66,8 +113,7 @@ public class MaintenanceController {
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN','IT_STAFF','TECHNICIAN','MANAGER','AUDITOR')")
     public ResponseEntity<MaintenanceDtos.MaintenanceResponse> getById(@PathVariable Long id) {
-        Maintenance found = maintenanceService.get(id);
-        return ResponseEntity.ok(toResponse(found));
+        return ResponseEntity.ok(maintenanceService.getResponse(id));
     }
 
     private MaintenanceDtos.MaintenanceResponse toResponse(Maintenance m) {
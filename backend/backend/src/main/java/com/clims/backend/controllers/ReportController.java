@@ -1,7 +1,11 @@
 package com.clims.backend.controllers;
 
 import com.clims.backend.dto.ReportDtos;
+import com.clims.backend.services.KpiStore;
+import com.clims.backend.services.ReportCache;
+import com.clims.backend.services.ReportCompression;
 import com.clims.backend.services.ReportService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -9,120 +13,148 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @RestController
 @RequestMapping("/api/reports")
 public class ReportController {
     private final ReportService reportService;
+    private final ReportCache reportCache;
+    private final KpiStore kpiStore;
+    private final ReportCompression reportCompression;
     private static final int DEFAULT_UNFILTERED_LIMIT = 5000;
 
-    public ReportController(ReportService reportService) { this.reportService = reportService; }
+    public ReportController(ReportService reportService, ReportCache reportCache, KpiStore kpiStore,
+                            ReportCompression reportCompression) {
+        this.reportService = reportService;
+        this.reportCache = reportCache;
+        this.kpiStore = kpiStore;
+        this.reportCompression = reportCompression;
+    }
 
     @PreAuthorize("hasAnyRole('ADMIN','AUDITOR','FINANCE','MANAGER','IT_STAFF')")
     @PostMapping(value = "/inventory/csv", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<StreamingResponseBody> inventoryCsv(@RequestBody ReportDtos.InventoryFilter filter) {
+    public ResponseEntity<StreamingResponseBody> inventoryCsv(@RequestBody ReportDtos.InventoryFilter filter,
+                                                              @RequestParam(defaultValue = "false") boolean gzip,
+                                                              @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                              HttpServletResponse response) {
         boolean unfiltered = isInventoryUnfiltered(filter);
         Integer limit = unfiltered ? DEFAULT_UNFILTERED_LIMIT : null;
-
-        long count = reportService.countInventoryRecords(filter);
-        boolean truncated = limit != null && count > limit;
-
-        String date = LocalDate.now().toString();
-        String filename = "inventory_" + date + ".csv";
-
-        MediaType csvType = new MediaType("text", "csv", StandardCharsets.UTF_8);
-        StreamingResponseBody body = outputStream -> {
-            reportService.writeInventoryCsv(outputStream, filter, limit);
-        };
-
-        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
-                .contentType(csvType);
-        if (truncated) {
-            builder.header("X-Report-Limited", "true");
-            builder.header("X-Report-Limit", String.valueOf(limit));
-        }
-        return builder.body(body);
+        ReportCache.Key key = reportCache.key("inventory", ReportDtos.ReportFormat.CSV, filter, limit);
+        return csvExport("inventory", key, limit, gzip, acceptEncoding, response,
+                os -> reportService.writeInventoryCsv(os, filter, limit));
     }
 
     @PreAuthorize("hasAnyRole('ADMIN','AUDITOR','MANAGER','IT_STAFF')")
     @PostMapping(value = "/maintenance/csv", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<StreamingResponseBody> maintenanceCsv(@RequestBody ReportDtos.MaintenanceFilter filter) {
+    public ResponseEntity<StreamingResponseBody> maintenanceCsv(@RequestBody ReportDtos.MaintenanceFilter filter,
+                                                                @RequestParam(defaultValue = "false") boolean gzip,
+                                                                @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                                HttpServletResponse response) {
         boolean unfiltered = isMaintenanceUnfiltered(filter);
         Integer limit = unfiltered ? DEFAULT_UNFILTERED_LIMIT : null;
+        ReportCache.Key key = reportCache.key("maintenance", ReportDtos.ReportFormat.CSV, filter, limit);
+        return csvExport("maintenance", key, limit, gzip, acceptEncoding, response,
+                os -> reportService.writeMaintenanceCsv(os, filter, limit));
+    }
 
-        long count = reportService.countMaintenanceRecords(filter);
-        boolean truncated = limit != null && count > limit;
-
-        String date = LocalDate.now().toString();
-        String filename = "maintenance_" + date + ".csv";
+    // gzip=true downloads a .csv.gz file; otherwise the CSV is sent with the best Content-Encoding the client
+    // accepts. Either way the cache holds plain CSV and compression happens while streaming it out.
+    private ResponseEntity<StreamingResponseBody> csvExport(String report, ReportCache.Key key, Integer limit, boolean gzipFile,
+                                                            String acceptEncoding, HttpServletResponse response,
+                                                            ReportCache.Generator generator) {
+        String filename = report + "_" + LocalDate.now() + (gzipFile ? ".csv.gz" : ".csv");
+        ReportCompression.Encoding encoding = gzipFile ? ReportCompression.Encoding.GZIP : reportCompression.negotiate(acceptEncoding);
 
-        MediaType csvType = new MediaType("text", "csv", StandardCharsets.UTF_8);
+        AtomicBoolean truncated = new AtomicBoolean();
         StreamingResponseBody body = outputStream -> {
-            reportService.writeMaintenanceCsv(outputStream, filter, limit);
+            try (OutputStream encoded = reportCompression.wrap(outputStream, encoding)) {
+                truncated.set(reportCache.serve(key, encoded, generator).truncated());
+            }
         };
 
         ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
-                .contentType(csvType);
-        if (truncated) {
-            builder.header("X-Report-Limited", "true");
-            builder.header("X-Report-Limit", String.valueOf(limit));
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzipFile) {
+            builder.contentType(new MediaType("application", "gzip"));
+        } else {
+            builder.contentType(new MediaType("text", "csv", StandardCharsets.UTF_8));
+            if (encoding != ReportCompression.Encoding.IDENTITY) builder.header(HttpHeaders.CONTENT_ENCODING, encoding.token());
         }
+        announceTruncationTrailer(builder, response, limit, truncated);
         return builder.body(body);
     }
 
     @PreAuthorize("hasAnyRole('ADMIN','AUDITOR','FINANCE','MANAGER','IT_STAFF')")
     @PostMapping(value = "/inventory/pdf", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<byte[]> inventoryPdf(@RequestBody ReportDtos.InventoryFilter filter) {
+    public ResponseEntity<StreamingResponseBody> inventoryPdf(@RequestBody ReportDtos.InventoryFilter filter, HttpServletResponse response) {
         boolean unfiltered = isInventoryUnfiltered(filter);
         Integer limit = unfiltered ? DEFAULT_UNFILTERED_LIMIT : null;
 
-        ReportService.ReportBytes result = reportService.inventoryPdfLimited(filter, limit);
-
         String date = LocalDate.now().toString();
         String filename = "inventory_" + date + ".pdf";
 
+        AtomicBoolean truncated = new AtomicBoolean();
+        ReportCache.Key key = reportCache.key("inventory", ReportDtos.ReportFormat.PDF, filter, limit);
+        StreamingResponseBody body = outputStream -> {
+            truncated.set(reportCache.serve(key, outputStream, os -> reportService.writeInventoryPdf(os, filter, limit)).truncated());
+        };
+
         ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
                 .contentType(MediaType.APPLICATION_PDF);
-        if (result.truncated()) {
-            builder.header("X-Report-Limited", "true");
-            builder.header("X-Report-Limit", String.valueOf(limit));
-        }
-        return builder.body(result.bytes());
+        announceTruncationTrailer(builder, response, limit, truncated);
+        return builder.body(body);
     }
 
     @PreAuthorize("hasAnyRole('ADMIN','AUDITOR','MANAGER','IT_STAFF')")
     @PostMapping(value = "/maintenance/pdf", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<byte[]> maintenancePdf(@RequestBody ReportDtos.MaintenanceFilter filter) {
+    public ResponseEntity<StreamingResponseBody> maintenancePdf(@RequestBody ReportDtos.MaintenanceFilter filter, HttpServletResponse response) {
         boolean unfiltered = isMaintenanceUnfiltered(filter);
         Integer limit = unfiltered ? DEFAULT_UNFILTERED_LIMIT : null;
 
-        ReportService.ReportBytes result = reportService.maintenancePdfLimited(filter, limit);
-
         String date = LocalDate.now().toString();
         String filename = "maintenance_" + date + ".pdf";
 
+        AtomicBoolean truncated = new AtomicBoolean();
+        ReportCache.Key key = reportCache.key("maintenance", ReportDtos.ReportFormat.PDF, filter, limit);
+        StreamingResponseBody body = outputStream -> {
+            truncated.set(reportCache.serve(key, outputStream, os -> reportService.writeMaintenancePdf(os, filter, limit)).truncated());
+        };
+
         ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
                 .contentType(MediaType.APPLICATION_PDF);
-        if (result.truncated()) {
-            builder.header("X-Report-Limited", "true");
-            builder.header("X-Report-Limit", String.valueOf(limit));
-        }
-        return builder.body(result.bytes());
+        announceTruncationTrailer(builder, response, limit, truncated);
+        return builder.body(body);
     }
 
     @PreAuthorize("hasAnyRole('ADMIN','AUDITOR','MANAGER','IT_STAFF')")
     @GetMapping(value = "/kpis", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<ReportDtos.KpiResponse> kpis() {
-        ReportDtos.KpiResponse r = reportService.computeKpis();
+        ReportDtos.KpiResponse r = kpiStore.snapshot();
         return ResponseEntity.ok(r);
     }
 
+    // Streamed exports only learn about truncation after the last row, so a limited export announces the
+    // limit up front and reports X-Report-Limited as an HTTP trailer once the body is complete. Browsers
+    // cannot read trailers; for them a truncated CSV or PDF ends with a note giving the limit.
+    private static void announceTruncationTrailer(ResponseEntity.BodyBuilder builder, HttpServletResponse response, Integer limit, AtomicBoolean truncated) {
+        if (limit == null) return;
+        builder.header("X-Report-Limit", String.valueOf(limit));
+        try {
+            response.setTrailerFields(() -> Map.of("X-Report-Limited", String.valueOf(truncated.get())));
+            builder.header(HttpHeaders.TRAILER, "X-Report-Limited");
+        } catch (IllegalStateException e) {
+            // HTTP/1.0 clients cannot receive trailers; they still get X-Report-Limit
+        }
+    }
+
     private static boolean isInventoryUnfiltered(ReportDtos.InventoryFilter f) {
         if (f == null) return true;
         return f.status() == null && f.vendorId() == null && f.departmentId() == null && f.purchasedFrom() == null && f.purchasedTo() == null;
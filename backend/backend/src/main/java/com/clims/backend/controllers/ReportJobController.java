@@ -0,0 +1,114 @@
+package com.clims.backend.controllers;
+
+import com.clims.backend.dto.ReportDtos;
+import com.clims.backend.models.entities.Report;
+import com.clims.backend.models.enums.ReportStatus;
+import com.clims.backend.security.CurrentUserService;
+import com.clims.backend.services.ReportJobService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/reports/jobs")
+@PreAuthorize("hasAnyRole('ADMIN','AUDITOR','FINANCE','MANAGER','IT_STAFF')")
+public class ReportJobController {
+    // Same role split as the synchronous endpoints: FINANCE may export inventory but not maintenance
+    private static final Set<String> MAINTENANCE_ROLES = Set.of("ROLE_ADMIN", "ROLE_AUDITOR", "ROLE_MANAGER", "ROLE_IT_STAFF");
+
+    private final ReportJobService reportJobService;
+    private final CurrentUserService currentUserService;
+    private final long maxWaitSeconds;
+
+    public ReportJobController(ReportJobService reportJobService,
+                               CurrentUserService currentUserService,
+                               @Value("${app.reports.jobs.max-wait-seconds:30}") long maxWaitSeconds) {
+        this.reportJobService = reportJobService;
+        this.currentUserService = currentUserService;
+        this.maxWaitSeconds = maxWaitSeconds;
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ReportDtos.ReportJobResponse> submit(@Validated @RequestBody ReportDtos.ReportJobRequest req) {
+        requireReadable(req.type().name());
+        Report job = reportJobService.submit(req, currentUserService.requireCurrentUser());
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/reports/jobs/" + job.getId()))
+                .body(toResponse(job));
+    }
+
+    // Long-poll: with waitSeconds > 0 the response is held (off the request thread) until the job finishes or the wait elapses
+    @GetMapping("/{id}")
+    public DeferredResult<ReportDtos.ReportJobResponse> status(@PathVariable Long id, @RequestParam(defaultValue = "0") long waitSeconds) {
+        Report job = reportJobService.get(id);
+        requireReadable(job.getType());
+
+        long wait = Math.min(Math.max(waitSeconds, 0), maxWaitSeconds);
+        if (wait == 0 || isFinished(job)) {
+            DeferredResult<ReportDtos.ReportJobResponse> result = new DeferredResult<>();
+            result.setResult(toResponse(job));
+            return result;
+        }
+        DeferredResult<ReportDtos.ReportJobResponse> result = new DeferredResult<>(wait * 1000);
+        // Whichever fires first wins; DeferredResult ignores the later setResult
+        result.onTimeout(() -> result.setResult(toResponse(reportJobService.get(id))));
+        reportJobService.whenFinished(id).thenAccept(finished -> result.setResult(toResponse(finished)));
+        return result;
+    }
+
+    @GetMapping("/{id}/download")
+    public ResponseEntity<Resource> download(@PathVariable Long id) {
+        Report job = reportJobService.get(id);
+        requireReadable(job.getType());
+        FileSystemResource file = new FileSystemResource(reportJobService.requireOutput(job));
+        MediaType type = "PDF".equals(job.getExportFormat())
+                ? MediaType.APPLICATION_PDF
+                : new MediaType("text", "csv", StandardCharsets.UTF_8);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + job.getName())
+                .contentType(type)
+                .body(file);
+    }
+
+    private static boolean isFinished(Report job) {
+        return job.getStatus() != ReportStatus.QUEUED && job.getStatus() != ReportStatus.RUNNING;
+    }
+
+    private static void requireReadable(String reportType) {
+        if (!ReportDtos.ReportType.MAINTENANCE.name().equals(reportType)) return;
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        boolean allowed = auth != null && auth.getAuthorities().stream().anyMatch(a -> MAINTENANCE_ROLES.contains(a.getAuthority()));
+        if (!allowed) throw new AccessDeniedException("Forbidden");
+    }
+
+    private static ReportDtos.ReportJobResponse toResponse(Report r) {
+        return new ReportDtos.ReportJobResponse(
+                r.getId(),
+                r.getName(),
+                r.getType(),
+                r.getExportFormat(),
+                r.getStatus(),
+                r.getProgress(),
+                r.getRowCount(),
+                r.getDurationMs(),
+                r.getErrorMessage(),
+                r.getCreatedAt(),
+                r.getCompletedAt(),
+                r.getStatus() == ReportStatus.COMPLETED ? "/api/reports/jobs/" + r.getId() + "/download" : null
+        );
+    }
+}
@@ -2,24 +2,38 @@ package com.clims.backend.controllers;
 
 import com.clims.backend.dto.UserDtos;
 import com.clims.backend.dto.PageResponse;
+import com.clims.backend.dto.CountMode;
+import com.clims.backend.dto.CursorPage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import com.clims.backend.models.entities.AppUser;
+import com.clims.backend.services.ListVersions;
 import com.clims.backend.services.UserService;
 import org.springframework.http.ResponseEntity;
 import java.util.Map;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
+    private static final KeysetCursor CURSOR = new KeysetCursor(Map.of(
+            "id", Long.class, "username", String.class, "role", com.clims.backend.security.Role.class));
+
     private final UserService userService;
+    private final ListVersions listVersions;
 
-    public UserController(UserService userService) { this.userService = userService; }
+    public UserController(UserService userService, ListVersions listVersions) {
+        this.userService = userService;
+        this.listVersions = listVersions;
+    }
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -43,17 +57,56 @@ public class UserController {
             @RequestParam(defaultValue = "id,desc") String sort,
             @RequestParam(required = false) com.clims.backend.security.Role role,
             @RequestParam(required = false) Long departmentId,
-            @RequestParam(required = false) String q
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String count,
+            ServletWebRequest request
     ) {
         String[] sortParts = sort.split(",");
         Sort s = sortParts.length == 2 && sortParts[1].equalsIgnoreCase("asc")
                 ? Sort.by(sortParts[0]).ascending() : Sort.by(sortParts[0]).descending();
         Pageable pageable = PageRequest.of(Math.max(page,0), Math.max(size,1), s);
-        Page<AppUser> result = userService.search(pageable, role, departmentId, q);
-        java.util.List<UserDtos.UserResponse> content = result.getContent().stream()
+        CountMode countMode = CountMode.parse(count, CountMode.EXACT);
+        if (ETags.notModified(request, ETags.ofVersion(listVersions.version(ListVersions.USERS), request))) return null;
+        if (countMode == CountMode.EXACT) {
+            Page<AppUser> result = userService.search(pageable, role, departmentId, q);
+            return PageResponse.of(result.map(u -> new UserDtos.UserResponse(u.getId(), u.getUsername(), u.getEmail(), u.getRole().name(), u.getDepartment() != null ? u.getDepartment().getName() : null)));
+        }
+        Slice<AppUser> result = userService.searchSlice(pageable, role, departmentId, q);
+        return PageResponse.of(result.map(u -> new UserDtos.UserResponse(u.getId(), u.getUsername(), u.getEmail(), u.getRole().name(), u.getDepartment() != null ? u.getDepartment().getName() : null)),
+                countMode, () -> userService.estimateCount(role, departmentId, q));
+    }
+
+    /**
+     * Cursor mode of {@link #list}, selected by the {@code after} parameter (empty for the first page). The
+     * total is only filled in with {@code count=exact} or {@code count=estimate}.
+     */
+    @GetMapping(params = "after")
+    @PreAuthorize("hasRole('ADMIN')")
+    public CursorPage<UserDtos.UserResponse> listByCursor(
+            @RequestParam(defaultValue = "") String after,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id,desc") String sort,
+            @RequestParam(required = false) com.clims.backend.security.Role role,
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String count,
+            ServletWebRequest request
+    ) {
+        Sort s = CURSOR.sort(sort);
+        int limit = Math.max(size, 1);
+        CountMode countMode = CountMode.parse(count, CountMode.NONE);
+        ScrollPosition position = CURSOR.position(after, s);
+        if (ETags.notModified(request, ETags.ofVersion(listVersions.version(ListVersions.USERS), request))) return null;
+        Window<AppUser> window = userService.scroll(position, limit, s, role, departmentId, q);
+        java.util.List<UserDtos.UserResponse> content = window.getContent().stream()
                 .map(u -> new UserDtos.UserResponse(u.getId(), u.getUsername(), u.getEmail(), u.getRole().name(), u.getDepartment() != null ? u.getDepartment().getName() : null))
                 .toList();
-        return new PageResponse<>(content, result.getTotalElements(), result.getTotalPages(), result.getNumber(), result.getSize());
+        Long total = switch (countMode) {
+            case EXACT -> userService.count(role, departmentId, q);
+            case ESTIMATE -> userService.estimateCount(role, departmentId, q);
+            case NONE -> null;
+        };
+        return new CursorPage<>(content, limit, CURSOR.next(window, s), total);
     }
 
     @PatchMapping("/{id}/role")
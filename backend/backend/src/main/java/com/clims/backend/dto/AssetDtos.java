@@ -5,6 +5,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
 import java.time.LocalDate;
+import java.util.List;
 
 public class AssetDtos {
     public record CreateAssetRequest(
@@ -44,4 +45,84 @@ public class AssetDtos {
             String vendor,
             String department
     ){}
+
+    /** A rejected row of a bulk import; {@code row} counts data rows from 1, not counting a CSV header. */
+    public record ImportRowError(
+            long row,
+            String error
+    ){}
+
+    /** Last line of a bulk import report. */
+    public record ImportSummary(
+            long imported,
+            long failed
+    ){}
+
+    public enum BulkOperation { ASSIGN, DISPOSE, STATUS, LOCATION }
+
+    /** Selects assets with the filters of {@code GET /api/assets}. */
+    public record BulkFilter(
+            AssetStatus status,
+            Long departmentId,
+            Long locationId,
+            Long vendorId,
+            String q
+    ){}
+
+    /**
+     * One operation over the assets in {@code ids} or those matching {@code filter}, never both. ASSIGN takes
+     * {@code userId} and optionally {@code locationId}, STATUS takes {@code status} and LOCATION {@code locationId}.
+     */
+    public record BulkRequest(
+            @NotNull BulkOperation operation,
+            List<Long> ids,
+            BulkFilter filter,
+            Long userId,
+            AssetStatus status,
+            Long locationId
+    ){}
+
+    public enum BulkResult { UPDATED, NOT_FOUND, REJECTED, FAILED }
+
+    /** What happened to one asset of a bulk operation; {@code error} is null when it was updated. */
+    public record BulkOutcome(
+            long id,
+            BulkResult result,
+            String error
+    ){}
+
+    public record BulkSummary(
+            long updated,
+            long failed,
+            List<BulkOutcome> outcomes
+    ){}
+
+    /**
+     * A sheet of QR labels for the assets in {@code ids}, in that order, or those matching {@code filter} by
+     * ascending id, never both. {@code columns} and {@code rows} give the label grid of each page.
+     */
+    public record LabelSheetRequest(
+            List<Long> ids,
+            BulkFilter filter,
+            Integer columns,
+            Integer rows
+    ){}
+
+    /** Assets matching one facet value; {@code value} is null for assets without one. */
+    public record FacetCount<T>(
+            T value,
+            long count
+    ){}
+
+    /**
+     * Per-value counts for each filter dimension of the asset list. Each dimension is counted under all the other
+     * filters but not its own, so its counts are what choosing another value would return. Values are listed
+     * most frequent first, and values without assets are left out.
+     */
+    public record AssetFacets(
+            List<FacetCount<AssetStatus>> status,
+            List<FacetCount<Long>> departmentId,
+            List<FacetCount<Long>> locationId,
+            List<FacetCount<Long>> vendorId
+    ){}
 }
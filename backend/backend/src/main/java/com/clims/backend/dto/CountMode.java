@@ -0,0 +1,22 @@
+package com.clims.backend.dto;
+
+import java.util.Locale;
+
+/** How a list endpoint reports the total number of matching rows ({@code count} request parameter). */
+public enum CountMode {
+    /** Run a {@code COUNT(*)} with the same filters. */
+    EXACT,
+    /** Serve the last count of the same filters, refreshed in the background; may lag recent writes. */
+    ESTIMATE,
+    /** Skip the count; the response carries no total. */
+    NONE;
+
+    public static CountMode parse(String value, CountMode defaultMode) {
+        if (value == null || value.isBlank()) return defaultMode;
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("count must be one of exact, estimate, none");
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.clims.backend.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated list. {@code next} is the opaque {@code after} token for the following
+ * page (null on the last one); {@code totalElements} is only filled in when the caller asked for a count.
+ */
+public record CursorPage<T>(
+        List<T> content,
+        int size,
+        String next,
+        Long totalElements
+) {}
@@ -1,11 +1,42 @@
 package com.clims.backend.dto;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
 import java.util.List;
+import java.util.function.LongSupplier;
 
+/**
+ * One page of an offset-paginated list. The totals are exact with {@code count=exact} (the default),
+ * approximate with {@code count=estimate} and null with {@code count=none}; {@code hasNext} is always exact.
+ */
 public record PageResponse<T>(
         List<T> content,
-        long totalElements,
-        int totalPages,
+        Long totalElements,
+        Integer totalPages,
         int page,
-        int size
-) {}
+        int size,
+        boolean hasNext
+) {
+    public PageResponse(List<T> content, long totalElements, int totalPages, int page, int size) {
+        this(content, totalElements, totalPages, page, size, page + 1 < totalPages);
+    }
+
+    public static <T> PageResponse<T> of(Page<T> page) {
+        return new PageResponse<>(page.getContent(), page.getTotalElements(), page.getTotalPages(), page.getNumber(), page.getSize());
+    }
+
+    /** A page read without a count: totals come from {@code estimate} for {@link CountMode#ESTIMATE}, else stay null. */
+    public static <T> PageResponse<T> of(Slice<T> slice, CountMode countMode, LongSupplier estimate) {
+        if (countMode != CountMode.ESTIMATE) {
+            return new PageResponse<>(slice.getContent(), null, null, slice.getNumber(), slice.getSize(), slice.hasNext());
+        }
+        long seen = (long) slice.getNumber() * slice.getSize() + slice.getNumberOfElements();
+        // The last page tells the total; otherwise the estimate is at least the rows known to exist
+        long total = !slice.hasNext() && (slice.hasContent() || slice.getNumber() == 0)
+                ? seen
+                : Math.max(estimate.getAsLong(), slice.hasNext() ? seen + 1 : seen);
+        int totalPages = (int) ((total + slice.getSize() - 1) / slice.getSize());
+        return new PageResponse<>(slice.getContent(), total, totalPages, slice.getNumber(), slice.getSize(), slice.hasNext());
+    }
+}
@@ -2,11 +2,15 @@ package com.clims.backend.dto;
 
 import com.clims.backend.models.enums.AssetStatus;
 import com.clims.backend.models.enums.MaintenanceStatus;
+import com.clims.backend.models.enums.ReportStatus;
+import jakarta.validation.constraints.NotNull;
 
+import java.time.Instant;
 import java.time.LocalDate;
 
 public class ReportDtos {
     public enum ReportFormat { CSV, PDF }
+    public enum ReportType { INVENTORY, MAINTENANCE }
 
     public record InventoryFilter(
             Long departmentId,
@@ -29,4 +33,27 @@ public class ReportDtos {
             java.util.Map<String, Long> assetsByStatus,
             long upcomingMaintenance
     ) {}
+
+    // Background export: the filter matching the type is used, the other is ignored
+    public record ReportJobRequest(
+            @NotNull ReportType type,
+            @NotNull ReportFormat format,
+            InventoryFilter inventory,
+            MaintenanceFilter maintenance
+    ) {}
+
+    public record ReportJobResponse(
+            Long id,
+            String name,
+            String type,
+            String format,
+            ReportStatus status,
+            Integer progress,
+            Long rowCount,
+            Long durationMs,
+            String error,
+            Instant createdAt,
+            Instant completedAt,
+            String downloadUrl
+    ) {}
 }
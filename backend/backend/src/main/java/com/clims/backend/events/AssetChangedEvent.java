@@ -0,0 +1,10 @@
+package com.clims.backend.events;
+
+import com.clims.backend.models.enums.AssetStatus;
+
+/**
+ * Published for every asset write. Listeners that keep derived state (report cache versions, counters, indexes)
+ * should consume it after commit so rolled-back writes are never observed. {@code previousStatus} is null for
+ * CREATE and {@code newStatus} is null for DELETE.
+ */
+public record AssetChangedEvent(Long assetId, String action, AssetStatus previousStatus, AssetStatus newStatus) { }
@@ -0,0 +1,9 @@
+package com.clims.backend.events;
+
+import java.util.List;
+
+/**
+ * Published once per committed chunk of a bulk import, in place of one {@link AssetChangedEvent} CREATE per asset.
+ * Every imported asset starts out {@code AVAILABLE}.
+ */
+public record AssetsImportedEvent(List<Long> assetIds) { }
@@ -0,0 +1,10 @@
+package com.clims.backend.events;
+
+import java.time.Instant;
+
+/**
+ * Published by {@code AuditLogService} for every audit entry; the row is written once the publishing transaction
+ * commits. {@code recordedAt} is when the entry was recorded, not when its row was written.
+ */
+public record AuditRecordedEvent(String entityName, Long entityId, String action, String details, Long userId,
+                                 Instant recordedAt) { }
@@ -0,0 +1,13 @@
+package com.clims.backend.events;
+
+import com.clims.backend.models.enums.MaintenanceStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Published by {@code MaintenanceService} for every maintenance write; {@code previousStatus} is null for CREATE.
+ * The asset status change a maintenance write causes is published separately as an {@link AssetChangedEvent}.
+ */
+public record MaintenanceChangedEvent(Long maintenanceId, Long assetId, String action,
+                                      MaintenanceStatus previousStatus, MaintenanceStatus newStatus,
+                                      LocalDate scheduledDate) { }
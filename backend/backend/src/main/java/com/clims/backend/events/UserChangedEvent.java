@@ -0,0 +1,7 @@
+package com.clims.backend.events;
+
+/**
+ * Published by {@code UserService} for every write to a user's name, role or department, which asset,
+ * maintenance and user lists all print. Password changes are not published.
+ */
+public record UserChangedEvent(Long userId, String action) { }
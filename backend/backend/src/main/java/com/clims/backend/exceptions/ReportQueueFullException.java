@@ -0,0 +1,5 @@
+package com.clims.backend.exceptions;
+
+public class ReportQueueFullException extends RuntimeException {
+    public ReportQueueFullException(String message) { super(message); }
+}
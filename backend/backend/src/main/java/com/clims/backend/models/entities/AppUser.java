@@ -11,6 +11,7 @@ import lombok.Setter;
 
 @Entity
 @Table(name = "users")
+@NamedEntityGraph(name = "AppUser.department", attributeNodes = @NamedAttributeNode("department"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -35,7 +36,7 @@ public class AppUser extends Auditable {
     @Column(nullable = false)
     private Role role;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "department_id")
     private Department department;
 }
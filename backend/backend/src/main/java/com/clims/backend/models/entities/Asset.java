@@ -13,6 +13,13 @@ import java.time.LocalDate;
 
 @Entity
 @Table(name = "assets")
+// Associations are lazy; load paths that map an asset to a response fetch them all in one statement
+@NamedEntityGraph(name = "Asset.detail", attributeNodes = {
+        @NamedAttributeNode("assignedUser"),
+        @NamedAttributeNode("location"),
+        @NamedAttributeNode("department"),
+        @NamedAttributeNode("vendor")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -47,18 +54,18 @@ public class Asset extends Auditable {
     @Column(nullable = false)
     private AssetStatus status = AssetStatus.AVAILABLE;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "assigned_user_id")
     private AppUser assignedUser;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "location_id")
     private Location location;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "department_id")
     private Department department;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "vendor_id")
     private Vendor vendor;
 }
@@ -26,7 +26,7 @@ public class AuditLog extends Auditable {
     private String action; // CREATE, UPDATE, DELETE, ASSIGN, DISPOSE
     private String details;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private AppUser user;
 }
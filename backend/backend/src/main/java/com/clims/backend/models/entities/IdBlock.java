@@ -0,0 +1,24 @@
+package com.clims.backend.models.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A named counter that nodes reserve blocks of numbers from. {@code nextValue} is the first number not yet
+ * handed to any node.
+ */
+@Entity
+@Table(name = "id_blocks")
+@Getter
+@Setter
+@NoArgsConstructor
+public class IdBlock {
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(nullable = false)
+    private long nextValue;
+}
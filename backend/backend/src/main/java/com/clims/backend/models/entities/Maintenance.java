@@ -13,6 +13,10 @@ import java.time.LocalDate;
 
 @Entity
 @Table(name = "maintenance")
+@NamedEntityGraph(name = "Maintenance.detail", attributeNodes = {
+        @NamedAttributeNode("asset"),
+        @NamedAttributeNode("reportedBy")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -21,11 +25,11 @@ public class Maintenance extends Auditable {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "asset_id")
     private Asset asset;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "reported_by_user_id")
     private AppUser reportedBy;
 
@@ -20,7 +20,7 @@ public class RefreshToken {
     @Column(unique = true, nullable = false)
     private String token;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private AppUser user;
 
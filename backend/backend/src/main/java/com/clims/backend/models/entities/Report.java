@@ -1,11 +1,14 @@
 package com.clims.backend.models.entities;
 
 import com.clims.backend.models.base.Auditable;
+import com.clims.backend.models.enums.ReportStatus;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.time.Instant;
+
 @Entity
 @Table(name = "reports")
 @Getter
@@ -21,11 +24,24 @@ public class Report extends Auditable {
     @Column(name = "report_type")
     private String type; // e.g., INVENTORY, MAINTENANCE, DEPRECIATION
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "generated_by")
     private AppUser generatedBy;
 
     private String filterJson;
     @Column(length = 50)
     private String exportFormat; // CSV/PDF
+
+    // Background job state for asynchronously generated exports
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private ReportStatus status;
+    private Integer progress; // percent, 0-100
+    private Long rowCount;
+    private Long durationMs;
+    @Column(length = 500)
+    private String filePath;
+    @Column(length = 1000)
+    private String errorMessage;
+    private Instant completedAt;
 }
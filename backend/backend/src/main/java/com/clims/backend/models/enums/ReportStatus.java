@@ -0,0 +1,9 @@
+package com.clims.backend.models.enums;
+
+public enum ReportStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    EXPIRED
+}
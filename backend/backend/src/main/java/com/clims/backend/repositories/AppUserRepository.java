@@ -1,12 +1,26 @@
 package com.clims.backend.repositories;
 
 import com.clims.backend.models.entities.AppUser;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
 import java.util.Optional;
 
-public interface AppUserRepository extends JpaRepository<AppUser, Long> {
+public interface AppUserRepository extends JpaRepository<AppUser, Long>, JpaSpecificationExecutor<AppUser> {
+    // Authentication only needs the user row; the department is lazy
     Optional<AppUser> findByUsername(String username);
+
+    @EntityGraph("AppUser.department")
+    Optional<AppUser> findWithDepartmentById(Long id);
+
+    // User list responses print the department name
+    @Override
+    @EntityGraph("AppUser.department")
+    Page<AppUser> findAll(Specification<AppUser> spec, Pageable pageable);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
 }
@@ -0,0 +1,9 @@
+package com.clims.backend.repositories;
+
+import com.clims.backend.models.enums.AssetStatus;
+
+/**
+ * Number of assets sharing one combination of status, department, location and vendor. The cells of a query
+ * add up to its matches, so every facet of it can be summed from them; the ids are null where unset.
+ */
+public record AssetFacetCell(AssetStatus status, Long departmentId, Long locationId, Long vendorId, long count) { }
@@ -2,6 +2,7 @@ package com.clims.backend.repositories;
 
 import com.clims.backend.models.entities.Asset;
 import com.clims.backend.models.enums.AssetStatus;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
@@ -9,12 +10,28 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
-public interface AssetRepository extends JpaRepository<Asset, Long>, JpaSpecificationExecutor<Asset> {
+public interface AssetRepository extends JpaRepository<Asset, Long>, JpaSpecificationExecutor<Asset>, AssetRepositoryCustom {
     Optional<Asset> findByAssetTag(String assetTag);
+
+    // Tag to id resolution for cached lookups by tag
+    @org.springframework.data.jpa.repository.Query("SELECT a.id FROM Asset a WHERE a.assetTag = :assetTag")
+    Optional<Long> findIdByAssetTag(String assetTag);
+
+    // For write paths that answer with the updated asset's response
+    @EntityGraph("Asset.detail")
+    Optional<Asset> findWithAssociationsById(Long id);
     List<Asset> findByStatus(AssetStatus status);
     List<Asset> findByWarrantyExpiryDateBefore(LocalDate date);
 
     // Return grouped counts by status: tuple (status, count)
     @org.springframework.data.jpa.repository.Query("SELECT a.status, COUNT(a) FROM Asset a GROUP BY a.status")
     java.util.List<Object[]> countByStatusGroup();
+
+    // (id, assetTag, serialNumber, make, model) for every asset; feeds the search index without loading entities
+    @org.springframework.data.jpa.repository.Query("SELECT a.id, a.assetTag, a.serialNumber, a.make, a.model FROM Asset a")
+    java.util.stream.Stream<Object[]> streamSearchFields();
+
+    // The same fields for the given assets only
+    @org.springframework.data.jpa.repository.Query("SELECT a.id, a.assetTag, a.serialNumber, a.make, a.model FROM Asset a WHERE a.id IN :ids")
+    List<Object[]> findSearchFieldsByIdIn(java.util.Collection<Long> ids);
 }
@@ -0,0 +1,36 @@
+package com.clims.backend.repositories;
+
+import com.clims.backend.dto.AssetDtos;
+import com.clims.backend.models.entities.Asset;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface AssetRepositoryCustom {
+    // Cursor-backed stream for exports; limit may be null for no limit
+    Stream<Asset> streamAll(Specification<Asset> spec, Sort sort, Integer limit);
+
+    // API responses read with one joined query, without loading assets or their associations
+    Page<AssetDtos.AssetResponse> findResponses(Specification<Asset> spec, Pageable pageable);
+
+    // The same page without a count query
+    Slice<AssetDtos.AssetResponse> findResponseSlice(Specification<Asset> spec, Pageable pageable);
+
+    Window<AssetDtos.AssetResponse> scrollResponses(Specification<Asset> spec, Sort sort, int limit, KeysetScrollPosition position);
+
+    Optional<AssetDtos.AssetResponse> findResponseById(Long id);
+
+    // Matching assets counted per status, department, location and vendor combination, in one grouped query
+    List<AssetFacetCell> findFacetCells(Specification<Asset> spec);
+
+    // Ids of the matching assets, for bulk operations given a filter instead of ids
+    List<Long> findIds(Specification<Asset> spec, int limit);
+}
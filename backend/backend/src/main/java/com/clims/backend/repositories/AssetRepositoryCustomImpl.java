@@ -0,0 +1,99 @@
+package com.clims.backend.repositories;
+
+import com.clims.backend.dto.AssetDtos;
+import com.clims.backend.models.entities.Asset;
+import com.clims.backend.models.enums.AssetStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public class AssetRepositoryCustomImpl implements AssetRepositoryCustom {
+    private final EntityManager em;
+    private final int fetchSize;
+
+    public AssetRepositoryCustomImpl(EntityManager em, @Value("${app.reports.fetch-size:500}") int fetchSize) {
+        this.em = em;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public Stream<Asset> streamAll(Specification<Asset> spec, Sort sort, Integer limit) {
+        return ReportStreams.stream(em, Asset.class, spec, sort, limit, fetchSize);
+    }
+
+    @Override
+    public Page<AssetDtos.AssetResponse> findResponses(Specification<Asset> spec, Pageable pageable) {
+        return ResponseQueries.page(em, Asset.class, spec, pageable, AssetRepositoryCustomImpl::columns, AssetRepositoryCustomImpl::toResponse);
+    }
+
+    @Override
+    public Slice<AssetDtos.AssetResponse> findResponseSlice(Specification<Asset> spec, Pageable pageable) {
+        return ResponseQueries.slice(em, Asset.class, spec, pageable, AssetRepositoryCustomImpl::columns, AssetRepositoryCustomImpl::toResponse);
+    }
+
+    @Override
+    public Window<AssetDtos.AssetResponse> scrollResponses(Specification<Asset> spec, Sort sort, int limit, KeysetScrollPosition position) {
+        return ResponseQueries.scroll(em, Asset.class, spec, sort, limit, position, AssetRepositoryCustomImpl::columns, AssetRepositoryCustomImpl::toResponse);
+    }
+
+    @Override
+    public Optional<AssetDtos.AssetResponse> findResponseById(Long id) {
+        Specification<Asset> byId = (root, cq, cb) -> cb.equal(root.get("id"), id);
+        return findResponses(byId, Pageable.unpaged()).stream().findFirst();
+    }
+
+    @Override
+    public List<AssetFacetCell> findFacetCells(Specification<Asset> spec) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<AssetFacetCell> cq = cb.createQuery(AssetFacetCell.class);
+        Root<Asset> a = cq.from(Asset.class);
+        // The foreign key columns themselves; reading the id of a many-to-one does not join its table
+        List<Expression<?>> dimensions = List.of(a.get("status"), a.get("department").get("id"),
+                a.get("location").get("id"), a.get("vendor").get("id"));
+        List<Selection<?>> columns = new ArrayList<>(dimensions);
+        columns.add(cb.count(a));
+        cq.select(cb.construct(AssetFacetCell.class, columns.toArray(Selection[]::new)));
+        Predicate predicate = spec != null ? spec.toPredicate(a, cq, cb) : null;
+        if (predicate != null) cq.where(predicate);
+        cq.groupBy(dimensions);
+        return em.createQuery(cq).getResultList();
+    }
+
+    @Override
+    public List<Long> findIds(Specification<Asset> spec, int limit) {
+        return ResponseQueries.ids(em, Asset.class, spec, limit);
+    }
+
+    // Same order as the AssetResponse components
+    private static List<Selection<?>> columns(Root<Asset> a) {
+        return List.of(
+                a.get("id"), a.get("assetTag"), a.get("serialNumber"), a.get("make"), a.get("model"), a.get("status"),
+                a.join("assignedUser", JoinType.LEFT).get("username"),
+                a.join("location", JoinType.LEFT).get("name"),
+                a.join("vendor", JoinType.LEFT).get("name"),
+                a.join("department", JoinType.LEFT).get("name"));
+    }
+
+    private static AssetDtos.AssetResponse toResponse(Object[] r) {
+        return new AssetDtos.AssetResponse((Long) r[0], (String) r[1], (String) r[2], (String) r[3], (String) r[4],
+                (AssetStatus) r[5], (String) r[6], (String) r[7], (String) r[8], (String) r[9]);
+    }
+}
@@ -1,9 +1,12 @@
 package com.clims.backend.repositories;
 
 import com.clims.backend.models.entities.AuditLog;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.List;
 
 public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
+	// Audit view prints the acting user's name
+	@EntityGraph(attributePaths = "user")
 	List<AuditLog> findByEntityNameAndEntityIdOrderByCreatedAtDesc(String entityName, Long entityId);
 }
@@ -0,0 +1,9 @@
+package com.clims.backend.repositories;
+
+import java.time.Instant;
+
+/**
+ * Change marker for a set of rows, read with one aggregate query: inserting, updating or deleting any of them
+ * changes the row count or the latest {@code updatedAt}. {@code lastModified} is null for an empty set.
+ */
+public record CollectionVersion(long count, Instant lastModified) { }
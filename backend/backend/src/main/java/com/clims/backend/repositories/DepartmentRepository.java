@@ -2,9 +2,13 @@ package com.clims.backend.repositories;
 
 import com.clims.backend.models.entities.Department;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.Optional;
 
 public interface DepartmentRepository extends JpaRepository<Department, Long> {
     Optional<Department> findByName(String name);
+
+    @Query("SELECT new com.clims.backend.repositories.CollectionVersion(COUNT(d), MAX(d.updatedAt)) FROM Department d")
+    CollectionVersion findVersion();
 }
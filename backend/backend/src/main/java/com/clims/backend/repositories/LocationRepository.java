@@ -2,5 +2,9 @@ package com.clims.backend.repositories;
 
 import com.clims.backend.models.entities.Location;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
-public interface LocationRepository extends JpaRepository<Location, Long> { }
+public interface LocationRepository extends JpaRepository<Location, Long> {
+    @Query("SELECT new com.clims.backend.repositories.CollectionVersion(COUNT(l), MAX(l.updatedAt)) FROM Location l")
+    CollectionVersion findVersion();
+}
@@ -2,14 +2,20 @@ package com.clims.backend.repositories;
 
 import com.clims.backend.models.entities.Maintenance;
 import com.clims.backend.models.enums.MaintenanceStatus;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
 import java.util.List;
+import java.util.Optional;
 
-public interface MaintenanceRepository extends JpaRepository<Maintenance, Long>, JpaSpecificationExecutor<Maintenance> {
+public interface MaintenanceRepository extends JpaRepository<Maintenance, Long>, JpaSpecificationExecutor<Maintenance>, MaintenanceRepositoryCustom {
     List<Maintenance> findByStatus(MaintenanceStatus status);
 
+    // For write paths that answer with the updated record's response
+    @EntityGraph("Maintenance.detail")
+    Optional<Maintenance> findWithAssociationsById(Long id);
+
     @org.springframework.data.jpa.repository.Query("SELECT COUNT(m) FROM Maintenance m WHERE m.scheduledDate >= :from AND m.status <> com.clims.backend.models.enums.MaintenanceStatus.COMPLETED")
     long countUpcomingFrom(@org.springframework.data.repository.query.Param("from") java.time.LocalDate from);
 }
@@ -0,0 +1,29 @@
+package com.clims.backend.repositories;
+
+import com.clims.backend.dto.MaintenanceDtos;
+import com.clims.backend.models.entities.Maintenance;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface MaintenanceRepositoryCustom {
+    // Cursor-backed stream for exports; limit may be null for no limit
+    Stream<Maintenance> streamAll(Specification<Maintenance> spec, Sort sort, Integer limit);
+
+    // API responses read with one joined query, without loading records or their associations
+    Page<MaintenanceDtos.MaintenanceResponse> findResponses(Specification<Maintenance> spec, Pageable pageable);
+
+    // The same page without a count query
+    Slice<MaintenanceDtos.MaintenanceResponse> findResponseSlice(Specification<Maintenance> spec, Pageable pageable);
+
+    Window<MaintenanceDtos.MaintenanceResponse> scrollResponses(Specification<Maintenance> spec, Sort sort, int limit, KeysetScrollPosition position);
+
+    Optional<MaintenanceDtos.MaintenanceResponse> findResponseById(Long id);
+}
@@ -0,0 +1,72 @@
+package com.clims.backend.repositories;
+
+import com.clims.backend.dto.MaintenanceDtos;
+import com.clims.backend.models.entities.Maintenance;
+import com.clims.backend.models.enums.MaintenanceStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public class MaintenanceRepositoryCustomImpl implements MaintenanceRepositoryCustom {
+    private final EntityManager em;
+    private final int fetchSize;
+
+    public MaintenanceRepositoryCustomImpl(EntityManager em, @Value("${app.reports.fetch-size:500}") int fetchSize) {
+        this.em = em;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public Stream<Maintenance> streamAll(Specification<Maintenance> spec, Sort sort, Integer limit) {
+        return ReportStreams.stream(em, Maintenance.class, spec, sort, limit, fetchSize);
+    }
+
+    @Override
+    public Page<MaintenanceDtos.MaintenanceResponse> findResponses(Specification<Maintenance> spec, Pageable pageable) {
+        return ResponseQueries.page(em, Maintenance.class, spec, pageable, MaintenanceRepositoryCustomImpl::columns, MaintenanceRepositoryCustomImpl::toResponse);
+    }
+
+    @Override
+    public Slice<MaintenanceDtos.MaintenanceResponse> findResponseSlice(Specification<Maintenance> spec, Pageable pageable) {
+        return ResponseQueries.slice(em, Maintenance.class, spec, pageable, MaintenanceRepositoryCustomImpl::columns, MaintenanceRepositoryCustomImpl::toResponse);
+    }
+
+    @Override
+    public Window<MaintenanceDtos.MaintenanceResponse> scrollResponses(Specification<Maintenance> spec, Sort sort, int limit, KeysetScrollPosition position) {
+        return ResponseQueries.scroll(em, Maintenance.class, spec, sort, limit, position, MaintenanceRepositoryCustomImpl::columns, MaintenanceRepositoryCustomImpl::toResponse);
+    }
+
+    @Override
+    public Optional<MaintenanceDtos.MaintenanceResponse> findResponseById(Long id) {
+        Specification<Maintenance> byId = (root, cq, cb) -> cb.equal(root.get("id"), id);
+        return findResponses(byId, Pageable.unpaged()).stream().findFirst();
+    }
+
+    // Same order as the MaintenanceResponse components
+    private static List<Selection<?>> columns(Root<Maintenance> m) {
+        var asset = m.join("asset");
+        return List.of(
+                m.get("id"), asset.get("id"), asset.get("assetTag"), m.get("description"), m.get("status"),
+                m.get("scheduledDate"), m.get("completedDate"),
+                m.join("reportedBy", JoinType.LEFT).get("username"));
+    }
+
+    private static MaintenanceDtos.MaintenanceResponse toResponse(Object[] r) {
+        return new MaintenanceDtos.MaintenanceResponse((Long) r[0], (Long) r[1], (String) r[2], (String) r[3],
+                (MaintenanceStatus) r[4], (LocalDate) r[5], (LocalDate) r[6], (String) r[7]);
+    }
+}
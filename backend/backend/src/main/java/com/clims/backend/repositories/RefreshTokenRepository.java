@@ -2,10 +2,13 @@ package com.clims.backend.repositories;
 
 import com.clims.backend.models.entities.RefreshToken;
 import com.clims.backend.models.entities.AppUser;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.Optional;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+    // Refresh issues a token for the owner, so the user comes with the token row
+    @EntityGraph(attributePaths = "user")
     Optional<RefreshToken> findByToken(String token);
     void deleteByUser(AppUser user);
 }
@@ -1,6 +1,40 @@
 package com.clims.backend.repositories;
 
 import com.clims.backend.models.entities.Report;
+import com.clims.backend.models.enums.ReportStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface ReportRepository extends JpaRepository<Report, Long> { }
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface ReportRepository extends JpaRepository<Report, Long> {
+    List<Report> findByStatusAndCompletedAtBefore(ReportStatus status, Instant completedBefore);
+
+    // Called from inside the read-only export transaction, so progress commits on its own
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("UPDATE Report r SET r.progress = :progress WHERE r.id = :id")
+    int updateProgress(@Param("id") Long id, @Param("progress") int progress);
+
+    // Jobs whose worker is gone can never finish; marks those with the given statuses created before the cutoff
+    @Modifying
+    @Transactional
+    @Query("UPDATE Report r SET r.status = com.clims.backend.models.enums.ReportStatus.FAILED, r.errorMessage = :message, "
+            + "r.completedAt = :now, r.updatedAt = :now WHERE r.status IN :statuses AND r.createdAt < :createdBefore")
+    int failUnfinished(@Param("statuses") Collection<ReportStatus> statuses, @Param("createdBefore") Instant createdBefore,
+                       @Param("message") String message, @Param("now") Instant now);
+
+    // Marks jobs that were dropped from the queue before a worker picked them up
+    @Modifying
+    @Transactional
+    @Query("UPDATE Report r SET r.status = com.clims.backend.models.enums.ReportStatus.FAILED, r.errorMessage = :message, "
+            + "r.completedAt = :now, r.updatedAt = :now WHERE r.id IN :ids "
+            + "AND r.status = com.clims.backend.models.enums.ReportStatus.QUEUED")
+    int failQueued(@Param("ids") Collection<Long> ids, @Param("message") String message, @Param("now") Instant now);
+}
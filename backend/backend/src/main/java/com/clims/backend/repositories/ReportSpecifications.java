@@ -0,0 +1,68 @@
+package com.clims.backend.repositories;
+
+import com.clims.backend.dto.ReportDtos;
+import com.clims.backend.models.entities.Asset;
+import com.clims.backend.models.entities.Maintenance;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Fetch;
+import jakarta.persistence.criteria.JoinType;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Translates report filters into JPA predicates so filtering, ordering and limits run in the database
+ * instead of over a fully hydrated {@code findAll()} result.
+ */
+public final class ReportSpecifications {
+
+    private ReportSpecifications() { }
+
+    public static Specification<Asset> inventory(ReportDtos.InventoryFilter f) {
+        Specification<Asset> spec = fetchInventoryGraph();
+        if (f == null) return spec;
+        if (f.status() != null) spec = spec.and((root, cq, cb) -> cb.equal(root.get("status"), f.status()));
+        if (f.vendorId() != null) spec = spec.and((root, cq, cb) -> cb.equal(root.get("vendor").get("id"), f.vendorId()));
+        // Department is resolved through the assigned user, matching the CSV/PDF "Department" column
+        if (f.departmentId() != null) spec = spec.and((root, cq, cb) -> cb.equal(root.join("assignedUser").join("department").get("id"), f.departmentId()));
+        if (f.purchasedFrom() != null) spec = spec.and((root, cq, cb) -> cb.greaterThanOrEqualTo(root.get("purchaseDate"), f.purchasedFrom()));
+        if (f.purchasedTo() != null) spec = spec.and((root, cq, cb) -> cb.lessThanOrEqualTo(root.get("purchaseDate"), f.purchasedTo()));
+        return spec;
+    }
+
+    public static Specification<Maintenance> maintenance(ReportDtos.MaintenanceFilter f) {
+        Specification<Maintenance> spec = fetchMaintenanceGraph();
+        if (f == null) return spec;
+        if (f.assetId() != null) spec = spec.and((root, cq, cb) -> cb.equal(root.get("asset").get("id"), f.assetId()));
+        if (f.status() != null) spec = spec.and((root, cq, cb) -> cb.equal(root.get("status"), f.status()));
+        if (f.from() != null) spec = spec.and((root, cq, cb) -> cb.greaterThanOrEqualTo(root.get("scheduledDate"), f.from()));
+        if (f.to() != null) spec = spec.and((root, cq, cb) -> cb.lessThanOrEqualTo(root.get("scheduledDate"), f.to()));
+        return spec;
+    }
+
+    // Fetch the columns every report row prints in the same statement rather than one select per association
+    private static Specification<Asset> fetchInventoryGraph() {
+        return (root, cq, cb) -> {
+            if (!isCountQuery(cq)) {
+                Fetch<Asset, ?> user = root.fetch("assignedUser", JoinType.LEFT);
+                user.fetch("department", JoinType.LEFT);
+                root.fetch("location", JoinType.LEFT);
+                root.fetch("vendor", JoinType.LEFT);
+            }
+            return null;
+        };
+    }
+
+    private static Specification<Maintenance> fetchMaintenanceGraph() {
+        return (root, cq, cb) -> {
+            if (!isCountQuery(cq)) {
+                root.fetch("asset", JoinType.LEFT);
+                root.fetch("reportedBy", JoinType.LEFT);
+            }
+            return null;
+        };
+    }
+
+    private static boolean isCountQuery(CriteriaQuery<?> cq) {
+        Class<?> type = cq.getResultType();
+        return type == Long.class || type == long.class;
+    }
+}
@@ -0,0 +1,78 @@
+package com.clims.backend.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Shared implementation for the report streaming fragments. Rows are read through a JDBC cursor with a
+ * fixed fetch size, loaded read-only (no dirty-checking snapshots) and the persistence context is cleared
+ * after every fetch window, so memory stays flat regardless of how many rows the export walks. The clear
+ * happens when the row after a window is asked for, so the consumer has finished with every row it detaches.
+ * Streams must be consumed and closed inside a transaction.
+ */
+final class ReportStreams {
+
+    private ReportStreams() { }
+
+    static <T> Stream<T> stream(EntityManager em, Class<T> type, Specification<T> spec, Sort sort, Integer limit, int fetchSize) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<T> cq = cb.createQuery(type);
+        Root<T> root = cq.from(type);
+        Predicate predicate = spec != null ? spec.toPredicate(root, cq, cb) : null;
+        if (predicate != null) cq.where(predicate);
+        if (sort != null && sort.isSorted()) cq.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        TypedQuery<T> query = em.createQuery(cq);
+        query.setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize);
+        query.setHint(HibernateHints.HINT_READ_ONLY, true);
+        if (limit != null) query.setMaxResults(limit);
+
+        Stream<T> rows = query.getResultStream();
+        return StreamSupport.stream(new Clearing<>(rows.spliterator(), em, fetchSize), false).onClose(rows::close);
+    }
+
+    // Sequential only: a row has been processed downstream once tryAdvance for it returns
+    private static final class Clearing<T> implements Spliterator<T> {
+        private final Spliterator<T> rows;
+        private final EntityManager em;
+        private final int fetchSize;
+        private long handedOut;
+
+        Clearing(Spliterator<T> rows, EntityManager em, int fetchSize) {
+            this.rows = rows;
+            this.em = em;
+            this.fetchSize = fetchSize;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (handedOut > 0 && handedOut % fetchSize == 0) em.clear();
+            return rows.tryAdvance(row -> {
+                handedOut++;
+                action.accept(row);
+            });
+        }
+
+        @Override
+        public Spliterator<T> trySplit() { return null; }
+
+        @Override
+        public long estimateSize() { return rows.estimateSize(); }
+
+        @Override
+        public int characteristics() { return rows.characteristics() & (ORDERED | NONNULL); }
+    }
+}
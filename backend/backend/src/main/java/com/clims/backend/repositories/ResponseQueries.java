@@ -0,0 +1,151 @@
+package com.clims.backend.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Shared implementation for the list-response projections. Each fragment names the columns its response
+ * record needs (joining the associations it prints) and how to build the record from a row; rows are read as
+ * plain tuples by a single query, so no entity or association is ever loaded. Counting is the caller's choice:
+ * {@link #page} only counts when the page does not already tell the total, {@link #scroll} never does.
+ */
+final class ResponseQueries {
+
+    private ResponseQueries() { }
+
+    static <T, R> Page<R> page(EntityManager em, Class<T> type, Specification<T> spec, Pageable pageable,
+                               Function<Root<T>, List<Selection<?>>> columns, Function<Object[], R> mapper) {
+        TypedQuery<Object[]> query = select(em, type, spec, pageable.getSort(), columns);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        List<R> content = query.getResultList().stream().map(mapper).toList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(em, type, spec));
+    }
+
+    /** The page without any count: one extra row is read to tell whether another page follows. */
+    static <T, R> Slice<R> slice(EntityManager em, Class<T> type, Specification<T> spec, Pageable pageable,
+                                 Function<Root<T>, List<Selection<?>>> columns, Function<Object[], R> mapper) {
+        TypedQuery<Object[]> query = select(em, type, spec, pageable.getSort(), columns);
+        if (pageable.isUnpaged()) return new SliceImpl<>(query.getResultList().stream().map(mapper).toList());
+        List<Object[]> rows = query.setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<R> content = (hasNext ? rows.subList(0, pageable.getPageSize()) : rows).stream().map(mapper).toList();
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    static <T> long count(EntityManager em, Class<T> type, Specification<T> spec) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+        Root<T> root = cq.from(type);
+        cq.select(cb.count(root));
+        where(cq, root, cb, spec, null);
+        return em.createQuery(cq).getSingleResult();
+    }
+
+    // Ids of the matching rows in ascending order, at most limit of them
+    static <T> List<Long> ids(EntityManager em, Class<T> type, Specification<T> spec, int limit) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Long> cq = cb.createQuery(Long.class);
+        Root<T> root = cq.from(type);
+        cq.select(root.get("id"));
+        where(cq, root, cb, spec, null);
+        cq.orderBy(cb.asc(root.get("id")));
+        return em.createQuery(cq).setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * Up to {@code limit} rows after {@code position} in {@code sort} order, ties broken by ascending id. Keys
+     * and ordering match Spring Data's own keyset scrolling, so positions from either are interchangeable.
+     */
+    static <T, R> Window<R> scroll(EntityManager em, Class<T> type, Specification<T> spec, Sort sort, int limit,
+                                   KeysetScrollPosition position,
+                                   Function<Root<T>, List<Selection<?>>> columns, Function<Object[], R> mapper) {
+        List<Sort.Order> orders = new ArrayList<>(sort.toList());
+        if (orders.stream().noneMatch(o -> o.getProperty().equals("id"))) orders.add(Sort.Order.asc("id"));
+
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Object[]> cq = cb.createQuery(Object[].class);
+        Root<T> root = cq.from(type);
+        List<Selection<?>> selections = new ArrayList<>(columns.apply(root));
+        int keysFrom = selections.size();
+        orders.forEach(o -> selections.add(root.get(o.getProperty())));
+        cq.multiselect(selections);
+        where(cq, root, cb, spec, position.isInitial() ? null : seekPast(root, cb, orders, position.getKeys()));
+        cq.orderBy(QueryUtils.toOrders(Sort.by(orders), root, cb));
+
+        List<Object[]> rows = em.createQuery(cq).setMaxResults(limit + 1).getResultList();
+        boolean hasNext = rows.size() > limit;
+        List<Object[]> window = hasNext ? rows.subList(0, limit) : rows;
+        List<R> content = window.stream().map(mapper).toList();
+        return Window.from(content, i -> {
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (int k = 0; k < orders.size(); k++) keys.put(orders.get(k).getProperty(), window.get(i)[keysFrom + k]);
+            return ScrollPosition.forward(keys);
+        }, hasNext);
+    }
+
+    private static <T> TypedQuery<Object[]> select(EntityManager em, Class<T> type, Specification<T> spec, Sort sort,
+                                                   Function<Root<T>, List<Selection<?>>> columns) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Object[]> cq = cb.createQuery(Object[].class);
+        Root<T> root = cq.from(type);
+        cq.multiselect(columns.apply(root));
+        where(cq, root, cb, spec, null);
+        if (sort.isSorted()) cq.orderBy(QueryUtils.toOrders(sort, root, cb));
+        return em.createQuery(cq);
+    }
+
+    private static <T> void where(CriteriaQuery<?> cq, Root<T> root, CriteriaBuilder cb, Specification<T> spec, Predicate extra) {
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate predicate = spec != null ? spec.toPredicate(root, cq, cb) : null;
+        if (predicate != null) predicates.add(predicate);
+        if (extra != null) predicates.add(extra);
+        if (!predicates.isEmpty()) cq.where(predicates.toArray(Predicate[]::new));
+    }
+
+    // (k1 > v1) OR (k1 = v1 AND k2 > v2) OR ..., with > flipped to < for descending keys
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate seekPast(Root<?> root, CriteriaBuilder cb, List<Sort.Order> orders, Map<String, Object> keys) {
+        List<Predicate> alternatives = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            List<Predicate> conjunction = new ArrayList<>();
+            for (int j = 0; j < i; j++) {
+                String property = orders.get(j).getProperty();
+                conjunction.add(cb.equal(root.get(property), keys.get(property)));
+            }
+            Sort.Order order = orders.get(i);
+            Expression<Comparable> path = root.get(order.getProperty());
+            Comparable value = (Comparable) keys.get(order.getProperty());
+            conjunction.add(order.isAscending() ? cb.greaterThan(path, value) : cb.lessThan(path, value));
+            alternatives.add(cb.and(conjunction.toArray(Predicate[]::new)));
+        }
+        return cb.or(alternatives.toArray(Predicate[]::new));
+    }
+}
@@ -2,5 +2,9 @@ package com.clims.backend.repositories;
 
 import com.clims.backend.models.entities.Vendor;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
-public interface VendorRepository extends JpaRepository<Vendor, Long> { }
+public interface VendorRepository extends JpaRepository<Vendor, Long> {
+    @Query("SELECT new com.clims.backend.repositories.CollectionVersion(COUNT(v), MAX(v.updatedAt)) FROM Vendor v")
+    CollectionVersion findVersion();
+}
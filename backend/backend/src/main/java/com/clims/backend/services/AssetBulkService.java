@@ -0,0 +1,233 @@
+package com.clims.backend.services;
+
+import com.clims.backend.dto.AssetDtos;
+import com.clims.backend.events.AssetChangedEvent;
+import com.clims.backend.exceptions.NotFoundException;
+import com.clims.backend.models.entities.AppUser;
+import com.clims.backend.models.entities.Location;
+import com.clims.backend.models.enums.AssetStatus;
+import com.clims.backend.repositories.AppUserRepository;
+import com.clims.backend.repositories.LocationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assign, dispose, status and location changes over many assets at once. The assets are processed in chunks of
+ * {@code app.assets.bulk.chunk-size}, each in its own transaction of three statements: the chunk's rows are read
+ * and locked, the ones the operation applies to are changed with a single {@code UPDATE ... WHERE id IN}, and
+ * their audit rows are inserted as one JDBC batch. Every asset gets an outcome; a chunk that cannot be written
+ * fails all of its assets, and chunks written before it stay committed.
+ */
+@Service
+public class AssetBulkService {
+    private static final Logger log = LoggerFactory.getLogger(AssetBulkService.class);
+
+    private static final String INSERT_AUDIT = "INSERT INTO audit_logs (entity_name, entity_id, action, details, user_id, "
+            + "created_at, updated_at) VALUES ('Asset', ?, ?, ?, ?, ?, ?)";
+
+    // What the operation writes, resolved once per request
+    private record Change(AssetDtos.BulkOperation operation, String setClause, MapSqlParameterSource params,
+                          String auditAction, String auditDetails) { }
+
+    private final JdbcTemplate jdbc;
+    private final NamedParameterJdbcTemplate namedJdbc;
+    private final TransactionTemplate transactions;
+    private final AppUserRepository userRepository;
+    private final LocationRepository locationRepository;
+    private final AssetService assetService;
+    private final ApplicationEventPublisher events;
+    private final MeterRegistry meterRegistry;
+    private final int chunkSize;
+    private final int maxAssets;
+
+    public AssetBulkService(JdbcTemplate jdbc,
+                            PlatformTransactionManager transactionManager,
+                            AppUserRepository userRepository,
+                            LocationRepository locationRepository,
+                            AssetService assetService,
+                            ApplicationEventPublisher events,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.assets.bulk.chunk-size:500}") int chunkSize,
+                            @Value("${app.assets.bulk.max-assets:10000}") int maxAssets) {
+        this.jdbc = jdbc;
+        this.namedJdbc = new NamedParameterJdbcTemplate(jdbc);
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.userRepository = userRepository;
+        this.locationRepository = locationRepository;
+        this.assetService = assetService;
+        this.events = events;
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = chunkSize;
+        this.maxAssets = maxAssets;
+    }
+
+    /** Applies {@code req} to its assets; the outcomes follow the order of {@code ids}, or ascending id for a filter. */
+    public AssetDtos.BulkSummary apply(AssetDtos.BulkRequest req, AppUser actor) {
+        if (req.operation() == null) throw new IllegalArgumentException("operation is required");
+        List<Long> ids = resolveIds(req);
+        Change change = change(req);
+
+        Map<Long, AssetDtos.BulkOutcome> outcomes = new LinkedHashMap<>();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            applyChunk(chunk, change, actor, outcomes);
+        }
+
+        List<AssetDtos.BulkOutcome> ordered = ids.stream().map(outcomes::get).toList();
+        Map<AssetDtos.BulkResult, Long> byResult = new EnumMap<>(AssetDtos.BulkResult.class);
+        ordered.forEach(o -> byResult.merge(o.result(), 1L, Long::sum));
+        byResult.forEach((result, n) -> meterRegistry.counter("assets.bulk.assets",
+                "operation", req.operation().name(), "result", result.name()).increment(n));
+        long updated = byResult.getOrDefault(AssetDtos.BulkResult.UPDATED, 0L);
+        return new AssetDtos.BulkSummary(updated, ordered.size() - updated, ordered);
+    }
+
+    private List<Long> resolveIds(AssetDtos.BulkRequest req) {
+        boolean byIds = req.ids() != null;
+        if (byIds == (req.filter() != null)) throw new IllegalArgumentException("Give either ids or filter");
+        List<Long> ids;
+        if (byIds) {
+            if (req.ids().contains(null)) throw new IllegalArgumentException("ids must not contain null");
+            ids = new ArrayList<>(new LinkedHashSet<>(req.ids()));
+        } else {
+            AssetDtos.BulkFilter f = req.filter();
+            // One more than allowed, to tell a filter that matches too much from one that matches exactly the maximum
+            ids = assetService.findIds(f.status(), f.departmentId(), f.locationId(), f.vendorId(), f.q(), maxAssets + 1);
+        }
+        if (ids.size() > maxAssets) {
+            throw new IllegalArgumentException("A bulk operation covers at most " + maxAssets + " assets");
+        }
+        return ids;
+    }
+
+    private Change change(AssetDtos.BulkRequest req) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        return switch (req.operation()) {
+            case ASSIGN -> {
+                if (req.userId() == null) throw new IllegalArgumentException("userId is required to assign");
+                AppUser assignee = userRepository.findById(req.userId()).orElseThrow(() -> new NotFoundException("User not found"));
+                params.addValue("userId", assignee.getId());
+                String set = "status = 'ASSIGNED', assigned_user_id = :userId";
+                if (req.locationId() != null) {
+                    params.addValue("locationId", location(req.locationId()).getId());
+                    set += ", location_id = :locationId";
+                }
+                yield new Change(req.operation(), set, params, "ASSIGN", "Assigned to user " + assignee.getUsername());
+            }
+            case DISPOSE -> new Change(req.operation(), "status = 'RETIRED', assigned_user_id = NULL", params,
+                    "DISPOSE", "Asset retired");
+            case STATUS -> {
+                if (req.status() == null) throw new IllegalArgumentException("status is required to change the status");
+                params.addValue("status", req.status().name());
+                yield new Change(req.operation(), "status = :status", params, "UPDATE", "Status changed to " + req.status());
+            }
+            case LOCATION -> {
+                if (req.locationId() == null) throw new IllegalArgumentException("locationId is required to move assets");
+                Location location = location(req.locationId());
+                params.addValue("locationId", location.getId());
+                yield new Change(req.operation(), "location_id = :locationId", params, "UPDATE", "Moved to " + location.getName());
+            }
+        };
+    }
+
+    private Location location(Long id) {
+        return locationRepository.findById(id).orElseThrow(() -> new NotFoundException("Location not found"));
+    }
+
+    private void applyChunk(List<Long> chunk, Change change, AppUser actor, Map<Long, AssetDtos.BulkOutcome> outcomes) {
+        Map<Long, AssetDtos.BulkOutcome> chunkOutcomes = new HashMap<>();
+        try {
+            transactions.executeWithoutResult(status -> write(chunk, change, actor, chunkOutcomes));
+        } catch (RuntimeException ex) {
+            // The chunk rolled back whatever failed it; earlier chunks stay committed and keep their outcomes
+            log.warn("Bulk {} of {} assets from id {} failed", change.operation(), chunk.size(), chunk.get(0), ex);
+            chunkOutcomes.clear();
+            for (Long id : chunk) {
+                chunkOutcomes.put(id, new AssetDtos.BulkOutcome(id, AssetDtos.BulkResult.FAILED, "Not updated: writing the assets around it failed"));
+            }
+        }
+        outcomes.putAll(chunkOutcomes);
+    }
+
+    private void write(List<Long> chunk, Change change, AppUser actor, Map<Long, AssetDtos.BulkOutcome> outcomes) {
+        // Locked so that the statuses checked here are the ones the update overwrites
+        Map<Long, AssetStatus> current = new HashMap<>();
+        namedJdbc.query("SELECT id, status FROM assets WHERE id IN (:ids) FOR UPDATE", Map.of("ids", chunk),
+                rs -> { current.put(rs.getLong(1), AssetStatus.valueOf(rs.getString(2))); });
+
+        List<Long> eligible = new ArrayList<>(chunk.size());
+        for (Long id : chunk) {
+            AssetStatus status = current.get(id);
+            if (status == null) {
+                outcomes.put(id, new AssetDtos.BulkOutcome(id, AssetDtos.BulkResult.NOT_FOUND, "Asset not found"));
+            } else if (change.operation() == AssetDtos.BulkOperation.ASSIGN && status != AssetStatus.AVAILABLE) {
+                outcomes.put(id, new AssetDtos.BulkOutcome(id, AssetDtos.BulkResult.REJECTED, "Only AVAILABLE assets can be assigned"));
+            } else {
+                eligible.add(id);
+            }
+        }
+        if (eligible.isEmpty()) return;
+
+        // Bound the way Hibernate binds Instant columns
+        OffsetDateTime now = OffsetDateTime.ofInstant(Instant.now(), ZoneOffset.UTC);
+        MapSqlParameterSource params = new MapSqlParameterSource(change.params().getValues())
+                .addValue("ids", eligible)
+                .addValue("now", now);
+        namedJdbc.update("UPDATE assets SET " + change.setClause() + ", updated_at = :now WHERE id IN (:ids)", params);
+
+        Long actorId = actor != null ? actor.getId() : null;
+        jdbc.batchUpdate(INSERT_AUDIT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, eligible.get(i));
+                ps.setString(2, change.auditAction());
+                ps.setString(3, change.auditDetails());
+                ps.setObject(4, actorId, Types.BIGINT);
+                ps.setObject(5, now);
+                ps.setObject(6, now);
+            }
+
+            @Override
+            public int getBatchSize() { return eligible.size(); }
+        });
+
+        for (Long id : eligible) {
+            AssetStatus previous = current.get(id);
+            events.publishEvent(new AssetChangedEvent(id, change.operation().name(), previous, newStatus(change, previous)));
+            outcomes.put(id, new AssetDtos.BulkOutcome(id, AssetDtos.BulkResult.UPDATED, null));
+        }
+    }
+
+    private static AssetStatus newStatus(Change change, AssetStatus previous) {
+        return switch (change.operation()) {
+            case ASSIGN -> AssetStatus.ASSIGNED;
+            case DISPOSE -> AssetStatus.RETIRED;
+            case STATUS -> AssetStatus.valueOf((String) change.params().getValue("status"));
+            case LOCATION -> previous;
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package com.clims.backend.services;
+
+import com.clims.backend.dto.AssetDtos;
+import com.clims.backend.events.AssetChangedEvent;
+import com.clims.backend.repositories.AssetRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Read-through cache of asset responses by id and by asset tag, for the detail, tag lookup and existence-check
+ * reads that service desks repeat for the same assets. It holds the immutable response records rather than
+ * entities, so nothing managed or lazily loaded outlives its transaction.
+ * <p>
+ * Every committed asset write, including the status changes made by maintenance, evicts the asset. Entries
+ * expire after {@code app.assets.cache.ttl-seconds}, which bounds how long a renamed user, location, vendor or
+ * department can still be printed. Responses are only ever loaded through the id cache, whose loads are
+ * atomic with eviction, so an eviction cannot be overtaken by a load that read the old row.
+ */
+@Component
+public class AssetCache {
+    private final AssetRepository assetRepository;
+    private final boolean enabled;
+    private final Cache<Long, AssetDtos.AssetResponse> byId;
+    // Tags never change once generated, so a mapping only goes away with its asset
+    private final Cache<String, Long> idsByTag;
+
+    @Autowired
+    public AssetCache(AssetRepository assetRepository,
+                      MeterRegistry meterRegistry,
+                      @Value("${app.assets.cache.enabled:true}") boolean enabled,
+                      @Value("${app.assets.cache.max-size:10000}") long maxSize,
+                      @Value("${app.assets.cache.ttl-seconds:300}") long ttlSeconds) {
+        this(assetRepository, meterRegistry, enabled, maxSize, Duration.ofSeconds(ttlSeconds), Ticker.systemTicker());
+    }
+
+    AssetCache(AssetRepository assetRepository, MeterRegistry meterRegistry, boolean enabled, long maxSize, Duration ttl, Ticker ticker) {
+        this.assetRepository = assetRepository;
+        this.enabled = enabled;
+        // Publishes cache.gets{result=hit|miss}, cache.evictions, cache.size, ... tagged with the cache name
+        this.byId = CaffeineCacheMetrics.monitor(meterRegistry,
+                Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).ticker(ticker).recordStats().build(),
+                "assets.byId");
+        this.idsByTag = CaffeineCacheMetrics.monitor(meterRegistry,
+                Caffeine.newBuilder().maximumSize(maxSize).ticker(ticker).recordStats().build(),
+                "assets.idsByTag");
+    }
+
+    public Optional<AssetDtos.AssetResponse> findById(Long id) {
+        if (!enabled) return assetRepository.findResponseById(id);
+        // A missing asset is not cached: the loader's null leaves no entry
+        return Optional.ofNullable(byId.get(id, key -> assetRepository.findResponseById(key).orElse(null)));
+    }
+
+    public Optional<AssetDtos.AssetResponse> findByTag(String assetTag) {
+        if (!enabled) return assetRepository.findIdByAssetTag(assetTag).flatMap(assetRepository::findResponseById);
+        Long id = idsByTag.get(assetTag, tag -> assetRepository.findIdByAssetTag(tag).orElse(null));
+        if (id == null) return Optional.empty();
+        Optional<AssetDtos.AssetResponse> found = findById(id);
+        if (found.isEmpty()) idsByTag.invalidate(assetTag);
+        return found;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetChanged(AssetChangedEvent event) {
+        byId.invalidate(event.assetId());
+        if ("DELETE".equals(event.action())) idsByTag.asMap().values().removeIf(event.assetId()::equals);
+    }
+}
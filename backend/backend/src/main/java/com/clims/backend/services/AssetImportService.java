@@ -0,0 +1,361 @@
+package com.clims.backend.services;
+
+import com.clims.backend.dto.AssetDtos;
+import com.clims.backend.events.AssetsImportedEvent;
+import com.clims.backend.models.entities.AppUser;
+import com.clims.backend.models.enums.AssetStatus;
+import com.clims.backend.repositories.DepartmentRepository;
+import com.clims.backend.repositories.LocationRepository;
+import com.clims.backend.repositories.VendorRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Bulk asset creation for onboarding a site. The upload is parsed as it arrives and cut into chunks of
+ * {@code app.assets.import.chunk-size} rows. Each chunk is validated in parallel and then written in its own
+ * transaction: one JDBC batch of asset inserts and one of audit rows, bypassing the per-entity JPA path.
+ * Location, vendor and department names are resolved from maps loaded once per import.
+ * <p>
+ * Rejected rows are reported as they are found, one NDJSON line each, followed by a summary line. A chunk that
+ * cannot be written rejects all of its rows; chunks written before it stay committed.
+ */
+@Service
+public class AssetImportService {
+    private static final Logger log = LoggerFactory.getLogger(AssetImportService.class);
+
+    public enum Format { CSV, NDJSON }
+
+    static final List<String> COLUMNS = List.of("serialNumber", "make", "model", "purchaseDate", "warrantyExpiryDate",
+            "location", "vendor", "department");
+    private static final List<String> REQUIRED = List.of("serialNumber", "make", "model", "purchaseDate");
+    // Width of the varchar columns; a longer value would fail the whole batch
+    private static final int MAX_LENGTH = 255;
+
+    private static final String INSERT_ASSET = "INSERT INTO assets (asset_tag, serial_number, make, model, purchase_date, "
+            + "warranty_expiry_date, status, location_id, vendor_id, department_id, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_AUDIT = "INSERT INTO audit_logs (entity_name, entity_id, action, details, user_id, "
+            + "created_at, updated_at) VALUES ('Asset', ?, 'CREATE', 'Asset imported', ?, ?, ?)";
+
+    // A parsed row, or the reason it could not be parsed
+    private record Row(long number, Map<String, String> fields, String error) { }
+
+    private record NewAsset(long row, String serialNumber, String make, String model, LocalDate purchaseDate,
+                            LocalDate warrantyExpiryDate, Long locationId, Long vendorId, Long departmentId) { }
+
+    // Exactly one of the two is set
+    private record Checked(NewAsset asset, AssetDtos.ImportRowError error) {
+        static Checked rejected(long row, String error) { return new Checked(null, new AssetDtos.ImportRowError(row, error)); }
+    }
+
+    // Lower-cased names to ids
+    private record References(Map<String, Long> locations, Map<String, Long> vendors, Map<String, Long> departments) { }
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactions;
+    private final LocationRepository locationRepository;
+    private final VendorRepository vendorRepository;
+    private final DepartmentRepository departmentRepository;
+    private final AssetTagAllocator tagAllocator;
+    private final ApplicationEventPublisher events;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final Counter importedRows;
+    private final Counter failedRows;
+
+    public AssetImportService(JdbcTemplate jdbc,
+                              PlatformTransactionManager transactionManager,
+                              LocationRepository locationRepository,
+                              VendorRepository vendorRepository,
+                              DepartmentRepository departmentRepository,
+                              AssetTagAllocator tagAllocator,
+                              ApplicationEventPublisher events,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.assets.import.chunk-size:1000}") int chunkSize) {
+        this.jdbc = jdbc;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.locationRepository = locationRepository;
+        this.vendorRepository = vendorRepository;
+        this.departmentRepository = departmentRepository;
+        this.tagAllocator = tagAllocator;
+        this.events = events;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.importedRows = rowCounter(meterRegistry, "imported");
+        this.failedRows = rowCounter(meterRegistry, "failed");
+    }
+
+    private static Counter rowCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("assets.import.rows")
+                .description("Rows of bulk asset imports, by whether they were imported or rejected")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /** An upload whose header, if any, has been accepted; its rows are read by {@link #importAssets}. */
+    public static final class Upload implements AutoCloseable {
+        private final Stream<Row> rows;
+
+        private Upload(Stream<Row> rows) { this.rows = rows; }
+
+        @Override
+        public void close() { rows.close(); }
+    }
+
+    /** Starts reading {@code in}; a CSV header with unknown or missing columns is an {@link IllegalArgumentException}. */
+    public Upload open(InputStream in, Format format) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        return new Upload(format == Format.CSV ? csvRows(reader) : ndjsonRows(reader));
+    }
+
+    /** Imports every valid row of {@code upload} and writes the NDJSON report to {@code report}. */
+    public AssetDtos.ImportSummary importAssets(Upload upload, AppUser actor, OutputStream report) throws IOException {
+        References references = loadReferences();
+        long imported = 0;
+        long failed = 0;
+        try {
+            List<Row> chunk = new ArrayList<>(chunkSize);
+            for (Iterator<Row> it = upload.rows.iterator(); it.hasNext(); ) {
+                chunk.add(it.next());
+                if (chunk.size() == chunkSize || !it.hasNext()) {
+                    int written = importChunk(chunk, references, actor, report);
+                    imported += written;
+                    failed += chunk.size() - written;
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        importedRows.increment(imported);
+        failedRows.increment(failed);
+        AssetDtos.ImportSummary summary = new AssetDtos.ImportSummary(imported, failed);
+        writeLine(report, summary);
+        report.flush();
+        return summary;
+    }
+
+    private References loadReferences() {
+        Map<String, Long> locations = new HashMap<>();
+        locationRepository.findAll().forEach(l -> locations.putIfAbsent(key(l.getName()), l.getId()));
+        Map<String, Long> vendors = new HashMap<>();
+        vendorRepository.findAll().forEach(v -> vendors.putIfAbsent(key(v.getName()), v.getId()));
+        Map<String, Long> departments = new HashMap<>();
+        departmentRepository.findAll().forEach(d -> departments.putIfAbsent(key(d.getName()), d.getId()));
+        return new References(locations, vendors, departments);
+    }
+
+    private static String key(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Stream<Row> csvRows(BufferedReader reader) throws IOException {
+        CSVParser parser = CSVFormat.DEFAULT.builder()
+                .setHeader()
+                .setSkipHeaderRecord(true)
+                .setIgnoreSurroundingSpaces(true)
+                .setIgnoreEmptyLines(true)
+                .build()
+                .parse(reader);
+        List<String> header = parser.getHeaderNames();
+        for (String column : header) {
+            if (!COLUMNS.contains(column)) throw new IllegalArgumentException("Unknown column '" + column + "'; columns are " + COLUMNS);
+        }
+        for (String column : REQUIRED) {
+            if (!header.contains(column)) throw new IllegalArgumentException("Missing column '" + column + "'");
+        }
+        AtomicLong number = new AtomicLong();
+        return parser.stream().onClose(() -> close(parser)).map(record -> csvRow(number.incrementAndGet(), record));
+    }
+
+    private static Row csvRow(long number, CSVRecord record) {
+        if (!record.isConsistent()) return new Row(number, null, "Expected " + record.getParser().getHeaderNames().size() + " columns");
+        return new Row(number, record.toMap(), null);
+    }
+
+    private static void close(CSVParser parser) {
+        try {
+            parser.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private Stream<Row> ndjsonRows(BufferedReader reader) {
+        AtomicLong number = new AtomicLong();
+        return reader.lines().filter(line -> !line.isBlank()).map(line -> ndjsonRow(number.incrementAndGet(), line));
+    }
+
+    private Row ndjsonRow(long number, String line) {
+        Map<String, Object> object;
+        try {
+            object = objectMapper.readValue(line, new TypeReference<LinkedHashMap<String, Object>>() { });
+        } catch (JsonProcessingException ex) {
+            return new Row(number, null, "Not a JSON object");
+        }
+        if (object == null) return new Row(number, null, "Not a JSON object");
+        Map<String, String> fields = new HashMap<>();
+        for (Map.Entry<String, Object> field : object.entrySet()) {
+            if (!COLUMNS.contains(field.getKey())) return new Row(number, null, "Unknown field '" + field.getKey() + "'");
+            if (field.getValue() != null) fields.put(field.getKey(), field.getValue().toString());
+        }
+        return new Row(number, fields, null);
+    }
+
+    // Returns the number of rows written; every other row of the chunk has been reported
+    private int importChunk(List<Row> chunk, References references, AppUser actor, OutputStream report) throws IOException {
+        List<Checked> checked = chunk.parallelStream().map(row -> check(row, references)).toList();
+        List<NewAsset> assets = new ArrayList<>(checked.size());
+        for (Checked result : checked) {
+            if (result.asset() != null) assets.add(result.asset());
+            else writeLine(report, result.error());
+        }
+        if (!assets.isEmpty()) {
+            try {
+                transactions.executeWithoutResult(status -> insert(assets, actor));
+            } catch (RuntimeException ex) {
+                // Whatever stopped the chunk, from the database, the tag allocator or a short key list, it was
+                // rolled back as a whole; the rest of the upload goes on and the report still ends with its summary
+                log.warn("Bulk import chunk of {} rows from row {} failed", assets.size(), assets.get(0).row(), ex);
+                for (NewAsset asset : assets) {
+                    writeLine(report, new AssetDtos.ImportRowError(asset.row(), "Not imported: writing the rows around it failed"));
+                }
+                assets.clear();
+            }
+        }
+        report.flush();
+        return assets.size();
+    }
+
+    private static Checked check(Row row, References references) {
+        if (row.error() != null) return Checked.rejected(row.number(), row.error());
+        Map<String, String> fields = row.fields();
+        for (String column : REQUIRED) {
+            if (blank(fields.get(column))) return Checked.rejected(row.number(), column + " is required");
+        }
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            if (field.getValue() != null && field.getValue().length() > MAX_LENGTH) {
+                return Checked.rejected(row.number(), field.getKey() + " is longer than " + MAX_LENGTH + " characters");
+            }
+        }
+        LocalDate purchaseDate;
+        LocalDate warrantyExpiryDate;
+        try {
+            purchaseDate = LocalDate.parse(fields.get("purchaseDate").trim());
+            warrantyExpiryDate = blank(fields.get("warrantyExpiryDate")) ? null : LocalDate.parse(fields.get("warrantyExpiryDate").trim());
+        } catch (DateTimeParseException ex) {
+            return Checked.rejected(row.number(), "Dates must look like 2025-03-10");
+        }
+        for (Map.Entry<String, Map<String, Long>> reference : List.of(Map.entry("location", references.locations()),
+                Map.entry("vendor", references.vendors()), Map.entry("department", references.departments()))) {
+            String name = fields.get(reference.getKey());
+            if (!blank(name) && !reference.getValue().containsKey(key(name))) {
+                return Checked.rejected(row.number(), "Unknown " + reference.getKey() + " '" + name.trim() + "'");
+            }
+        }
+        return new Checked(new NewAsset(row.number(), fields.get("serialNumber").trim(), fields.get("make").trim(), fields.get("model").trim(),
+                purchaseDate, warrantyExpiryDate, id(fields.get("location"), references.locations()),
+                id(fields.get("vendor"), references.vendors()), id(fields.get("department"), references.departments())), null);
+    }
+
+    private static Long id(String name, Map<String, Long> ids) {
+        return blank(name) ? null : ids.get(key(name));
+    }
+
+    private static boolean blank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private void insert(List<NewAsset> assets, AppUser actor) {
+        List<String> tags = tagAllocator.next(assets.size());
+        // Bound the way Hibernate binds Instant columns
+        OffsetDateTime now = OffsetDateTime.ofInstant(Instant.now(), ZoneOffset.UTC);
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        jdbc.batchUpdate(con -> con.prepareStatement(INSERT_ASSET, new String[] {"id"}), new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                NewAsset a = assets.get(i);
+                ps.setString(1, tags.get(i));
+                ps.setString(2, a.serialNumber());
+                ps.setString(3, a.make());
+                ps.setString(4, a.model());
+                ps.setObject(5, a.purchaseDate());
+                ps.setObject(6, a.warrantyExpiryDate(), Types.DATE);
+                ps.setString(7, AssetStatus.AVAILABLE.name());
+                ps.setObject(8, a.locationId(), Types.BIGINT);
+                ps.setObject(9, a.vendorId(), Types.BIGINT);
+                ps.setObject(10, a.departmentId(), Types.BIGINT);
+                ps.setObject(11, now);
+                ps.setObject(12, now);
+            }
+
+            @Override
+            public int getBatchSize() { return assets.size(); }
+        }, keys);
+        // MySQL names the key column GENERATED_KEY whatever was asked for, so take the only value of each row
+        List<Long> ids = keys.getKeyList().stream().map(k -> ((Number) k.values().iterator().next()).longValue()).toList();
+        if (ids.size() != assets.size()) throw new IllegalStateException("Expected " + assets.size() + " generated ids, got " + ids.size());
+
+        Long actorId = actor != null ? actor.getId() : null;
+        jdbc.batchUpdate(INSERT_AUDIT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setLong(1, ids.get(i));
+                ps.setObject(2, actorId, Types.BIGINT);
+                ps.setObject(3, now);
+                ps.setObject(4, now);
+            }
+
+            @Override
+            public int getBatchSize() { return ids.size(); }
+        });
+        events.publishEvent(new AssetsImportedEvent(ids));
+    }
+
+    private void writeLine(OutputStream report, Object line) throws IOException {
+        report.write(objectMapper.writeValueAsBytes(line));
+        report.write('\n');
+    }
+}
@@ -0,0 +1,239 @@
+package com.clims.backend.services;
+
+import com.clims.backend.dto.AssetDtos;
+import com.clims.backend.exceptions.NotFoundException;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import jakarta.annotation.PreDestroy;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Sheets of QR labels, one asset per label with its tag printed under the code. Codes are drawn as vector
+ * rectangles straight from the QR matrix, so a label is a few hundred bytes and prints sharp at any size. The
+ * matrices of a batch of pages are encoded in parallel on a pool of {@code app.assets.labels.parallelism}
+ * threads while the previous batch is drawn, and each page's content stream is closed as soon as the page is
+ * full, so only two batches of matrices are ever held and page content beyond the PDF memory budget spills to a
+ * scratch file as for report exports.
+ */
+@Service
+public class AssetLabelService {
+    public static final int DEFAULT_COLUMNS = 3;
+    public static final int DEFAULT_ROWS = 8;
+
+    private static final PDRectangle PAGE = PDRectangle.LETTER;
+    private static final float MARGIN = 36;
+    private static final float PADDING = 2;
+    private static final float FONT_SIZE = 8;
+    private static final float TEXT_HEIGHT = 12;
+    // Half an inch: smaller codes stop scanning reliably from printed labels
+    private static final float MIN_CODE_SIDE = 36;
+    private static final int PAGES_PER_BATCH = 8;
+    private static final int LOOKUP_CHUNK = 1000;
+    // The standard quiet zone of four modules, so neighbouring labels and the tag text never touch a code
+    private static final Map<EncodeHintType, Object> HINTS = Map.of(EncodeHintType.MARGIN, 4);
+
+    /** The tags to print, in order, and the label grid of each page. */
+    public record LabelSheet(List<String> tags, int columns, int rows) { }
+
+    private final NamedParameterJdbcTemplate namedJdbc;
+    private final AssetService assetService;
+    private final ForkJoinPool encoders;
+    private final int maxLabels;
+    private final long pdfMaxMainMemoryBytes;
+    private final String pdfTempDir;
+
+    public AssetLabelService(JdbcTemplate jdbc,
+                             AssetService assetService,
+                             @Value("${app.assets.labels.max-labels:10000}") int maxLabels,
+                             @Value("${app.assets.labels.parallelism:0}") int parallelism,
+                             @Value("${app.reports.pdf.max-main-memory-bytes:8388608}") long pdfMaxMainMemoryBytes,
+                             @Value("${app.reports.pdf.temp-dir:}") String pdfTempDir) {
+        this.namedJdbc = new NamedParameterJdbcTemplate(jdbc);
+        this.assetService = assetService;
+        this.encoders = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.maxLabels = maxLabels;
+        this.pdfMaxMainMemoryBytes = pdfMaxMainMemoryBytes;
+        this.pdfTempDir = pdfTempDir;
+    }
+
+    /**
+     * Resolves the tags and checks the grid, so that a bad request fails before any of the PDF is written.
+     * Unknown ids are a {@link NotFoundException}, everything else invalid an {@link IllegalArgumentException}.
+     */
+    public LabelSheet prepare(AssetDtos.LabelSheetRequest req) {
+        int columns = req.columns() != null ? req.columns() : DEFAULT_COLUMNS;
+        int rows = req.rows() != null ? req.rows() : DEFAULT_ROWS;
+        if (columns < 1 || rows < 1) throw new IllegalArgumentException("columns and rows must be positive");
+        if (codeSide(columns, rows) < MIN_CODE_SIDE) {
+            throw new IllegalArgumentException("A " + columns + " x " + rows + " grid leaves labels too small to scan");
+        }
+        return new LabelSheet(tags(req), columns, rows);
+    }
+
+    private List<String> tags(AssetDtos.LabelSheetRequest req) {
+        boolean byIds = req.ids() != null;
+        if (byIds == (req.filter() != null)) throw new IllegalArgumentException("Give either ids or filter");
+        List<Long> ids;
+        if (byIds) {
+            if (req.ids().contains(null)) throw new IllegalArgumentException("ids must not contain null");
+            ids = new ArrayList<>(new LinkedHashSet<>(req.ids()));
+        } else {
+            AssetDtos.BulkFilter f = req.filter();
+            // One more than allowed, to tell a filter that matches too much from one that matches exactly the maximum
+            ids = assetService.findIds(f.status(), f.departmentId(), f.locationId(), f.vendorId(), f.q(), maxLabels + 1);
+        }
+        if (ids.size() > maxLabels) {
+            throw new IllegalArgumentException("A label sheet covers at most " + maxLabels + " assets");
+        }
+
+        Map<Long, String> tagById = new HashMap<>(ids.size() * 2);
+        for (int from = 0; from < ids.size(); from += LOOKUP_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + LOOKUP_CHUNK, ids.size()));
+            namedJdbc.query("SELECT id, asset_tag FROM assets WHERE id IN (:ids)", Map.of("ids", chunk),
+                    rs -> { tagById.put(rs.getLong(1), rs.getString(2)); });
+        }
+        List<String> tags = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            String tag = tagById.get(id);
+            if (tag == null) throw new NotFoundException("Asset not found: " + id);
+            tags.add(tag);
+        }
+        return tags;
+    }
+
+    /** Writes {@code sheet} to {@code os} as a PDF of as many pages as its labels need. */
+    public void write(LabelSheet sheet, OutputStream os) {
+        List<String> tags = sheet.tags();
+        int perPage = sheet.columns() * sheet.rows();
+        int batchSize = perPage * PAGES_PER_BATCH;
+        try (PDDocument doc = newPdfDocument()) {
+            PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+            ForkJoinTask<List<BitMatrix>> next = encode(tags, 0, batchSize);
+            for (int from = 0; from < tags.size(); from += batchSize) {
+                List<BitMatrix> matrices = next.join();
+                // The following batch is encoded while this one is drawn
+                next = from + batchSize < tags.size() ? encode(tags, from + batchSize, batchSize) : null;
+                for (int page = 0; page < matrices.size(); page += perPage) {
+                    drawPage(doc, font, sheet, tags, from + page, matrices.subList(page, Math.min(page + perPage, matrices.size())));
+                }
+            }
+            if (tags.isEmpty()) doc.addPage(new PDPage(PAGE));
+            // Uncompressed xref avoids buffering every object for object-stream packing during save
+            doc.save(os, CompressParameters.NO_COMPRESSION);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed generating label sheet", e);
+        }
+    }
+
+    private ForkJoinTask<List<BitMatrix>> encode(List<String> tags, int from, int count) {
+        List<String> batch = tags.subList(from, Math.min(from + count, tags.size()));
+        return encoders.submit(() -> batch.parallelStream().map(AssetLabelService::matrix).toList());
+    }
+
+    // One bit per module, quiet zone included
+    static BitMatrix matrix(String assetTag) {
+        try {
+            return new QRCodeWriter().encode(assetTag, BarcodeFormat.QR_CODE, 0, 0, HINTS);
+        } catch (WriterException e) {
+            throw new IllegalStateException("Failed to encode QR for " + assetTag, e);
+        }
+    }
+
+    private void drawPage(PDDocument doc, PDType1Font font, LabelSheet sheet, List<String> tags, int first,
+                          List<BitMatrix> matrices) throws IOException {
+        PDPage page = new PDPage(PAGE);
+        doc.addPage(page);
+        float cellWidth = (PAGE.getWidth() - 2 * MARGIN) / sheet.columns();
+        float cellHeight = (PAGE.getHeight() - 2 * MARGIN) / sheet.rows();
+        float side = codeSide(sheet.columns(), sheet.rows());
+        try (PDPageContentStream cs = new PDPageContentStream(doc, page)) {
+            for (int i = 0; i < matrices.size(); i++) {
+                float left = MARGIN + (i % sheet.columns()) * cellWidth;
+                float top = PAGE.getHeight() - MARGIN - (i / sheet.columns()) * cellHeight;
+                float codeLeft = left + (cellWidth - side) / 2;
+                float codeTop = top - PADDING;
+                drawCode(cs, matrices.get(i), codeLeft, codeTop, side);
+
+                String text = printable(tags.get(first + i));
+                float textWidth = font.getStringWidth(text) / 1000 * FONT_SIZE;
+                cs.beginText();
+                cs.setFont(font, FONT_SIZE);
+                cs.newLineAtOffset(left + (cellWidth - textWidth) / 2, codeTop - side - TEXT_HEIGHT + 3);
+                cs.showText(text);
+                cs.endText();
+            }
+        }
+    }
+
+    // Each horizontal run of dark modules is one rectangle, all filled at once
+    private static void drawCode(PDPageContentStream cs, BitMatrix m, float left, float top, float side) throws IOException {
+        float module = side / m.getWidth();
+        for (int y = 0; y < m.getHeight(); y++) {
+            int x = 0;
+            while (x < m.getWidth()) {
+                if (!m.get(x, y)) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < m.getWidth() && m.get(x, y)) x++;
+                cs.addRect(left + start * module, top - (y + 1) * module, (x - start) * module, module);
+            }
+        }
+        cs.fill();
+    }
+
+    private static float codeSide(int columns, int rows) {
+        float cellWidth = (PAGE.getWidth() - 2 * MARGIN) / columns;
+        float cellHeight = (PAGE.getHeight() - 2 * MARGIN) / rows;
+        return Math.min(cellWidth, cellHeight - TEXT_HEIGHT) - 2 * PADDING;
+    }
+
+    // Helvetica only covers WinAnsi; anything else prints as '?'
+    private static String printable(String tag) {
+        StringBuilder sb = new StringBuilder(tag.length());
+        for (int i = 0; i < tag.length(); i++) {
+            char c = tag.charAt(i);
+            sb.append(c >= 0x20 && c < 0x7f ? c : '?');
+        }
+        return sb.toString();
+    }
+
+    // Keeps at most the configured budget of page content on the heap and spills the rest to a scratch file
+    private PDDocument newPdfDocument() {
+        MemoryUsageSetting memory = MemoryUsageSetting.setupMixed(pdfMaxMainMemoryBytes);
+        if (pdfTempDir != null && !pdfTempDir.isBlank()) memory = memory.setTempDir(new File(pdfTempDir));
+        return new PDDocument(memory.streamCache);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        encoders.shutdownNow();
+    }
+}
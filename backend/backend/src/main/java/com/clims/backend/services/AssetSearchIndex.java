@@ -0,0 +1,340 @@
+package com.clims.backend.services;
+
+import com.clims.backend.events.AssetChangedEvent;
+import com.clims.backend.events.AssetsImportedEvent;
+import com.clims.backend.models.entities.Asset;
+import com.clims.backend.repositories.AssetRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory trigram index over asset tag, serial number, make and model for the {@code q} filter of
+ * {@code GET /api/assets}. A query resolves to the ids whose fields contain it as a case-insensitive
+ * substring: posting lists of the query's trigrams are intersected smallest-first and each candidate is
+ * checked against its stored text, so results match the {@code LIKE '%q%'} the index replaces.
+ * <p>
+ * The index is built in the background once the application is ready and follows asset writes after commit.
+ * Those are the writes of this instance only; writes through other instances, or made directly in the database,
+ * are picked up by the rebuild every {@code app.assets.search.rebuild-interval-ms}, so with several instances
+ * a query may miss or still find an asset changed elsewhere for up to one interval.
+ * {@link #find} returns null whenever it cannot answer (still building, query shorter than three characters,
+ * or more matches than {@code app.assets.search.max-matches}); callers then fall back to the SQL predicate.
+ */
+@Component
+public class AssetSearchIndex {
+    private static final Logger log = LoggerFactory.getLogger(AssetSearchIndex.class);
+    private static final char FIELD_SEPARATOR = '\u0001';
+
+    private final AssetRepository assetRepository;
+    private final TransactionTemplate readOnly;
+    private final boolean enabled;
+    private final int maxMatches;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock. Ids are stored as ints to halve posting memory; see index(...)
+    private Map<Long, Postings> postings = new HashMap<>();
+    private Map<Integer, String> documents = new HashMap<>();
+    private volatile boolean ready;
+    private final AtomicBoolean building = new AtomicBoolean();
+    // Ids written while a build is running; re-read once the new index is in place. Guarded by lock.
+    private Set<Long> touchedDuringBuild;
+
+    public AssetSearchIndex(AssetRepository assetRepository,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.assets.search.index-enabled:true}") boolean enabled,
+                            @Value("${app.assets.search.max-matches:10000}") int maxMatches) {
+        this.assetRepository = assetRepository;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.enabled = enabled;
+        this.maxMatches = maxMatches;
+        Gauge.builder("assets.search.index.documents", this, AssetSearchIndex::size).register(meterRegistry);
+        Gauge.builder("assets.search.index.trigrams", this, AssetSearchIndex::trigramCount).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildInBackground() {
+        if (!enabled) return;
+        Thread builder = new Thread(this::rebuild, "asset-search-index");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    // The first run waits a whole interval, by when the startup build has normally finished
+    @Scheduled(fixedDelayString = "${app.assets.search.rebuild-interval-ms:300000}",
+            initialDelayString = "${app.assets.search.rebuild-interval-ms:300000}")
+    public void refresh() {
+        if (enabled) rebuild();
+    }
+
+    /**
+     * Reloads every asset's searchable fields and swaps them in; queries keep using the SQL fallback until the
+     * first build ends, and the previous index while a later one runs. Does nothing while another build runs.
+     */
+    public void rebuild() {
+        if (!building.compareAndSet(false, true)) return;
+        try {
+            build();
+        } finally {
+            building.set(false);
+        }
+    }
+
+    private void build() {
+        long started = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            touchedDuringBuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<Long, Postings> newPostings = new HashMap<>();
+        Map<Integer, String> newDocuments = new HashMap<>();
+        boolean complete = Boolean.TRUE.equals(readOnly.execute(status -> {
+            try (Stream<Object[]> rows = assetRepository.streamSearchFields()) {
+                for (var it = rows.iterator(); it.hasNext(); ) {
+                    Object[] r = it.next();
+                    if (!index(newPostings, newDocuments, (Long) r[0], text((String) r[1], (String) r[2], (String) r[3], (String) r[4]))) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }));
+
+        Set<Long> touched;
+        lock.writeLock().lock();
+        try {
+            touched = touchedDuringBuild;
+            touchedDuringBuild = null;
+            if (complete) {
+                newPostings.values().forEach(Postings::trim);
+                postings = newPostings;
+                documents = newDocuments;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (!complete) {
+            ready = false;
+            return;
+        }
+        touched.forEach(this::reindex);
+        ready = true;
+        log.info("Asset search index built: {} assets, {} trigrams in {} ms",
+                size(), trigramCount(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetChanged(AssetChangedEvent event) {
+        if (!enabled) return;
+        switch (event.action()) {
+            case "CREATE", "UPDATE", "DELETE" -> {
+                lock.writeLock().lock();
+                try {
+                    if (touchedDuringBuild != null) touchedDuringBuild.add(event.assetId());
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                reindex(event.assetId());
+            }
+            default -> { } // status-only changes do not touch the indexed fields
+        }
+    }
+
+    // A whole import chunk is read with one query instead of one per asset
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetsImported(AssetsImportedEvent event) {
+        if (!enabled) return;
+        List<Object[]> rows = assetRepository.findSearchFieldsByIdIn(event.assetIds());
+        lock.writeLock().lock();
+        try {
+            if (touchedDuringBuild != null) touchedDuringBuild.addAll(event.assetIds());
+            for (Object[] r : rows) {
+                Long id = (Long) r[0];
+                remove(id);
+                if (!index(postings, documents, id, text((String) r[1], (String) r[2], (String) r[3], (String) r[4]))) {
+                    ready = false;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of assets whose tag, serial, make or model contain {@code q} (case-insensitive), or null when the
+     * index cannot answer and the caller should use the SQL predicate instead.
+     */
+    public Set<Long> find(String q) {
+        if (!ready || q == null) return null;
+        String needle = q.toLowerCase(Locale.ROOT);
+        if (needle.length() < 3 || needle.indexOf(FIELD_SEPARATOR) >= 0) return null;
+
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>();
+            for (long trigram : trigrams(needle)) {
+                Postings p = postings.get(trigram);
+                if (p == null) return Set.of();
+                lists.add(p);
+            }
+            lists.sort(Comparator.comparingInt(p -> p.size));
+            // Walk the shortest list, probing the others from where the previous probe stopped. Stops as soon
+            // as the match limit is passed, so broad terms give up early instead of intersecting everything.
+            Postings shortest = lists.get(0);
+            int[] from = new int[lists.size()];
+            Set<Long> matches = new HashSet<>();
+            candidates:
+            for (int i = 0; i < shortest.size; i++) {
+                int id = shortest.ids[i];
+                for (int l = 1; l < lists.size(); l++) {
+                    Postings other = lists.get(l);
+                    int at = Arrays.binarySearch(other.ids, from[l], other.size, id);
+                    if (at < 0) {
+                        from[l] = -at - 1;
+                        if (from[l] == other.size) break candidates;
+                        continue candidates;
+                    }
+                    from[l] = at + 1;
+                }
+                String doc = documents.get(id);
+                if (doc != null && doc.contains(needle)) {
+                    if (matches.size() == maxMatches) return null;
+                    matches.add((long) id);
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isReady() { return ready; }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int trigramCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Reads the committed row (or its absence) and replaces whatever the index holds for it
+    private void reindex(Long id) {
+        Asset asset = assetRepository.findById(id).orElse(null);
+        lock.writeLock().lock();
+        try {
+            remove(id);
+            if (asset != null && !index(postings, documents, id, text(asset.getAssetTag(), asset.getSerialNumber(), asset.getMake(), asset.getModel()))) {
+                ready = false;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void remove(Long id) {
+        if (id > Integer.MAX_VALUE) return;
+        String old = documents.remove(id.intValue());
+        if (old == null) return;
+        for (long trigram : trigrams(old)) {
+            Postings p = postings.get(trigram);
+            if (p != null && p.remove(id.intValue()) && p.size == 0) postings.remove(trigram);
+        }
+    }
+
+    private static boolean index(Map<Long, Postings> postings, Map<Integer, String> documents, Long id, String doc) {
+        if (id > Integer.MAX_VALUE) {
+            log.warn("Asset id {} does not fit the search index; falling back to SQL search", id);
+            return false;
+        }
+        documents.put(id.intValue(), doc);
+        for (long trigram : trigrams(doc)) {
+            postings.computeIfAbsent(trigram, t -> new Postings()).add(id.intValue());
+        }
+        return true;
+    }
+
+    private static String text(String tag, String serial, String make, String model) {
+        return (safe(tag) + FIELD_SEPARATOR + safe(serial) + FIELD_SEPARATOR + safe(make) + FIELD_SEPARATOR + safe(model))
+                .toLowerCase(Locale.ROOT);
+    }
+
+    private static String safe(String s) { return s == null ? "" : s; }
+
+    // Distinct trigrams of s, three UTF-16 units packed into a long; none spans a field separator
+    private static Set<Long> trigrams(String s) {
+        Set<Long> out = new HashSet<>();
+        for (int i = 0; i + 3 <= s.length(); i++) {
+            char a = s.charAt(i), b = s.charAt(i + 1), c = s.charAt(i + 2);
+            if (a == FIELD_SEPARATOR || b == FIELD_SEPARATOR || c == FIELD_SEPARATOR) continue;
+            out.add(((long) a << 32) | ((long) b << 16) | c);
+        }
+        return out;
+    }
+
+    // Sorted, growable list of ids. New assets get increasing ids, so add() is normally an append.
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            int at = size == 0 || ids[size - 1] < id ? size : Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0 && at < size) return; // already present
+            if (at < 0) at = -at - 1;
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        boolean remove(int id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) return false;
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+            return true;
+        }
+
+        void trim() {
+            if (ids.length > size) ids = Arrays.copyOf(ids, Math.max(size, 1));
+        }
+    }
+}
@@ -1,27 +1,35 @@
 package com.clims.backend.services;
 
 import com.clims.backend.dto.AssetDtos;
+import com.clims.backend.events.AssetChangedEvent;
 import com.clims.backend.exceptions.NotFoundException;
 import com.clims.backend.models.entities.*;
 import com.clims.backend.models.enums.AssetStatus;
 import com.clims.backend.repositories.*;
-import com.google.zxing.BarcodeFormat;
-import com.google.zxing.WriterException;
-import com.google.zxing.qrcode.QRCodeWriter;
-import com.google.zxing.client.j2se.MatrixToImageWriter;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import jakarta.persistence.criteria.JoinType;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.util.Base64;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 @Service
 public class AssetService {
@@ -32,8 +40,13 @@ public class AssetService {
     private final AppUserRepository userRepository;
     private final AuditLogService auditLogService;
     private final ModelMapper mapper;
+    private final ApplicationEventPublisher events;
+    private final AssetSearchIndex searchIndex;
+    private final CountEstimator countEstimator;
+    private final AssetCache assetCache;
+    private final AssetTagAllocator tagAllocator;
 
-    public AssetService(AssetRepository assetRepository, LocationRepository locationRepository, VendorRepository vendorRepository, DepartmentRepository departmentRepository, AppUserRepository userRepository, AuditLogService auditLogService, ModelMapper mapper) {
+    public AssetService(AssetRepository assetRepository, LocationRepository locationRepository, VendorRepository vendorRepository, DepartmentRepository departmentRepository, AppUserRepository userRepository, AuditLogService auditLogService, ModelMapper mapper, ApplicationEventPublisher events, AssetSearchIndex searchIndex, CountEstimator countEstimator, AssetCache assetCache, AssetTagAllocator tagAllocator) {
         this.assetRepository = assetRepository;
         this.locationRepository = locationRepository;
         this.vendorRepository = vendorRepository;
@@ -41,6 +54,11 @@ public class AssetService {
         this.userRepository = userRepository;
         this.auditLogService = auditLogService;
         this.mapper = mapper;
+        this.events = events;
+        this.searchIndex = searchIndex;
+        this.countEstimator = countEstimator;
+        this.assetCache = assetCache;
+        this.tagAllocator = tagAllocator;
     }
 
     @Transactional
@@ -64,19 +82,100 @@ public class AssetService {
         asset.setAssetTag(generateAssetTag());
         Asset saved = assetRepository.save(asset);
         auditLogService.log("Asset", saved.getId(), "CREATE", "Asset created", actor);
+        events.publishEvent(new AssetChangedEvent(saved.getId(), "CREATE", null, saved.getStatus()));
         return saved;
     }
 
     public List<Asset> list() { return assetRepository.findAll(); }
 
-    public Page<Asset> search(Pageable pageable, AssetStatus status, Long departmentId, Long locationId, Long vendorId, String q) {
+    public Page<AssetDtos.AssetResponse> search(Pageable pageable, AssetStatus status, Long departmentId, Long locationId, Long vendorId, String q) {
+        Specification<Asset> spec = searchSpec(status, departmentId, locationId, vendorId, q);
+        if (spec == null) return Page.empty(pageable);
+        return assetRepository.findResponses(spec, pageable);
+    }
+
+    /** {@link #search} without the count: the slice only tells whether another page follows. */
+    public Slice<AssetDtos.AssetResponse> searchSlice(Pageable pageable, AssetStatus status, Long departmentId, Long locationId, Long vendorId, String q) {
+        Specification<Asset> spec = searchSpec(status, departmentId, locationId, vendorId, q);
+        if (spec == null) return new SliceImpl<>(List.of(), pageable, false);
+        return assetRepository.findResponseSlice(spec, pageable);
+    }
+
+    /** Keyset-paginated variant of {@link #search}: reads {@code size} rows after {@code position}, without a count. */
+    public Window<AssetDtos.AssetResponse> scroll(KeysetScrollPosition position, int size, Sort sort, AssetStatus status, Long departmentId, Long locationId, Long vendorId, String q) {
+        Specification<Asset> spec = searchSpec(status, departmentId, locationId, vendorId, q);
+        if (spec == null) return Window.from(List.of(), i -> position);
+        return assetRepository.scrollResponses(spec, sort, size, position);
+    }
+
+    public long count(AssetStatus status, Long departmentId, Long locationId, Long vendorId, String q) {
+        Specification<Asset> spec = searchSpec(status, departmentId, locationId, vendorId, q);
+        return spec == null ? 0 : assetRepository.count(spec);
+    }
+
+    /** Approximate {@link #count}, served from the last count of the same filters while it is refreshed. */
+    public long estimateCount(AssetStatus status, Long departmentId, Long locationId, Long vendorId, String q) {
+        return countEstimator.estimate(CountEstimator.ASSETS, Arrays.asList(status, departmentId, locationId, vendorId, q),
+                () -> count(status, departmentId, locationId, vendorId, q));
+    }
+
+    /**
+     * Facet counts for the filters of {@link #search}. One grouped query counts the assets matching {@code q} per
+     * status, department, location and vendor combination; each facet is then summed from those cells under the
+     * other three filters, leaving out its own.
+     */
+    public AssetDtos.AssetFacets facets(AssetStatus status, Long departmentId, Long locationId, Long vendorId, String q) {
+        Specification<Asset> spec = searchSpec(null, null, null, null, q);
+        List<AssetFacetCell> cells = spec == null ? List.of() : assetRepository.findFacetCells(spec);
+        return new AssetDtos.AssetFacets(
+                facet(cells, AssetFacetCell::status,
+                        c -> matches(departmentId, c.departmentId()) && matches(locationId, c.locationId()) && matches(vendorId, c.vendorId())),
+                facet(cells, AssetFacetCell::departmentId,
+                        c -> matches(status, c.status()) && matches(locationId, c.locationId()) && matches(vendorId, c.vendorId())),
+                facet(cells, AssetFacetCell::locationId,
+                        c -> matches(status, c.status()) && matches(departmentId, c.departmentId()) && matches(vendorId, c.vendorId())),
+                facet(cells, AssetFacetCell::vendorId,
+                        c -> matches(status, c.status()) && matches(departmentId, c.departmentId()) && matches(locationId, c.locationId())));
+    }
+
+    private static <T extends Comparable<T>> List<AssetDtos.FacetCount<T>> facet(List<AssetFacetCell> cells, Function<AssetFacetCell, T> value,
+                                                                               Predicate<AssetFacetCell> otherFilters) {
+        Map<T, Long> counts = new HashMap<>();
+        for (AssetFacetCell cell : cells) {
+            if (otherFilters.test(cell)) counts.merge(value.apply(cell), cell.count(), Long::sum);
+        }
+        return counts.entrySet().stream()
+                .map(e -> new AssetDtos.FacetCount<>(e.getKey(), e.getValue()))
+                .sorted(Comparator.<AssetDtos.FacetCount<T>>comparingLong(AssetDtos.FacetCount::count).reversed()
+                        .thenComparing(AssetDtos.FacetCount::value, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+    }
+
+    private static boolean matches(Object filter, Object value) {
+        return filter == null || filter.equals(value);
+    }
+
+    /** Ids of the assets {@link #search} matches, lowest first, at most {@code limit} of them. */
+    public List<Long> findIds(AssetStatus status, Long departmentId, Long locationId, Long vendorId, String q, int limit) {
+        Specification<Asset> spec = searchSpec(status, departmentId, locationId, vendorId, q);
+        return spec == null ? List.of() : assetRepository.findIds(spec, limit);
+    }
+
+    // Null when the search index already knows that nothing matches q
+    private Specification<Asset> searchSpec(AssetStatus status, Long departmentId, Long locationId, Long vendorId, String q) {
         Specification<Asset> spec = Specification.where(null);
         if (status != null) spec = spec.and((root, cq, cb) -> cb.equal(root.get("status"), status));
     if (departmentId != null) spec = spec.and((root, cq, cb) -> cb.equal(root.join("department", JoinType.LEFT).get("id"), departmentId));
     if (locationId != null) spec = spec.and((root, cq, cb) -> cb.equal(root.join("location", JoinType.LEFT).get("id"), locationId));
     if (vendorId != null) spec = spec.and((root, cq, cb) -> cb.equal(root.join("vendor", JoinType.LEFT).get("id"), vendorId));
         if (q != null && !q.isBlank()) {
-            String like = "%" + q.toLowerCase() + "%";
+            Set<Long> ids = searchIndex.find(q);
+            if (ids != null) {
+                if (ids.isEmpty()) return null;
+                return spec.and((root, cq, cb) -> root.get("id").in(ids));
+            }
+            // Index still building, query too short or too broad: scan with LIKE
+            String like = "%" + q.toLowerCase(Locale.ROOT) + "%";
             spec = spec.and((root, cq, cb) -> cb.or(
                     cb.like(cb.lower(root.get("assetTag")), like),
                     cb.like(cb.lower(root.get("serialNumber")), like),
@@ -84,14 +183,31 @@ public class AssetService {
                     cb.like(cb.lower(root.get("model")), like)
             ));
         }
-        return assetRepository.findAll(spec, pageable);
+        return spec;
     }
 
     public Asset get(Long id) { return assetRepository.findById(id).orElseThrow(() -> new NotFoundException("Asset not found")); }
 
+    // Update, assign and dispose answer with the asset's response, so load what it prints up front
+    private Asset getWithAssociations(Long id) {
+        return assetRepository.findWithAssociationsById(id).orElseThrow(() -> new NotFoundException("Asset not found"));
+    }
+
+    // Served from the asset cache; write paths always load the current row instead
+    public AssetDtos.AssetResponse getResponse(Long id) {
+        return assetCache.findById(id).orElseThrow(() -> new NotFoundException("Asset not found"));
+    }
+
+    public AssetDtos.AssetResponse getResponseByTag(String assetTag) {
+        // A misread label cannot match any asset, so it is answered without a lookup
+        if (tagAllocator.hasBadCheckDigit(assetTag)) throw new NotFoundException("Asset not found");
+        return assetCache.findByTag(assetTag).orElseThrow(() -> new NotFoundException("Asset not found"));
+    }
+
     @Transactional
     public Asset update(Long id, AssetDtos.UpdateAssetRequest req, AppUser actor) {
-        Asset asset = get(id);
+        Asset asset = getWithAssociations(id);
+        AssetStatus previous = asset.getStatus();
         if (req.make() != null) asset.setMake(req.make());
         if (req.model() != null) asset.setModel(req.model());
         if (req.warrantyExpiryDate() != null) asset.setWarrantyExpiryDate(req.warrantyExpiryDate());
@@ -99,19 +215,22 @@ public class AssetService {
     if (req.locationId() != null) asset.setLocation(locationRepository.findById(req.locationId()).orElseThrow(() -> new NotFoundException("Location not found")));
     if (req.departmentId() != null) asset.setDepartment(departmentRepository.findById(req.departmentId()).orElseThrow(() -> new NotFoundException("Department not found")));
         auditLogService.log("Asset", asset.getId(), "UPDATE", "Asset updated", actor);
+        events.publishEvent(new AssetChangedEvent(asset.getId(), "UPDATE", previous, asset.getStatus()));
         return assetRepository.save(asset);
     }
 
     @Transactional
     public void delete(Long id, AppUser actor) {
         Asset asset = get(id);
+        AssetStatus previous = asset.getStatus();
         assetRepository.delete(asset);
         auditLogService.log("Asset", id, "DELETE", "Asset deleted", actor);
+        events.publishEvent(new AssetChangedEvent(id, "DELETE", previous, null));
     }
 
     @Transactional
     public Asset assign(Long assetId, AssetDtos.AssignAssetRequest req, AppUser actor) {
-        Asset asset = get(assetId);
+        Asset asset = getWithAssociations(assetId);
         if (asset.getStatus() != AssetStatus.AVAILABLE) {
             throw new IllegalStateException("Only AVAILABLE assets can be assigned");
         }
@@ -122,6 +241,7 @@ public class AssetService {
             asset.setLocation(locationRepository.findById(req.locationId()).orElseThrow(() -> new NotFoundException("Location not found")));
         }
         auditLogService.log("Asset", asset.getId(), "ASSIGN", "Assigned to user " + assignee.getUsername(), actor);
+        events.publishEvent(new AssetChangedEvent(asset.getId(), "ASSIGN", AssetStatus.AVAILABLE, AssetStatus.ASSIGNED));
         return assetRepository.save(asset);
     }
 
@@ -131,28 +251,17 @@ public class AssetService {
     }
 
     public String generateAssetTag() {
-        // Stable unique ID for tagging, could embed UUID and device info
-        return "AST-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-    }
-
-    public byte[] generateQrPng(String assetTag) {
-        try {
-            var writer = new QRCodeWriter();
-            var bitMatrix = writer.encode(assetTag, BarcodeFormat.QR_CODE, 200, 200);
-            var baos = new java.io.ByteArrayOutputStream();
-            MatrixToImageWriter.writeToStream(bitMatrix, "PNG", baos);
-            return baos.toByteArray();
-        } catch (WriterException | java.io.IOException e) {
-            throw new RuntimeException("Failed to generate QR", e);
-        }
+        return tagAllocator.next();
     }
 
     @Transactional
     public Asset dispose(Long id, AppUser actor) {
-        Asset asset = get(id);
+        Asset asset = getWithAssociations(id);
+        AssetStatus previous = asset.getStatus();
         asset.setStatus(AssetStatus.RETIRED);
         asset.setAssignedUser(null);
         auditLogService.log("Asset", id, "DISPOSE", "Asset retired", actor);
+        events.publishEvent(new AssetChangedEvent(id, "DISPOSE", previous, AssetStatus.RETIRED));
         return assetRepository.save(asset);
     }
 }
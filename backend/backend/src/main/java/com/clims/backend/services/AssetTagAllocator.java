@@ -0,0 +1,124 @@
+package com.clims.backend.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hands out asset tags such as {@code AST-000012344}: the prefix, a sequence number padded to
+ * {@code app.assets.tags.digits} digits and a Luhn check digit, so a misread tag is caught before it is looked up
+ * (see {@link #hasBadCheckDigit}). Numbers come from the {@code asset_tag} row of {@code id_blocks}. Each node
+ * reserves {@code app.assets.tags.block-size} numbers at a time with one atomic update in its own transaction and
+ * then counts through them in memory, so tags are unique across nodes without any coordination per tag. Tags are
+ * increasing per node but not across nodes, and the unused rest of a block is skipped when the node stops.
+ * <p>
+ * With the default 8 digits a tag has 9 characters after the prefix, so it can never equal a tag of the earlier
+ * random format, which had 8.
+ */
+@Component
+public class AssetTagAllocator {
+    static final String SEQUENCE = "asset_tag";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate ownTransaction;
+    private final String prefix;
+    private final int width;
+    private final String numberFormat;
+    private final int blockSize;
+
+    // The current block is [next, end)
+    private long next;
+    private long end;
+
+    public AssetTagAllocator(JdbcTemplate jdbc,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.assets.tags.prefix:AST-}") String prefix,
+                             @Value("${app.assets.tags.digits:8}") int digits,
+                             @Value("${app.assets.tags.block-size:100}") int blockSize) {
+        if (digits < 1 || digits > 18) throw new IllegalArgumentException("app.assets.tags.digits must be between 1 and 18");
+        if (blockSize < 1) throw new IllegalArgumentException("app.assets.tags.block-size must be positive");
+        this.jdbc = jdbc;
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        // A rolled-back asset insert must not hand its block to another node, nor hold the row lock until it ends
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.prefix = prefix;
+        this.width = digits;
+        this.numberFormat = "%0" + digits + "d";
+        this.blockSize = blockSize;
+    }
+
+    public synchronized String next() {
+        if (next == end) reserve(blockSize);
+        return format(next++);
+    }
+
+    /** {@code count} tags, reserving a block large enough for them at most once. */
+    public synchronized List<String> next(int count) {
+        List<String> tags = new ArrayList<>(count);
+        while (tags.size() < count) {
+            if (next == end) reserve(Math.max(blockSize, count - tags.size()));
+            tags.add(format(next++));
+        }
+        return tags;
+    }
+
+    String format(long number) {
+        String digits = String.format(numberFormat, number);
+        return prefix + digits + checkDigit(digits);
+    }
+
+    /**
+     * Whether {@code tag} is in this allocator's format but its check digit does not match, i.e. was misread or
+     * mistyped. Tags of the earlier random format are never rejected.
+     */
+    public boolean hasBadCheckDigit(String tag) {
+        if (tag == null || !tag.startsWith(prefix)) return false;
+        String digits = tag.substring(prefix.length());
+        if (digits.length() <= width || !digits.chars().allMatch(c -> c >= '0' && c <= '9')) return false;
+        return checkDigit(digits.substring(0, digits.length() - 1)) != digits.charAt(digits.length() - 1) - '0';
+    }
+
+    // Luhn: from the right, every other digit starting with the last is doubled
+    static int checkDigit(String digits) {
+        int sum = 0;
+        boolean doubled = true;
+        for (int i = digits.length() - 1; i >= 0; i--) {
+            int d = digits.charAt(i) - '0';
+            if (doubled) {
+                d *= 2;
+                if (d > 9) d -= 9;
+            }
+            sum += d;
+            doubled = !doubled;
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    private void reserve(int size) {
+        Long start;
+        try {
+            start = ownTransaction.execute(status -> claim(size));
+        } catch (DuplicateKeyException ex) {
+            // Another node created the row first; the row now exists, so this claim updates it
+            start = ownTransaction.execute(status -> claim(size));
+        }
+        next = start;
+        end = start + size;
+    }
+
+    private long claim(int size) {
+        if (jdbc.update("UPDATE id_blocks SET next_value = next_value + ? WHERE name = ?", size, SEQUENCE) == 0) {
+            jdbc.update("INSERT INTO id_blocks (name, next_value) VALUES (?, ?)", SEQUENCE, 1L + size);
+            return 1L;
+        }
+        Long after = jdbc.queryForObject("SELECT next_value FROM id_blocks WHERE name = ?", Long.class, SEQUENCE);
+        return after - size;
+    }
+}
@@ -1,21 +1,47 @@
 package com.clims.backend.services;
 
+import com.clims.backend.events.AuditRecordedEvent;
 import com.clims.backend.models.entities.AppUser;
 import com.clims.backend.models.entities.AuditLog;
 import com.clims.backend.repositories.AuditLogRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 
+/**
+ * Audit trail of asset and maintenance writes. Entries are written behind the recording transaction by
+ * {@link AuditWriter}; with {@code app.audit.write-behind.enabled=false} they are saved inside it instead.
+ */
 @Service
 public class AuditLogService {
+    // How long a read of the audit trail waits for rows recorded before it
+    private static final Duration READ_WAIT = Duration.ofSeconds(2);
+
     private final AuditLogRepository auditLogRepository;
+    private final AuditWriter auditWriter;
+    private final ApplicationEventPublisher events;
+    private final boolean writeBehind;
 
-    public AuditLogService(AuditLogRepository auditLogRepository) {
+    public AuditLogService(AuditLogRepository auditLogRepository,
+                           AuditWriter auditWriter,
+                           ApplicationEventPublisher events,
+                           @Value("${app.audit.write-behind.enabled:true}") boolean writeBehind) {
         this.auditLogRepository = auditLogRepository;
+        this.auditWriter = auditWriter;
+        this.events = events;
+        this.writeBehind = writeBehind;
     }
 
     public void log(String entityName, Long entityId, String action, String details, AppUser user) {
+        if (writeBehind) {
+            events.publishEvent(new AuditRecordedEvent(entityName, entityId, action, details,
+                    user != null ? user.getId() : null, Instant.now()));
+            return;
+        }
         AuditLog log = new AuditLog();
         log.setEntityName(entityName);
         log.setEntityId(entityId);
@@ -26,6 +52,7 @@ public class AuditLogService {
     }
 
     public List<AuditLog> findByEntity(String entityName, Long entityId) {
+        auditWriter.awaitWritten(READ_WAIT);
         return auditLogRepository.findByEntityNameAndEntityIdOrderByCreatedAtDesc(entityName, entityId);
     }
 }
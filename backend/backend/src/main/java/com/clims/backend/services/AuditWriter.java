@@ -0,0 +1,215 @@
+package com.clims.backend.services;
+
+import com.clims.backend.events.AuditRecordedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes audit rows behind the transactions that record them. An {@link AuditRecordedEvent} is queued once its
+ * transaction commits, so a rolled-back write never leaves an audit row, and a single writer thread inserts
+ * whatever has queued up as one JDBC batch of up to {@code app.audit.write-behind.batch-size} rows. Business
+ * transactions no longer pay for an insert round trip of their own.
+ * <p>
+ * When {@code app.audit.write-behind.queue-capacity} rows are waiting, the committing thread inserts its own row
+ * instead of queueing it, which slows writers down to what the database takes rather than dropping rows. Every
+ * batch is inserted in a transaction of its own: the committing thread is still inside the synchronization of
+ * the transaction it just committed, and a plain insert there would join that finished transaction and be rolled
+ * back with its connection. Rows still queued at shutdown are written before the data source closes; rows queued
+ * when the process dies are lost, the price of not writing them in the business transaction.
+ */
+@Component
+public class AuditWriter {
+    private static final Logger log = LoggerFactory.getLogger(AuditWriter.class);
+
+    private static final String INSERT_AUDIT = "INSERT INTO audit_logs (entity_name, entity_id, action, details, user_id, "
+            + "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final int ATTEMPTS = 3;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate ownTransaction;
+    private final BlockingQueue<AuditRecordedEvent> queue;
+    private final int batchSize;
+    private final Thread writer;
+    private volatile boolean running = true;
+    // Rows queued so far, and rows whose batch has been written or given up on; readers wait on completed
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final DistributionSummary batchSizes;
+    private final Timer flushes;
+    private final Counter overflow;
+    private final Counter failed;
+
+    public AuditWriter(JdbcTemplate jdbc,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.audit.write-behind.queue-capacity:10000}") int queueCapacity,
+                       @Value("${app.audit.write-behind.batch-size:500}") int batchSize) {
+        if (queueCapacity < 1) throw new IllegalArgumentException("app.audit.write-behind.queue-capacity must be positive");
+        if (batchSize < 1) throw new IllegalArgumentException("app.audit.write-behind.batch-size must be positive");
+        this.jdbc = jdbc;
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        Gauge.builder("audit.queue.depth", queue, BlockingQueue::size)
+                .description("Audit rows waiting for the writer")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("audit.batch.size")
+                .description("Rows per audit batch insert")
+                .register(meterRegistry);
+        this.flushes = Timer.builder("audit.flush")
+                .description("Time to insert one audit batch")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.overflow = Counter.builder("audit.overflow")
+                .description("Audit rows inserted by the committing thread because the queue was full")
+                .register(meterRegistry);
+        this.failed = Counter.builder("audit.failed")
+                .description("Audit rows that could not be written and were logged instead")
+                .register(meterRegistry);
+        this.writer = new Thread(this::run, "audit-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuditRecorded(AuditRecordedEvent event) {
+        if (running && queue.offer(event)) {
+            queued.incrementAndGet();
+            return;
+        }
+        overflow.increment();
+        write(List.of(event));
+    }
+
+    /**
+     * Waits up to {@code timeout} for every row queued before the call to be written, so that a read of the audit
+     * trail sees the writes that completed before it. Returns whether they were.
+     */
+    public boolean awaitWritten(Duration timeout) {
+        long target = queued.get();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (completed) {
+            while (completed.get() < target) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) return false;
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(completed, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void run() {
+        List<AuditRecordedEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            AuditRecordedEvent first;
+            try {
+                first = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                continue;
+            }
+            if (first == null) continue;
+            batch.add(first);
+            queue.drainTo(batch, batchSize - 1);
+            long started = System.nanoTime();
+            write(batch);
+            flushes.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            batchSizes.record(batch.size());
+            synchronized (completed) {
+                completed.addAndGet(batch.size());
+                completed.notifyAll();
+            }
+            batch.clear();
+        }
+    }
+
+    // A batch is retried a few times; if the database still refuses it its rows go to the log rather than nowhere
+    private void write(List<AuditRecordedEvent> batch) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                ownTransaction.executeWithoutResult(status -> insert(batch));
+                return;
+            } catch (DataAccessException ex) {
+                if (attempt == ATTEMPTS) {
+                    failed.increment(batch.size());
+                    log.error("Could not write {} audit rows", batch.size(), ex);
+                    batch.forEach(e -> log.error("Unwritten audit row: {}", e));
+                    return;
+                }
+                log.warn("Audit batch of {} rows failed (attempt {} of {}), retrying", batch.size(), attempt, ATTEMPTS, ex);
+                try {
+                    Thread.sleep(100L * attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private void insert(List<AuditRecordedEvent> batch) {
+        jdbc.batchUpdate(INSERT_AUDIT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                AuditRecordedEvent e = batch.get(i);
+                OffsetDateTime at = OffsetDateTime.ofInstant(e.recordedAt(), ZoneOffset.UTC);
+                ps.setString(1, e.entityName());
+                ps.setLong(2, e.entityId());
+                ps.setString(3, e.action());
+                ps.setString(4, e.details());
+                if (e.userId() != null) ps.setLong(5, e.userId());
+                else ps.setNull(5, Types.BIGINT);
+                ps.setObject(6, at);
+                ps.setObject(7, at);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return batch.size();
+            }
+        });
+    }
+
+    /** Stops taking rows and writes the ones still queued; later rows are written by their committing thread. */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        // A row queued just as the writer stopped
+        List<AuditRecordedEvent> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) write(rest);
+    }
+}
@@ -0,0 +1,178 @@
+package com.clims.backend.services;
+
+import com.clims.backend.events.AssetChangedEvent;
+import com.clims.backend.events.AssetsImportedEvent;
+import com.clims.backend.events.MaintenanceChangedEvent;
+import com.clims.backend.events.UserChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Approximate totals for {@code count=estimate} on the list endpoints. The last exact count of each filter
+ * combination is kept and served as is; once it is older than {@code app.lists.count-estimate.ttl-seconds}, or
+ * a committed write has touched its entity since, the old value is still served while a single background
+ * refresh recounts. Only the first request for a filter combination waits for a {@code COUNT(*)}.
+ */
+@Component
+public class CountEstimator {
+    public static final String ASSETS = "assets";
+    public static final String MAINTENANCE = "maintenance";
+    public static final String USERS = "users";
+
+    private static final Logger log = LoggerFactory.getLogger(CountEstimator.class);
+
+    private record Estimate(long value, Instant countedAt, long generation) { }
+
+    private final Duration ttl;
+    private final Clock clock;
+    private final Executor refresher;
+    // Least recently used filter combinations are dropped first. Guarded by itself.
+    private final Map<String, Estimate> estimates;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    // Bumped by every committed write to the scope; estimates counted under an older generation are stale
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final Counter fresh;
+    private final Counter stale;
+    private final Counter missed;
+
+    @Autowired
+    public CountEstimator(MeterRegistry meterRegistry,
+                          @Value("${app.lists.count-estimate.ttl-seconds:60}") long ttlSeconds,
+                          @Value("${app.lists.count-estimate.max-entries:1000}") int maxEntries) {
+        this(meterRegistry, Duration.ofSeconds(ttlSeconds), maxEntries, Clock.systemUTC(), newRefresher());
+    }
+
+    CountEstimator(MeterRegistry meterRegistry, Duration ttl, int maxEntries, Clock clock, Executor refresher) {
+        this.ttl = ttl;
+        this.clock = clock;
+        this.refresher = refresher;
+        this.estimates = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Estimate> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.fresh = counter(meterRegistry, "fresh");
+        this.stale = counter(meterRegistry, "stale");
+        this.missed = counter(meterRegistry, "miss");
+    }
+
+    private static ExecutorService newRefresher() {
+        CustomizableThreadFactory threads = new CustomizableThreadFactory("count-estimate-");
+        threads.setDaemon(true);
+        // Refreshes beyond the queue are dropped; a later request for the same filters asks again
+        return new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(100), threads,
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("lists.count.estimates")
+                .description("Estimated list totals served, by whether the cached count was fresh, stale or missing")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Estimated number of rows of {@code scope} matching {@code filters}. {@code exactCount} runs the real count;
+     * it is called inline on a miss and on the background thread otherwise.
+     */
+    public long estimate(String scope, List<?> filters, LongSupplier exactCount) {
+        String key = scope + filters;
+        Estimate current;
+        synchronized (estimates) {
+            current = estimates.get(key);
+        }
+        if (current == null) {
+            missed.increment();
+            return count(scope, key, exactCount);
+        }
+        if (current.generation() != generation(scope).get() || current.countedAt().plus(ttl).isBefore(clock.instant())) {
+            stale.increment();
+            refresh(scope, key, exactCount);
+        } else {
+            fresh.increment();
+        }
+        return current.value();
+    }
+
+    private void refresh(String scope, String key, LongSupplier exactCount) {
+        if (!refreshing.add(key)) return;
+        try {
+            refresher.execute(() -> {
+                try {
+                    count(scope, key, exactCount);
+                } catch (RuntimeException ex) {
+                    log.warn("Refreshing the count estimate {} failed", key, ex);
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            refreshing.remove(key);
+        }
+    }
+
+    // The generation is read before counting, so a write committed meanwhile leaves the new value stale
+    private long count(String scope, String key, LongSupplier exactCount) {
+        long generation = generation(scope).get();
+        long value = exactCount.getAsLong();
+        synchronized (estimates) {
+            estimates.put(key, new Estimate(value, clock.instant(), generation));
+        }
+        return value;
+    }
+
+    private AtomicLong generation(String scope) {
+        return generations.computeIfAbsent(scope, s -> new AtomicLong());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetChanged(AssetChangedEvent event) {
+        generation(ASSETS).incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetsImported(AssetsImportedEvent event) {
+        generation(ASSETS).incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMaintenanceChanged(MaintenanceChangedEvent event) {
+        generation(MAINTENANCE).incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        generation(USERS).incrementAndGet();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refresher instanceof ExecutorService executor) executor.shutdownNow();
+    }
+}
@@ -0,0 +1,119 @@
+package com.clims.backend.services;
+
+import com.clims.backend.dto.ReportDtos;
+import com.clims.backend.events.AssetChangedEvent;
+import com.clims.backend.events.AssetsImportedEvent;
+import com.clims.backend.events.MaintenanceChangedEvent;
+import com.clims.backend.models.enums.AssetStatus;
+import com.clims.backend.models.enums.MaintenanceStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dashboard KPIs kept in memory: asset total, assets per status and upcoming maintenance. Counters move with
+ * every committed asset/maintenance transition, so reads never touch the database. A periodic reconciliation
+ * against {@link ReportService#computeKpis()} corrects drift from writes made outside the services, other
+ * instances, or maintenance dropping out of the "upcoming" window as days pass.
+ */
+@Component
+public class KpiStore {
+    private static final Logger log = LoggerFactory.getLogger(KpiStore.class);
+    private static final String UNKNOWN = "UNKNOWN";
+
+    private final ReportService reportService;
+    private final Clock clock;
+    private final AtomicLong total = new AtomicLong();
+    private final Map<AssetStatus, AtomicLong> byStatus = new EnumMap<>(AssetStatus.class);
+    private final AtomicLong unknownStatus = new AtomicLong();
+    private final AtomicLong upcomingMaintenance = new AtomicLong();
+    private final Counter drift;
+    private volatile boolean loaded;
+
+    @Autowired
+    public KpiStore(ReportService reportService, MeterRegistry meterRegistry) {
+        this(reportService, meterRegistry, Clock.systemDefaultZone());
+    }
+
+    KpiStore(ReportService reportService, MeterRegistry meterRegistry, Clock clock) {
+        this.reportService = reportService;
+        this.clock = clock;
+        for (AssetStatus s : AssetStatus.values()) byStatus.put(s, new AtomicLong());
+        this.drift = Counter.builder("kpis.reconcile.drift")
+                .description("Sum of absolute corrections applied by KPI reconciliation")
+                .register(meterRegistry);
+    }
+
+    public ReportDtos.KpiResponse snapshot() {
+        if (!loaded) reconcile();
+        Map<String, Long> statuses = new HashMap<>();
+        byStatus.forEach((s, c) -> statuses.put(s.name(), c.get()));
+        statuses.put(UNKNOWN, unknownStatus.get());
+        return new ReportDtos.KpiResponse(total.get(), statuses, upcomingMaintenance.get());
+    }
+
+    // Writes committed between the database read and the reset are folded in by the next run
+    @Scheduled(fixedDelayString = "${app.kpis.reconcile-interval-ms:300000}")
+    public synchronized void reconcile() {
+        ReportDtos.KpiResponse actual = reportService.computeKpis();
+        long corrected = Math.abs(total.getAndSet(actual.totalAssets()) - actual.totalAssets());
+        for (AssetStatus s : AssetStatus.values()) {
+            long value = actual.assetsByStatus().getOrDefault(s.name(), 0L);
+            corrected += Math.abs(byStatus.get(s).getAndSet(value) - value);
+        }
+        long unknown = actual.assetsByStatus().getOrDefault(UNKNOWN, 0L);
+        corrected += Math.abs(unknownStatus.getAndSet(unknown) - unknown);
+        corrected += Math.abs(upcomingMaintenance.getAndSet(actual.upcomingMaintenance()) - actual.upcomingMaintenance());
+        if (loaded && corrected > 0) {
+            log.debug("KPI reconciliation corrected a drift of {}", corrected);
+            drift.increment(corrected);
+        }
+        loaded = true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetChanged(AssetChangedEvent event) {
+        if ("CREATE".equals(event.action())) total.incrementAndGet();
+        else if ("DELETE".equals(event.action())) total.decrementAndGet();
+        else if (event.previousStatus() == event.newStatus()) return;
+
+        if (!"CREATE".equals(event.action())) counter(event.previousStatus()).decrementAndGet();
+        if (!"DELETE".equals(event.action())) counter(event.newStatus()).incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetsImported(AssetsImportedEvent event) {
+        total.addAndGet(event.assetIds().size());
+        counter(AssetStatus.AVAILABLE).addAndGet(event.assetIds().size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMaintenanceChanged(MaintenanceChangedEvent event) {
+        LocalDate today = LocalDate.now(clock);
+        boolean before = event.previousStatus() != null && isUpcoming(event.previousStatus(), event.scheduledDate(), today);
+        boolean after = isUpcoming(event.newStatus(), event.scheduledDate(), today);
+        if (before && !after) upcomingMaintenance.decrementAndGet();
+        else if (!before && after) upcomingMaintenance.incrementAndGet();
+    }
+
+    // Mirrors MaintenanceRepository.countUpcomingFrom
+    private static boolean isUpcoming(MaintenanceStatus status, LocalDate scheduled, LocalDate today) {
+        return status != null && status != MaintenanceStatus.COMPLETED && scheduled != null && !scheduled.isBefore(today);
+    }
+
+    private AtomicLong counter(AssetStatus status) {
+        return status != null ? byStatus.get(status) : unknownStatus;
+    }
+}
@@ -0,0 +1,83 @@
+package com.clims.backend.services;
+
+import com.clims.backend.events.AssetChangedEvent;
+import com.clims.backend.events.AssetsImportedEvent;
+import com.clims.backend.events.MaintenanceChangedEvent;
+import com.clims.backend.events.UserChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Versions of the asset, maintenance and user lists for their ETags, read without touching the database. Every
+ * committed write bumps the generation of each list that prints what it changed: an asset write moves the asset
+ * and maintenance lists (maintenance rows show the asset tag), a user write moves all three (they show the
+ * user's name or department).
+ * <p>
+ * Generations are counted per instance and start over at a restart, so a version also names the instance that
+ * made it and the current period of {@code app.lists.version.max-age-seconds}. A tag from another instance or an
+ * earlier run never matches, and changes this instance has no event for, such as writes on another instance or
+ * a department renamed in the database, are picked up within one period.
+ */
+@Component
+public class ListVersions {
+    public static final String ASSETS = "assets";
+    public static final String MAINTENANCE = "maintenance";
+    public static final String USERS = "users";
+
+    private final String instance = UUID.randomUUID().toString();
+    private final long maxAgeMillis;
+    private final Clock clock;
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ListVersions(@Value("${app.lists.version.max-age-seconds:60}") long maxAgeSeconds) {
+        this(Duration.ofSeconds(maxAgeSeconds), Clock.systemUTC());
+    }
+
+    ListVersions(Duration maxAge, Clock clock) {
+        if (maxAge.toMillis() < 1) throw new IllegalArgumentException("app.lists.version.max-age-seconds must be positive");
+        this.maxAgeMillis = maxAge.toMillis();
+        this.clock = clock;
+    }
+
+    /** The current version of {@code list}; it changes with every committed write the list shows. */
+    public String version(String list) {
+        return instance + ':' + generation(list).get() + ':' + clock.millis() / maxAgeMillis;
+    }
+
+    private AtomicLong generation(String list) {
+        return generations.computeIfAbsent(list, l -> new AtomicLong());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetChanged(AssetChangedEvent event) {
+        generation(ASSETS).incrementAndGet();
+        generation(MAINTENANCE).incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetsImported(AssetsImportedEvent event) {
+        generation(ASSETS).incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMaintenanceChanged(MaintenanceChangedEvent event) {
+        generation(MAINTENANCE).incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        generation(ASSETS).incrementAndGet();
+        generation(MAINTENANCE).incrementAndGet();
+        generation(USERS).incrementAndGet();
+    }
+}
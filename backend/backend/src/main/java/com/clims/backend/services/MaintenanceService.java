@@ -1,6 +1,8 @@
 package com.clims.backend.services;
 
 import com.clims.backend.dto.MaintenanceDtos;
+import com.clims.backend.events.AssetChangedEvent;
+import com.clims.backend.events.MaintenanceChangedEvent;
 import com.clims.backend.models.entities.AppUser;
 import com.clims.backend.models.entities.Asset;
 import com.clims.backend.models.entities.Maintenance;
@@ -9,13 +11,19 @@ import com.clims.backend.models.enums.MaintenanceStatus;
 import com.clims.backend.repositories.AssetRepository;
 import com.clims.backend.repositories.MaintenanceRepository;
 import com.clims.backend.exceptions.NotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 
 @Service
@@ -23,22 +31,50 @@ public class MaintenanceService {
     private final MaintenanceRepository maintenanceRepository;
     private final AssetRepository assetRepository;
     private final AuditLogService auditLogService;
+    private final ApplicationEventPublisher events;
+    private final CountEstimator countEstimator;
 
-    public MaintenanceService(MaintenanceRepository maintenanceRepository, AssetRepository assetRepository, AuditLogService auditLogService) {
+    public MaintenanceService(MaintenanceRepository maintenanceRepository, AssetRepository assetRepository, AuditLogService auditLogService, ApplicationEventPublisher events, CountEstimator countEstimator) {
         this.maintenanceRepository = maintenanceRepository;
         this.assetRepository = assetRepository;
         this.auditLogService = auditLogService;
+        this.events = events;
+        this.countEstimator = countEstimator;
     }
 
     public List<Maintenance> list() { return maintenanceRepository.findAll(); }
     
-    public Page<Maintenance> search(Pageable pageable, MaintenanceStatus status, Long assetId, LocalDate dateFrom, LocalDate dateTo) {
+    public Page<MaintenanceDtos.MaintenanceResponse> search(Pageable pageable, MaintenanceStatus status, Long assetId, LocalDate dateFrom, LocalDate dateTo) {
+        return maintenanceRepository.findResponses(searchSpec(status, assetId, dateFrom, dateTo), pageable);
+    }
+
+    /** {@link #search} without the count: the slice only tells whether another page follows. */
+    public Slice<MaintenanceDtos.MaintenanceResponse> searchSlice(Pageable pageable, MaintenanceStatus status, Long assetId, LocalDate dateFrom, LocalDate dateTo) {
+        return maintenanceRepository.findResponseSlice(searchSpec(status, assetId, dateFrom, dateTo), pageable);
+    }
+
+    /** Keyset-paginated variant of {@link #search}: reads {@code size} rows after {@code position}, without a count. */
+    public Window<MaintenanceDtos.MaintenanceResponse> scroll(KeysetScrollPosition position, int size, Sort sort, MaintenanceStatus status, Long assetId, LocalDate dateFrom, LocalDate dateTo) {
+        return maintenanceRepository.scrollResponses(searchSpec(status, assetId, dateFrom, dateTo), sort, size, position);
+    }
+
+    public long count(MaintenanceStatus status, Long assetId, LocalDate dateFrom, LocalDate dateTo) {
+        return maintenanceRepository.count(searchSpec(status, assetId, dateFrom, dateTo));
+    }
+
+    /** Approximate {@link #count}, served from the last count of the same filters while it is refreshed. */
+    public long estimateCount(MaintenanceStatus status, Long assetId, LocalDate dateFrom, LocalDate dateTo) {
+        return countEstimator.estimate(CountEstimator.MAINTENANCE, Arrays.asList(status, assetId, dateFrom, dateTo),
+                () -> count(status, assetId, dateFrom, dateTo));
+    }
+
+    private Specification<Maintenance> searchSpec(MaintenanceStatus status, Long assetId, LocalDate dateFrom, LocalDate dateTo) {
         Specification<Maintenance> spec = Specification.where(null);
         if (status != null) spec = spec.and((root, cq, cb) -> cb.equal(root.get("status"), status));
         if (assetId != null) spec = spec.and((root, cq, cb) -> cb.equal(root.join("asset").get("id"), assetId));
         if (dateFrom != null) spec = spec.and((root, cq, cb) -> cb.greaterThanOrEqualTo(root.get("scheduledDate"), dateFrom));
         if (dateTo != null) spec = spec.and((root, cq, cb) -> cb.lessThanOrEqualTo(root.get("scheduledDate"), dateTo));
-        return maintenanceRepository.findAll(spec, pageable);
+        return spec;
     }
 
     public Maintenance get(Long id) {
@@ -46,6 +82,11 @@ public class MaintenanceService {
                 .orElseThrow(() -> new NotFoundException("Maintenance not found"));
     }
 
+    public MaintenanceDtos.MaintenanceResponse getResponse(Long id) {
+        return maintenanceRepository.findResponseById(id)
+                .orElseThrow(() -> new NotFoundException("Maintenance not found"));
+    }
+
     @Transactional
     public Maintenance schedule(MaintenanceDtos.CreateRequest req, AppUser actor) {
     Asset asset = assetRepository.findById(req.assetId()).orElseThrow(() -> new NotFoundException("Asset not found"));
@@ -53,21 +94,32 @@ public class MaintenanceService {
         m.setAsset(asset);
         m.setDescription(req.description());
         m.setScheduledDate(req.scheduledDate());
+        AssetStatus previousAssetStatus = asset.getStatus();
         asset.setStatus(AssetStatus.UNDER_REPAIR);
         Maintenance saved = maintenanceRepository.save(m);
         auditLogService.log("Maintenance", saved.getId(), "CREATE", "Maintenance scheduled", actor);
+        events.publishEvent(new MaintenanceChangedEvent(saved.getId(), asset.getId(), "CREATE", null, saved.getStatus(), saved.getScheduledDate()));
+        events.publishEvent(new AssetChangedEvent(asset.getId(), "MAINTENANCE", previousAssetStatus, AssetStatus.UNDER_REPAIR));
         return saved;
     }
 
     @Transactional
     public Maintenance updateStatus(Long id, MaintenanceDtos.UpdateStatusRequest req, AppUser actor) {
-    Maintenance m = maintenanceRepository.findById(id).orElseThrow(() -> new NotFoundException("Maintenance not found"));
+    Maintenance m = maintenanceRepository.findWithAssociationsById(id).orElseThrow(() -> new NotFoundException("Maintenance not found"));
+        MaintenanceStatus previous = m.getStatus();
         m.setStatus(req.status());
         m.setCompletedDate(req.completedDate());
+        AssetStatus previousAssetStatus = null;
         if (req.completedDate() != null) {
+            previousAssetStatus = m.getAsset().getStatus();
             m.getAsset().setStatus(AssetStatus.AVAILABLE);
         }
         auditLogService.log("Maintenance", m.getId(), "UPDATE", "Status changed to " + req.status(), actor);
+        Long assetId = m.getAsset() != null ? m.getAsset().getId() : null;
+        events.publishEvent(new MaintenanceChangedEvent(m.getId(), assetId, "UPDATE", previous, m.getStatus(), m.getScheduledDate()));
+        if (req.completedDate() != null) {
+            events.publishEvent(new AssetChangedEvent(assetId, "MAINTENANCE", previousAssetStatus, AssetStatus.AVAILABLE));
+        }
         return maintenanceRepository.save(m);
     }
 }
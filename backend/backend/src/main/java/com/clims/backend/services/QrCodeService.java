@@ -0,0 +1,160 @@
+package com.clims.backend.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * QR codes of asset tags. A code depends only on the tag, format, size, quiet zone and error correction level, so
+ * encoded codes are cached under that key and each carries the hash of its bytes as a strong entity tag; clients
+ * may cache them for good. The cache is bounded by {@code app.assets.qr.cache.max-bytes} of encoded output rather
+ * than by entry count.
+ * <p>
+ * SVG is written straight from the QR matrix as a single path, one unit per module, without an image buffer or
+ * ImageIO, so it costs a small part of a PNG encode and scales to any label printer.
+ */
+@Service
+public class QrCodeService {
+    public static final int MIN_SIZE = 64;
+    public static final int MAX_SIZE = 1024;
+    public static final int DEFAULT_SIZE = 200;
+    public static final int MAX_MARGIN = 16;
+    // The quiet zone the QR specification asks for, in modules
+    public static final int DEFAULT_MARGIN = 4;
+    public static final ErrorCorrectionLevel DEFAULT_ERROR_CORRECTION = ErrorCorrectionLevel.L;
+
+    public enum Format { PNG, PNG_DATA_URL, SVG }
+
+    /** An encoded code and the entity tag of its bytes. */
+    public record QrCode(byte[] bytes, String etag) { }
+
+    private record Key(String assetTag, Format format, int size, int margin, ErrorCorrectionLevel errorCorrection) { }
+
+    private final boolean enabled;
+    private final Cache<Key, QrCode> cache;
+
+    public QrCodeService(MeterRegistry meterRegistry,
+                         @Value("${app.assets.qr.cache.enabled:true}") boolean enabled,
+                         @Value("${app.assets.qr.cache.max-bytes:16777216}") long maxBytes) {
+        this.enabled = enabled;
+        // Publishes cache.gets{result=hit|miss}, cache.evictions, cache.size, ... tagged cache=assets.qr
+        this.cache = CaffeineCacheMetrics.monitor(meterRegistry,
+                Caffeine.newBuilder()
+                        .maximumWeight(maxBytes)
+                        .<Key, QrCode>weigher((key, code) -> code.bytes().length + key.assetTag().length())
+                        .recordStats()
+                        .build(),
+                "assets.qr");
+    }
+
+    /** The code of {@code assetTag}, {@code size} pixels square, with the default quiet zone and error correction. */
+    public QrCode qr(String assetTag, int size, Format format) {
+        return qr(assetTag, format, size, DEFAULT_MARGIN, DEFAULT_ERROR_CORRECTION);
+    }
+
+    /**
+     * The code of {@code assetTag}, {@code size} pixels square with a quiet zone of {@code margin} modules. A size
+     * or margin outside the allowed range is an {@link IllegalArgumentException}.
+     */
+    public QrCode qr(String assetTag, Format format, int size, int margin, ErrorCorrectionLevel errorCorrection) {
+        if (size < MIN_SIZE || size > MAX_SIZE) {
+            throw new IllegalArgumentException("size must be between " + MIN_SIZE + " and " + MAX_SIZE);
+        }
+        if (margin < 0 || margin > MAX_MARGIN) {
+            throw new IllegalArgumentException("margin must be between 0 and " + MAX_MARGIN);
+        }
+        Key key = new Key(assetTag, format, size, margin, errorCorrection);
+        return enabled ? cache.get(key, QrCodeService::encode) : encode(key);
+    }
+
+    /** Parses an error correction level of L, M, Q or H, in either case, as an {@link IllegalArgumentException} otherwise. */
+    public static ErrorCorrectionLevel errorCorrection(String level) {
+        return switch (level == null ? "" : level.toUpperCase(Locale.ROOT)) {
+            case "L" -> ErrorCorrectionLevel.L;
+            case "M" -> ErrorCorrectionLevel.M;
+            case "Q" -> ErrorCorrectionLevel.Q;
+            case "H" -> ErrorCorrectionLevel.H;
+            default -> throw new IllegalArgumentException("ecc must be one of L, M, Q, H");
+        };
+    }
+
+    private static QrCode encode(Key key) {
+        byte[] bytes = switch (key.format()) {
+            case PNG -> png(key);
+            case PNG_DATA_URL -> ("data:image/png;base64," + Base64.getEncoder().encodeToString(png(key))).getBytes(StandardCharsets.US_ASCII);
+            case SVG -> svg(matrix(key.assetTag(), 0, 0, key.margin(), key.errorCorrection()), key.size()).getBytes(StandardCharsets.US_ASCII);
+        };
+        return new QrCode(bytes, "\"" + hash(bytes) + "\"");
+    }
+
+    private static byte[] png(Key key) {
+        try {
+            BitMatrix bitMatrix = matrix(key.assetTag(), key.size(), key.size(), key.margin(), key.errorCorrection());
+            var out = new ByteArrayOutputStream();
+            MatrixToImageWriter.writeToStream(bitMatrix, "PNG", out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to generate QR", e);
+        }
+    }
+
+    // A width and height of 0 give one bit per module
+    private static BitMatrix matrix(String assetTag, int width, int height, int margin, ErrorCorrectionLevel errorCorrection) {
+        try {
+            Map<EncodeHintType, Object> hints = Map.of(EncodeHintType.MARGIN, margin, EncodeHintType.ERROR_CORRECTION, errorCorrection);
+            return new QRCodeWriter().encode(assetTag, BarcodeFormat.QR_CODE, width, height, hints);
+        } catch (WriterException e) {
+            throw new RuntimeException("Failed to generate QR", e);
+        }
+    }
+
+    // One module per user unit; each horizontal run of dark modules is one subpath
+    static String svg(BitMatrix m, int size) {
+        StringBuilder sb = new StringBuilder(4096)
+                .append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(size).append("\" height=\"").append(size)
+                .append("\" viewBox=\"0 0 ").append(m.getWidth()).append(' ').append(m.getHeight())
+                .append("\" shape-rendering=\"crispEdges\"><rect width=\"100%\" height=\"100%\" fill=\"#fff\"/><path fill=\"#000\" d=\"");
+        for (int y = 0; y < m.getHeight(); y++) {
+            int x = 0;
+            while (x < m.getWidth()) {
+                if (!m.get(x, y)) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < m.getWidth() && m.get(x, y)) x++;
+                sb.append('M').append(start).append(' ').append(y).append('h').append(x - start).append("v1h-").append(x - start).append('z');
+            }
+        }
+        return sb.append("\"/></svg>").toString();
+    }
+
+    private static String hash(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+}
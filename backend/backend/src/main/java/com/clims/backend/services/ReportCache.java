@@ -0,0 +1,358 @@
+package com.clims.backend.services;
+
+import com.clims.backend.dto.ReportDtos;
+import com.clims.backend.events.AssetChangedEvent;
+import com.clims.backend.events.AssetsImportedEvent;
+import com.clims.backend.events.MaintenanceChangedEvent;
+import com.clims.backend.events.UserChangedEvent;
+import com.clims.backend.repositories.CollectionVersion;
+import com.clims.backend.repositories.DepartmentRepository;
+import com.clims.backend.repositories.LocationRepository;
+import com.clims.backend.repositories.VendorRepository;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Disk-backed cache of generated report files, keyed by report, format, canonical filter, row limit and a data
+ * version. Asset, maintenance and user writes bump the version after commit, so files built before a write are
+ * never served again and are the first to be evicted; the rest are evicted least-recently-used once the total
+ * size passes {@code app.reports.cache.max-bytes}. Departments, locations and vendors have no write path that
+ * publishes events, yet reports print their names, so the key also carries the {@link CollectionVersion} of
+ * each of those tables, read when the key is made.
+ * <p>
+ * Generation is single-flight per key whether or not caching is enabled: a request arriving while an identical
+ * report is being generated waits for that run and streams its file instead of querying the database again.
+ * <p>
+ * The data version lives in this instance's memory: asset, maintenance and user writes made through another
+ * instance are not observed.
+ */
+@Component
+public class ReportCache {
+    private static final Logger log = LoggerFactory.getLogger(ReportCache.class);
+    private static final String FILE_PREFIX = "report-";
+
+    public record Key(String report, String format, String filter, Integer limit, long version, List<CollectionVersion> lookups) { }
+
+    private record Entry(Path file, long bytes, ReportService.ReportResult result) { }
+
+    // A generation in progress. Followers join before it is sealed; an uncached file is deleted by the last reader.
+    private static final class Flight {
+        final CompletableFuture<Entry> done = new CompletableFuture<>();
+        private int readers;
+        private boolean sealed;
+        private Path temporaryFile;
+
+        synchronized boolean join() {
+            if (sealed) return false;
+            readers++;
+            return true;
+        }
+
+        synchronized void leave() {
+            readers--;
+            if (sealed && readers == 0 && temporaryFile != null) deleteQuietly(temporaryFile);
+        }
+
+        synchronized void seal(Path temporaryFile) {
+            sealed = true;
+            this.temporaryFile = temporaryFile;
+            if (readers == 0 && temporaryFile != null) deleteQuietly(temporaryFile);
+        }
+
+        synchronized int readers() { return readers; }
+    }
+
+    /** Writes a report to the given stream; invoked only on a cache miss. */
+    @FunctionalInterface
+    public interface Generator {
+        ReportService.ReportResult writeTo(OutputStream os) throws IOException;
+    }
+
+    private final ObjectMapper canonicalMapper;
+    private final boolean enabled;
+    private final long maxBytes;
+    private final long maxWaitSeconds;
+    private final Path dir;
+    private final Supplier<List<CollectionVersion>> lookupVersions;
+    private final AtomicLong dataVersion = new AtomicLong();
+    // Lookup versions of the latest key made; entries with others are stale
+    private volatile List<CollectionVersion> currentLookups;
+    private final AtomicLong fileSeq = new AtomicLong();
+    // Access-ordered for LRU eviction; guarded by this
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    private final ConcurrentHashMap<Key, Flight> inFlight = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+    private final Counter evictions;
+
+    @Autowired
+    public ReportCache(ObjectMapper objectMapper,
+                       MeterRegistry meterRegistry,
+                       DepartmentRepository departmentRepository,
+                       LocationRepository locationRepository,
+                       VendorRepository vendorRepository,
+                       @Value("${app.reports.cache.enabled:true}") boolean enabled,
+                       @Value("${app.reports.cache.max-bytes:536870912}") long maxBytes,
+                       @Value("${app.reports.cache.dir:${java.io.tmpdir}/clims-report-cache}") String dir,
+                       @Value("${app.reports.coalesce.max-wait-seconds:120}") long maxWaitSeconds) {
+        this(objectMapper, meterRegistry, () -> List.of(departmentRepository.findVersion(), locationRepository.findVersion(),
+                vendorRepository.findVersion()), enabled, maxBytes, dir, maxWaitSeconds);
+    }
+
+    ReportCache(ObjectMapper objectMapper, MeterRegistry meterRegistry, Supplier<List<CollectionVersion>> lookupVersions,
+                boolean enabled, long maxBytes, String dir, long maxWaitSeconds) {
+        // Records serialize in declaration order; dropping nulls makes "{}" and an all-null filter the same key
+        this.canonicalMapper = objectMapper.copy()
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+                .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        this.lookupVersions = lookupVersions;
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+        this.maxWaitSeconds = maxWaitSeconds;
+        this.dir = Paths.get(dir);
+        resetDirectory();
+
+        this.hits = Counter.builder("reports.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("reports.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.coalesced = Counter.builder("reports.cache.requests").tag("result", "coalesced").register(meterRegistry);
+        this.evictions = Counter.builder("reports.cache.evictions").register(meterRegistry);
+        Gauge.builder("reports.cache.size.bytes", this, c -> c.sizeInBytes()).register(meterRegistry);
+        Gauge.builder("reports.cache.entries", this, c -> c.entryCount()).register(meterRegistry);
+    }
+
+    public Key key(String report, ReportDtos.ReportFormat format, Object filter, Integer limit) {
+        try {
+            String canonical = filter == null ? "{}" : canonicalMapper.writeValueAsString(filter);
+            long version = dataVersion.get();
+            // Only cached files can go stale; without caching the key just pairs identical requests
+            List<CollectionVersion> lookups = enabled ? lookupVersions.get() : List.of();
+            currentLookups = lookups;
+            return new Key(report, format.name(), canonical, limit, version, lookups);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Streams the cached file for {@code key}, joins an identical generation already in progress, or runs the
+     * generator while copying its output to both the caller and a file. Failed or interrupted generations are
+     * never cached.
+     */
+    public ReportService.ReportResult serve(Key key, OutputStream os, Generator generator) throws IOException {
+        while (true) {
+            if (enabled) {
+                ReportService.ReportResult cached = streamCached(key, os);
+                if (cached != null) return cached;
+            }
+            Flight flight = new Flight();
+            Flight current = inFlight.putIfAbsent(key, flight);
+            if (current == null) return lead(key, flight, os, generator);
+            // A sealed flight has just finished; look again (usually a cache hit now)
+            if (current.join()) return follow(current, os, generator);
+        }
+    }
+
+    private ReportService.ReportResult streamCached(Key key, OutputStream os) throws IOException {
+        Entry hit = lookup(key);
+        if (hit == null) return null;
+        try (InputStream in = Files.newInputStream(hit.file())) {
+            in.transferTo(os);
+            hits.increment();
+            return hit.result();
+        } catch (NoSuchFileException evicted) {
+            // Evicted between lookup and open; nothing was written yet
+            return null;
+        }
+    }
+
+    private ReportService.ReportResult lead(Key key, Flight flight, OutputStream os, Generator generator) throws IOException {
+        misses.increment();
+        Path file = dir.resolve(FILE_PREFIX + fileSeq.incrementAndGet());
+        Entry entry;
+        try {
+            try (OutputStream copy = new BufferedOutputStream(Files.newOutputStream(file))) {
+                ReportService.ReportResult result = generator.writeTo(new TeeOutputStream(os, copy));
+                copy.flush();
+                entry = new Entry(file, Files.size(file), result);
+            }
+        } catch (IOException | RuntimeException e) {
+            inFlight.remove(key, flight);
+            flight.done.completeExceptionally(e);
+            flight.seal(null);
+            deleteQuietly(file);
+            throw e;
+        }
+        boolean cached = enabled && store(key, entry);
+        inFlight.remove(key, flight);
+        flight.done.complete(entry);
+        flight.seal(cached ? null : file);
+        return entry.result();
+    }
+
+    private ReportService.ReportResult follow(Flight flight, OutputStream os, Generator generator) throws IOException {
+        try {
+            Entry entry = awaitLeader(flight);
+            if (entry != null) {
+                try (InputStream in = Files.newInputStream(entry.file())) {
+                    in.transferTo(os);
+                    coalesced.increment();
+                    return entry.result();
+                } catch (NoSuchFileException evicted) {
+                    // fall through and generate
+                }
+            }
+        } finally {
+            flight.leave();
+        }
+        // The leader failed (e.g. its client disconnected), took too long, or its file was evicted
+        misses.increment();
+        return generator.writeTo(os);
+    }
+
+    private Entry awaitLeader(Flight flight) throws IOException {
+        try {
+            return flight.done.get(maxWaitSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for an identical report");
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        }
+    }
+
+    // Number of requests currently waiting on the generation for key (for tests)
+    int waitingFor(Key key) {
+        Flight flight = inFlight.get(key);
+        return flight != null ? flight.readers() : 0;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetChanged(AssetChangedEvent event) {
+        dataVersion.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetsImported(AssetsImportedEvent event) {
+        dataVersion.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMaintenanceChanged(MaintenanceChangedEvent event) {
+        dataVersion.incrementAndGet();
+    }
+
+    // Inventory rows print the assigned user's name and department
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        dataVersion.incrementAndGet();
+    }
+
+    public synchronized long sizeInBytes() { return totalBytes; }
+
+    public synchronized int entryCount() { return entries.size(); }
+
+    private synchronized Entry lookup(Key key) {
+        return entries.get(key);
+    }
+
+    // Returns false when the file is not kept: data changed while generating, or it alone would blow the budget
+    private synchronized boolean store(Key key, Entry entry) {
+        if (key.version() != dataVersion.get() || entry.bytes() > maxBytes) return false;
+        Entry previous = entries.put(key, entry);
+        totalBytes += entry.bytes();
+        if (previous != null) {
+            totalBytes -= previous.bytes();
+            deleteQuietly(previous.file());
+        }
+        evict();
+        return true;
+    }
+
+    // Stale versions first, then least recently used until the size budget is met
+    private void evict() {
+        long current = dataVersion.get();
+        List<CollectionVersion> lookups = currentLookups;
+        for (Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Key, Entry> e = it.next();
+            if (e.getKey().version() != current || !e.getKey().lookups().equals(lookups) || totalBytes > maxBytes) {
+                it.remove();
+                totalBytes -= e.getValue().bytes();
+                deleteQuietly(e.getValue().file());
+                evictions.increment();
+            }
+        }
+    }
+
+    // Entries do not survive a restart (the version starts over), so leftovers from a previous run are removed.
+    // The directory is also used for in-flight files when caching is disabled.
+    private void resetDirectory() {
+        try {
+            Files.createDirectories(dir);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, FILE_PREFIX + "*")) {
+                for (Path f : files) deleteQuietly(f);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot prepare report cache directory " + dir, e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete report cache file {}", file, e);
+        }
+    }
+
+    // Copies every write to a second stream. close() only flushes: the caller owns both underlying streams.
+    private static final class TeeOutputStream extends OutputStream {
+        private final OutputStream primary;
+        private final OutputStream copy;
+
+        TeeOutputStream(OutputStream primary, OutputStream copy) {
+            this.primary = primary;
+            this.copy = copy;
+        }
+
+        @Override public void write(int b) throws IOException { primary.write(b); copy.write(b); }
+        @Override public void write(byte[] b, int off, int len) throws IOException { primary.write(b, off, len); copy.write(b, off, len); }
+        @Override public void flush() throws IOException { primary.flush(); copy.flush(); }
+        @Override public void close() throws IOException { flush(); }
+    }
+}
@@ -0,0 +1,93 @@
+package com.clims.backend.services;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * On-the-fly compression of streamed exports. {@link #negotiate} picks a content coding from the client's
+ * {@code Accept-Encoding}: zstd only when the client names it, gzip whenever it is acceptable (including via
+ * {@code *}), identity otherwise. Compression wraps the response stream, so nothing is buffered beyond the
+ * codec's own window.
+ */
+@Component
+public class ReportCompression {
+
+    public enum Encoding {
+        IDENTITY("identity"), GZIP("gzip"), ZSTD("zstd");
+
+        private final String token;
+
+        Encoding(String token) { this.token = token; }
+
+        public String token() { return token; }
+    }
+
+    private final int gzipLevel;
+    private final int zstdLevel;
+    private final boolean zstdEnabled;
+
+    public ReportCompression(@Value("${app.reports.compression.gzip-level:6}") int gzipLevel,
+                             @Value("${app.reports.compression.zstd-level:3}") int zstdLevel,
+                             @Value("${app.reports.compression.zstd-enabled:true}") boolean zstdEnabled) {
+        if (gzipLevel < Deflater.BEST_SPEED || gzipLevel > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("app.reports.compression.gzip-level must be between 1 and 9");
+        }
+        this.gzipLevel = gzipLevel;
+        this.zstdLevel = zstdLevel;
+        this.zstdEnabled = zstdEnabled;
+    }
+
+    public Encoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) return Encoding.IDENTITY;
+        Double zstd = null, gzip = null, any = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim().toLowerCase(Locale.ROOT);
+            double q = quality(tokens);
+            switch (coding) {
+                case "zstd" -> zstd = q;
+                case "gzip", "x-gzip" -> gzip = q;
+                case "*" -> any = q;
+                default -> { }
+            }
+        }
+        if (gzip == null) gzip = any;
+        if (zstdEnabled && zstd != null && zstd > 0 && (gzip == null || zstd >= gzip)) return Encoding.ZSTD;
+        if (gzip != null && gzip > 0) return Encoding.GZIP;
+        return Encoding.IDENTITY;
+    }
+
+    // Closing the returned stream finishes the compressed frame but leaves the response stream open
+    public OutputStream wrap(OutputStream os, Encoding encoding) throws IOException {
+        OutputStream target = StreamUtils.nonClosing(os);
+        return switch (encoding) {
+            case IDENTITY -> target;
+            case GZIP -> new GZIPOutputStream(target, 8192) {
+                { def.setLevel(gzipLevel); }
+            };
+            case ZSTD -> new ZstdOutputStream(target, zstdLevel);
+        };
+    }
+
+    private static double quality(String[] tokens) {
+        for (int i = 1; i < tokens.length; i++) {
+            String param = tokens[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
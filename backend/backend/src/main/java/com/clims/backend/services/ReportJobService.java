@@ -0,0 +1,303 @@
+package com.clims.backend.services;
+
+import com.clims.backend.dto.ReportDtos;
+import com.clims.backend.exceptions.NotFoundException;
+import com.clims.backend.exceptions.ReportQueueFullException;
+import com.clims.backend.models.entities.AppUser;
+import com.clims.backend.models.entities.Report;
+import com.clims.backend.models.enums.ReportStatus;
+import com.clims.backend.repositories.ReportRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * Generates reports in the background: each submission is persisted as a {@link Report} row, rendered by a
+ * bounded worker pool to a file under {@code app.reports.jobs.dir}, and downloaded once it completes.
+ * A full queue is rejected rather than buffered so a burst of exports cannot exhaust memory or disk.
+ * <p>
+ * Jobs live in this instance's pool, so a job the pool drops at shutdown is marked {@code FAILED} there, and once
+ * the application is ready every job still {@code QUEUED} or {@code RUNNING} from before the start is marked
+ * {@code FAILED} too, since no worker is left to finish it. Several instances sharing the reports table should
+ * set {@code app.reports.jobs.fail-unfinished-on-startup=false}, or a restarting instance fails the others' jobs.
+ */
+@Service
+public class ReportJobService {
+    private static final Logger log = LoggerFactory.getLogger(ReportJobService.class);
+
+    private final ReportRepository reportRepository;
+    private final ReportService reportService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executor;
+    private final Path outputDir;
+    private final Duration retention;
+    private final boolean failUnfinishedOnStartup;
+    // Jobs created before this are not in this instance's pool
+    private final Instant startedAt = Instant.now();
+    // Completion signals for long-polling clients; entries exist only while a job is queued or running
+    private final Map<Long, CompletableFuture<Report>> completions = new ConcurrentHashMap<>();
+
+    public ReportJobService(ReportRepository reportRepository,
+                            ReportService reportService,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.reports.jobs.workers:2}") int workers,
+                            @Value("${app.reports.jobs.queue-capacity:50}") int queueCapacity,
+                            @Value("${app.reports.jobs.dir:${java.io.tmpdir}/clims-reports}") String dir,
+                            @Value("${app.reports.jobs.retention-hours:24}") long retentionHours,
+                            @Value("${app.reports.jobs.fail-unfinished-on-startup:true}") boolean failUnfinishedOnStartup) {
+        this.reportRepository = reportRepository;
+        this.reportService = reportService;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.outputDir = Paths.get(dir);
+        this.retention = Duration.ofHours(retentionHours);
+        this.failUnfinishedOnStartup = failUnfinishedOnStartup;
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("report-job-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        // Publishes executor.queued, executor.active, executor.pool.size, executor.queue.remaining, ...
+        new ExecutorServiceMetrics(executor, "reports.jobs", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    public Report submit(ReportDtos.ReportJobRequest req, AppUser user) {
+        if (req == null || req.type() == null || req.format() == null) {
+            throw new IllegalArgumentException("Report type and format are required");
+        }
+        Report report = new Report();
+        report.setName(req.type().name().toLowerCase() + "_" + LocalDate.now() + "." + req.format().name().toLowerCase());
+        report.setType(req.type().name());
+        report.setExportFormat(req.format().name());
+        report.setGeneratedBy(user);
+        report.setFilterJson(toJson(req.type() == ReportDtos.ReportType.INVENTORY ? req.inventory() : req.maintenance()));
+        report.setStatus(ReportStatus.QUEUED);
+        report.setProgress(0);
+        Report saved = reportRepository.save(report);
+
+        Long id = saved.getId();
+        completions.put(id, new CompletableFuture<>());
+        try {
+            executor.execute(new Job(id, req));
+        } catch (RejectedExecutionException e) {
+            completions.remove(id);
+            reportRepository.delete(saved);
+            meterRegistry.counter("reports.jobs.rejected").increment();
+            throw new ReportQueueFullException("Report queue is full, retry later");
+        }
+        return saved;
+    }
+
+    public Report get(Long id) {
+        return reportRepository.findById(id).orElseThrow(() -> new NotFoundException("Report job not found"));
+    }
+
+    /** Completes with the finished job, or immediately when the job is no longer queued or running. */
+    public CompletableFuture<Report> whenFinished(Long id) {
+        CompletableFuture<Report> pending = completions.get(id);
+        if (pending != null) return pending;
+        return CompletableFuture.completedFuture(get(id));
+    }
+
+    public Path requireOutput(Report report) {
+        if (report.getStatus() != ReportStatus.COMPLETED) {
+            throw new IllegalStateException("Report job " + report.getId() + " is " + report.getStatus());
+        }
+        Path file = report.getFilePath() != null ? Paths.get(report.getFilePath()) : null;
+        if (file == null || !Files.isReadable(file)) {
+            throw new IllegalStateException("Report job " + report.getId() + " output is no longer available");
+        }
+        return file;
+    }
+
+    // Removes generated files once they outlive the retention window; the row stays as history
+    @Scheduled(fixedDelayString = "${app.reports.jobs.cleanup-interval-ms:3600000}")
+    public void expireOldOutputs() {
+        Instant cutoff = Instant.now().minus(retention);
+        for (Report r : reportRepository.findByStatusAndCompletedAtBefore(ReportStatus.COMPLETED, cutoff)) {
+            try {
+                if (r.getFilePath() != null) Files.deleteIfExists(Paths.get(r.getFilePath()));
+            } catch (IOException e) {
+                log.warn("Could not delete expired report output {}", r.getFilePath(), e);
+                continue;
+            }
+            r.setStatus(ReportStatus.EXPIRED);
+            r.setFilePath(null);
+            reportRepository.save(r);
+        }
+    }
+
+    /** Fails the jobs a previous run of the application left unfinished; their worker died with it. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedJobs() {
+        if (!failUnfinishedOnStartup) return;
+        int failed = reportRepository.failUnfinished(List.of(ReportStatus.QUEUED, ReportStatus.RUNNING), startedAt,
+                "Interrupted by a server restart", Instant.now());
+        if (failed > 0) log.warn("Marked {} report jobs interrupted by a restart as failed", failed);
+    }
+
+    // Running jobs are interrupted and record their own failure; queued ones never start, so they are failed here
+    @PreDestroy
+    public void shutdown() {
+        List<Long> neverStarted = executor.shutdownNow().stream()
+                .filter(Job.class::isInstance)
+                .map(job -> ((Job) job).id)
+                .toList();
+        if (neverStarted.isEmpty()) return;
+        try {
+            reportRepository.failQueued(neverStarted, "The server shut down before the job started", Instant.now());
+        } catch (RuntimeException e) {
+            log.warn("Could not mark {} queued report jobs as failed", neverStarted.size(), e);
+        }
+    }
+
+    // A submitted job, recognisable among the tasks the pool hands back at shutdown
+    private final class Job implements Runnable {
+        private final Long id;
+        private final ReportDtos.ReportJobRequest req;
+
+        Job(Long id, ReportDtos.ReportJobRequest req) {
+            this.id = id;
+            this.req = req;
+        }
+
+        @Override
+        public void run() {
+            ReportJobService.this.run(id, req);
+        }
+    }
+
+    private void run(Long id, ReportDtos.ReportJobRequest req) {
+        Report report = reportRepository.findById(id).orElse(null);
+        if (report == null) {
+            completions.remove(id);
+            return;
+        }
+        long started = System.nanoTime();
+        report.setStatus(ReportStatus.RUNNING);
+        report = reportRepository.save(report);
+
+        String extension = req.format().name().toLowerCase();
+        Path target = outputDir.resolve(id + "." + extension);
+        Path partial = outputDir.resolve(id + "." + extension + ".part");
+        String outcome = "completed";
+        try {
+            Files.createDirectories(outputDir);
+            ReportService.ReportResult result;
+            try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(partial))) {
+                result = generate(req, os, progressTracker(id, expectedRows(req)));
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            report.setStatus(ReportStatus.COMPLETED);
+            report.setProgress(100);
+            report.setRowCount(result.rows());
+            report.setFilePath(target.toAbsolutePath().toString());
+        } catch (Exception e) {
+            outcome = "failed";
+            log.warn("Report job {} failed", id, e);
+            deleteQuietly(partial);
+            report.setStatus(ReportStatus.FAILED);
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            report.setErrorMessage(message.length() > 1000 ? message.substring(0, 1000) : message);
+        }
+        long elapsed = System.nanoTime() - started;
+        report.setDurationMs(TimeUnit.NANOSECONDS.toMillis(elapsed));
+        report.setCompletedAt(Instant.now());
+        Timer.builder("reports.jobs.duration")
+                .tag("type", req.type().name())
+                .tag("format", req.format().name())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+
+        Report finished = report;
+        try {
+            finished = reportRepository.save(report);
+        } finally {
+            CompletableFuture<Report> pending = completions.remove(id);
+            if (pending != null) pending.complete(finished);
+        }
+    }
+
+    private ReportService.ReportResult generate(ReportDtos.ReportJobRequest req, OutputStream os, LongConsumer onRow) {
+        // Background jobs are not subject to the synchronous endpoints' unfiltered row limit
+        boolean inventory = req.type() == ReportDtos.ReportType.INVENTORY;
+        if (req.format() == ReportDtos.ReportFormat.CSV) {
+            return inventory
+                    ? reportService.writeInventoryCsv(os, req.inventory(), null, onRow)
+                    : reportService.writeMaintenanceCsv(os, req.maintenance(), null, onRow);
+        }
+        return inventory
+                ? reportService.writeInventoryPdf(os, req.inventory(), null, onRow)
+                : reportService.writeMaintenancePdf(os, req.maintenance(), null, onRow);
+    }
+
+    private long expectedRows(ReportDtos.ReportJobRequest req) {
+        return req.type() == ReportDtos.ReportType.INVENTORY
+                ? reportService.countInventoryRecords(req.inventory())
+                : reportService.countMaintenanceRecords(req.maintenance());
+    }
+
+    // Persists progress only when the whole percentage changes, so a large export issues at most ~100 updates
+    private LongConsumer progressTracker(Long id, long expectedRows) {
+        long total = Math.max(expectedRows, 1);
+        int[] last = {0};
+        return rows -> {
+            int percent = (int) Math.min(99, rows * 100 / total);
+            if (percent > last[0]) {
+                last[0] = percent;
+                reportRepository.updateProgress(id, percent);
+            }
+        };
+    }
+
+    private String toJson(Object filter) {
+        if (filter == null) return null;
+        try {
+            return objectMapper.writeValueAsString(filter);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // best effort; a leftover .part file is never served
+        }
+    }
+}
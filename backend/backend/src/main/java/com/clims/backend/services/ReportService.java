@@ -5,45 +5,55 @@ import com.clims.backend.models.entities.Asset;
 import com.clims.backend.models.entities.Maintenance;
 import com.clims.backend.repositories.AssetRepository;
 import com.clims.backend.repositories.MaintenanceRepository;
+import com.clims.backend.repositories.ReportSpecifications;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdfwriter.compress.CompressParameters;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
 import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
 import java.io.OutputStream;
 import java.io.IOException;
 import java.io.StringWriter;
-import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
 
 @Service
 public class ReportService {
+    // Stable row order so limited exports always return the same leading rows
+    private static final Sort REPORT_ORDER = Sort.by("id").ascending();
+
     private final AssetRepository assetRepository;
     private final MaintenanceRepository maintenanceRepository;
 
+    // Heap a single PDF export may use for page content before PDFBox spills to a scratch file
+    @Value("${app.reports.pdf.max-main-memory-bytes:8388608}")
+    private long pdfMaxMainMemoryBytes = 8L * 1024 * 1024;
+
+    // Scratch file directory for PDF exports; blank uses java.io.tmpdir
+    @Value("${app.reports.pdf.temp-dir:}")
+    private String pdfTempDir = "";
+
     public ReportService(AssetRepository assetRepository, MaintenanceRepository maintenanceRepository) {
         this.assetRepository = assetRepository;
         this.maintenanceRepository = maintenanceRepository;
     }
 
     public String inventoryCsv(ReportDtos.InventoryFilter f) {
-        List<Asset> assets = assetRepository.findAll().stream()
-                .filter(a -> f.status() == null || a.getStatus() == f.status())
-                .filter(a -> f.vendorId() == null || (a.getVendor() != null && f.vendorId().equals(a.getVendor().getId())))
-                .filter(a -> f.departmentId() == null || (a.getAssignedUser() != null && a.getAssignedUser().getDepartment() != null && f.departmentId().equals(a.getAssignedUser().getDepartment().getId())))
-                .filter(a -> {
-                    LocalDate pd = a.getPurchaseDate();
-                    return (f.purchasedFrom() == null || (pd != null && !pd.isBefore(f.purchasedFrom()))) &&
-                           (f.purchasedTo() == null || (pd != null && !pd.isAfter(f.purchasedTo())));
-                })
-                .collect(Collectors.toList());
+        List<Asset> assets = findInventory(f);
         try (StringWriter out = new StringWriter(); CSVPrinter printer = new CSVPrinter(out, CSVFormat.DEFAULT.withHeader("AssetTag","SerialNumber","Make","Model","Status","AssignedTo","Department","Location","Vendor"))) {
             for (Asset a : assets) {
                 printer.printRecord(
@@ -62,15 +72,7 @@ public class ReportService {
     }
 
     public String maintenanceCsv(ReportDtos.MaintenanceFilter f) {
-        List<Maintenance> list = maintenanceRepository.findAll().stream()
-                .filter(m -> f.assetId() == null || (m.getAsset() != null && f.assetId().equals(m.getAsset().getId())))
-                .filter(m -> f.status() == null || m.getStatus() == f.status())
-                .filter(m -> {
-                    LocalDate d = m.getScheduledDate();
-                    return (f.from() == null || (d != null && !d.isBefore(f.from()))) &&
-                           (f.to() == null || (d != null && !d.isAfter(f.to())));
-                })
-                .collect(Collectors.toList());
+        List<Maintenance> list = findMaintenance(f);
         try (StringWriter out = new StringWriter(); CSVPrinter printer = new CSVPrinter(out, CSVFormat.DEFAULT.withHeader("AssetTag","Description","Status","Scheduled","Completed"))) {
             for (Maintenance m : list) {
                 printer.printRecord(
@@ -88,150 +90,6 @@ public class ReportService {
         }
     }
 
-    public byte[] inventoryPdf(ReportDtos.InventoryFilter f) {
-        List<Asset> assets = assetRepository.findAll().stream()
-                .filter(a -> f.status() == null || a.getStatus() == f.status())
-                .filter(a -> f.vendorId() == null || (a.getVendor() != null && f.vendorId().equals(a.getVendor().getId())))
-                .filter(a -> f.departmentId() == null || (a.getAssignedUser() != null && a.getAssignedUser().getDepartment() != null && f.departmentId().equals(a.getAssignedUser().getDepartment().getId())))
-                .filter(a -> {
-                    LocalDate pd = a.getPurchaseDate();
-                    return (f.purchasedFrom() == null || (pd != null && !pd.isBefore(f.purchasedFrom()))) &&
-                           (f.purchasedTo() == null || (pd != null && !pd.isAfter(f.purchasedTo())));
-                })
-                .collect(Collectors.toList());
-
-        try (PDDocument doc = new PDDocument(); ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
-            PDType1Font fontBold = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
-            PDType1Font fontReg = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
-
-            float margin = 40;
-            PDPage page = new PDPage(PDRectangle.LETTER);
-            doc.addPage(page);
-            float y = page.getMediaBox().getHeight() - margin;
-            float x = margin;
-            String[] headers = {"AssetTag","Serial","Make","Model","Status","AssignedTo","Dept","Location","Vendor"};
-
-            PDPageContentStream cs = new PDPageContentStream(doc, page);
-            try {
-                // Title
-                cs.setFont(fontBold, 14);
-                cs.beginText();
-                cs.newLineAtOffset(margin, y);
-                cs.showText("Inventory Report");
-                cs.endText();
-                y -= 24;
-
-                // Header
-                cs.setFont(fontBold, 10);
-                writeRow(cs, x, y, headers);
-                y -= 16;
-
-                cs.setFont(fontReg, 10);
-                for (Asset a : assets) {
-                    if (y < margin + 40) {
-                        cs.close();
-                        page = new PDPage(PDRectangle.LETTER);
-                        doc.addPage(page);
-                        y = page.getMediaBox().getHeight() - margin;
-                        cs = new PDPageContentStream(doc, page);
-                        cs.setFont(fontBold, 10);
-                        writeRow(cs, x, y, headers);
-                        y -= 16;
-                        cs.setFont(fontReg, 10);
-                    }
-
-                    String[] row = new String[]{
-                            safe(a.getAssetTag()), safe(a.getSerialNumber()), safe(a.getMake()), safe(a.getModel()),
-                            String.valueOf(a.getStatus()),
-                            a.getAssignedUser() != null ? safe(a.getAssignedUser().getUsername()) : "",
-                            (a.getAssignedUser() != null && a.getAssignedUser().getDepartment() != null) ? safe(a.getAssignedUser().getDepartment().getName()) : "",
-                            a.getLocation() != null ? safe(a.getLocation().getName()) : "",
-                            a.getVendor() != null ? safe(a.getVendor().getName()) : ""
-                    };
-                    writeRow(cs, x, y, row);
-                    y -= 14;
-                }
-            } finally {
-                cs.close();
-            }
-            doc.save(bos);
-            return bos.toByteArray();
-        } catch (IOException e) {
-            throw new RuntimeException("Failed generating PDF", e);
-        }
-    }
-
-    public byte[] maintenancePdf(ReportDtos.MaintenanceFilter f) {
-        List<Maintenance> list = maintenanceRepository.findAll().stream()
-                .filter(m -> f.assetId() == null || (m.getAsset() != null && f.assetId().equals(m.getAsset().getId())))
-                .filter(m -> f.status() == null || m.getStatus() == f.status())
-                .filter(m -> {
-                    LocalDate d = m.getScheduledDate();
-                    return (f.from() == null || (d != null && !d.isBefore(f.from()))) &&
-                           (f.to() == null || (d != null && !d.isAfter(f.to())));
-                })
-                .collect(Collectors.toList());
-
-        try (PDDocument doc = new PDDocument(); ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
-            PDType1Font fontBold = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
-            PDType1Font fontReg = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
-
-            float margin = 40;
-            PDPage page = new PDPage(PDRectangle.LETTER);
-            doc.addPage(page);
-            float y = page.getMediaBox().getHeight() - margin;
-            float x = margin;
-            String[] headers = {"AssetTag","Description","Status","Scheduled","Completed"};
-
-            PDPageContentStream cs = new PDPageContentStream(doc, page);
-            try {
-                // Title
-                cs.setFont(fontBold, 14);
-                cs.beginText();
-                cs.newLineAtOffset(margin, y);
-                cs.showText("Maintenance Report");
-                cs.endText();
-                y -= 24;
-
-                // Header
-                cs.setFont(fontBold, 10);
-                writeRow(cs, x, y, headers);
-                y -= 16;
-
-                cs.setFont(fontReg, 10);
-                for (Maintenance m : list) {
-                    if (y < margin + 40) {
-                        cs.close();
-                        page = new PDPage(PDRectangle.LETTER);
-                        doc.addPage(page);
-                        y = page.getMediaBox().getHeight() - margin;
-                        cs = new PDPageContentStream(doc, page);
-                        cs.setFont(fontBold, 10);
-                        writeRow(cs, x, y, headers);
-                        y -= 16;
-                        cs.setFont(fontReg, 10);
-                    }
-
-                    String[] row = new String[]{
-                            m.getAsset() != null ? safe(m.getAsset().getAssetTag()) : "",
-                            safe(m.getDescription()),
-                            String.valueOf(m.getStatus()),
-                            m.getScheduledDate() != null ? m.getScheduledDate().toString() : "",
-                            m.getCompletedDate() != null ? m.getCompletedDate().toString() : ""
-                    };
-                    writeRow(cs, x, y, row);
-                    y -= 14;
-                }
-            } finally {
-                cs.close();
-            }
-            doc.save(bos);
-            return bos.toByteArray();
-        } catch (IOException e) {
-            throw new RuntimeException("Failed generating PDF", e);
-        }
-    }
-
     private static void writeRow(PDPageContentStream cs, float x, float y, String[] cols) throws IOException {
         float colWidth = 65; // simple fixed-width columns
         float currentX = x;
@@ -255,136 +113,130 @@ public class ReportService {
 
     // New helpers for streaming and limiting
     public long countInventoryRecords(ReportDtos.InventoryFilter f) {
-        return assetRepository.findAll().stream()
-                .filter(a -> f == null || f.status() == null || a.getStatus() == f.status())
-                .filter(a -> f == null || f.vendorId() == null || (a.getVendor() != null && f.vendorId().equals(a.getVendor().getId())))
-                .filter(a -> f == null || f.departmentId() == null || (a.getAssignedUser() != null && a.getAssignedUser().getDepartment() != null && f.departmentId().equals(a.getAssignedUser().getDepartment().getId())))
-                .filter(a -> {
-                    if (f == null) return true;
-                    LocalDate pd = a.getPurchaseDate();
-                    return (f.purchasedFrom() == null || (pd != null && !pd.isBefore(f.purchasedFrom()))) &&
-                           (f.purchasedTo() == null || (pd != null && !pd.isAfter(f.purchasedTo())));
-                })
-                .count();
+        return assetRepository.count(ReportSpecifications.inventory(f));
     }
 
     public long countMaintenanceRecords(ReportDtos.MaintenanceFilter f) {
-        return maintenanceRepository.findAll().stream()
-                .filter(m -> f == null || f.assetId() == null || (m.getAsset() != null && f.assetId().equals(m.getAsset().getId())))
-                .filter(m -> f == null || f.status() == null || m.getStatus() == f.status())
-                .filter(m -> {
-                    if (f == null) return true;
-                    LocalDate d = m.getScheduledDate();
-                    return (f.from() == null || (d != null && !d.isBefore(f.from()))) &&
-                           (f.to() == null || (d != null && !d.isAfter(f.to())));
-                })
-                .count();
+        return maintenanceRepository.count(ReportSpecifications.maintenance(f));
+    }
+
+    // Writers accept an onRow callback that receives the running row count, used for background job progress
+    private static final LongConsumer NO_PROGRESS = rows -> { };
+
+    // Outcome of a single-pass export: rows written and whether the limit cut the result short
+    public record ReportResult(long rows, boolean truncated) {}
+
+    // Streams rows straight from a database cursor; the transaction keeps the cursor open while writing.
+    // One extra row is requested past the limit so truncation is known without a separate count query.
+    @Transactional(readOnly = true)
+    public ReportResult writeInventoryCsv(OutputStream os, ReportDtos.InventoryFilter f, Integer limit) {
+        return writeInventoryCsv(os, f, limit, NO_PROGRESS);
     }
 
-    public void writeInventoryCsv(OutputStream os, ReportDtos.InventoryFilter f, Integer limit) {
-        try (CSVPrinter printer = new CSVPrinter(new java.io.OutputStreamWriter(os), CSVFormat.DEFAULT.withHeader("AssetTag","SerialNumber","Make","Model","Status","AssignedTo","Department","Location","Vendor"))) {
-            final int[] written = {0};
-            assetRepository.findAll().stream()
-                    .filter(a -> f == null || f.status() == null || a.getStatus() == f.status())
-                    .filter(a -> f == null || f.vendorId() == null || (a.getVendor() != null && f.vendorId().equals(a.getVendor().getId())))
-                    .filter(a -> f == null || f.departmentId() == null || (a.getAssignedUser() != null && a.getAssignedUser().getDepartment() != null && f.departmentId().equals(a.getAssignedUser().getDepartment().getId())))
-                    .filter(a -> {
-                        if (f == null) return true;
-                        LocalDate pd = a.getPurchaseDate();
-                        return (f.purchasedFrom() == null || (pd != null && !pd.isBefore(f.purchasedFrom()))) &&
-                               (f.purchasedTo() == null || (pd != null && !pd.isAfter(f.purchasedTo())));
-                    })
-                    .limit(limit != null ? limit : Long.MAX_VALUE)
-                    .forEach(a -> {
-                        try {
-                            printer.printRecord(
-                                    a.getAssetTag(), a.getSerialNumber(), a.getMake(), a.getModel(), a.getStatus(),
-                                    a.getAssignedUser() != null ? a.getAssignedUser().getUsername() : "",
-                                    a.getAssignedUser() != null && a.getAssignedUser().getDepartment() != null ? a.getAssignedUser().getDepartment().getName() : "",
-                                    a.getLocation() != null ? a.getLocation().getName() : "",
-                                    a.getVendor() != null ? a.getVendor().getName() : ""
-                            );
-                            written[0]++;
-                        } catch (IOException e) {
-                            throw new RuntimeException(e);
-                        }
-                    });
+    @Transactional(readOnly = true)
+    public ReportResult writeInventoryCsv(OutputStream os, ReportDtos.InventoryFilter f, Integer limit, LongConsumer onRow) {
+        long written = 0;
+        boolean truncated = false;
+        try (Stream<Asset> rows = streamInventory(f, limit != null ? limit + 1 : null);
+             CSVPrinter printer = new CSVPrinter(new java.io.OutputStreamWriter(os), CSVFormat.DEFAULT.withHeader("AssetTag","SerialNumber","Make","Model","Status","AssignedTo","Department","Location","Vendor"))) {
+            for (Iterator<Asset> it = rows.iterator(); it.hasNext(); ) {
+                Asset a = it.next();
+                if (limit != null && written == limit) {
+                    truncated = true;
+                    break;
+                }
+                printer.printRecord(
+                        a.getAssetTag(), a.getSerialNumber(), a.getMake(), a.getModel(), a.getStatus(),
+                        a.getAssignedUser() != null ? a.getAssignedUser().getUsername() : "",
+                        a.getAssignedUser() != null && a.getAssignedUser().getDepartment() != null ? a.getAssignedUser().getDepartment().getName() : "",
+                        a.getLocation() != null ? a.getLocation().getName() : "",
+                        a.getVendor() != null ? a.getVendor().getName() : ""
+                );
+                onRow.accept(++written);
+            }
+            // Browsers cannot read trailers, so a cut-short file says so in its last line
+            if (truncated) printer.printRecord(truncationNote(limit));
             printer.flush();
         } catch (IOException e) {
             throw new RuntimeException("Failed writing CSV", e);
         }
+        return new ReportResult(written, truncated);
+    }
+
+    @Transactional(readOnly = true)
+    public ReportResult writeMaintenanceCsv(OutputStream os, ReportDtos.MaintenanceFilter f, Integer limit) {
+        return writeMaintenanceCsv(os, f, limit, NO_PROGRESS);
     }
 
-    public void writeMaintenanceCsv(OutputStream os, ReportDtos.MaintenanceFilter f, Integer limit) {
-        try (CSVPrinter printer = new CSVPrinter(new java.io.OutputStreamWriter(os), CSVFormat.DEFAULT.withHeader("AssetTag","Description","Status","Scheduled","Completed"))) {
-            maintenanceRepository.findAll().stream()
-                    .filter(m -> f == null || f.assetId() == null || (m.getAsset() != null && f.assetId().equals(m.getAsset().getId())))
-                    .filter(m -> f == null || f.status() == null || m.getStatus() == f.status())
-                    .filter(m -> {
-                        if (f == null) return true;
-                        LocalDate d = m.getScheduledDate();
-                        return (f.from() == null || (d != null && !d.isBefore(f.from()))) &&
-                               (f.to() == null || (d != null && !d.isAfter(f.to())));
-                    })
-                    .limit(limit != null ? limit : Long.MAX_VALUE)
-                    .forEach(m -> {
-                        try {
-                            printer.printRecord(
-                                    m.getAsset() != null ? m.getAsset().getAssetTag() : "",
-                                    m.getDescription(),
-                                    m.getStatus(),
-                                    m.getScheduledDate(),
-                                    m.getCompletedDate()
-                            );
-                        } catch (IOException e) {
-                            throw new RuntimeException(e);
-                        }
-                    });
+    @Transactional(readOnly = true)
+    public ReportResult writeMaintenanceCsv(OutputStream os, ReportDtos.MaintenanceFilter f, Integer limit, LongConsumer onRow) {
+        long written = 0;
+        boolean truncated = false;
+        try (Stream<Maintenance> rows = streamMaintenance(f, limit != null ? limit + 1 : null);
+             CSVPrinter printer = new CSVPrinter(new java.io.OutputStreamWriter(os), CSVFormat.DEFAULT.withHeader("AssetTag","Description","Status","Scheduled","Completed"))) {
+            for (Iterator<Maintenance> it = rows.iterator(); it.hasNext(); ) {
+                Maintenance m = it.next();
+                if (limit != null && written == limit) {
+                    truncated = true;
+                    break;
+                }
+                printer.printRecord(
+                        m.getAsset() != null ? m.getAsset().getAssetTag() : "",
+                        m.getDescription(),
+                        m.getStatus(),
+                        m.getScheduledDate(),
+                        m.getCompletedDate()
+                );
+                onRow.accept(++written);
+            }
+            // Browsers cannot read trailers, so a cut-short file says so in its last line
+            if (truncated) printer.printRecord(truncationNote(limit));
             printer.flush();
         } catch (IOException e) {
             throw new RuntimeException("Failed writing CSV", e);
         }
+        return new ReportResult(written, truncated);
     }
 
-    public record ReportBytes(byte[] bytes, boolean truncated) {}
-
-    public ReportBytes inventoryPdfLimited(ReportDtos.InventoryFilter f, Integer limit) {
-        List<Asset> assets = assetRepository.findAll().stream()
-                .filter(a -> f == null || f.status() == null || a.getStatus() == f.status())
-                .filter(a -> f == null || f.vendorId() == null || (a.getVendor() != null && f.vendorId().equals(a.getVendor().getId())))
-                .filter(a -> f == null || f.departmentId() == null || (a.getAssignedUser() != null && a.getAssignedUser().getDepartment() != null && f.departmentId().equals(a.getAssignedUser().getDepartment().getId())))
-                .filter(a -> {
-                    if (f == null) return true;
-                    LocalDate pd = a.getPurchaseDate();
-                    return (f.purchasedFrom() == null || (pd != null && !pd.isBefore(f.purchasedFrom()))) &&
-                           (f.purchasedTo() == null || (pd != null && !pd.isAfter(f.purchasedTo())));
-                })
-                .collect(Collectors.toList());
-        boolean truncated = false;
-        if (limit != null && assets.size() > limit) {
-            assets = assets.subList(0, limit);
-            truncated = true;
+    // Same single pass as the CSV writers; pages are laid out while the cursor advances
+    @Transactional(readOnly = true)
+    public ReportResult writeInventoryPdf(OutputStream os, ReportDtos.InventoryFilter f, Integer limit) {
+        return writeInventoryPdf(os, f, limit, NO_PROGRESS);
+    }
+
+    @Transactional(readOnly = true)
+    public ReportResult writeInventoryPdf(OutputStream os, ReportDtos.InventoryFilter f, Integer limit, LongConsumer onRow) {
+        try (Stream<Asset> rows = streamInventory(f, limit != null ? limit + 1 : null)) {
+            return inventoryPdfInternal(rows.iterator(), limit, os, onRow);
         }
-        return new ReportBytes(inventoryPdfInternal(assets), truncated);
     }
 
-    public ReportBytes maintenancePdfLimited(ReportDtos.MaintenanceFilter f, Integer limit) {
-        List<Maintenance> list = maintenanceRepository.findAll().stream()
-                .filter(m -> f == null || f.assetId() == null || (m.getAsset() != null && f.assetId().equals(m.getAsset().getId())))
-                .filter(m -> f == null || f.status() == null || m.getStatus() == f.status())
-                .filter(m -> {
-                    if (f == null) return true;
-                    LocalDate d = m.getScheduledDate();
-                    return (f.from() == null || (d != null && !d.isBefore(f.from()))) &&
-                           (f.to() == null || (d != null && !d.isAfter(f.to())));
-                })
-                .collect(Collectors.toList());
-        boolean truncated = false;
-        if (limit != null && list.size() > limit) {
-            list = list.subList(0, limit);
-            truncated = true;
+    @Transactional(readOnly = true)
+    public ReportResult writeMaintenancePdf(OutputStream os, ReportDtos.MaintenanceFilter f, Integer limit) {
+        return writeMaintenancePdf(os, f, limit, NO_PROGRESS);
+    }
+
+    @Transactional(readOnly = true)
+    public ReportResult writeMaintenancePdf(OutputStream os, ReportDtos.MaintenanceFilter f, Integer limit, LongConsumer onRow) {
+        try (Stream<Maintenance> rows = streamMaintenance(f, limit != null ? limit + 1 : null)) {
+            return maintenancePdfInternal(rows.iterator(), limit, os, onRow);
         }
-        return new ReportBytes(maintenancePdfInternal(list), truncated);
+    }
+
+    private List<Asset> findInventory(ReportDtos.InventoryFilter f) {
+        return assetRepository.findAll(ReportSpecifications.inventory(f), REPORT_ORDER);
+    }
+
+    private List<Maintenance> findMaintenance(ReportDtos.MaintenanceFilter f) {
+        return maintenanceRepository.findAll(ReportSpecifications.maintenance(f), REPORT_ORDER);
+    }
+
+    private Stream<Asset> streamInventory(ReportDtos.InventoryFilter f, Integer limit) {
+        return assetRepository.streamAll(ReportSpecifications.inventory(f), REPORT_ORDER, limit);
+    }
+
+    private Stream<Maintenance> streamMaintenance(ReportDtos.MaintenanceFilter f, Integer limit) {
+        return maintenanceRepository.streamAll(ReportSpecifications.maintenance(f), REPORT_ORDER, limit);
     }
 
     // New KPI computation for dashboard
@@ -422,123 +274,152 @@ public class ReportService {
         return new ReportDtos.KpiResponse(total, byStatus, upcoming);
     }
 
-    // Extracted internals to reuse for limited PDFs
-    private byte[] inventoryPdfInternal(List<Asset> assets) {
-        try (PDDocument doc = new PDDocument(); ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
-            PDType1Font fontBold = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
-            PDType1Font fontReg = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
-
-            float margin = 40;
-            PDPage page = new PDPage(PDRectangle.LETTER);
-            doc.addPage(page);
-            float y = page.getMediaBox().getHeight() - margin;
-            float x = margin;
-            String[] headers = {"AssetTag","Serial","Make","Model","Status","AssignedTo","Dept","Location","Vendor"};
+    // Rows are laid out as they come off the cursor and the finished document is saved straight to the
+    // response, so no byte[] copy of the PDF is ever held. Package-private for the JMH benchmarks.
+    ReportResult inventoryPdfInternal(Iterator<Asset> rows, Integer limit, OutputStream os, LongConsumer onRow) {
+        String[] headers = {"AssetTag","Serial","Make","Model","Status","AssignedTo","Dept","Location","Vendor"};
+        try (PdfTable table = new PdfTable(newPdfDocument(), "Inventory Report", headers)) {
+            long written = 0;
+            boolean truncated = false;
+            while (rows.hasNext()) {
+                Asset a = rows.next();
+                if (limit != null && written == limit) {
+                    truncated = true;
+                    break;
+                }
+                table.row(new String[]{
+                        safe(a.getAssetTag()), safe(a.getSerialNumber()), safe(a.getMake()), safe(a.getModel()),
+                        String.valueOf(a.getStatus()),
+                        a.getAssignedUser() != null ? safe(a.getAssignedUser().getUsername()) : "",
+                        (a.getAssignedUser() != null && a.getAssignedUser().getDepartment() != null) ? safe(a.getAssignedUser().getDepartment().getName()) : "",
+                        a.getLocation() != null ? safe(a.getLocation().getName()) : "",
+                        a.getVendor() != null ? safe(a.getVendor().getName()) : ""
+                });
+                onRow.accept(++written);
+            }
+            if (truncated) table.note(truncationNote(limit));
+            table.save(os);
+            return new ReportResult(written, truncated);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed generating PDF", e);
+        }
+    }
 
-            PDPageContentStream cs = new PDPageContentStream(doc, page);
-            try {
-                cs.setFont(fontBold, 14);
-                cs.beginText();
-                cs.newLineAtOffset(margin, y);
-                cs.showText("Inventory Report");
-                cs.endText();
-                y -= 24;
-
-                cs.setFont(fontBold, 10);
-                writeRow(cs, x, y, headers);
-                y -= 16;
-
-                cs.setFont(fontReg, 10);
-                for (Asset a : assets) {
-                    if (y < margin + 40) {
-                        cs.close();
-                        page = new PDPage(PDRectangle.LETTER);
-                        doc.addPage(page);
-                        y = page.getMediaBox().getHeight() - margin;
-                        cs = new PDPageContentStream(doc, page);
-                        cs.setFont(fontBold, 10);
-                        writeRow(cs, x, y, headers);
-                        y -= 16;
-                        cs.setFont(fontReg, 10);
-                    }
-
-                    String[] row = new String[]{
-                            safe(a.getAssetTag()), safe(a.getSerialNumber()), safe(a.getMake()), safe(a.getModel()),
-                            String.valueOf(a.getStatus()),
-                            a.getAssignedUser() != null ? safe(a.getAssignedUser().getUsername()) : "",
-                            (a.getAssignedUser() != null && a.getAssignedUser().getDepartment() != null) ? safe(a.getAssignedUser().getDepartment().getName()) : "",
-                            a.getLocation() != null ? safe(a.getLocation().getName()) : "",
-                            a.getVendor() != null ? safe(a.getVendor().getName()) : ""
-                    };
-                    writeRow(cs, x, y, row);
-                    y -= 14;
+    ReportResult maintenancePdfInternal(Iterator<Maintenance> rows, Integer limit, OutputStream os, LongConsumer onRow) {
+        String[] headers = {"AssetTag","Description","Status","Scheduled","Completed"};
+        try (PdfTable table = new PdfTable(newPdfDocument(), "Maintenance Report", headers)) {
+            long written = 0;
+            boolean truncated = false;
+            while (rows.hasNext()) {
+                Maintenance m = rows.next();
+                if (limit != null && written == limit) {
+                    truncated = true;
+                    break;
                 }
-            } finally {
-                cs.close();
+                table.row(new String[]{
+                        m.getAsset() != null ? safe(m.getAsset().getAssetTag()) : "",
+                        safe(m.getDescription()),
+                        String.valueOf(m.getStatus()),
+                        m.getScheduledDate() != null ? m.getScheduledDate().toString() : "",
+                        m.getCompletedDate() != null ? m.getCompletedDate().toString() : ""
+                });
+                onRow.accept(++written);
             }
-            doc.save(bos);
-            return bos.toByteArray();
+            if (truncated) table.note(truncationNote(limit));
+            table.save(os);
+            return new ReportResult(written, truncated);
         } catch (IOException e) {
             throw new RuntimeException("Failed generating PDF", e);
         }
     }
 
-    private byte[] maintenancePdfInternal(List<Maintenance> list) {
-        try (PDDocument doc = new PDDocument(); ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
-            PDType1Font fontBold = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
-            PDType1Font fontReg = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+    // Keeps at most the configured budget of page content on the heap and spills the rest to a scratch file
+    private PDDocument newPdfDocument() {
+        MemoryUsageSetting memory = MemoryUsageSetting.setupMixed(pdfMaxMainMemoryBytes);
+        if (pdfTempDir != null && !pdfTempDir.isBlank()) memory = memory.setTempDir(new File(pdfTempDir));
+        return new PDDocument(memory.streamCache);
+    }
+
+    private static String truncationNote(Integer limit) {
+        return "Report limited to the first " + limit + " rows. Apply a filter to export the remaining rows.";
+    }
+
+    /**
+     * Lays a titled table out page by page. A page's content stream is closed as soon as the page is full,
+     * which hands its bytes to the document's scratch buffer instead of keeping them open on the heap.
+     */
+    private static final class PdfTable implements Closeable {
+        private static final float MARGIN = 40;
+
+        private final PDDocument doc;
+        private final String[] headers;
+        private final PDType1Font fontBold = new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD);
+        private final PDType1Font fontReg = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+        private PDPageContentStream cs;
+        private float y;
+
+        PdfTable(PDDocument doc, String title, String[] headers) throws IOException {
+            this.doc = doc;
+            this.headers = headers;
+            startPage();
+            cs.setFont(fontBold, 14);
+            cs.beginText();
+            cs.newLineAtOffset(MARGIN, y);
+            cs.showText(title);
+            cs.endText();
+            y -= 24;
+            writeHeader();
+        }
+
+        void row(String[] cols) throws IOException {
+            if (y < MARGIN + 40) {
+                startPage();
+                writeHeader();
+            }
+            writeRow(cs, MARGIN, y, cols);
+            y -= 14;
+        }
+
+        void note(String text) throws IOException {
+            if (y < MARGIN + 40) startPage();
+            y -= 6;
+            cs.setFont(fontBold, 10);
+            cs.beginText();
+            cs.newLineAtOffset(MARGIN, y);
+            cs.showText(text);
+            cs.endText();
+            y -= 14;
+        }
+
+        void save(OutputStream os) throws IOException {
+            cs.close();
+            cs = null;
+            // Uncompressed xref avoids buffering every object for object-stream packing during save
+            doc.save(os, CompressParameters.NO_COMPRESSION);
+        }
 
-            float margin = 40;
+        private void startPage() throws IOException {
+            if (cs != null) cs.close();
             PDPage page = new PDPage(PDRectangle.LETTER);
             doc.addPage(page);
-            float y = page.getMediaBox().getHeight() - margin;
-            float x = margin;
-            String[] headers = {"AssetTag","Description","Status","Scheduled","Completed"};
+            y = page.getMediaBox().getHeight() - MARGIN;
+            cs = new PDPageContentStream(doc, page);
+        }
+
+        private void writeHeader() throws IOException {
+            cs.setFont(fontBold, 10);
+            writeRow(cs, MARGIN, y, headers);
+            y -= 16;
+            cs.setFont(fontReg, 10);
+        }
 
-            PDPageContentStream cs = new PDPageContentStream(doc, page);
+        @Override
+        public void close() throws IOException {
             try {
-                cs.setFont(fontBold, 14);
-                cs.beginText();
-                cs.newLineAtOffset(margin, y);
-                cs.showText("Maintenance Report");
-                cs.endText();
-                y -= 24;
-
-                cs.setFont(fontBold, 10);
-                writeRow(cs, x, y, headers);
-                y -= 16;
-
-                cs.setFont(fontReg, 10);
-                for (Maintenance m : list) {
-                    if (y < margin + 40) {
-                        cs.close();
-                        page = new PDPage(PDRectangle.LETTER);
-                        doc.addPage(page);
-                        y = page.getMediaBox().getHeight() - margin;
-                        cs = new PDPageContentStream(doc, page);
-                        cs.setFont(fontBold, 10);
-                        writeRow(cs, x, y, headers);
-                        y -= 16;
-                        cs.setFont(fontReg, 10);
-                    }
-
-                    String[] row = new String[]{
-                            m.getAsset() != null ? safe(m.getAsset().getAssetTag()) : "",
-                            safe(m.getDescription()),
-                            String.valueOf(m.getStatus()),
-                            m.getScheduledDate() != null ? m.getScheduledDate().toString() : "",
-                            m.getCompletedDate() != null ? m.getCompletedDate().toString() : ""
-                    };
-                    writeRow(cs, x, y, row);
-                    y -= 14;
-                }
+                if (cs != null) cs.close();
             } finally {
-                cs.close();
+                doc.close();
             }
-            doc.save(bos);
-            return bos.toByteArray();
-        } catch (IOException e) {
-            throw new RuntimeException("Failed generating PDF", e);
         }
     }
 }
@@ -1,11 +1,13 @@
 package com.clims.backend.services;
 
 import com.clims.backend.dto.UserDtos;
+import com.clims.backend.events.UserChangedEvent;
 import com.clims.backend.models.entities.AppUser;
 import com.clims.backend.models.entities.Department;
 import com.clims.backend.repositories.AppUserRepository;
 import com.clims.backend.repositories.DepartmentRepository;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import com.clims.backend.exceptions.NotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -13,6 +15,14 @@ import org.springframework.transaction.annotation.Transactional;
 import com.clims.backend.security.Role;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import jakarta.persistence.criteria.JoinType;
+
+import java.util.Arrays;
 
 @Service
 public class UserService {
@@ -20,12 +30,16 @@ public class UserService {
     private final DepartmentRepository departmentRepository;
     private final PasswordEncoder passwordEncoder;
     private final ModelMapper mapper;
+    private final CountEstimator countEstimator;
+    private final ApplicationEventPublisher events;
 
-    public UserService(AppUserRepository userRepository, DepartmentRepository departmentRepository, PasswordEncoder passwordEncoder, ModelMapper mapper) {
+    public UserService(AppUserRepository userRepository, DepartmentRepository departmentRepository, PasswordEncoder passwordEncoder, ModelMapper mapper, CountEstimator countEstimator, ApplicationEventPublisher events) {
         this.userRepository = userRepository;
         this.departmentRepository = departmentRepository;
         this.passwordEncoder = passwordEncoder;
         this.mapper = mapper;
+        this.countEstimator = countEstimator;
+        this.events = events;
     }
 
     @Transactional
@@ -46,11 +60,13 @@ public class UserService {
             .orElseThrow(() -> new NotFoundException("Department not found"));
             user.setDepartment(dept);
         }
-        return userRepository.save(user);
+        AppUser saved = userRepository.save(user);
+        events.publishEvent(new UserChangedEvent(saved.getId(), "CREATE"));
+        return saved;
     }
 
     public AppUser get(Long id) {
-        return userRepository.findById(id)
+        return userRepository.findWithDepartmentById(id)
                 .orElseThrow(() -> new NotFoundException("User not found"));
     }
 
@@ -59,18 +75,49 @@ public class UserService {
     }
 
     public Page<AppUser> search(Pageable pageable, Role role, Long departmentId, String q) {
-        // Simple filtering using repository methods or in-memory filter fallback
-        // For now, fetch page and filter stream as needed (could be optimized with specs/queries)
-        Page<AppUser> page = userRepository.findAll(pageable);
-        if (role == null && departmentId == null && (q == null || q.isBlank())) {
-            return page;
+        return userRepository.findAll(searchSpec(role, departmentId, q), pageable);
+    }
+
+    /** {@link #search} without the count: the slice only tells whether another page follows. */
+    public Slice<AppUser> searchSlice(Pageable pageable, Role role, Long departmentId, String q) {
+        return userRepository.findBy(searchSpec(role, departmentId, q).and(fetchDepartment()), query -> query.slice(pageable));
+    }
+
+    /** Keyset-paginated variant of {@link #search}: reads {@code size} rows after {@code position}, without a count. */
+    public Window<AppUser> scroll(ScrollPosition position, int size, Sort sort, Role role, Long departmentId, String q) {
+        return userRepository.findBy(searchSpec(role, departmentId, q).and(fetchDepartment()),
+                query -> query.sortBy(sort).limit(size).scroll(position));
+    }
+
+    // Fluent queries (keyset scrolling, slices) do not apply entity graphs, so the department is fetch-joined by the query itself
+    private static Specification<AppUser> fetchDepartment() {
+        return (root, cq, cb) -> {
+            root.fetch("department", JoinType.LEFT);
+            return null;
+        };
+    }
+
+    public long count(Role role, Long departmentId, String q) {
+        return userRepository.count(searchSpec(role, departmentId, q));
+    }
+
+    /** Approximate {@link #count}, served from the last count of the same filters while it is refreshed. */
+    public long estimateCount(Role role, Long departmentId, String q) {
+        return countEstimator.estimate(CountEstimator.USERS, Arrays.asList(role, departmentId, q), () -> count(role, departmentId, q));
+    }
+
+    private Specification<AppUser> searchSpec(Role role, Long departmentId, String q) {
+        Specification<AppUser> spec = (root, cq, cb) -> cb.conjunction();
+        if (role != null) spec = spec.and((root, cq, cb) -> cb.equal(root.get("role"), role));
+        if (departmentId != null) spec = spec.and((root, cq, cb) -> cb.equal(root.join("department", JoinType.LEFT).get("id"), departmentId));
+        if (q != null && !q.isBlank()) {
+            String like = "%" + q.toLowerCase() + "%";
+            spec = spec.and((root, cq, cb) -> cb.or(
+                    cb.like(cb.lower(root.get("username")), like),
+                    cb.like(cb.lower(root.get("email")), like)
+            ));
         }
-        java.util.List<AppUser> filtered = page.getContent().stream()
-                .filter(u -> role == null || u.getRole() == role)
-                .filter(u -> departmentId == null || (u.getDepartment() != null && departmentId.equals(u.getDepartment().getId())))
-                .filter(u -> q == null || q.isBlank() || u.getUsername().toLowerCase().contains(q.toLowerCase()) || (u.getEmail() != null && u.getEmail().toLowerCase().contains(q.toLowerCase())))
-                .toList();
-        return new org.springframework.data.domain.PageImpl<>(filtered, pageable, filtered.size());
+        return spec;
     }
 
     @Transactional
@@ -78,7 +125,9 @@ public class UserService {
         AppUser user = get(id);
         if (role == null) throw new IllegalArgumentException("Role is required");
         user.setRole(role);
-        return userRepository.save(user);
+        AppUser saved = userRepository.save(user);
+        events.publishEvent(new UserChangedEvent(id, "UPDATE_ROLE"));
+        return saved;
     }
 
     @Transactional
@@ -91,7 +140,9 @@ public class UserService {
                     .orElseThrow(() -> new NotFoundException("Department not found"));
             user.setDepartment(dept);
         }
-        return userRepository.save(user);
+        AppUser saved = userRepository.save(user);
+        events.publishEvent(new UserChangedEvent(id, "UPDATE_DEPARTMENT"));
+        return saved;
     }
 
     @Transactional
@@ -0,0 +1,8 @@
+-- Background report jobs (POST /api/reports/jobs) keep their state on the reports row
+ALTER TABLE reports ADD COLUMN status VARCHAR(20);
+ALTER TABLE reports ADD COLUMN progress INT;
+ALTER TABLE reports ADD COLUMN row_count BIGINT;
+ALTER TABLE reports ADD COLUMN duration_ms BIGINT;
+ALTER TABLE reports ADD COLUMN file_path VARCHAR(500);
+ALTER TABLE reports ADD COLUMN error_message VARCHAR(1000);
+ALTER TABLE reports ADD COLUMN completed_at DATETIME(6);
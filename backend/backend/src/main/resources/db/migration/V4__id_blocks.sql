@@ -0,0 +1,6 @@
+-- Counters that instances reserve blocks of numbers from; the asset_tag row is created by its first claim
+CREATE TABLE id_blocks (
+    name VARCHAR(64) NOT NULL,
+    next_value BIGINT NOT NULL,
+    PRIMARY KEY (name)
+);
@@ -6,6 +6,7 @@ import com.clims.backend.models.entities.AppUser;
 import com.clims.backend.security.JwtAuthFilter;
 import com.clims.backend.security.JwtUtil;
 import com.clims.backend.security.Role;
+import com.clims.backend.services.ListVersions;
 import com.clims.backend.services.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -41,6 +42,9 @@ class AdminUserManagementControllerTests {
     @MockBean
     UserService userService;
 
+    @MockBean
+    ListVersions listVersions;
+
     @MockBean
     JwtAuthFilter jwtAuthFilter;
 
@@ -62,6 +66,7 @@ class AdminUserManagementControllerTests {
             chain.doFilter(req, res);
             return null;
         }).when(jwtAuthFilter).doFilter(org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any());
+        given(listVersions.version(any())).willReturn("v0");
     }
 
     @Test
@@ -3,13 +3,13 @@ package com.clims.backend;
 import com.clims.backend.controllers.AssetController;
 import com.clims.backend.exceptions.GlobalExceptionHandler;
 import com.clims.backend.exceptions.NotFoundException;
-import com.clims.backend.models.entities.Asset;
 import com.clims.backend.models.entities.AuditLog;
 import com.clims.backend.security.CurrentUserService;
 import com.clims.backend.security.JwtAuthFilter;
 import com.clims.backend.security.JwtUtil;
 import com.clims.backend.services.AssetService;
 import com.clims.backend.services.AuditLogService;
+import com.clims.backend.services.ListVersions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.modelmapper.ModelMapper;
@@ -55,6 +55,12 @@ class AssetAuditEndpointTests {
     @MockBean
     ModelMapper modelMapper;
 
+    @MockBean
+    com.clims.backend.services.QrCodeService qrCodeService;
+
+    @MockBean
+    ListVersions listVersions;
+
     @MockBean
     JwtAuthFilter jwtAuthFilter;
 
@@ -84,7 +90,7 @@ class AssetAuditEndpointTests {
     @Test
     @WithMockUser(roles = {"ADMIN"})
     void audit_assetExists_returnsList() throws Exception {
-        given(assetService.get(1L)).willReturn(new Asset());
+        given(assetService.getResponse(1L)).willReturn(new com.clims.backend.dto.AssetDtos.AssetResponse(1L, "TAG-1", null, null, null, null, null, null, null, null));
         AuditLog l1 = new AuditLog();
         l1.setId(10L);
         l1.setEntityName("Asset");
@@ -111,7 +117,7 @@ class AssetAuditEndpointTests {
     @Test
     @WithMockUser(roles = {"ADMIN"})
     void audit_assetNotFound_returns404() throws Exception {
-        given(assetService.get(999L)).willThrow(new NotFoundException("Asset not found"));
+        given(assetService.getResponse(999L)).willThrow(new NotFoundException("Asset not found"));
         mvc.perform(get("/api/assets/999/audit").accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
     }
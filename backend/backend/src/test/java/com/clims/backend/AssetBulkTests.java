@@ -0,0 +1,208 @@
+package com.clims.backend;
+
+import com.clims.backend.models.entities.AppUser;
+import com.clims.backend.models.entities.Asset;
+import com.clims.backend.models.entities.Department;
+import com.clims.backend.models.entities.Location;
+import com.clims.backend.models.enums.AssetStatus;
+import com.clims.backend.repositories.AppUserRepository;
+import com.clims.backend.repositories.AssetRepository;
+import com.clims.backend.repositories.AuditLogRepository;
+import com.clims.backend.repositories.DepartmentRepository;
+import com.clims.backend.repositories.LocationRepository;
+import com.clims.backend.security.Role;
+import com.clims.backend.services.KpiStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A chunk size of 2 makes every test span several transactions
+@SpringBootTest(properties = {"app.assets.bulk.chunk-size=2", "app.assets.bulk.max-assets=5", "app.assets.search.index-enabled=false"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AssetBulkTests {
+
+    @Autowired MockMvc mvc;
+    @Autowired AssetRepository assetRepository;
+    @Autowired AuditLogRepository auditLogRepository;
+    @Autowired AppUserRepository userRepository;
+    @Autowired LocationRepository locationRepository;
+    @Autowired DepartmentRepository departmentRepository;
+    @Autowired KpiStore kpiStore;
+    @MockitoSpyBean JdbcTemplate jdbc;
+
+    AppUser admin;
+    AppUser assignee;
+    Location floor3;
+    Department department;
+
+    @BeforeEach
+    void seed() {
+        admin = saveUser("bulk-admin", Role.ADMIN);
+        assignee = saveUser("bulk-assignee", Role.EMPLOYEE);
+        floor3 = new Location(); floor3.setName("Floor 3"); locationRepository.save(floor3);
+        department = new Department(); department.setName("Bulk Sales"); departmentRepository.save(department);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        auditLogRepository.deleteAll();
+        assetRepository.deleteAll();
+        userRepository.deleteAll();
+        locationRepository.deleteAll();
+        departmentRepository.deleteAll();
+    }
+
+    private AppUser saveUser(String username, Role role) {
+        AppUser u = new AppUser();
+        u.setUsername(username);
+        u.setPasswordHash("x");
+        u.setRole(role);
+        return userRepository.save(u);
+    }
+
+    private Asset asset(String serial, AssetStatus status) {
+        Asset a = new Asset();
+        a.setAssetTag("AST-" + serial);
+        a.setSerialNumber(serial);
+        a.setMake("Dell");
+        a.setModel("Latitude");
+        a.setPurchaseDate(LocalDate.of(2025, 1, 15));
+        a.setStatus(status);
+        a.setDepartment(department);
+        return assetRepository.save(a);
+    }
+
+    private ResultActions bulk(String role, String body) throws Exception {
+        return mvc.perform(post("/api/assets/bulk").with(user("bulk-admin").roles(role))
+                .contentType(MediaType.APPLICATION_JSON).content(body));
+    }
+
+    @Test
+    void location_movesEveryFoundAssetAndReportsTheRest() throws Exception {
+        Asset a = asset("B-1", AssetStatus.AVAILABLE);
+        Asset b = asset("B-2", AssetStatus.ASSIGNED);
+        Asset c = asset("B-3", AssetStatus.UNDER_REPAIR);
+
+        bulk("ADMIN", """
+                {"operation":"LOCATION","locationId":%d,"ids":[%d,999999,%d,%d,%d]}
+                """.formatted(floor3.getId(), c.getId(), a.getId(), b.getId(), a.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(3))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.outcomes[*].id").value(contains(c.getId().intValue(), 999999, a.getId().intValue(), b.getId().intValue())))
+                .andExpect(jsonPath("$.outcomes[*].result").value(contains("UPDATED", "NOT_FOUND", "UPDATED", "UPDATED")));
+
+        assertThat(assetRepository.findResponseById(b.getId()).orElseThrow().location()).isEqualTo("Floor 3");
+        assertThat(assetRepository.findResponseById(b.getId()).orElseThrow().status()).isEqualTo(AssetStatus.ASSIGNED);
+        assertThat(auditLogRepository.findAll())
+                .hasSize(3)
+                .allSatisfy(log -> {
+                    assertThat(log.getAction()).isEqualTo("UPDATE");
+                    assertThat(log.getDetails()).isEqualTo("Moved to Floor 3");
+                    assertThat(log.getUser().getId()).isEqualTo(admin.getId());
+                });
+    }
+
+    @Test
+    void chunkFailingOutsideTheDatabase_failsOnlyItsOwnAssets() throws Exception {
+        Asset a = asset("B-1", AssetStatus.AVAILABLE);
+        Asset b = asset("B-2", AssetStatus.AVAILABLE);
+        Asset c = asset("B-3", AssetStatus.AVAILABLE);
+        // The second chunk's audit insert throws something other than a DataAccessException
+        doCallRealMethod().doThrow(new IllegalStateException("Unexpected row"))
+                .when(jdbc).batchUpdate(argThat((String sql) -> sql.startsWith("INSERT INTO audit_logs")), any(BatchPreparedStatementSetter.class));
+
+        bulk("ADMIN", """
+                {"operation":"LOCATION","locationId":%d,"ids":[%d,%d,%d]}
+                """.formatted(floor3.getId(), a.getId(), b.getId(), c.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(2))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.outcomes[*].result").value(contains("UPDATED", "UPDATED", "FAILED")));
+
+        assertThat(assetRepository.findResponseById(b.getId()).orElseThrow().location()).isEqualTo("Floor 3");
+        assertThat(assetRepository.findResponseById(c.getId()).orElseThrow().location()).isNull();
+        assertThat(auditLogRepository.findAll()).hasSize(2);
+    }
+
+    @Test
+    void assign_rejectsAssetsThatAreNotAvailableAndKeepsKpisCurrent() throws Exception {
+        Asset a = asset("B-1", AssetStatus.AVAILABLE);
+        Asset b = asset("B-2", AssetStatus.UNDER_REPAIR);
+        Asset c = asset("B-3", AssetStatus.AVAILABLE);
+        long available = kpiStore.snapshot().assetsByStatus().get("AVAILABLE");
+        long assigned = kpiStore.snapshot().assetsByStatus().get("ASSIGNED");
+
+        bulk("ADMIN", """
+                {"operation":"ASSIGN","userId":%d,"ids":[%d,%d,%d]}
+                """.formatted(assignee.getId(), a.getId(), b.getId(), c.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(2))
+                .andExpect(jsonPath("$.outcomes[1].result").value("REJECTED"))
+                .andExpect(jsonPath("$.outcomes[1].error").value("Only AVAILABLE assets can be assigned"));
+
+        assertThat(assetRepository.findResponseById(a.getId()).orElseThrow().assignedTo()).isEqualTo("bulk-assignee");
+        assertThat(assetRepository.findResponseById(b.getId()).orElseThrow().assignedTo()).isNull();
+        assertThat(kpiStore.snapshot().assetsByStatus().get("AVAILABLE")).isEqualTo(available - 2);
+        assertThat(kpiStore.snapshot().assetsByStatus().get("ASSIGNED")).isEqualTo(assigned + 2);
+    }
+
+    @Test
+    void dispose_byFilter_retiresOnlyTheMatchingAssets() throws Exception {
+        Asset a = asset("B-1", AssetStatus.ASSIGNED);
+        Asset b = asset("B-2", AssetStatus.AVAILABLE);
+        Asset c = asset("B-3", AssetStatus.ASSIGNED);
+
+        bulk("FINANCE", """
+                {"operation":"DISPOSE","filter":{"status":"ASSIGNED","departmentId":%d}}
+                """.formatted(department.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.outcomes[*].id").value(contains(a.getId().intValue(), c.getId().intValue())));
+
+        assertThat(assetRepository.findById(a.getId()).orElseThrow().getStatus()).isEqualTo(AssetStatus.RETIRED);
+        assertThat(assetRepository.findById(b.getId()).orElseThrow().getStatus()).isEqualTo(AssetStatus.AVAILABLE);
+        assertThat(assetRepository.findById(c.getId()).orElseThrow().getStatus()).isEqualTo(AssetStatus.RETIRED);
+    }
+
+    @Test
+    void invalidRequests_areRejectedBeforeAnythingChanges() throws Exception {
+        Asset a = asset("B-1", AssetStatus.AVAILABLE);
+
+        bulk("ADMIN", "{\"operation\":\"DISPOSE\",\"ids\":[%d],\"filter\":{}}".formatted(a.getId()))
+                .andExpect(status().isBadRequest());
+        bulk("ADMIN", "{\"operation\":\"STATUS\",\"ids\":[%d]}".formatted(a.getId()))
+                .andExpect(status().isBadRequest());
+        bulk("ADMIN", "{\"operation\":\"DISPOSE\",\"ids\":[1,2,3,4,5,6]}")
+                .andExpect(status().isBadRequest());
+        bulk("ADMIN", "{\"operation\":\"ASSIGN\",\"userId\":999999,\"ids\":[%d]}".formatted(a.getId()))
+                .andExpect(status().isNotFound());
+        bulk("IT_STAFF", "{\"operation\":\"DISPOSE\",\"ids\":[%d]}".formatted(a.getId()))
+                .andExpect(status().isForbidden());
+
+        assertThat(assetRepository.findById(a.getId()).orElseThrow().getStatus()).isEqualTo(AssetStatus.AVAILABLE);
+        assertThat(auditLogRepository.count()).isZero();
+    }
+}
@@ -5,7 +5,10 @@ import com.clims.backend.security.CurrentUserService;
 import com.clims.backend.security.JwtAuthFilter;
 import com.clims.backend.security.JwtUtil;
 import com.clims.backend.services.AssetService;
+import com.clims.backend.services.QrCodeService;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
 import com.clims.backend.services.AuditLogService;
+import com.clims.backend.services.ListVersions;
 import com.clims.backend.models.entities.Asset;
 import com.clims.backend.exceptions.NotFoundException;
 import org.junit.jupiter.api.Test;
@@ -22,7 +25,11 @@ import com.clims.backend.exceptions.GlobalExceptionHandler;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.mockito.ArgumentCaptor;
 import static org.mockito.Mockito.verify;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -63,6 +70,12 @@ class AssetControllerSecurityTests {
     @MockBean
     ModelMapper modelMapper;
 
+    @MockBean
+    QrCodeService qrCodeService;
+
+    @MockBean
+    ListVersions listVersions;
+
     // Mock security filter and util to avoid full security wiring in MVC slice
     @MockBean
     JwtAuthFilter jwtAuthFilter;
@@ -79,6 +92,7 @@ class AssetControllerSecurityTests {
             chain.doFilter(req, res);
             return null;
         }).when(jwtAuthFilter).doFilter(org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any());
+        given(listVersions.version(org.mockito.ArgumentMatchers.anyString())).willReturn("v0");
     }
 
     @Test
@@ -99,8 +113,8 @@ class AssetControllerSecurityTests {
     @Test
     @WithMockUser(roles = {"ADMIN"})
     void list_withPaging_structure_ok() throws Exception {
-    Asset a1 = new Asset(); a1.setId(1L); a1.setAssetTag("TAG-1");
-    Asset a2 = new Asset(); a2.setId(2L); a2.setAssetTag("TAG-2");
+    var a1 = new com.clims.backend.dto.AssetDtos.AssetResponse(1L, "TAG-1", null, null, null, null, null, null, null, null);
+    var a2 = new com.clims.backend.dto.AssetDtos.AssetResponse(2L, "TAG-2", null, null, null, null, null, null, null, null);
     given(assetService.search(org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any()))
         .willReturn(new PageImpl<>(java.util.List.of(a1,a2), PageRequest.of(1,2), 12));
 
@@ -152,6 +166,116 @@ class AssetControllerSecurityTests {
     assertThat(qCaptor.getValue()).isEqualTo("dell");
     }
 
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    void list_cursorMode_resumesAfterTheLastRowWithoutCounting() throws Exception {
+    var a1 = new com.clims.backend.dto.AssetDtos.AssetResponse(7L, "TAG-7", null, null, null, null, null, null, null, null);
+    var a2 = new com.clims.backend.dto.AssetDtos.AssetResponse(3L, "TAG-3", null, null, null, null, null, null, null, null);
+    given(assetService.scroll(org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.anyInt(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any()))
+        .willReturn(Window.from(java.util.List.of(a1, a2), i -> ScrollPosition.forward(java.util.Map.of("purchaseDate", java.time.LocalDate.of(2024, 1, 5), "id", i == 0 ? 7L : 3L)), true));
+
+    String body = mvc.perform(get("/api/assets").param("after", "").param("size", "2").param("sort", "purchaseDate,asc").param("status", "AVAILABLE"))
+        .andExpect(status().isOk())
+        .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath("$.content.length()").value(2))
+        .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath("$.size").value(2))
+        .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath("$.totalElements").doesNotExist())
+        .andReturn().getResponse().getContentAsString();
+    String next = com.jayway.jsonpath.JsonPath.read(body, "$.next");
+
+    mvc.perform(get("/api/assets").param("after", next).param("size", "2").param("sort", "purchaseDate,asc").param("status", "AVAILABLE"))
+        .andExpect(status().isOk());
+
+    ArgumentCaptor<KeysetScrollPosition> positionCaptor = ArgumentCaptor.forClass(KeysetScrollPosition.class);
+    verify(assetService, org.mockito.Mockito.times(2)).scroll(positionCaptor.capture(), org.mockito.ArgumentMatchers.eq(2), org.mockito.ArgumentMatchers.eq(Sort.by("purchaseDate").ascending()), org.mockito.ArgumentMatchers.eq(AssetStatus.AVAILABLE), org.mockito.ArgumentMatchers.isNull(), org.mockito.ArgumentMatchers.isNull(), org.mockito.ArgumentMatchers.isNull(), org.mockito.ArgumentMatchers.isNull());
+    assertThat(positionCaptor.getAllValues().get(0).isInitial()).isTrue();
+    assertThat(positionCaptor.getAllValues().get(1).getKeys())
+        .containsExactlyInAnyOrderEntriesOf(java.util.Map.of("purchaseDate", java.time.LocalDate.of(2024, 1, 5), "id", 3L));
+    verify(assetService, org.mockito.Mockito.never()).count(org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any());
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    void list_cursorMode_countsOnRequestAndEndsWithoutNextToken() throws Exception {
+    given(assetService.scroll(org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.anyInt(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any()))
+        .willReturn(Window.from(java.util.List.of(new com.clims.backend.dto.AssetDtos.AssetResponse(1L, "TAG-1", null, null, null, null, null, null, null, null)), i -> ScrollPosition.keyset()));
+    given(assetService.count(null, null, null, null, "dell")).willReturn(41L);
+
+    mvc.perform(get("/api/assets").param("after", "").param("q", "dell").param("count", "exact"))
+        .andExpect(status().isOk())
+        .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath("$.totalElements").value(41))
+        .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    void list_cursorMode_rejectsNullableSortKeysAndForeignCursors() throws Exception {
+    given(assetService.scroll(org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.anyInt(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any()))
+        .willReturn(Window.from(java.util.List.of(new com.clims.backend.dto.AssetDtos.AssetResponse(1L, "TAG-1", null, null, null, null, null, null, null, null)), i -> ScrollPosition.forward(java.util.Map.of("make", "Dell", "id", 5L)), true));
+    String body = mvc.perform(get("/api/assets").param("after", "").param("sort", "make,asc"))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsString();
+    String next = com.jayway.jsonpath.JsonPath.read(body, "$.next");
+
+    mvc.perform(get("/api/assets").param("after", "").param("sort", "warrantyExpiryDate,asc"))
+        .andExpect(status().isBadRequest());
+    mvc.perform(get("/api/assets").param("after", next).param("sort", "make,desc"))
+        .andExpect(status().isBadRequest());
+    mvc.perform(get("/api/assets").param("after", "not-a-cursor"))
+        .andExpect(status().isBadRequest());
+    mvc.perform(get("/api/assets").param("after", "").param("count", "sometimes"))
+        .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    void list_countNone_readsASliceWithoutTotals() throws Exception {
+    var a1 = new com.clims.backend.dto.AssetDtos.AssetResponse(1L, "TAG-1", null, null, null, null, null, null, null, null);
+    given(assetService.searchSlice(org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any()))
+        .willReturn(new SliceImpl<>(java.util.List.of(a1), PageRequest.of(3, 1), true));
+
+    mvc.perform(get("/api/assets").param("page", "3").param("size", "1").param("count", "none"))
+        .andExpect(status().isOk())
+        .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath("$.content.length()").value(1))
+        .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath("$.hasNext").value(true))
+        .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath("$.totalElements").doesNotExist())
+        .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath("$.totalPages").doesNotExist());
+    verify(assetService, org.mockito.Mockito.never()).search(org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any());
+    verify(assetService, org.mockito.Mockito.never()).estimateCount(org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any());
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    void list_countEstimate_servesTheEstimateButNeverLessThanTheRowsSeen() throws Exception {
+    var a1 = new com.clims.backend.dto.AssetDtos.AssetResponse(1L, "TAG-1", null, null, null, null, null, null, null, null);
+    var a2 = new com.clims.backend.dto.AssetDtos.AssetResponse(2L, "TAG-2", null, null, null, null, null, null, null, null);
+    given(assetService.searchSlice(org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any()))
+        .willReturn(new SliceImpl<>(java.util.List.of(a1, a2), PageRequest.of(0, 2), true));
+    given(assetService.estimateCount(AssetStatus.AVAILABLE, null, null, null, null)).willReturn(412_000L);
+
+    mvc.perform(get("/api/assets").param("size", "2").param("status", "AVAILABLE").param("count", "estimate"))
+        .andExpect(status().isOk())
+        .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath("$.totalElements").value(412_000))
+        .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath("$.totalPages").value(206_000))
+        .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath("$.hasNext").value(true));
+
+    // A stale estimate below what the slice proves exists is raised to it
+    given(assetService.searchSlice(org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any()))
+        .willReturn(new SliceImpl<>(java.util.List.of(a1, a2), PageRequest.of(4, 2), true));
+    given(assetService.estimateCount(AssetStatus.AVAILABLE, null, null, null, null)).willReturn(3L);
+    mvc.perform(get("/api/assets").param("page", "4").param("size", "2").param("status", "AVAILABLE").param("count", "estimate"))
+        .andExpect(status().isOk())
+        .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath("$.totalElements").value(11));
+
+    // The last page tells the exact total, so nothing is estimated
+    given(assetService.searchSlice(org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any()))
+        .willReturn(new SliceImpl<>(java.util.List.of(a1), PageRequest.of(5, 2), false));
+    mvc.perform(get("/api/assets").param("page", "5").param("size", "2").param("status", "AVAILABLE").param("count", "estimate"))
+        .andExpect(status().isOk())
+        .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath("$.totalElements").value(11))
+        .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath("$.totalPages").value(6));
+    verify(assetService, org.mockito.Mockito.times(2)).estimateCount(AssetStatus.AVAILABLE, null, null, null, null);
+    }
+
     @Test
     void getById_requiresAuth() throws Exception {
         mvc.perform(get("/api/assets/1").accept(MediaType.APPLICATION_JSON))
@@ -161,27 +285,81 @@ class AssetControllerSecurityTests {
     @Test
     @WithMockUser(roles = {"ADMIN"})
     void getById_withAdmin_ok() throws Exception {
-        Asset a = new Asset();
-        a.setId(1L);
-        a.setAssetTag("ASSET-001");
-        a.setSerialNumber("SN");
-        a.setMake("Dell");
-        a.setModel("XPS");
-        given(assetService.get(1L)).willReturn(a);
+        given(assetService.getResponse(1L)).willReturn(new com.clims.backend.dto.AssetDtos.AssetResponse(
+                1L, "ASSET-001", "SN", "Dell", "XPS", AssetStatus.AVAILABLE, null, null, null, null));
 
         mvc.perform(get("/api/assets/1").accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
     }
 
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    void getById_matchingIfNoneMatch_returns304UntilTheAssetChanges() throws Exception {
+        given(assetService.getResponse(1L)).willReturn(new com.clims.backend.dto.AssetDtos.AssetResponse(
+                1L, "ASSET-001", "SN", "Dell", "XPS", AssetStatus.AVAILABLE, null, null, null, null));
+        String etag = mvc.perform(get("/api/assets/1"))
+                .andExpect(status().isOk())
+                .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.header().string("Cache-Control", "private, no-cache"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(etag).startsWith("\"");
+
+        mvc.perform(get("/api/assets/1").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.content().string(""));
+
+        given(assetService.getResponse(1L)).willReturn(new com.clims.backend.dto.AssetDtos.AssetResponse(
+                1L, "ASSET-001", "SN", "Dell", "XPS", AssetStatus.UNDER_REPAIR, null, null, null, null));
+        mvc.perform(get("/api/assets/1").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    void list_matchingIfNoneMatch_returns304WithoutLoadingThePage() throws Exception {
+        given(listVersions.version(ListVersions.ASSETS)).willReturn("v3");
+        given(assetService.search(org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any()))
+                .willReturn(Page.empty());
+        String etag = mvc.perform(get("/api/assets").param("status", "AVAILABLE"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(etag).startsWith("W/\"");
+
+        mvc.perform(get("/api/assets").param("status", "AVAILABLE").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        verify(assetService, org.mockito.Mockito.times(1)).search(org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any());
+
+        // Another page of the same filters has a tag of its own
+        mvc.perform(get("/api/assets").param("status", "AVAILABLE").param("page", "1").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+        // A write moves the version
+        given(listVersions.version(ListVersions.ASSETS)).willReturn("v4");
+        mvc.perform(get("/api/assets").param("status", "AVAILABLE").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+    }
+
     @Test
     @WithMockUser(roles = {"ADMIN"})
     void getById_notFound_returns404() throws Exception {
-        given(assetService.get(99L)).willThrow(new NotFoundException("Asset not found"));
+        given(assetService.getResponse(99L)).willThrow(new NotFoundException("Asset not found"));
 
         mvc.perform(get("/api/assets/99").accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @WithMockUser(roles = {"AUDITOR"})
+    void getByTag_resolvesAScannedTag() throws Exception {
+        given(assetService.getResponseByTag("AST-1234ABCD")).willReturn(new com.clims.backend.dto.AssetDtos.AssetResponse(
+                7L, "AST-1234ABCD", "SN", "Dell", "XPS", AssetStatus.AVAILABLE, null, null, null, null));
+
+        mvc.perform(get("/api/assets/lookup").param("tag", "AST-1234ABCD").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath("$.id").value(7));
+        given(assetService.getResponseByTag("AST-UNKNOWN")).willThrow(new NotFoundException("Asset not found"));
+        mvc.perform(get("/api/assets/lookup").param("tag", "AST-UNKNOWN").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void getQr_requiresAuth() throws Exception {
         mvc.perform(get("/api/assets/ASSET-1/qr")).andExpect(status().isUnauthorized());
@@ -191,7 +369,7 @@ class AssetControllerSecurityTests {
     @WithMockUser(roles = {"ADMIN"})
     void getQr_returnsPngBytes() throws Exception {
         byte[] png = new byte[]{1,2,3};
-        given(assetService.generateQrPng("ASSET-1")).willReturn(png);
+        given(qrCodeService.qr("ASSET-1", QrCodeService.Format.PNG, 200, 4, ErrorCorrectionLevel.L)).willReturn(new QrCodeService.QrCode(png, "\"png-1\""));
 
         mvc.perform(get("/api/assets/ASSET-1/qr"))
                 .andExpect(status().isOk())
@@ -201,14 +379,50 @@ class AssetControllerSecurityTests {
     @Test
     @WithMockUser(roles = {"ADMIN"})
     void getQr_dataUrl_mode_returnsString() throws Exception {
-        byte[] png = new byte[]{1,2,3};
-        given(assetService.generateQrPng("ASSET-1")).willReturn(png);
+        byte[] dataUrl = "data:image/png;base64,AQID".getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+        given(qrCodeService.qr("ASSET-1", QrCodeService.Format.PNG_DATA_URL, 200, 4, ErrorCorrectionLevel.L)).willReturn(new QrCodeService.QrCode(dataUrl, "\"url-1\""));
 
         mvc.perform(get("/api/assets/ASSET-1/qr").param("dataUrl","true"))
                 .andExpect(status().isOk())
                 .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.content().string(org.hamcrest.Matchers.startsWith("data:image/png;base64,")));
     }
 
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    void getQr_isImmutableAndRevalidatedByEtag() throws Exception {
+        given(qrCodeService.qr("ASSET-1", QrCodeService.Format.PNG, 320, 4, ErrorCorrectionLevel.L)).willReturn(new QrCodeService.QrCode(new byte[]{1, 2, 3}, "\"png-320\""));
+
+        mvc.perform(get("/api/assets/ASSET-1/qr").param("size", "320"))
+                .andExpect(status().isOk())
+                .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.header().string("ETag", "\"png-320\""))
+                .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.header().string("Cache-Control", "public, max-age=31536000, immutable"));
+        mvc.perform(get("/api/assets/ASSET-1/qr").param("size", "320").header("If-None-Match", "\"png-320\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    void getQr_svg_passesMarginAndErrorCorrection() throws Exception {
+        byte[] svg = "<svg/>".getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+        given(qrCodeService.qr("ASSET-1", QrCodeService.Format.SVG, 200, 2, ErrorCorrectionLevel.H)).willReturn(new QrCodeService.QrCode(svg, "\"svg-1\""));
+
+        mvc.perform(get("/api/assets/ASSET-1/qr").param("format", "svg").param("margin", "2").param("ecc", "h"))
+                .andExpect(status().isOk())
+                .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.header().string("Content-Type", "image/svg+xml"))
+                .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.content().string("<svg/>"));
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    void getQr_rejectsUnknownFormatAndErrorCorrection() throws Exception {
+        mvc.perform(get("/api/assets/ASSET-1/qr").param("format", "gif"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/api/assets/ASSET-1/qr").param("ecc", "X"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/api/assets/ASSET-1/qr").param("format", "svg").param("dataUrl", "true"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void maintenanceHistory_requiresAuth() throws Exception {
         mvc.perform(get("/api/assets/1/maintenance").accept(MediaType.APPLICATION_JSON))
@@ -218,7 +432,7 @@ class AssetControllerSecurityTests {
     @Test
     @WithMockUser(roles = {"ADMIN"})
     void maintenanceHistory_assetNotFound_returns404() throws Exception {
-        given(assetService.get(123L)).willThrow(new NotFoundException("Asset not found"));
+        given(assetService.getResponse(123L)).willThrow(new NotFoundException("Asset not found"));
         mvc.perform(get("/api/assets/123/maintenance").accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
     }
@@ -226,9 +440,9 @@ class AssetControllerSecurityTests {
     @Test
     @WithMockUser(roles = {"ADMIN"})
     void maintenanceHistory_withParams_mapsPageableAndFilters() throws Exception {
-        Maintenance m1 = new Maintenance(); m1.setId(1L);
-        Page<Maintenance> page = new PageImpl<>(java.util.List.of(m1), PageRequest.of(2, 5, Sort.by("scheduledDate").ascending()), 11);
-        given(assetService.get(1L)).willReturn(new Asset());
+        var m1 = new com.clims.backend.dto.MaintenanceDtos.MaintenanceResponse(1L, 1L, "TAG-1", "Fan", MaintenanceStatus.COMPLETED, null, null, null);
+        Page<com.clims.backend.dto.MaintenanceDtos.MaintenanceResponse> page = new PageImpl<>(java.util.List.of(m1), PageRequest.of(2, 5, Sort.by("scheduledDate").ascending()), 11);
+        given(assetService.getResponse(1L)).willReturn(new com.clims.backend.dto.AssetDtos.AssetResponse(1L, "TAG-1", null, null, null, null, null, null, null, null));
         given(maintenanceService.search(org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any()))
             .willReturn(page);
 
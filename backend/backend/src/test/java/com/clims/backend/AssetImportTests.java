@@ -0,0 +1,183 @@
+package com.clims.backend;
+
+import com.clims.backend.models.entities.AppUser;
+import com.clims.backend.models.entities.Asset;
+import com.clims.backend.models.entities.Department;
+import com.clims.backend.models.entities.Location;
+import com.clims.backend.models.enums.AssetStatus;
+import com.clims.backend.repositories.AppUserRepository;
+import com.clims.backend.repositories.AssetRepository;
+import com.clims.backend.repositories.AuditLogRepository;
+import com.clims.backend.repositories.DepartmentRepository;
+import com.clims.backend.repositories.LocationRepository;
+import com.clims.backend.security.Role;
+import com.clims.backend.services.AssetTagAllocator;
+import com.clims.backend.services.KpiStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A chunk size of 2 makes every test span several chunks
+@SpringBootTest(properties = {"app.assets.import.chunk-size=2", "app.assets.search.index-enabled=false"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AssetImportTests {
+
+    @Autowired MockMvc mvc;
+    @Autowired AssetRepository assetRepository;
+    @Autowired AuditLogRepository auditLogRepository;
+    @Autowired AppUserRepository userRepository;
+    @Autowired LocationRepository locationRepository;
+    @Autowired DepartmentRepository departmentRepository;
+    @Autowired KpiStore kpiStore;
+    @MockitoSpyBean AssetTagAllocator tagAllocator;
+
+    AppUser admin;
+    Location location;
+    Department department;
+
+    @BeforeEach
+    void seed() {
+        admin = new AppUser();
+        admin.setUsername("import-admin");
+        admin.setPasswordHash("x");
+        admin.setRole(Role.ADMIN);
+        userRepository.save(admin);
+        location = new Location(); location.setName("Warehouse A"); locationRepository.save(location);
+        department = new Department(); department.setName("Import Finance"); departmentRepository.save(department);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        auditLogRepository.deleteAll();
+        assetRepository.deleteAll();
+        userRepository.deleteAll();
+        locationRepository.deleteAll();
+        departmentRepository.deleteAll();
+    }
+
+    private String upload(String contentType, String body, int expectedStatus) throws Exception {
+        return mvc.perform(post("/api/assets/import").with(user("import-admin").roles("ADMIN"))
+                        .contentType(contentType).content(body.getBytes(StandardCharsets.UTF_8)))
+                .andExpect(status().is(expectedStatus))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void csv_importsValidRowsAndReportsTheRest() throws Exception {
+        String report = upload("text/csv", """
+                serialNumber,make,model,purchaseDate,warrantyExpiryDate,location,department
+                SN-1,Dell,XPS 13,2025-01-15,2028-01-15,warehouse a,Import Finance
+                SN-2,,XPS 13,2025-01-15,,,
+                SN-3,Dell,XPS 13,15/01/2025,,,
+                SN-4,Lenovo,T14,2025-02-01,,Basement,
+                "SN-5","HP","EliteBook, 840",2025-02-01,,,
+                """, 200);
+
+        assertThat(report.lines().toList()).containsExactly(
+                "{\"row\":2,\"error\":\"make is required\"}",
+                "{\"row\":3,\"error\":\"Dates must look like 2025-03-10\"}",
+                "{\"row\":4,\"error\":\"Unknown location 'Basement'\"}",
+                "{\"imported\":2,\"failed\":3}");
+        List<Asset> assets = assetRepository.findAll();
+        assertThat(assets).extracting(Asset::getSerialNumber).containsExactlyInAnyOrder("SN-1", "SN-5");
+        assertThat(assets).extracting(Asset::getStatus).containsOnly(AssetStatus.AVAILABLE);
+        assertThat(assets).extracting(Asset::getAssetTag).doesNotHaveDuplicates().allMatch(tag -> tag.startsWith("AST-"));
+        assertThat(assets).extracting(Asset::getCreatedAt).doesNotContainNull();
+        Long first = assets.stream().filter(a -> a.getSerialNumber().equals("SN-1")).findFirst().orElseThrow().getId();
+        assertThat(assetRepository.findResponseById(first).orElseThrow())
+                .satisfies(r -> {
+                    assertThat(r.location()).isEqualTo("Warehouse A");
+                    assertThat(r.department()).isEqualTo("Import Finance");
+                });
+        assertThat(auditLogRepository.findAll())
+                .hasSize(2)
+                .allSatisfy(log -> {
+                    assertThat(log.getAction()).isEqualTo("CREATE");
+                    assertThat(log.getEntityName()).isEqualTo("Asset");
+                    assertThat(log.getUser().getId()).isEqualTo(admin.getId());
+                });
+    }
+
+    @Test
+    void ndjson_reportsMalformedLinesAndUnknownFields() throws Exception {
+        String report = upload("application/x-ndjson", """
+                {"serialNumber":"SN-1","make":"Dell","model":"XPS","purchaseDate":"2025-01-15"}
+                not json
+
+                {"serialNumber":"SN-2","make":"Dell","model":"XPS","purchaseDate":"2025-01-15","colour":"red"}
+                {"serialNumber":"SN-3","make":"Dell","model":"XPS","purchaseDate":"2025-01-15","warrantyExpiryDate":null}
+                """, 200);
+
+        assertThat(report.lines().toList()).containsExactly(
+                "{\"row\":2,\"error\":\"Not a JSON object\"}",
+                "{\"row\":3,\"error\":\"Unknown field 'colour'\"}",
+                "{\"imported\":2,\"failed\":2}");
+        assertThat(assetRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void chunkFailingOutsideTheDatabase_isReportedAndTheImportGoesOn() throws Exception {
+        doThrow(new IllegalStateException("Tag block exhausted")).doCallRealMethod()
+                .when(tagAllocator).next(anyInt());
+
+        String report = upload("text/csv", """
+                serialNumber,make,model,purchaseDate
+                SN-1,Dell,XPS,2025-01-15
+                SN-2,Dell,XPS,2025-01-15
+                SN-3,Dell,XPS,2025-01-15
+                """, 200);
+
+        assertThat(report.lines().toList()).containsExactly(
+                "{\"row\":1,\"error\":\"Not imported: writing the rows around it failed\"}",
+                "{\"row\":2,\"error\":\"Not imported: writing the rows around it failed\"}",
+                "{\"imported\":1,\"failed\":2}");
+        assertThat(assetRepository.findAll()).extracting(Asset::getSerialNumber).containsExactly("SN-3");
+    }
+
+    @Test
+    void csv_withAnUnknownColumn_isRejectedBeforeImportingAnything() throws Exception {
+        upload("text/csv", """
+                serialNumber,make,model,purchaseDate,colour
+                SN-1,Dell,XPS,2025-01-15,red
+                """, 400);
+
+        assertThat(assetRepository.count()).isZero();
+    }
+
+    @Test
+    void largeImport_writesEveryRowAndKeepsKpisCurrent() throws Exception {
+        long before = kpiStore.snapshot().totalAssets();
+        String csv = "serialNumber,make,model,purchaseDate\n" + IntStream.range(0, 5000)
+                .mapToObj(i -> "SN-" + i + ",Dell,Latitude,2025-01-15")
+                .collect(Collectors.joining("\n"));
+
+        mvc.perform(post("/api/assets/import").with(user("import-admin").roles("ADMIN"))
+                        .contentType("text/csv").content(csv))
+                .andExpect(status().isOk())
+                .andExpect(content().string("{\"imported\":5000,\"failed\":0}\n"));
+
+        assertThat(assetRepository.count()).isEqualTo(5000);
+        assertThat(auditLogRepository.count()).isEqualTo(5000);
+        assertThat(kpiStore.snapshot().totalAssets()).isEqualTo(before + 5000);
+    }
+}
@@ -0,0 +1,145 @@
+package com.clims.backend;
+
+import com.clims.backend.models.entities.Asset;
+import com.clims.backend.models.entities.Department;
+import com.clims.backend.models.enums.AssetStatus;
+import com.clims.backend.repositories.AssetRepository;
+import com.clims.backend.repositories.DepartmentRepository;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.awt.image.BufferedImage;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"app.assets.labels.max-labels=5", "app.assets.search.index-enabled=false"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AssetLabelTests {
+
+    @Autowired MockMvc mvc;
+    @Autowired AssetRepository assetRepository;
+    @Autowired DepartmentRepository departmentRepository;
+
+    Department department;
+
+    @BeforeEach
+    void seed() {
+        department = new Department(); department.setName("Label Sales"); departmentRepository.save(department);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        assetRepository.deleteAll();
+        departmentRepository.deleteAll();
+    }
+
+    private Asset asset(String serial, AssetStatus status) {
+        Asset a = new Asset();
+        a.setAssetTag("AST-" + serial);
+        a.setSerialNumber(serial);
+        a.setMake("Dell");
+        a.setModel("Latitude");
+        a.setPurchaseDate(LocalDate.of(2025, 1, 15));
+        a.setStatus(status);
+        a.setDepartment(department);
+        return assetRepository.save(a);
+    }
+
+    private ResultActions labels(String body) throws Exception {
+        return mvc.perform(post("/api/assets/labels").with(user("labels").roles("IT_STAFF"))
+                .contentType(MediaType.APPLICATION_JSON).content(body));
+    }
+
+    private PDDocument sheet(String body) throws Exception {
+        MvcResult pending = labels(body).andExpect(request().asyncStarted()).andReturn();
+        byte[] pdf = mvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_PDF))
+                .andReturn().getResponse().getContentAsByteArray();
+        return Loader.loadPDF(pdf);
+    }
+
+    private static List<String> tagsOn(PDDocument doc, int page) throws Exception {
+        PDFTextStripper stripper = new PDFTextStripper();
+        stripper.setStartPage(page);
+        stripper.setEndPage(page);
+        return Arrays.stream(stripper.getText(doc).split("\\R")).map(String::strip).filter(s -> !s.isEmpty()).toList();
+    }
+
+    private static String decode(BufferedImage image) throws Exception {
+        return new QRCodeReader().decode(new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(image)))).getText();
+    }
+
+    @Test
+    void ids_arePrintedInOrderAcrossPagesOfTheGrid() throws Exception {
+        Asset a = asset("L-1", AssetStatus.AVAILABLE);
+        Asset b = asset("L-2", AssetStatus.AVAILABLE);
+        Asset c = asset("L-3", AssetStatus.ASSIGNED);
+        Asset d = asset("L-4", AssetStatus.AVAILABLE);
+        Asset e = asset("L-5", AssetStatus.AVAILABLE);
+
+        try (PDDocument doc = sheet("{\"ids\":[%d,%d,%d,%d,%d,%d],\"columns\":2,\"rows\":2}"
+                .formatted(e.getId(), d.getId(), c.getId(), b.getId(), a.getId(), e.getId()))) {
+            assertThat(doc.getNumberOfPages()).isEqualTo(2);
+            assertThat(tagsOn(doc, 1)).containsExactly("AST-L-5 AST-L-4", "AST-L-3 AST-L-2");
+            assertThat(tagsOn(doc, 2)).containsExactly("AST-L-1");
+        }
+    }
+
+    @Test
+    void filter_printsMatchingAssetsAsScannableCodes() throws Exception {
+        asset("L-1", AssetStatus.AVAILABLE);
+        asset("L-2", AssetStatus.RETIRED);
+        asset("L-3", AssetStatus.AVAILABLE);
+
+        // One label per half page, so each can be decoded on its own
+        try (PDDocument doc = sheet("{\"filter\":{\"status\":\"AVAILABLE\",\"departmentId\":%d},\"columns\":1,\"rows\":2}"
+                .formatted(department.getId()))) {
+            assertThat(doc.getNumberOfPages()).isEqualTo(1);
+            BufferedImage page = new PDFRenderer(doc).renderImageWithDPI(0, 100);
+            int half = page.getHeight() / 2;
+            assertThat(decode(page.getSubimage(0, 0, page.getWidth(), half))).isEqualTo("AST-L-1");
+            assertThat(decode(page.getSubimage(0, half, page.getWidth(), half))).isEqualTo("AST-L-3");
+        }
+    }
+
+    @Test
+    void invalidRequests_failBeforeTheDownloadStarts() throws Exception {
+        Asset a = asset("L-1", AssetStatus.AVAILABLE);
+
+        labels("{\"ids\":[%d],\"filter\":{}}".formatted(a.getId())).andExpect(status().isBadRequest());
+        labels("{\"ids\":[1,2,3,4,5,6]}").andExpect(status().isBadRequest());
+        labels("{\"ids\":[%d],\"columns\":10,\"rows\":20}".formatted(a.getId())).andExpect(status().isBadRequest());
+        labels("{\"ids\":[%d,999999]}".formatted(a.getId())).andExpect(status().isNotFound());
+        mvc.perform(post("/api/assets/labels").with(user("labels").roles("EMPLOYEE"))
+                .contentType(MediaType.APPLICATION_JSON).content("{\"ids\":[%d]}".formatted(a.getId())))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -1,20 +1,28 @@
 package com.clims.backend;
 
 import com.clims.backend.dto.AssetDtos;
+import com.clims.backend.events.AssetChangedEvent;
 import com.clims.backend.exceptions.NotFoundException;
 import com.clims.backend.models.entities.AppUser;
 import com.clims.backend.models.entities.Asset;
+import com.clims.backend.models.enums.AssetStatus;
 import com.clims.backend.repositories.AppUserRepository;
+import com.clims.backend.repositories.AssetFacetCell;
 import com.clims.backend.repositories.AssetRepository;
 import com.clims.backend.repositories.LocationRepository;
 import com.clims.backend.repositories.DepartmentRepository;
 import com.clims.backend.repositories.VendorRepository;
+import com.clims.backend.services.AssetCache;
+import com.clims.backend.services.AssetSearchIndex;
 import com.clims.backend.services.AssetService;
+import com.clims.backend.services.AssetTagAllocator;
 import com.clims.backend.services.AuditLogService;
+import com.clims.backend.services.CountEstimator;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDate;
 import java.util.Optional;
@@ -23,6 +31,8 @@ import static org.mockito.ArgumentMatchers.any;
 
 public class AssetServiceTests {
 
+    private final AssetTagAllocator tags = Mockito.mock(AssetTagAllocator.class);
+
     @Test
     void createAsset_happyPath() {
         AssetRepository assetRepo = Mockito.mock(AssetRepository.class);
@@ -39,7 +49,10 @@ public class AssetServiceTests {
             return a;
         });
 
-    AssetService svc = new AssetService(assetRepo, locRepo, vendorRepo, deptRepo, userRepo, audit, mapper);
+        ApplicationEventPublisher events = Mockito.mock(ApplicationEventPublisher.class);
+        Mockito.when(tags.next()).thenReturn("AST-000000018");
+
+    AssetService svc = new AssetService(assetRepo, locRepo, vendorRepo, deptRepo, userRepo, audit, mapper, events, Mockito.mock(AssetSearchIndex.class), Mockito.mock(CountEstimator.class), Mockito.mock(AssetCache.class), tags);
     AssetDtos.CreateAssetRequest req = new AssetDtos.CreateAssetRequest(
         "SN-1", "Dell", "XPS", LocalDate.now(), null, null, null, null
     );
@@ -49,13 +62,55 @@ public class AssetServiceTests {
         Asset saved = svc.create(req, actor);
         Assertions.assertNotNull(saved.getId());
         Assertions.assertNotNull(saved.getAssetTag());
+        Mockito.verify(events).publishEvent(new AssetChangedEvent(1L, "CREATE", null, AssetStatus.AVAILABLE));
     }
 
     @Test
     void get_missingAsset_throwsNotFound() {
         AssetRepository assetRepo = Mockito.mock(AssetRepository.class);
         Mockito.when(assetRepo.findById(123L)).thenReturn(Optional.empty());
-    AssetService svc = new AssetService(assetRepo, Mockito.mock(LocationRepository.class), Mockito.mock(VendorRepository.class), Mockito.mock(DepartmentRepository.class), Mockito.mock(AppUserRepository.class), Mockito.mock(AuditLogService.class), new ModelMapper());
+    AssetService svc = new AssetService(assetRepo, Mockito.mock(LocationRepository.class), Mockito.mock(VendorRepository.class), Mockito.mock(DepartmentRepository.class), Mockito.mock(AppUserRepository.class), Mockito.mock(AuditLogService.class), new ModelMapper(), Mockito.mock(ApplicationEventPublisher.class), Mockito.mock(AssetSearchIndex.class), Mockito.mock(CountEstimator.class), Mockito.mock(AssetCache.class), tags);
         Assertions.assertThrows(NotFoundException.class, () -> svc.get(123L));
     }
+
+    @Test
+    void search_withNoIndexMatches_skipsTheQuery() {
+        AssetRepository assetRepo = Mockito.mock(AssetRepository.class);
+        AssetSearchIndex index = Mockito.mock(AssetSearchIndex.class);
+        Mockito.when(index.find("zzz-none")).thenReturn(java.util.Set.of());
+        AssetService svc = new AssetService(assetRepo, Mockito.mock(LocationRepository.class), Mockito.mock(VendorRepository.class), Mockito.mock(DepartmentRepository.class), Mockito.mock(AppUserRepository.class), Mockito.mock(AuditLogService.class), new ModelMapper(), Mockito.mock(ApplicationEventPublisher.class), index, Mockito.mock(CountEstimator.class), Mockito.mock(AssetCache.class), tags);
+
+        Assertions.assertTrue(svc.search(org.springframework.data.domain.PageRequest.of(0, 20), null, null, null, null, "zzz-none").isEmpty());
+        Mockito.verifyNoInteractions(assetRepo);
+    }
+
+    @Test
+    void getResponseByTag_withABadCheckDigit_skipsTheLookup() {
+        AssetCache cache = Mockito.mock(AssetCache.class);
+        Mockito.when(tags.hasBadCheckDigit("AST-000000019")).thenReturn(true);
+        AssetService svc = new AssetService(Mockito.mock(AssetRepository.class), Mockito.mock(LocationRepository.class), Mockito.mock(VendorRepository.class), Mockito.mock(DepartmentRepository.class), Mockito.mock(AppUserRepository.class), Mockito.mock(AuditLogService.class), new ModelMapper(), Mockito.mock(ApplicationEventPublisher.class), Mockito.mock(AssetSearchIndex.class), Mockito.mock(CountEstimator.class), cache, tags);
+
+        Assertions.assertThrows(NotFoundException.class, () -> svc.getResponseByTag("AST-000000019"));
+        Mockito.verifyNoInteractions(cache);
+    }
+
+    @Test
+    void facets_countEachDimensionUnderTheOtherFiltersOnly() {
+        AssetRepository assetRepo = Mockito.mock(AssetRepository.class);
+        Mockito.when(assetRepo.findFacetCells(any())).thenReturn(java.util.List.of(
+                new AssetFacetCell(AssetStatus.AVAILABLE, 1L, 10L, null, 5),
+                new AssetFacetCell(AssetStatus.ASSIGNED, 1L, 10L, null, 3),
+                new AssetFacetCell(AssetStatus.ASSIGNED, 2L, 10L, 7L, 4),
+                new AssetFacetCell(AssetStatus.AVAILABLE, null, 11L, 7L, 2)));
+        AssetService svc = new AssetService(assetRepo, Mockito.mock(LocationRepository.class), Mockito.mock(VendorRepository.class), Mockito.mock(DepartmentRepository.class), Mockito.mock(AppUserRepository.class), Mockito.mock(AuditLogService.class), new ModelMapper(), Mockito.mock(ApplicationEventPublisher.class), Mockito.mock(AssetSearchIndex.class), Mockito.mock(CountEstimator.class), Mockito.mock(AssetCache.class), tags);
+
+        AssetDtos.AssetFacets facets = svc.facets(AssetStatus.ASSIGNED, null, 10L, null, null);
+
+        // Status ignores its own filter but keeps location 10
+        Assertions.assertEquals(java.util.List.of(new AssetDtos.FacetCount<>(AssetStatus.ASSIGNED, 7L), new AssetDtos.FacetCount<>(AssetStatus.AVAILABLE, 5L)), facets.status());
+        Assertions.assertEquals(java.util.List.of(new AssetDtos.FacetCount<>(2L, 4L), new AssetDtos.FacetCount<>(1L, 3L)), facets.departmentId());
+        Assertions.assertEquals(java.util.List.of(new AssetDtos.FacetCount<>(10L, 7L)), facets.locationId());
+        Assertions.assertEquals(java.util.List.of(new AssetDtos.FacetCount<>(7L, 4L), new AssetDtos.FacetCount<Long>(null, 3L)), facets.vendorId());
+        Mockito.verify(assetRepo, Mockito.times(1)).findFacetCells(any());
+    }
 }
@@ -0,0 +1,67 @@
+package com.clims.backend;
+
+import com.clims.backend.models.entities.AppUser;
+import com.clims.backend.repositories.AppUserRepository;
+import com.clims.backend.repositories.AuditLogRepository;
+import com.clims.backend.security.Role;
+import com.clims.backend.services.AuditLogService;
+import com.clims.backend.services.AuditWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Rows the committing thread writes itself, once the queue is full or the writer has stopped, must be committed too. */
+@SpringBootTest(properties = {"app.assets.search.index-enabled=false",
+        "app.audit.write-behind.queue-capacity=1", "app.audit.write-behind.batch-size=1"})
+@ActiveProfiles("test")
+class AuditWriteBehindOverflowTests {
+
+    @Autowired AuditLogService auditLogService;
+    @Autowired AuditWriter auditWriter;
+    @Autowired AuditLogRepository auditLogRepository;
+    @Autowired AppUserRepository userRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired MeterRegistry meterRegistry;
+
+    AppUser admin;
+
+    @BeforeEach
+    void seed() {
+        admin = new AppUser();
+        admin.setUsername("overflow-admin");
+        admin.setPasswordHash("x");
+        admin.setRole(Role.ADMIN);
+        userRepository.save(admin);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        assertThat(auditWriter.awaitWritten(Duration.ofSeconds(5))).isTrue();
+        auditLogRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void rowsOverflowingTheQueue_areCommittedByTheCommittingThread() {
+        double overflowBefore = meterRegistry.get("audit.overflow").counter().count();
+
+        // All 50 rows reach the writer at once when the transaction commits, far more than the queue holds
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (long id = 1; id <= 50; id++) auditLogService.log("Asset", id, "UPDATE", "row " + id, admin);
+        });
+
+        assertThat(meterRegistry.get("audit.overflow").counter().count()).isGreaterThan(overflowBefore);
+        assertThat(auditWriter.awaitWritten(Duration.ofSeconds(5))).isTrue();
+        assertThat(auditLogRepository.count()).isEqualTo(50);
+    }
+}
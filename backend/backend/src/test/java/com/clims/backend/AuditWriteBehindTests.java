@@ -0,0 +1,98 @@
+package com.clims.backend;
+
+import com.clims.backend.models.entities.AppUser;
+import com.clims.backend.repositories.AppUserRepository;
+import com.clims.backend.repositories.AssetRepository;
+import com.clims.backend.repositories.AuditLogRepository;
+import com.clims.backend.security.Role;
+import com.clims.backend.services.AuditLogService;
+import com.clims.backend.services.AuditWriter;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.assets.search.index-enabled=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AuditWriteBehindTests {
+
+    @Autowired MockMvc mvc;
+    @Autowired AuditLogService auditLogService;
+    @Autowired AuditWriter auditWriter;
+    @Autowired AuditLogRepository auditLogRepository;
+    @Autowired AssetRepository assetRepository;
+    @Autowired AppUserRepository userRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    AppUser admin;
+
+    @BeforeEach
+    void seed() {
+        admin = new AppUser();
+        admin.setUsername("audit-admin");
+        admin.setPasswordHash("x");
+        admin.setRole(Role.ADMIN);
+        userRepository.save(admin);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        assertThat(auditWriter.awaitWritten(Duration.ofSeconds(5))).isTrue();
+        auditLogRepository.deleteAll();
+        assetRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void auditTrail_showsEveryWriteThatReturnedBeforeIt() throws Exception {
+        String created = mvc.perform(post("/api/assets").with(user("audit-admin").roles("ADMIN"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"serialNumber\":\"AUD-1\",\"make\":\"Dell\",\"model\":\"Latitude\",\"purchaseDate\":\"2025-01-15\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long id = ((Number) JsonPath.read(created, "$.id")).longValue();
+        mvc.perform(post("/api/assets/" + id + "/dispose").with(user("audit-admin").roles("ADMIN")))
+                .andExpect(status().isOk());
+
+        mvc.perform(get("/api/assets/" + id + "/audit").with(user("audit-admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].action").value(contains("DISPOSE", "CREATE")))
+                .andExpect(jsonPath("$[*].actor").value(contains("audit-admin", "audit-admin")));
+    }
+
+    @Test
+    void rolledBackTransactions_leaveNoAuditRow() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            auditLogService.log("Asset", 41L, "UPDATE", "rolled back", admin);
+            status.setRollbackOnly();
+        });
+        tx.executeWithoutResult(status -> auditLogService.log("Asset", 42L, "UPDATE", "committed", admin));
+
+        assertThat(auditWriter.awaitWritten(Duration.ofSeconds(5))).isTrue();
+        assertThat(auditLogRepository.findAll()).singleElement().satisfies(log -> {
+            assertThat(log.getEntityId()).isEqualTo(42L);
+            assertThat(log.getDetails()).isEqualTo("committed");
+            assertThat(log.getCreatedAt()).isNotNull();
+        });
+    }
+}
@@ -3,10 +3,12 @@ package com.clims.backend;
 import com.clims.backend.models.entities.AppUser;
 import com.clims.backend.repositories.AppUserRepository;
 import com.clims.backend.repositories.DepartmentRepository;
+import com.clims.backend.services.CountEstimator;
 import com.clims.backend.services.UserService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.modelmapper.ModelMapper;
 
@@ -24,12 +26,12 @@ public class ChangePasswordTests {
         user.setId(100L);
         user.setPasswordHash("oldHash");
 
-        Mockito.when(userRepo.findById(100L)).thenReturn(java.util.Optional.of(user));
+        Mockito.when(userRepo.findWithDepartmentById(100L)).thenReturn(java.util.Optional.of(user));
         Mockito.when(encoder.matches("current", "oldHash")).thenReturn(true);
     Mockito.when(encoder.encode("Newpass1!")).thenReturn("newHash");
         Mockito.when(userRepo.save(any(AppUser.class))).thenAnswer(inv -> inv.getArgument(0));
 
-    UserService svc = new UserService(userRepo, deptRepo, encoder, new ModelMapper());
+    UserService svc = new UserService(userRepo, deptRepo, encoder, new ModelMapper(), Mockito.mock(CountEstimator.class), Mockito.mock(ApplicationEventPublisher.class));
     svc.changePassword(100L, "current", "Newpass1!");
 
         Mockito.verify(userRepo).save(Mockito.argThat(u -> "newHash".equals(u.getPasswordHash())));
@@ -45,10 +47,10 @@ public class ChangePasswordTests {
         user.setId(101L);
         user.setPasswordHash("oldHash");
 
-        Mockito.when(userRepo.findById(101L)).thenReturn(java.util.Optional.of(user));
+        Mockito.when(userRepo.findWithDepartmentById(101L)).thenReturn(java.util.Optional.of(user));
         Mockito.when(encoder.matches("wrong", "oldHash")).thenReturn(false);
 
-        UserService svc = new UserService(userRepo, deptRepo, encoder, new ModelMapper());
+        UserService svc = new UserService(userRepo, deptRepo, encoder, new ModelMapper(), Mockito.mock(CountEstimator.class), Mockito.mock(ApplicationEventPublisher.class));
 
         Assertions.assertThrows(IllegalArgumentException.class, () -> svc.changePassword(101L, "wrong", "x"));
     }
@@ -63,10 +65,10 @@ public class ChangePasswordTests {
         user.setId(102L);
         user.setPasswordHash("oldHash");
 
-        Mockito.when(userRepo.findById(102L)).thenReturn(java.util.Optional.of(user));
+        Mockito.when(userRepo.findWithDepartmentById(102L)).thenReturn(java.util.Optional.of(user));
         Mockito.when(encoder.matches("current", "oldHash")).thenReturn(true);
 
-        UserService svc = new UserService(userRepo, deptRepo, encoder, new ModelMapper());
+        UserService svc = new UserService(userRepo, deptRepo, encoder, new ModelMapper(), Mockito.mock(CountEstimator.class), Mockito.mock(ApplicationEventPublisher.class));
 
         Assertions.assertThrows(IllegalArgumentException.class, () -> svc.changePassword(102L, "current", "weak"));
     }
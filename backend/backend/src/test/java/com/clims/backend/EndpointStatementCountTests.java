@@ -0,0 +1,216 @@
+package com.clims.backend;
+
+import com.clims.backend.models.entities.AppUser;
+import com.clims.backend.models.entities.Asset;
+import com.clims.backend.models.entities.AuditLog;
+import com.clims.backend.models.entities.Department;
+import com.clims.backend.models.entities.Location;
+import com.clims.backend.models.entities.Maintenance;
+import com.clims.backend.models.entities.RefreshToken;
+import com.clims.backend.models.entities.Vendor;
+import com.clims.backend.models.enums.AssetStatus;
+import com.clims.backend.repositories.AppUserRepository;
+import com.clims.backend.repositories.AssetRepository;
+import com.clims.backend.repositories.AuditLogRepository;
+import com.clims.backend.repositories.DepartmentRepository;
+import com.clims.backend.repositories.LocationRepository;
+import com.clims.backend.repositories.MaintenanceRepository;
+import com.clims.backend.repositories.RefreshTokenRepository;
+import com.clims.backend.repositories.VendorRepository;
+import com.clims.backend.security.Role;
+import com.clims.backend.services.UserService;
+import com.clims.backend.support.SqlStatementCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Number of SQL statements each read endpoint issues against a data set where every association is
+ * populated. A regression here means an association is being loaded row by row again.
+ */
+@SpringBootTest(properties = {SqlStatementCounter.PROPERTY, "app.assets.search.index-enabled=false"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser(roles = "ADMIN")
+class EndpointStatementCountTests {
+
+    @Autowired MockMvc mvc;
+    @Autowired AssetRepository assetRepository;
+    @Autowired MaintenanceRepository maintenanceRepository;
+    @Autowired AppUserRepository userRepository;
+    @Autowired DepartmentRepository departmentRepository;
+    @Autowired LocationRepository locationRepository;
+    @Autowired VendorRepository vendorRepository;
+    @Autowired AuditLogRepository auditLogRepository;
+    @Autowired RefreshTokenRepository refreshTokenRepository;
+    @Autowired UserService userService;
+
+    Asset firstAsset;
+    Maintenance firstMaintenance;
+    AppUser firstUser;
+
+    @BeforeEach
+    void seed() {
+        for (int i = 0; i < 6; i++) {
+            Department department = new Department(); department.setName("Dept-" + i); departmentRepository.save(department);
+            Location location = new Location(); location.setName("Loc-" + i); locationRepository.save(location);
+            Vendor vendor = new Vendor(); vendor.setName("Vendor-" + i); vendorRepository.save(vendor);
+
+            AppUser user = new AppUser();
+            user.setUsername("count-user-" + i);
+            user.setPasswordHash("x");
+            user.setRole(Role.EMPLOYEE);
+            user.setDepartment(department);
+            userRepository.save(user);
+
+            Asset asset = new Asset();
+            asset.setAssetTag("COUNT-" + i);
+            asset.setSerialNumber("SN-" + i);
+            asset.setMake("Make");
+            asset.setModel("Model");
+            asset.setPurchaseDate(LocalDate.of(2024, 1, 1));
+            asset.setStatus(AssetStatus.ASSIGNED);
+            asset.setAssignedUser(user);
+            asset.setDepartment(department);
+            asset.setLocation(location);
+            asset.setVendor(vendor);
+            assetRepository.save(asset);
+
+            Maintenance maintenance = new Maintenance();
+            maintenance.setAsset(asset);
+            maintenance.setReportedBy(user);
+            maintenance.setDescription("Check " + i);
+            maintenance.setScheduledDate(LocalDate.now().plusDays(1));
+            maintenanceRepository.save(maintenance);
+
+            AuditLog log = new AuditLog();
+            log.setEntityName("Asset");
+            log.setEntityId(asset.getId());
+            log.setAction("UPDATE");
+            log.setUser(user);
+            auditLogRepository.save(log);
+
+            if (i == 0) {
+                firstAsset = asset;
+                firstMaintenance = maintenance;
+                firstUser = user;
+            }
+        }
+        // Every audit row of the first asset is by a different user
+        for (int i = 1; i < 6; i++) {
+            AuditLog log = new AuditLog();
+            log.setEntityName("Asset");
+            log.setEntityId(firstAsset.getId());
+            log.setAction("ASSIGN");
+            log.setUser(userRepository.findByUsername("count-user-" + i).orElseThrow());
+            auditLogRepository.save(log);
+        }
+        RefreshToken token = new RefreshToken();
+        token.setToken("count-refresh-token");
+        token.setUser(firstUser);
+        token.setExpiryDate(Instant.now().plus(1, ChronoUnit.DAYS));
+        refreshTokenRepository.save(token);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        refreshTokenRepository.deleteAll();
+        auditLogRepository.deleteAll();
+        maintenanceRepository.deleteAll();
+        assetRepository.deleteAll();
+        userRepository.deleteAll();
+        departmentRepository.deleteAll();
+        locationRepository.deleteAll();
+        vendorRepository.deleteAll();
+    }
+
+    private int statements(RequestBuilder request) throws Exception {
+        SqlStatementCounter.reset();
+        mvc.perform(request).andExpect(status().isOk());
+        return SqlStatementCounter.count();
+    }
+
+    @Test
+    void assetEndpoints() throws Exception {
+        // The ETag of a list costs no statement. A full page cannot tell the total, so it is counted
+        assertThat(statements(get("/api/assets").param("size", "4"))).isEqualTo(2);
+        assertThat(statements(get("/api/assets").param("size", "50"))).isEqualTo(1);
+        assertThat(statements(get("/api/assets").param("size", "4").param("count", "none"))).isEqualTo(1);
+        assertThat(statements(get("/api/assets").param("after", "").param("size", "4"))).isEqualTo(1);
+        // One grouped query for all four facets
+        assertThat(statements(get("/api/assets/facets").param("status", "ASSIGNED"))).isEqualTo(1);
+        assertThat(statements(get("/api/assets/" + firstAsset.getId()))).isEqualTo(1);
+        // The asset is cached now, so the existence check is free and only the joined query remains
+        assertThat(statements(get("/api/assets/" + firstAsset.getId()))).isZero();
+        assertThat(statements(get("/api/assets/" + firstAsset.getId() + "/maintenance"))).isEqualTo(1);
+        assertThat(statements(get("/api/assets/" + firstAsset.getId() + "/audit"))).isEqualTo(1);
+        // A scanned tag resolves to its id once
+        assertThat(statements(get("/api/assets/lookup").param("tag", firstAsset.getAssetTag()))).isEqualTo(1);
+        assertThat(statements(get("/api/assets/lookup").param("tag", firstAsset.getAssetTag()))).isZero();
+    }
+
+    @Test
+    void maintenanceEndpoints() throws Exception {
+        assertThat(statements(get("/api/maintenance").param("size", "50"))).isEqualTo(1);
+        assertThat(statements(get("/api/maintenance").param("after", "").param("size", "4"))).isEqualTo(1);
+        assertThat(statements(get("/api/maintenance/" + firstMaintenance.getId()))).isEqualTo(1);
+    }
+
+    @Test
+    void userEndpoints() throws Exception {
+        assertThat(statements(get("/api/users").param("size", "50"))).isEqualTo(1);
+        assertThat(statements(get("/api/users").param("size", "4").param("count", "none"))).isEqualTo(1);
+        assertThat(statements(get("/api/users").param("after", "").param("size", "4"))).isEqualTo(1);
+        assertThat(statements(get("/api/users/" + firstUser.getId()))).isEqualTo(1);
+    }
+
+    @Test
+    void conditionalGets_answerUnchangedDataWithoutLoadingIt() throws Exception {
+        String assets = mvc.perform(get("/api/assets").param("size", "4")).andReturn().getResponse().getHeader("ETag");
+        String asset = mvc.perform(get("/api/assets/" + firstAsset.getId())).andReturn().getResponse().getHeader("ETag");
+        String vendors = mvc.perform(get("/api/lookups/vendors")).andReturn().getResponse().getHeader("ETag");
+
+        assertThat(notModified(get("/api/assets").param("size", "4").header("If-None-Match", assets))).isZero();
+        assertThat(notModified(get("/api/assets/" + firstAsset.getId()).header("If-None-Match", asset))).isZero();
+        assertThat(notModified(get("/api/lookups/vendors").header("If-None-Match", vendors))).isEqualTo(1);
+
+        Vendor vendor = new Vendor(); vendor.setName("Vendor-new"); vendorRepository.save(vendor);
+        mvc.perform(get("/api/lookups/vendors").header("If-None-Match", vendors)).andExpect(status().isOk());
+
+        // Asset rows print the assigned user's name, so a committed user write moves the asset list
+        userService.updateRole(firstUser.getId(), Role.MANAGER);
+        mvc.perform(get("/api/assets").param("size", "4").header("If-None-Match", assets)).andExpect(status().isOk());
+    }
+
+    private int notModified(RequestBuilder request) throws Exception {
+        SqlStatementCounter.reset();
+        mvc.perform(request).andExpect(status().isNotModified());
+        return SqlStatementCounter.count();
+    }
+
+    @Test
+    void authEndpoints() throws Exception {
+        // The current user, then its department for the response
+        assertThat(statements(get("/api/auth/me").with(user(firstUser.getUsername()).roles("EMPLOYEE")))).isEqualTo(2);
+        assertThat(statements(post("/api/auth/refresh").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\":\"count-refresh-token\"}"))).isEqualTo(1);
+    }
+}
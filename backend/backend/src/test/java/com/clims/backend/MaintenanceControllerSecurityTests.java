@@ -7,6 +7,7 @@ import com.clims.backend.exceptions.NotFoundException;
 import com.clims.backend.security.JwtAuthFilter;
 import com.clims.backend.security.JwtUtil;
 import com.clims.backend.security.CurrentUserService;
+import com.clims.backend.services.ListVersions;
 import com.clims.backend.services.MaintenanceService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -49,6 +50,9 @@ public class MaintenanceControllerSecurityTests {
     @MockBean
     MaintenanceService maintenanceService;
 
+    @MockBean
+    ListVersions listVersions;
+
     // Security mocks
     @MockBean
     JwtAuthFilter jwtAuthFilter;
@@ -66,6 +70,7 @@ public class MaintenanceControllerSecurityTests {
             chain.doFilter(req, res);
             return null;
         }).when(jwtAuthFilter).doFilter(org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any());
+        given(listVersions.version(org.mockito.ArgumentMatchers.anyString())).willReturn("v0");
     }
 
     @Test
@@ -86,8 +91,8 @@ public class MaintenanceControllerSecurityTests {
     @Test
     @WithMockUser(roles = {"ADMIN"})
     void list_withPaging_structure_ok() throws Exception {
-    Maintenance m1 = new Maintenance(); m1.setId(1L);
-    Maintenance m2 = new Maintenance(); m2.setId(2L);
+    var m1 = new com.clims.backend.dto.MaintenanceDtos.MaintenanceResponse(1L, 10L, "TAG-10", "Fan", MaintenanceStatus.SCHEDULED, null, null, null);
+    var m2 = new com.clims.backend.dto.MaintenanceDtos.MaintenanceResponse(2L, 10L, "TAG-10", "Screen", MaintenanceStatus.SCHEDULED, null, null, null);
     given(maintenanceService.search(org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any(), org.mockito.ArgumentMatchers.any()))
         .willReturn(new PageImpl<>(java.util.List.of(m1,m2), PageRequest.of(1,2), 4));
 
@@ -183,9 +188,7 @@ public class MaintenanceControllerSecurityTests {
     @Test
     @WithMockUser(roles = {"TECHNICIAN"})
     void getById_withAllowedRole_ok() throws Exception {
-        Maintenance m = new Maintenance();
-        m.setId(1L);
-        given(maintenanceService.get(1L)).willReturn(m);
+        given(maintenanceService.getResponse(1L)).willReturn(new com.clims.backend.dto.MaintenanceDtos.MaintenanceResponse(1L, 10L, "TAG-10", "Fan", MaintenanceStatus.SCHEDULED, null, null, null));
         mvc.perform(get("/api/maintenance/1").accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
     }
@@ -193,7 +196,7 @@ public class MaintenanceControllerSecurityTests {
     @Test
     @WithMockUser(roles = {"TECHNICIAN"})
     void getById_notFound_returns404() throws Exception {
-        given(maintenanceService.get(42L)).willThrow(new NotFoundException("Maintenance not found"));
+        given(maintenanceService.getResponse(42L)).willThrow(new NotFoundException("Maintenance not found"));
         mvc.perform(get("/api/maintenance/42").accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
     }
@@ -10,10 +10,12 @@ import com.clims.backend.models.enums.MaintenanceStatus;
 import com.clims.backend.repositories.AssetRepository;
 import com.clims.backend.repositories.MaintenanceRepository;
 import com.clims.backend.services.AuditLogService;
+import com.clims.backend.services.CountEstimator;
 import com.clims.backend.services.MaintenanceService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDate;
 import java.util.Optional;
@@ -38,7 +40,7 @@ public class MaintenanceServiceTests {
             return m;
         });
 
-        MaintenanceService svc = new MaintenanceService(maintRepo, assetRepo, audit);
+        MaintenanceService svc = new MaintenanceService(maintRepo, assetRepo, audit, Mockito.mock(ApplicationEventPublisher.class), Mockito.mock(CountEstimator.class));
         MaintenanceDtos.CreateRequest req = new MaintenanceDtos.CreateRequest(10L, "Fan cleaning", LocalDate.now());
         AppUser actor = new AppUser();
         actor.setUsername("tech");
@@ -61,10 +63,10 @@ public class MaintenanceServiceTests {
         Maintenance m = new Maintenance();
         m.setId(5L);
         m.setAsset(asset);
-        Mockito.when(maintRepo.findById(5L)).thenReturn(Optional.of(m));
+        Mockito.when(maintRepo.findWithAssociationsById(5L)).thenReturn(Optional.of(m));
         Mockito.when(maintRepo.save(any(Maintenance.class))).thenAnswer(inv -> inv.getArgument(0));
 
-        MaintenanceService svc = new MaintenanceService(maintRepo, assetRepo, audit);
+        MaintenanceService svc = new MaintenanceService(maintRepo, assetRepo, audit, Mockito.mock(ApplicationEventPublisher.class), Mockito.mock(CountEstimator.class));
         MaintenanceDtos.UpdateStatusRequest req = new MaintenanceDtos.UpdateStatusRequest(MaintenanceStatus.COMPLETED, LocalDate.now());
         AppUser actor = new AppUser();
 
@@ -79,7 +81,9 @@ public class MaintenanceServiceTests {
         MaintenanceService svc = new MaintenanceService(
                 Mockito.mock(MaintenanceRepository.class),
                 Mockito.mock(AssetRepository.class),
-                Mockito.mock(AuditLogService.class)
+                Mockito.mock(AuditLogService.class),
+                Mockito.mock(ApplicationEventPublisher.class),
+                Mockito.mock(CountEstimator.class)
         );
         MaintenanceDtos.CreateRequest req = new MaintenanceDtos.CreateRequest(999L, "Bad", LocalDate.now());
         Assertions.assertThrows(NotFoundException.class, () -> svc.schedule(req, new AppUser()));
@@ -90,7 +94,9 @@ public class MaintenanceServiceTests {
         MaintenanceService svc = new MaintenanceService(
                 Mockito.mock(MaintenanceRepository.class),
                 Mockito.mock(AssetRepository.class),
-                Mockito.mock(AuditLogService.class)
+                Mockito.mock(AuditLogService.class),
+                Mockito.mock(ApplicationEventPublisher.class),
+                Mockito.mock(CountEstimator.class)
         );
         MaintenanceDtos.UpdateStatusRequest req = new MaintenanceDtos.UpdateStatusRequest(MaintenanceStatus.IN_PROGRESS, null);
         Assertions.assertThrows(NotFoundException.class, () -> svc.updateStatus(123L, req, new AppUser()));
@@ -0,0 +1,136 @@
+package com.clims.backend;
+
+import com.clims.backend.controllers.ReportController;
+import com.clims.backend.exceptions.GlobalExceptionHandler;
+import com.clims.backend.security.JwtAuthFilter;
+import com.clims.backend.security.SecurityConfig;
+import com.clims.backend.services.KpiStore;
+import com.clims.backend.services.ReportCache;
+import com.clims.backend.services.ReportCompression;
+import com.clims.backend.services.ReportService;
+import com.github.luben.zstd.ZstdInputStream;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = ReportController.class)
+@Import({GlobalExceptionHandler.class, SecurityConfig.class, ReportCompression.class})
+@AutoConfigureMockMvc(addFilters = true)
+class ReportControllerCsvTests {
+
+    private static final String CSV = "AssetTag,SerialNumber\nAST-1,SN1\nAST-2,SN2\n";
+
+    @Autowired MockMvc mvc;
+
+    @MockBean JwtAuthFilter jwtAuthFilter;
+    @MockBean ReportService reportService;
+    @MockBean ReportCache reportCache;
+    @MockBean KpiStore kpiStore;
+    @MockBean org.springframework.security.core.userdetails.UserDetailsService userDetailsService;
+    @MockBean org.springframework.security.authentication.AuthenticationManager authenticationManager;
+
+    @BeforeEach
+    void setup() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            ServletRequest req = invocation.getArgument(0);
+            ServletResponse res = invocation.getArgument(1);
+            FilterChain chain = invocation.getArgument(2);
+            chain.doFilter(req, res);
+            return null;
+        }).when(jwtAuthFilter).doFilter(Mockito.any(), Mockito.any(), Mockito.any());
+        Mockito.when(reportCache.serve(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenAnswer(inv -> inv.<ReportCache.Generator>getArgument(2).writeTo(inv.getArgument(1)));
+        doAnswer(inv -> {
+            inv.<OutputStream>getArgument(0).write(CSV.getBytes(StandardCharsets.UTF_8));
+            return new ReportService.ReportResult(2, false);
+        }).when(reportService).writeInventoryCsv(any(), any(), any());
+    }
+
+    private MvcResult export(String path, String acceptEncoding) throws Exception {
+        var req = post(path).with(csrf()).contentType(MediaType.APPLICATION_JSON).content("{\"vendorId\":1}");
+        if (acceptEncoding != null) req.header("Accept-Encoding", acceptEncoding);
+        MvcResult started = mvc.perform(req).andExpect(request().asyncStarted()).andReturn();
+        return mvc.perform(asyncDispatch(started)).andExpect(status().isOk()).andReturn();
+    }
+
+    private static String read(InputStream in) throws Exception {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    void gzipAccepted_streamsGzipContentEncoding() throws Exception {
+        MvcResult r = export("/api/reports/inventory/csv", "gzip, deflate, br");
+
+        assertThat(r.getResponse().getHeader("Content-Encoding")).isEqualTo("gzip");
+        assertThat(r.getResponse().getHeader("Vary")).isEqualTo("Accept-Encoding");
+        assertThat(r.getResponse().getContentType()).startsWith("text/csv");
+        assertThat(read(new GZIPInputStream(new ByteArrayInputStream(r.getResponse().getContentAsByteArray())))).isEqualTo(CSV);
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    void zstdRequested_isPreferred() throws Exception {
+        MvcResult r = export("/api/reports/inventory/csv", "gzip, zstd");
+
+        assertThat(r.getResponse().getHeader("Content-Encoding")).isEqualTo("zstd");
+        assertThat(read(new ZstdInputStream(new ByteArrayInputStream(r.getResponse().getContentAsByteArray())))).isEqualTo(CSV);
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    void noAcceptEncoding_sendsPlainCsv() throws Exception {
+        MvcResult r = export("/api/reports/inventory/csv", null);
+
+        assertThat(r.getResponse().getHeader("Content-Encoding")).isNull();
+        assertThat(r.getResponse().getContentAsString()).isEqualTo(CSV);
+    }
+
+    @Test
+    @WithMockUser(roles = {"FINANCE"})
+    void gzipDownload_isAGzipFileWithoutContentEncoding() throws Exception {
+        MvcResult started = mvc.perform(post("/api/reports/inventory/csv").param("gzip", "true").with(csrf())
+                        .header("Accept-Encoding", "zstd")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"vendorId\":1}"))
+                .andExpect(header().string("Content-Disposition", Matchers.endsWith(".csv.gz")))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andReturn();
+        MvcResult r = mvc.perform(asyncDispatch(started))
+                .andExpect(content().contentType("application/gzip"))
+                .andReturn();
+
+        assertThat(read(new GZIPInputStream(new ByteArrayInputStream(r.getResponse().getContentAsByteArray())))).isEqualTo(CSV);
+    }
+}
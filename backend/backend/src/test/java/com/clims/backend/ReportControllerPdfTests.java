@@ -4,6 +4,9 @@ import com.clims.backend.controllers.ReportController;
 import com.clims.backend.exceptions.GlobalExceptionHandler;
 import com.clims.backend.security.JwtAuthFilter;
 import com.clims.backend.security.SecurityConfig;
+import com.clims.backend.services.KpiStore;
+import com.clims.backend.services.ReportCache;
+import com.clims.backend.services.ReportCompression;
 import com.clims.backend.services.ReportService;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,21 +19,29 @@ import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ReportController.class)
-@Import({GlobalExceptionHandler.class, SecurityConfig.class})
+@Import({GlobalExceptionHandler.class, SecurityConfig.class, ReportCompression.class})
 @org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc(addFilters = true)
 public class ReportControllerPdfTests {
 
@@ -43,6 +54,12 @@ public class ReportControllerPdfTests {
     @MockBean
     ReportService reportService;
 
+    @MockBean
+    ReportCache reportCache;
+
+    @MockBean
+    KpiStore kpiStore;
+
     @MockBean
     org.springframework.security.core.userdetails.UserDetailsService userDetailsService;
 
@@ -58,40 +75,59 @@ public class ReportControllerPdfTests {
             chain.doFilter(req, res);
             return null;
         }).when(jwtAuthFilter).doFilter(Mockito.any(), Mockito.any(), Mockito.any());
+        // Always a miss: every request reaches the stubbed ReportService
+        Mockito.when(reportCache.serve(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenAnswer(inv -> inv.<ReportCache.Generator>getArgument(2).writeTo(inv.getArgument(1)));
     }
 
     @Test
     @WithMockUser(roles = {"ADMIN"})
     void inventoryPdf_unfiltered_truncated_sets_headers_and_pdf_content_type() throws Exception {
-        // Unfiltered request ({}), controller sets limit=5000 and adds truncation headers if service reports truncated
-        ReportService.ReportBytes bytes = new ReportService.ReportBytes("%PDF-1.4".getBytes(), true);
-        when(reportService.inventoryPdfLimited(any(), any())).thenReturn(bytes);
+        // Unfiltered request ({}), controller sets limit=5000; truncation follows the streamed body as a trailer.
+        // The body waits for the request thread to leave the filter chain, whose header writer would otherwise
+        // race the flush that commits the response on the async thread.
+        CountDownLatch requestThreadDone = new CountDownLatch(1);
+        doAnswer(inv -> {
+            requestThreadDone.await(5, TimeUnit.SECONDS);
+            java.io.OutputStream os = inv.getArgument(0);
+            os.write("%PDF-1.4".getBytes());
+            return new ReportService.ReportResult(5000, true);
+        }).when(reportService).writeInventoryPdf(any(), any(), eq(5000));
 
-        mvc.perform(post("/api/reports/inventory/pdf").with(csrf())
+        MvcResult started = mvc.perform(post("/api/reports/inventory/pdf").with(csrf())
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        requestThreadDone.countDown();
+        // Headers are only complete once the streamed body has been written
+        mvc.perform(asyncDispatch(started))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_PDF))
                 .andExpect(header().string("Content-Disposition", Matchers.containsString("attachment; filename=inventory_")))
                 .andExpect(header().string("Content-Disposition", Matchers.containsString(".pdf")))
-                .andExpect(header().string("X-Report-Limited", "true"))
-                .andExpect(header().string("X-Report-Limit", "5000"));
+                .andExpect(header().string("X-Report-Limit", "5000"))
+                .andExpect(header().string("Trailer", "X-Report-Limited"));
     }
 
     @Test
     @WithMockUser(roles = {"AUDITOR"})
     void maintenancePdf_allowed_role_has_pdf_filename_and_type_no_truncation_header() throws Exception {
-        ReportService.ReportBytes bytes = new ReportService.ReportBytes("%PDF-1.4".getBytes(), false);
-        when(reportService.maintenancePdfLimited(any(), any())).thenReturn(bytes);
+        when(reportService.writeMaintenancePdf(any(), any(), any())).thenReturn(new ReportService.ReportResult(1, false));
 
-        mvc.perform(post("/api/reports/maintenance/pdf").with(csrf())
+        // Filtered request: no limit applies, so neither the limit header nor the trailer is announced
+        MvcResult started = mvc.perform(post("/api/reports/maintenance/pdf").with(csrf())
                         .contentType(MediaType.APPLICATION_JSON)
-                        .content("{}"))
+                        .content("{\"status\":\"SCHEDULED\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(started))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_PDF))
                 .andExpect(header().string("Content-Disposition", Matchers.containsString("attachment; filename=maintenance_")))
                 .andExpect(header().string("Content-Disposition", Matchers.containsString(".pdf")))
                 .andExpect(header().doesNotExist("X-Report-Limited"))
-                .andExpect(header().doesNotExist("X-Report-Limit"));
+                .andExpect(header().doesNotExist("X-Report-Limit"))
+                .andExpect(header().doesNotExist("Trailer"));
     }
 }
@@ -4,6 +4,9 @@ import com.clims.backend.controllers.ReportController;
 import com.clims.backend.exceptions.GlobalExceptionHandler;
 import com.clims.backend.security.JwtAuthFilter;
 import com.clims.backend.security.SecurityConfig;
+import com.clims.backend.services.KpiStore;
+import com.clims.backend.services.ReportCache;
+import com.clims.backend.services.ReportCompression;
 import com.clims.backend.services.ReportService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -32,7 +35,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 
 @WebMvcTest(controllers = ReportController.class)
-@Import({GlobalExceptionHandler.class, SecurityConfig.class})
+@Import({GlobalExceptionHandler.class, SecurityConfig.class, ReportCompression.class})
 @org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc(addFilters = true)
 public class ReportControllerSecurityTests {
 
@@ -45,6 +48,12 @@ public class ReportControllerSecurityTests {
     @MockBean
     ReportService reportService;
 
+    @MockBean
+    ReportCache reportCache;
+
+    @MockBean
+    KpiStore kpiStore;
+
     @MockBean
     org.springframework.security.core.userdetails.UserDetailsService userDetailsService;
 
@@ -60,16 +69,18 @@ public class ReportControllerSecurityTests {
             chain.doFilter(req, res);
             return null;
         }).when(jwtAuthFilter).doFilter(Mockito.any(), Mockito.any(), Mockito.any());
+        // Always a miss: every request reaches the stubbed ReportService
+        Mockito.when(reportCache.serve(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenAnswer(inv -> inv.<ReportCache.Generator>getArgument(2).writeTo(inv.getArgument(1)));
     }
 
     @Test
     @WithMockUser(roles = {"ADMIN"})
     void inventoryCsv_admin_allowed() throws Exception {
-        given(reportService.countInventoryRecords(any())).willReturn(1L);
         doAnswer(inv -> {
             java.io.OutputStream os = inv.getArgument(0);
             os.write("id,name\n1,Laptop\n".getBytes());
-            return null;
+            return new ReportService.ReportResult(1, false);
         }).when(reportService).writeInventoryCsv(any(), any(), any());
 
         MediaType csv = new MediaType("text", "csv");
@@ -83,6 +94,22 @@ public class ReportControllerSecurityTests {
                 .andExpect(MockMvcResultMatchers.header().string("Content-Disposition", Matchers.containsString(".csv")));
     }
 
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    void inventoryCsv_unfiltered_singlePass_announcesLimitAndTrailer() throws Exception {
+        given(reportService.writeInventoryCsv(any(), any(), eq(5000))).willReturn(new ReportService.ReportResult(5000, true));
+
+        mvc.perform(post("/api/reports/inventory/csv").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("X-Report-Limit", "5000"))
+                .andExpect(MockMvcResultMatchers.header().string("Trailer", "X-Report-Limited"));
+
+        // Truncation is detected while streaming, not by a separate count scan
+        Mockito.verify(reportService, Mockito.never()).countInventoryRecords(any());
+    }
+
     @Test
     @WithMockUser(roles = {"EMPLOYEE"})
     void inventoryCsv_employee_forbidden() throws Exception {
@@ -0,0 +1,170 @@
+package com.clims.backend;
+
+import com.clims.backend.controllers.ReportJobController;
+import com.clims.backend.exceptions.GlobalExceptionHandler;
+import com.clims.backend.exceptions.ReportQueueFullException;
+import com.clims.backend.models.entities.Report;
+import com.clims.backend.models.enums.ReportStatus;
+import com.clims.backend.security.CurrentUserService;
+import com.clims.backend.security.JwtAuthFilter;
+import com.clims.backend.security.SecurityConfig;
+import com.clims.backend.services.ReportJobService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = ReportJobController.class)
+@Import({GlobalExceptionHandler.class, SecurityConfig.class})
+@AutoConfigureMockMvc(addFilters = true)
+class ReportJobControllerTests {
+
+    @Autowired MockMvc mvc;
+
+    @MockBean JwtAuthFilter jwtAuthFilter;
+    @MockBean ReportJobService reportJobService;
+    @MockBean CurrentUserService currentUserService;
+    @MockBean org.springframework.security.core.userdetails.UserDetailsService userDetailsService;
+    @MockBean org.springframework.security.authentication.AuthenticationManager authenticationManager;
+
+    @TempDir Path dir;
+
+    @BeforeEach
+    void setupFilterChainPassThrough() throws Exception {
+        Mockito.doAnswer(invocation -> {
+            ServletRequest req = invocation.getArgument(0);
+            ServletResponse res = invocation.getArgument(1);
+            FilterChain chain = invocation.getArgument(2);
+            chain.doFilter(req, res);
+            return null;
+        }).when(jwtAuthFilter).doFilter(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    private static Report job(long id, String type, String format, ReportStatus status) {
+        Report r = new Report();
+        r.setId(id);
+        r.setName(type.toLowerCase() + "_2025-01-01." + format.toLowerCase());
+        r.setType(type);
+        r.setExportFormat(format);
+        r.setStatus(status);
+        r.setProgress(status == ReportStatus.COMPLETED ? 100 : 0);
+        return r;
+    }
+
+    @Test
+    @WithMockUser(roles = {"FINANCE"})
+    void submit_returnsAcceptedWithJobLocation() throws Exception {
+        given(reportJobService.submit(any(), any())).willReturn(job(42, "INVENTORY", "CSV", ReportStatus.QUEUED));
+
+        mvc.perform(post("/api/reports/jobs").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"type\":\"INVENTORY\",\"format\":\"CSV\",\"inventory\":{\"vendorId\":3}}"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/reports/jobs/42"))
+                .andExpect(jsonPath("$.status").value("QUEUED"))
+                .andExpect(jsonPath("$.downloadUrl").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(roles = {"FINANCE"})
+    void submit_maintenanceAsFinance_forbidden() throws Exception {
+        mvc.perform(post("/api/reports/jobs").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"type\":\"MAINTENANCE\",\"format\":\"PDF\"}"))
+                .andExpect(status().isForbidden());
+        verify(reportJobService, Mockito.never()).submit(any(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = {"EMPLOYEE"})
+    void submit_employee_forbidden() throws Exception {
+        mvc.perform(post("/api/reports/jobs").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"type\":\"INVENTORY\",\"format\":\"CSV\"}"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    void submit_whenQueueIsFull_returns503WithRetryAfter() throws Exception {
+        given(reportJobService.submit(any(), any())).willThrow(new ReportQueueFullException("Report queue is full, retry later"));
+
+        mvc.perform(post("/api/reports/jobs").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"type\":\"INVENTORY\",\"format\":\"CSV\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    void status_longPoll_returnsOnceTheJobFinishes() throws Exception {
+        given(reportJobService.get(7L)).willReturn(job(7, "INVENTORY", "PDF", ReportStatus.RUNNING));
+        given(reportJobService.whenFinished(7L)).willReturn(CompletableFuture.completedFuture(job(7, "INVENTORY", "PDF", ReportStatus.COMPLETED)));
+
+        MvcResult pending = mvc.perform(get("/api/reports/jobs/7").param("waitSeconds", "10"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.progress").value(100))
+                .andExpect(jsonPath("$.downloadUrl").value("/api/reports/jobs/7/download"));
+    }
+
+    @Test
+    @WithMockUser(roles = {"ADMIN"})
+    void download_beforeCompletion_conflict() throws Exception {
+        Report running = job(8, "INVENTORY", "CSV", ReportStatus.RUNNING);
+        given(reportJobService.get(8L)).willReturn(running);
+        given(reportJobService.requireOutput(running)).willThrow(new IllegalStateException("Report job 8 is RUNNING"));
+
+        mvc.perform(get("/api/reports/jobs/8/download"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @WithMockUser(roles = {"AUDITOR"})
+    void download_completed_streamsTheFileAsAttachment() throws Exception {
+        Report done = job(9, "MAINTENANCE", "CSV", ReportStatus.COMPLETED);
+        Path file = Files.writeString(dir.resolve("9.csv"), "AssetTag\nA-1\n");
+        given(reportJobService.get(9L)).willReturn(done);
+        given(reportJobService.requireOutput(done)).willReturn(file);
+
+        mvc.perform(get("/api/reports/jobs/9/download"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=maintenance_2025-01-01.csv"))
+                .andExpect(content().contentTypeCompatibleWith(new MediaType("text", "csv")))
+                .andExpect(content().string("AssetTag\nA-1\n"));
+    }
+}
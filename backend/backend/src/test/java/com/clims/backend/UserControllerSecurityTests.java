@@ -5,6 +5,7 @@ import com.clims.backend.dto.UserDtos;
 import com.clims.backend.models.entities.AppUser;
 import com.clims.backend.security.JwtAuthFilter;
 import com.clims.backend.security.JwtUtil;
+import com.clims.backend.services.ListVersions;
 import com.clims.backend.services.UserService;
 import com.clims.backend.exceptions.NotFoundException;
 import org.junit.jupiter.api.Test;
@@ -41,6 +42,9 @@ public class UserControllerSecurityTests {
     @MockBean
     UserService userService;
 
+    @MockBean
+    ListVersions listVersions;
+
     // Security/infra mocks
     @MockBean
     JwtAuthFilter jwtAuthFilter;
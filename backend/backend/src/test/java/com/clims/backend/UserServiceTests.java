@@ -7,11 +7,13 @@ import com.clims.backend.models.entities.Department;
 import com.clims.backend.repositories.AppUserRepository;
 import com.clims.backend.repositories.DepartmentRepository;
 import com.clims.backend.security.Role;
+import com.clims.backend.services.CountEstimator;
 import com.clims.backend.services.UserService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Optional;
@@ -32,7 +34,7 @@ public class UserServiceTests {
             return u;
         });
 
-        UserService svc = new UserService(userRepo, deptRepo, encoder, new ModelMapper());
+        UserService svc = new UserService(userRepo, deptRepo, encoder, new ModelMapper(), Mockito.mock(CountEstimator.class), Mockito.mock(ApplicationEventPublisher.class));
     UserDtos.RegisterRequest req = new UserDtos.RegisterRequest("alice", "a@x.com", "secret", Role.EMPLOYEE, null);
 
         AppUser saved = svc.register(req);
@@ -47,7 +49,9 @@ public class UserServiceTests {
                 Mockito.mock(AppUserRepository.class),
                 Mockito.mock(DepartmentRepository.class),
                 Mockito.mock(PasswordEncoder.class),
-                new ModelMapper()
+                new ModelMapper(),
+                Mockito.mock(CountEstimator.class),
+                Mockito.mock(ApplicationEventPublisher.class)
         );
     UserDtos.RegisterRequest req = new UserDtos.RegisterRequest("bob", "b@x.com", "p", Role.EMPLOYEE, 999L);
         Assertions.assertThrows(NotFoundException.class, () -> svc.register(req));
@@ -66,7 +70,7 @@ public class UserServiceTests {
         Mockito.when(encoder.encode("pw")).thenReturn("hashed");
         Mockito.when(userRepo.save(any(AppUser.class))).thenAnswer(inv -> inv.getArgument(0));
 
-        UserService svc = new UserService(userRepo, deptRepo, encoder, new ModelMapper());
+        UserService svc = new UserService(userRepo, deptRepo, encoder, new ModelMapper(), Mockito.mock(CountEstimator.class), Mockito.mock(ApplicationEventPublisher.class));
         UserDtos.RegisterRequest req = new UserDtos.RegisterRequest("tom", "t@x.com", "pw", Role.IT_STAFF, 5L);
 
         AppUser saved = svc.register(req);
@@ -0,0 +1,165 @@
+package com.clims.backend.repositories;
+
+import com.clims.backend.config.AppConfig;
+import com.clims.backend.dto.AssetDtos;
+import com.clims.backend.dto.MaintenanceDtos;
+import com.clims.backend.models.entities.AppUser;
+import com.clims.backend.models.entities.Asset;
+import com.clims.backend.models.entities.Department;
+import com.clims.backend.models.entities.Location;
+import com.clims.backend.models.entities.Maintenance;
+import com.clims.backend.models.entities.Vendor;
+import com.clims.backend.models.enums.AssetStatus;
+import com.clims.backend.security.Role;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(AppConfig.class)
+class ResponseProjectionTests {
+
+    @Autowired AssetRepository assetRepository;
+    @Autowired MaintenanceRepository maintenanceRepository;
+    @Autowired AppUserRepository userRepository;
+    @Autowired EntityManager em;
+
+    Statistics statistics;
+    List<Asset> assets = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        Vendor dell = new Vendor(); dell.setName("Dell"); em.persist(dell);
+        Location hq = new Location(); hq.setName("HQ"); em.persist(hq);
+        Department finance = new Department(); finance.setName("Finance-" + System.nanoTime()); em.persist(finance);
+        AppUser alice = new AppUser();
+        alice.setUsername("alice-" + System.nanoTime());
+        alice.setPasswordHash("x");
+        alice.setRole(Role.EMPLOYEE);
+        userRepository.save(alice);
+
+        String[] makes = {"Dell", "HP", "Dell", "Lenovo", "Dell"};
+        for (int i = 0; i < makes.length; i++) {
+            Asset a = new Asset();
+            a.setAssetTag("P-" + i + "-" + System.nanoTime());
+            a.setSerialNumber("SN-" + i);
+            a.setMake(makes[i]);
+            a.setModel("M" + i);
+            a.setPurchaseDate(LocalDate.of(2024, 1, 1));
+            a.setStatus(i == 0 ? AssetStatus.ASSIGNED : AssetStatus.AVAILABLE);
+            // Only the first asset has its associations set; the rest exercise the outer joins
+            if (i == 0) {
+                a.setAssignedUser(alice);
+                a.setLocation(hq);
+                a.setVendor(dell);
+                a.setDepartment(finance);
+            }
+            assets.add(assetRepository.save(a));
+        }
+        Maintenance m = new Maintenance();
+        m.setAsset(assets.get(0));
+        m.setDescription("Fan noise");
+        m.setScheduledDate(LocalDate.now().plusDays(1));
+        maintenanceRepository.save(m);
+
+        em.flush();
+        em.clear();
+        statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findResponses_readsAPageWithOneStatementAndNoEntities() {
+        Page<AssetDtos.AssetResponse> page = assetRepository.findResponses(null, PageRequest.of(0, 10, Sort.by("id")));
+
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        AssetDtos.AssetResponse first = page.getContent().get(0);
+        assertThat(first.id()).isEqualTo(assets.get(0).getId());
+        assertThat(first.status()).isEqualTo(AssetStatus.ASSIGNED);
+        assertThat(first.assignedTo()).startsWith("alice-");
+        assertThat(first.location()).isEqualTo("HQ");
+        assertThat(first.vendor()).isEqualTo("Dell");
+        assertThat(first.department()).startsWith("Finance-");
+        assertThat(page.getContent().get(1).assignedTo()).isNull();
+        // The page is not full, so the total comes from the content without a count query
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void findResponses_countsOnlyWhenThePageCannotTellTheTotal() {
+        Page<AssetDtos.AssetResponse> page = assetRepository.findResponses(
+                (root, cq, cb) -> cb.equal(root.get("status"), AssetStatus.AVAILABLE), PageRequest.of(0, 2, Sort.by("id")));
+
+        assertThat(page.getContent()).hasSize(2);
+        assertThat(page.getTotalElements()).isEqualTo(4);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void findResponseSlice_readsOneExtraRowInsteadOfCounting() {
+        Slice<AssetDtos.AssetResponse> first = assetRepository.findResponseSlice(null, PageRequest.of(0, 2, Sort.by("id")));
+        Slice<AssetDtos.AssetResponse> last = assetRepository.findResponseSlice(null, PageRequest.of(2, 2, Sort.by("id")));
+
+        assertThat(first.getContent()).extracting(AssetDtos.AssetResponse::id).containsExactly(assets.get(0).getId(), assets.get(1).getId());
+        assertThat(first.hasNext()).isTrue();
+        assertThat(last.getContent()).hasSize(1);
+        assertThat(last.hasNext()).isFalse();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void scrollResponses_pagesThroughTiesOnTheSortKeyByAscendingId() {
+        List<Long> seen = new ArrayList<>();
+        KeysetScrollPosition position = ScrollPosition.keyset();
+        Window<AssetDtos.AssetResponse> window;
+        do {
+            window = assetRepository.scrollResponses(null, Sort.by("make").descending(), 2, position);
+            window.forEach(r -> seen.add(r.id()));
+            if (!window.isEmpty()) position = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+        } while (window.hasNext());
+
+        // Lenovo, HP, then the three Dells in id order
+        assertThat(seen).containsExactly(assets.get(3).getId(), assets.get(1).getId(),
+                assets.get(0).getId(), assets.get(2).getId(), assets.get(4).getId());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void findResponseById_coversDetailEndpoints() {
+        assertThat(assetRepository.findResponseById(assets.get(0).getId())).get()
+                .extracting(AssetDtos.AssetResponse::vendor).isEqualTo("Dell");
+        assertThat(assetRepository.findResponseById(-1L)).isEmpty();
+
+        MaintenanceDtos.MaintenanceResponse m = maintenanceRepository.findResponses(null, PageRequest.of(0, 10)).getContent().get(0);
+        assertThat(m.assetId()).isEqualTo(assets.get(0).getId());
+        assertThat(m.assetTag()).isEqualTo(assets.get(0).getAssetTag());
+        assertThat(m.reportedBy()).isNull();
+        assertThat(maintenanceRepository.findResponseById(m.id())).contains(m);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+}
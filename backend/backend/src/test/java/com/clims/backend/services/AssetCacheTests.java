@@ -0,0 +1,110 @@
+package com.clims.backend.services;
+
+import com.clims.backend.dto.AssetDtos;
+import com.clims.backend.events.AssetChangedEvent;
+import com.clims.backend.models.enums.AssetStatus;
+import com.clims.backend.repositories.AssetRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AssetCacheTests {
+
+    AssetRepository assetRepository;
+    SimpleMeterRegistry meterRegistry;
+    AtomicLong nanos = new AtomicLong();
+    AssetCache cache;
+
+    @BeforeEach
+    void setup() {
+        assetRepository = Mockito.mock(AssetRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new AssetCache(assetRepository, meterRegistry, true, 100, Duration.ofMinutes(5), nanos::get);
+        when(assetRepository.findResponseById(7L)).thenReturn(Optional.of(response(7L, AssetStatus.AVAILABLE)));
+        when(assetRepository.findIdByAssetTag("AST-7")).thenReturn(Optional.of(7L));
+    }
+
+    private static AssetDtos.AssetResponse response(Long id, AssetStatus status) {
+        return new AssetDtos.AssetResponse(id, "AST-" + id, "SN", "Dell", "XPS", status, null, null, null, null);
+    }
+
+    private double gets(String cacheName, String result) {
+        return meterRegistry.get("cache.gets").tag("cache", cacheName).tag("result", result).functionCounter().count();
+    }
+
+    @Test
+    void findById_readsTheDatabaseOnceThenServesFromMemory() {
+        assertThat(cache.findById(7L)).contains(response(7L, AssetStatus.AVAILABLE));
+        assertThat(cache.findById(7L)).contains(response(7L, AssetStatus.AVAILABLE));
+
+        verify(assetRepository, times(1)).findResponseById(7L);
+        assertThat(gets("assets.byId", "miss")).isEqualTo(1);
+        assertThat(gets("assets.byId", "hit")).isEqualTo(1);
+    }
+
+    @Test
+    void findById_doesNotRememberMissingAssets() {
+        assertThat(cache.findById(8L)).isEmpty();
+        assertThat(cache.findById(8L)).isEmpty();
+
+        verify(assetRepository, times(2)).findResponseById(8L);
+    }
+
+    @Test
+    void findByTag_sharesTheIdCache() {
+        cache.findById(7L);
+
+        assertThat(cache.findByTag("AST-7")).map(AssetDtos.AssetResponse::id).contains(7L);
+        assertThat(cache.findByTag("AST-7")).map(AssetDtos.AssetResponse::id).contains(7L);
+        assertThat(cache.findByTag("AST-MISSING")).isEmpty();
+
+        verify(assetRepository, times(1)).findIdByAssetTag("AST-7");
+        verify(assetRepository, times(1)).findResponseById(7L);
+    }
+
+    @Test
+    void committedWrites_evictTheAssetAndDeletesDropItsTag() {
+        cache.findByTag("AST-7");
+        when(assetRepository.findResponseById(7L)).thenReturn(Optional.of(response(7L, AssetStatus.UNDER_REPAIR)));
+
+        cache.onAssetChanged(new AssetChangedEvent(7L, "MAINTENANCE", AssetStatus.AVAILABLE, AssetStatus.UNDER_REPAIR));
+        assertThat(cache.findByTag("AST-7")).map(AssetDtos.AssetResponse::status).contains(AssetStatus.UNDER_REPAIR);
+        verify(assetRepository, times(1)).findIdByAssetTag("AST-7");
+
+        when(assetRepository.findResponseById(7L)).thenReturn(Optional.empty());
+        when(assetRepository.findIdByAssetTag("AST-7")).thenReturn(Optional.empty());
+        cache.onAssetChanged(new AssetChangedEvent(7L, "DELETE", AssetStatus.UNDER_REPAIR, null));
+        assertThat(cache.findByTag("AST-7")).isEmpty();
+        verify(assetRepository, times(2)).findIdByAssetTag("AST-7");
+    }
+
+    @Test
+    void findById_reloadsAfterTheTtl() {
+        cache.findById(7L);
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(5) + 1);
+        cache.findById(7L);
+
+        verify(assetRepository, times(2)).findResponseById(7L);
+    }
+
+    @Test
+    void disabled_alwaysReadsTheDatabase() {
+        AssetCache off = new AssetCache(assetRepository, new SimpleMeterRegistry(), false, 100, Duration.ofMinutes(5), nanos::get);
+
+        off.findById(7L);
+        off.findByTag("AST-7");
+
+        verify(assetRepository, times(2)).findResponseById(7L);
+    }
+}
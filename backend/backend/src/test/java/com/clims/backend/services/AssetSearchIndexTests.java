@@ -0,0 +1,123 @@
+package com.clims.backend.services;
+
+import com.clims.backend.events.AssetChangedEvent;
+import com.clims.backend.models.entities.Asset;
+import com.clims.backend.models.enums.AssetStatus;
+import com.clims.backend.repositories.AssetRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+class AssetSearchIndexTests {
+
+    AssetRepository assetRepository;
+    AssetSearchIndex index;
+
+    @BeforeEach
+    void setup() {
+        assetRepository = Mockito.mock(AssetRepository.class);
+        index = new AssetSearchIndex(assetRepository, Mockito.mock(PlatformTransactionManager.class), new SimpleMeterRegistry(), true, 3);
+        when(assetRepository.streamSearchFields()).thenAnswer(inv -> List.of(
+                row(1L, "AST-0001", "SN-ABC123", "Dell", "Latitude 5440"),
+                row(2L, "AST-0002", "SN-XYZ789", "Lenovo", "ThinkPad T14"),
+                row(3L, "AST-0003", "SN-ABC999", "HP", "EliteBook 840"),
+                row(4L, "ast-0004", "abcxxbcd", "Dell", null)
+        ).stream());
+    }
+
+    private static Object[] row(Long id, String tag, String serial, String make, String model) {
+        return new Object[]{id, tag, serial, make, model};
+    }
+
+    private static Asset asset(long id, String tag, String serial, String make, String model) {
+        Asset a = new Asset();
+        a.setId(id);
+        a.setAssetTag(tag);
+        a.setSerialNumber(serial);
+        a.setMake(make);
+        a.setModel(model);
+        return a;
+    }
+
+    @Test
+    void beforeTheFirstBuild_defersToSql() {
+        assertThat(index.find("dell")).isNull();
+        index.rebuild();
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void find_matchesSubstringsCaseInsensitivelyAcrossTheFourFields() {
+        index.rebuild();
+
+        assertThat(index.find("abc")).containsExactlyInAnyOrder(1L, 3L, 4L);
+        assertThat(index.find("THINKPAD")).containsExactly(2L);
+        assertThat(index.find("0003")).containsExactly(3L);
+        assertThat(index.find("book 8")).containsExactly(3L);
+        assertThat(index.find("nothing")).isEmpty();
+    }
+
+    @Test
+    void find_verifiesCandidatesAndNeverMatchesAcrossFields() {
+        index.rebuild();
+
+        // Asset 4's serial has both trigrams of "abcd" but not the substring
+        assertThat(index.find("abcd")).isEmpty();
+        // Tag of 1 ends in "01", its serial starts with "SN": no match across the boundary
+        assertThat(index.find("01sn")).isEmpty();
+    }
+
+    @Test
+    void find_defersShortOrBroadQueriesToSql() {
+        index.rebuild();
+
+        assertThat(index.find("de")).isNull();
+        // Four assets contain "ast-", over the limit of three
+        assertThat(index.find("ast-")).isNull();
+    }
+
+    @Test
+    void assetWrites_areFollowedAfterCommit() {
+        index.rebuild();
+
+        when(assetRepository.findById(2L)).thenReturn(Optional.of(asset(2, "AST-0002", "SN-XYZ789", "Lenovo", "Yoga Slim")));
+        index.onAssetChanged(new AssetChangedEvent(2L, "UPDATE", AssetStatus.AVAILABLE, AssetStatus.AVAILABLE));
+        assertThat(index.find("thinkpad")).isEmpty();
+        assertThat(index.find("yoga")).containsExactly(2L);
+
+        when(assetRepository.findById(5L)).thenReturn(Optional.of(asset(5, "AST-0005", "SN-NEW", "Apple", "MacBook")));
+        index.onAssetChanged(new AssetChangedEvent(5L, "CREATE", null, AssetStatus.AVAILABLE));
+        assertThat(index.find("macbook")).containsExactly(5L);
+
+        when(assetRepository.findById(1L)).thenReturn(Optional.empty());
+        index.onAssetChanged(new AssetChangedEvent(1L, "DELETE", AssetStatus.AVAILABLE, null));
+        assertThat(index.find("latitude")).isEmpty();
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void refresh_picksUpWritesThisInstanceHadNoEventFor() {
+        index.rebuild();
+
+        // Renamed through another instance: no event here, only the database has changed
+        when(assetRepository.streamSearchFields()).thenAnswer(inv -> List.of(
+                row(1L, "AST-0001", "SN-ABC123", "Dell", "Precision 3680"),
+                row(2L, "AST-0002", "SN-XYZ789", "Lenovo", "ThinkPad T14")
+        ).stream());
+        assertThat(index.find("latitude")).containsExactly(1L);
+
+        index.refresh();
+        assertThat(index.find("latitude")).isEmpty();
+        assertThat(index.find("precision")).containsExactly(1L);
+        assertThat(index.size()).isEqualTo(2);
+    }
+}
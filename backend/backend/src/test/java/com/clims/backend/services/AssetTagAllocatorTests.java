@@ -0,0 +1,111 @@
+package com.clims.backend.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AssetTagAllocatorTests {
+
+    JdbcTemplate jdbc;
+    DataSourceTransactionManager transactionManager;
+
+    @BeforeEach
+    void setup() {
+        // A database of its own, so that the sequence starts at 1
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:tags;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE id_blocks (name VARCHAR(64) PRIMARY KEY, next_value BIGINT NOT NULL)");
+        transactionManager = new DataSourceTransactionManager(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbc.execute("DROP TABLE id_blocks");
+    }
+
+    private AssetTagAllocator node(int blockSize) {
+        return new AssetTagAllocator(jdbc, transactionManager, "AST-", 8, blockSize);
+    }
+
+    private long reserved() {
+        return jdbc.queryForObject("SELECT next_value FROM id_blocks WHERE name = 'asset_tag'", Long.class);
+    }
+
+    @Test
+    void next_countsThroughABlockBeforeReservingTheNext() {
+        AssetTagAllocator allocator = node(3);
+
+        assertThat(List.of(allocator.next(), allocator.next())).containsExactly("AST-000000018", "AST-000000026");
+        assertThat(reserved()).isEqualTo(4);
+        allocator.next();
+        allocator.next();
+        assertThat(reserved()).isEqualTo(7);
+    }
+
+    @Test
+    void nextCount_reservesOneBlockLargeEnoughForTheBatch() {
+        AssetTagAllocator allocator = node(10);
+        allocator.next();
+
+        List<String> tags = allocator.next(25);
+
+        // 9 left in the first block, then one block of 16
+        assertThat(tags).hasSize(25).doesNotHaveDuplicates();
+        assertThat(tags.get(0)).isEqualTo(allocator.format(2));
+        assertThat(tags.get(24)).isEqualTo(allocator.format(26));
+        assertThat(reserved()).isEqualTo(27);
+    }
+
+    @Test
+    void nodes_neverHandOutTheSameTag() throws Exception {
+        List<AssetTagAllocator> nodes = List.of(node(7), node(7), node(7));
+        Set<String> tags = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int t = 0; t < 6; t++) {
+                AssetTagAllocator allocator = nodes.get(t % nodes.size());
+                done.add(pool.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        if (i % 10 == 0) tags.addAll(allocator.next(5));
+                        else tags.add(allocator.next());
+                    }
+                }));
+            }
+            for (Future<?> f : done) f.get();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(tags).hasSize(6 * (180 + 20 * 5));
+        assertThat(tags).allMatch(tag -> !nodes.get(0).hasBadCheckDigit(tag));
+    }
+
+    @Test
+    void hasBadCheckDigit_catchesMisreadTagsAndIgnoresOtherFormats() {
+        AssetTagAllocator allocator = node(100);
+        String tag = allocator.next();
+
+        assertThat(allocator.hasBadCheckDigit(tag)).isFalse();
+        // A single wrong digit and two swapped neighbours
+        assertThat(allocator.hasBadCheckDigit("AST-000000019")).isTrue();
+        assertThat(allocator.hasBadCheckDigit("AST-000000108")).isTrue();
+        // Tags of the earlier random format, and tags that are not ours
+        assertThat(allocator.hasBadCheckDigit("AST-12345678")).isFalse();
+        assertThat(allocator.hasBadCheckDigit("AST-1A2B3C4D")).isFalse();
+        assertThat(allocator.hasBadCheckDigit("LAB-000000019")).isFalse();
+    }
+}
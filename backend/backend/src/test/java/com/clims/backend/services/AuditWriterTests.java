@@ -0,0 +1,116 @@
+package com.clims.backend.services;
+
+import com.clims.backend.events.AuditRecordedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+
+class AuditWriterTests {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    JdbcTemplate jdbc = Mockito.mock(JdbcTemplate.class);
+    PlatformTransactionManager transactionManager = Mockito.mock(PlatformTransactionManager.class);
+    // Batch sizes in the order they were inserted, and by which thread
+    List<String> inserts = new CopyOnWriteArrayList<>();
+    CountDownLatch writing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    AuditWriter writer;
+
+    private AuditWriter writer(int capacity, int batchSize) {
+        Mockito.when(jdbc.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class))).thenAnswer(inv -> {
+            int size = inv.getArgument(1, BatchPreparedStatementSetter.class).getBatchSize();
+            boolean background = Thread.currentThread().getName().equals("audit-writer");
+            inserts.add((background ? "writer:" : "caller:") + size);
+            if (background) {
+                writing.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return new int[size];
+        });
+        writer = new AuditWriter(jdbc, transactionManager, meterRegistry, capacity, batchSize);
+        return writer;
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        release.countDown();
+        writer.shutdown();
+    }
+
+    private static AuditRecordedEvent event(long id) {
+        return new AuditRecordedEvent("Asset", id, "UPDATE", "Asset updated", 1L, Instant.now());
+    }
+
+    @Test
+    void rowsQueuedWhileABatchIsWrittenGoOutAsTheNextBatch() throws Exception {
+        AuditWriter w = writer(100, 3);
+
+        w.onAuditRecorded(event(1));
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        for (long id = 2; id <= 6; id++) w.onAuditRecorded(event(id));
+        assertThat(meterRegistry.get("audit.queue.depth").gauge().value()).isEqualTo(5);
+        assertThat(w.awaitWritten(Duration.ofMillis(50))).isFalse();
+
+        release.countDown();
+
+        assertThat(w.awaitWritten(Duration.ofSeconds(5))).isTrue();
+        assertThat(inserts).containsExactly("writer:1", "writer:3", "writer:2");
+        assertThat(meterRegistry.get("audit.batch.size").summary().totalAmount()).isEqualTo(6);
+        assertThat(meterRegistry.get("audit.flush").timer().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("audit.queue.depth").gauge().value()).isZero();
+    }
+
+    @Test
+    void aFullQueue_makesTheCommittingThreadWriteItsOwnRow() throws Exception {
+        AuditWriter w = writer(2, 10);
+
+        w.onAuditRecorded(event(1));
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        w.onAuditRecorded(event(2));
+        w.onAuditRecorded(event(3));
+        w.onAuditRecorded(event(4));
+
+        assertThat(inserts).containsExactly("writer:1", "caller:1");
+        assertThat(meterRegistry.get("audit.overflow").counter().count()).isEqualTo(1);
+        // The caller is still in the synchronization of its committed transaction, so its row needs one of its own
+        Mockito.verify(transactionManager, Mockito.atLeastOnce()).getTransaction(Mockito.argThat(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+
+        release.countDown();
+        assertThat(w.awaitWritten(Duration.ofSeconds(5))).isTrue();
+        assertThat(inserts).containsExactly("writer:1", "caller:1", "writer:2");
+    }
+
+    @Test
+    void shutdown_writesRowsStillQueued() throws Exception {
+        AuditWriter w = writer(100, 10);
+        w.onAuditRecorded(event(1));
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        w.onAuditRecorded(event(2));
+        w.onAuditRecorded(event(3));
+
+        release.countDown();
+        w.shutdown();
+
+        assertThat(inserts).containsExactly("writer:1", "writer:2");
+        // Rows after shutdown are written by the thread that records them
+        w.onAuditRecorded(event(4));
+        assertThat(inserts).containsExactly("writer:1", "writer:2", "caller:1");
+    }
+}
@@ -0,0 +1,114 @@
+package com.clims.backend.services;
+
+import com.clims.backend.events.AssetChangedEvent;
+import com.clims.backend.models.enums.AssetStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountEstimatorTests {
+
+    SimpleMeterRegistry meterRegistry;
+    Instant now = Instant.parse("2025-03-10T09:00:00Z");
+    // Background refreshes are queued here and run by the test
+    List<Runnable> refreshes = new ArrayList<>();
+    AtomicLong rows = new AtomicLong(100);
+    AtomicLong counts = new AtomicLong();
+    CountEstimator estimator;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        Clock clock = new Clock() {
+            @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+            @Override public Clock withZone(ZoneId zone) { return this; }
+            @Override public Instant instant() { return now; }
+        };
+        estimator = new CountEstimator(meterRegistry, Duration.ofSeconds(60), 2, clock, refreshes::add);
+    }
+
+    private long estimate(Object... filters) {
+        return estimator.estimate(CountEstimator.ASSETS, List.of(filters), () -> {
+            counts.incrementAndGet();
+            return rows.get();
+        });
+    }
+
+    private double served(String result) {
+        return meterRegistry.get("lists.count.estimates").tag("result", result).counter().count();
+    }
+
+    @Test
+    void estimate_countsOnceThenServesTheCachedValue() {
+        assertThat(estimate("AVAILABLE")).isEqualTo(100);
+        rows.set(150);
+        assertThat(estimate("AVAILABLE")).isEqualTo(100);
+
+        assertThat(counts.get()).isEqualTo(1);
+        assertThat(refreshes).isEmpty();
+        assertThat(served("miss")).isEqualTo(1);
+        assertThat(served("fresh")).isEqualTo(1);
+    }
+
+    @Test
+    void estimate_afterTheTtl_servesTheOldValueWhileOneRefreshRecounts() {
+        estimate("AVAILABLE");
+        rows.set(150);
+        now = now.plusSeconds(61);
+
+        assertThat(estimate("AVAILABLE")).isEqualTo(100);
+        assertThat(estimate("AVAILABLE")).isEqualTo(100);
+        assertThat(refreshes).hasSize(1);
+
+        refreshes.remove(0).run();
+        assertThat(estimate("AVAILABLE")).isEqualTo(150);
+        assertThat(counts.get()).isEqualTo(2);
+        assertThat(served("stale")).isEqualTo(2);
+    }
+
+    @Test
+    void estimate_afterACommittedWrite_isRefreshedEvenWithinTheTtl() {
+        estimate("AVAILABLE");
+        rows.set(101);
+        estimator.onAssetChanged(new AssetChangedEvent(1L, "CREATE", null, AssetStatus.AVAILABLE));
+
+        assertThat(estimate("AVAILABLE")).isEqualTo(100);
+        refreshes.remove(0).run();
+        assertThat(estimate("AVAILABLE")).isEqualTo(101);
+        assertThat(refreshes).isEmpty();
+    }
+
+    @Test
+    void estimate_countedWhileAWriteCommits_staysStale() {
+        estimator.estimate(CountEstimator.ASSETS, List.of(), () -> {
+            estimator.onAssetChanged(new AssetChangedEvent(1L, "DELETE", AssetStatus.AVAILABLE, null));
+            return 100;
+        });
+
+        estimate();
+        assertThat(refreshes).hasSize(1);
+    }
+
+    @Test
+    void estimate_keepsFiltersAndScopesApartAndDropsTheLeastRecentlyUsed() {
+        estimate("AVAILABLE");
+        estimate("ASSIGNED");
+        assertThat(estimator.estimate(CountEstimator.MAINTENANCE, List.of("AVAILABLE"), () -> 7)).isEqualTo(7);
+
+        // Capacity is two, so the first filter combination was evicted and is counted again
+        estimate("AVAILABLE");
+        assertThat(counts.get()).isEqualTo(3);
+        assertThat(served("miss")).isEqualTo(4);
+    }
+}
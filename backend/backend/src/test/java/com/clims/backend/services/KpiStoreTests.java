@@ -0,0 +1,108 @@
+package com.clims.backend.services;
+
+import com.clims.backend.dto.ReportDtos;
+import com.clims.backend.events.AssetChangedEvent;
+import com.clims.backend.events.MaintenanceChangedEvent;
+import com.clims.backend.models.enums.AssetStatus;
+import com.clims.backend.models.enums.MaintenanceStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class KpiStoreTests {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 10);
+
+    ReportService reportService;
+    SimpleMeterRegistry meterRegistry;
+    KpiStore store;
+
+    @BeforeEach
+    void setup() {
+        reportService = Mockito.mock(ReportService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        Clock clock = Clock.fixed(TODAY.atStartOfDay(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+        store = new KpiStore(reportService, meterRegistry, clock);
+    }
+
+    private static ReportDtos.KpiResponse kpis(long total, long available, long assigned, long upcoming) {
+        Map<String, Long> byStatus = new HashMap<>();
+        for (AssetStatus s : AssetStatus.values()) byStatus.put(s.name(), 0L);
+        byStatus.put("UNKNOWN", 0L);
+        byStatus.put("AVAILABLE", available);
+        byStatus.put("ASSIGNED", assigned);
+        return new ReportDtos.KpiResponse(total, byStatus, upcoming);
+    }
+
+    @Test
+    void snapshot_loadsOnceThenServesFromMemory() {
+        when(reportService.computeKpis()).thenReturn(kpis(3, 2, 1, 1));
+
+        assertThat(store.snapshot().totalAssets()).isEqualTo(3);
+        assertThat(store.snapshot().assetsByStatus()).containsEntry("AVAILABLE", 2L).containsEntry("UNKNOWN", 0L);
+        verify(reportService, times(1)).computeKpis();
+    }
+
+    @Test
+    void assetTransitions_moveCountersBetweenStatuses() {
+        when(reportService.computeKpis()).thenReturn(kpis(3, 2, 1, 0));
+        store.snapshot();
+
+        store.onAssetChanged(new AssetChangedEvent(4L, "CREATE", null, AssetStatus.AVAILABLE));
+        store.onAssetChanged(new AssetChangedEvent(1L, "ASSIGN", AssetStatus.AVAILABLE, AssetStatus.ASSIGNED));
+        store.onAssetChanged(new AssetChangedEvent(2L, "UPDATE", AssetStatus.AVAILABLE, AssetStatus.AVAILABLE));
+        store.onAssetChanged(new AssetChangedEvent(3L, "DELETE", AssetStatus.ASSIGNED, null));
+        store.onAssetChanged(new AssetChangedEvent(5L, "CREATE", null, null));
+
+        ReportDtos.KpiResponse r = store.snapshot();
+        assertThat(r.totalAssets()).isEqualTo(4);
+        assertThat(r.assetsByStatus())
+                .containsEntry("AVAILABLE", 2L)
+                .containsEntry("ASSIGNED", 1L)
+                .containsEntry("UNKNOWN", 1L);
+    }
+
+    @Test
+    void maintenanceChanges_trackTheUpcomingWindow() {
+        when(reportService.computeKpis()).thenReturn(kpis(0, 0, 0, 0));
+        store.snapshot();
+
+        store.onMaintenanceChanged(new MaintenanceChangedEvent(1L, 1L, "CREATE", null, MaintenanceStatus.SCHEDULED, TODAY));
+        store.onMaintenanceChanged(new MaintenanceChangedEvent(2L, 1L, "CREATE", null, MaintenanceStatus.SCHEDULED, TODAY.plusDays(5)));
+        store.onMaintenanceChanged(new MaintenanceChangedEvent(3L, 1L, "CREATE", null, MaintenanceStatus.SCHEDULED, TODAY.minusDays(1)));
+        assertThat(store.snapshot().upcomingMaintenance()).isEqualTo(2);
+
+        store.onMaintenanceChanged(new MaintenanceChangedEvent(2L, 1L, "UPDATE", MaintenanceStatus.SCHEDULED, MaintenanceStatus.IN_PROGRESS, TODAY.plusDays(5)));
+        assertThat(store.snapshot().upcomingMaintenance()).isEqualTo(2);
+
+        store.onMaintenanceChanged(new MaintenanceChangedEvent(1L, 1L, "UPDATE", MaintenanceStatus.SCHEDULED, MaintenanceStatus.COMPLETED, TODAY));
+        assertThat(store.snapshot().upcomingMaintenance()).isEqualTo(1);
+    }
+
+    @Test
+    void reconcile_correctsDriftAndRecordsIt() {
+        when(reportService.computeKpis()).thenReturn(kpis(2, 2, 0, 0), kpis(5, 4, 1, 0));
+        store.snapshot();
+        store.onAssetChanged(new AssetChangedEvent(3L, "CREATE", null, AssetStatus.AVAILABLE));
+
+        store.reconcile();
+
+        ReportDtos.KpiResponse r = store.snapshot();
+        assertThat(r.totalAssets()).isEqualTo(5);
+        assertThat(r.assetsByStatus()).containsEntry("AVAILABLE", 4L).containsEntry("ASSIGNED", 1L);
+        // total off by 2, AVAILABLE by 1, ASSIGNED by 1
+        assertThat(meterRegistry.get("kpis.reconcile.drift").counter().count()).isEqualTo(4);
+    }
+}
@@ -0,0 +1,79 @@
+package com.clims.backend.services;
+
+import com.clims.backend.events.AssetChangedEvent;
+import com.clims.backend.events.AssetsImportedEvent;
+import com.clims.backend.events.MaintenanceChangedEvent;
+import com.clims.backend.events.UserChangedEvent;
+import com.clims.backend.models.enums.AssetStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ListVersionsTests {
+
+    Instant now = Instant.parse("2025-03-10T09:00:00Z");
+    Clock clock;
+    ListVersions versions;
+
+    @BeforeEach
+    void setup() {
+        clock = new Clock() {
+            @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+            @Override public Clock withZone(ZoneId zone) { return this; }
+            @Override public Instant instant() { return now; }
+        };
+        versions = new ListVersions(Duration.ofSeconds(60), clock);
+    }
+
+    @Test
+    void writes_moveEveryListThatShowsThem() {
+        String assets = versions.version(ListVersions.ASSETS);
+        String maintenance = versions.version(ListVersions.MAINTENANCE);
+        String users = versions.version(ListVersions.USERS);
+
+        versions.onAssetsImported(new AssetsImportedEvent(List.of(1L)));
+        assertThat(versions.version(ListVersions.ASSETS)).isNotEqualTo(assets);
+        assertThat(versions.version(ListVersions.MAINTENANCE)).isEqualTo(maintenance);
+
+        assets = versions.version(ListVersions.ASSETS);
+        versions.onMaintenanceChanged(new MaintenanceChangedEvent(1L, 1L, "CREATE", null, null, null));
+        assertThat(versions.version(ListVersions.ASSETS)).isEqualTo(assets);
+        assertThat(versions.version(ListVersions.MAINTENANCE)).isNotEqualTo(maintenance);
+
+        maintenance = versions.version(ListVersions.MAINTENANCE);
+        versions.onAssetChanged(new AssetChangedEvent(1L, "UPDATE", AssetStatus.AVAILABLE, AssetStatus.ASSIGNED));
+        assertThat(versions.version(ListVersions.ASSETS)).isNotEqualTo(assets);
+        assertThat(versions.version(ListVersions.MAINTENANCE)).isNotEqualTo(maintenance);
+        assertThat(versions.version(ListVersions.USERS)).isEqualTo(users);
+
+        assets = versions.version(ListVersions.ASSETS);
+        maintenance = versions.version(ListVersions.MAINTENANCE);
+        versions.onUserChanged(new UserChangedEvent(1L, "UPDATE_ROLE"));
+        assertThat(versions.version(ListVersions.ASSETS)).isNotEqualTo(assets);
+        assertThat(versions.version(ListVersions.MAINTENANCE)).isNotEqualTo(maintenance);
+        assertThat(versions.version(ListVersions.USERS)).isNotEqualTo(users);
+    }
+
+    @Test
+    void versions_changeEveryMaxAgeAndDifferBetweenInstances() {
+        String assets = versions.version(ListVersions.ASSETS);
+
+        now = now.plusSeconds(59);
+        assertThat(versions.version(ListVersions.ASSETS)).isEqualTo(assets);
+        now = now.plusSeconds(1);
+        assertThat(versions.version(ListVersions.ASSETS)).isNotEqualTo(assets);
+
+        assertThat(new ListVersions(Duration.ofSeconds(60), clock).version(ListVersions.ASSETS))
+                .isNotEqualTo(versions.version(ListVersions.ASSETS));
+        assertThatThrownBy(() -> new ListVersions(Duration.ZERO, clock)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
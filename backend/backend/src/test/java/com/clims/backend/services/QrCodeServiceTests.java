@@ -0,0 +1,122 @@
+package com.clims.backend.services;
+
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QrCodeServiceTests {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private QrCodeService service(boolean enabled) {
+        return new QrCodeService(meterRegistry, enabled, 1 << 20);
+    }
+
+    @Test
+    void qr_isEncodedOnceAndThenServedFromTheCache() {
+        QrCodeService qr = service(true);
+
+        QrCodeService.QrCode first = qr.qr("AST-000000018", 200, QrCodeService.Format.PNG);
+        QrCodeService.QrCode again = qr.qr("AST-000000018", 200, QrCodeService.Format.PNG);
+        QrCodeService.QrCode larger = qr.qr("AST-000000018", 400, QrCodeService.Format.PNG);
+
+        assertThat(again).isSameAs(first);
+        assertThat(larger.etag()).isNotEqualTo(first.etag());
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "assets.qr").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void qr_withTheCacheDisabled_encodesEveryTimeToTheSameBytes() {
+        QrCodeService qr = service(false);
+
+        QrCodeService.QrCode first = qr.qr("AST-000000018", 200, QrCodeService.Format.PNG);
+        QrCodeService.QrCode again = qr.qr("AST-000000018", 200, QrCodeService.Format.PNG);
+
+        assertThat(again).isNotSameAs(first);
+        assertThat(again.bytes()).isEqualTo(first.bytes());
+        assertThat(again.etag()).isEqualTo(first.etag()).startsWith("\"").endsWith("\"");
+    }
+
+    @Test
+    void qr_isAnImageOfTheRequestedSize() throws Exception {
+        QrCodeService qr = service(true);
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(qr.qr("AST-000000018", 320, QrCodeService.Format.PNG).bytes()));
+        String dataUrl = new String(qr.qr("AST-000000018", 320, QrCodeService.Format.PNG_DATA_URL).bytes(), StandardCharsets.US_ASCII);
+
+        assertThat(image.getWidth()).isEqualTo(320);
+        assertThat(image.getHeight()).isEqualTo(320);
+        assertThat(dataUrl).startsWith("data:image/png;base64,");
+    }
+
+    @Test
+    void svg_isOnePathOverTheMatrixThatScansAsTheTag() throws Exception {
+        QrCodeService qr = service(true);
+
+        String svg = new String(qr.qr("AST-000000018", QrCodeService.Format.SVG, 300, 4, ErrorCorrectionLevel.L).bytes(), StandardCharsets.US_ASCII);
+
+        // Version 1 is 21 modules, plus a quiet zone of 4 on each side
+        assertThat(svg).startsWith("<svg").contains("width=\"300\"", "viewBox=\"0 0 29 29\"").doesNotContain("<image");
+        assertThat(decode(svg, 29)).isEqualTo("AST-000000018");
+    }
+
+    @Test
+    void marginAndErrorCorrection_changeTheCode() {
+        QrCodeService qr = service(true);
+
+        String tight = new String(qr.qr("AST-000000018", QrCodeService.Format.SVG, 200, 0, ErrorCorrectionLevel.L).bytes(), StandardCharsets.US_ASCII);
+        String robust = new String(qr.qr("AST-000000018", QrCodeService.Format.SVG, 200, 0, ErrorCorrectionLevel.H).bytes(), StandardCharsets.US_ASCII);
+
+        assertThat(tight).contains("viewBox=\"0 0 21 21\"");
+        // 13 characters at level H need version 2
+        assertThat(robust).contains("viewBox=\"0 0 25 25\"");
+        assertThat(QrCodeService.errorCorrection("q")).isEqualTo(ErrorCorrectionLevel.Q);
+    }
+
+    @Test
+    void qr_rejectsSizesMarginsAndLevelsOutsideTheAllowedRange() {
+        QrCodeService qr = service(true);
+
+        assertThatThrownBy(() -> qr.qr("AST-000000018", QrCodeService.MIN_SIZE - 1, QrCodeService.Format.PNG))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> qr.qr("AST-000000018", QrCodeService.MAX_SIZE + 1, QrCodeService.Format.PNG))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> qr.qr("AST-000000018", QrCodeService.Format.SVG, 200, QrCodeService.MAX_MARGIN + 1, ErrorCorrectionLevel.L))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> QrCodeService.errorCorrection("X"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // Paints the path's runs onto an image, 8 pixels per module, and scans it
+    private static String decode(String svg, int modules) throws Exception {
+        int scale = 8;
+        BufferedImage image = new BufferedImage(modules * scale, modules * scale, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        g.setColor(Color.BLACK);
+        String path = svg.substring(svg.indexOf(" d=\"") + 4, svg.lastIndexOf('"'));
+        Matcher run = Pattern.compile("M(\\d+) (\\d+)h(\\d+)v1h-\\d+z").matcher(path);
+        while (run.find()) {
+            g.fillRect(Integer.parseInt(run.group(1)) * scale, Integer.parseInt(run.group(2)) * scale, Integer.parseInt(run.group(3)) * scale, scale);
+        }
+        g.dispose();
+        return new QRCodeReader().decode(new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(image)))).getText();
+    }
+}
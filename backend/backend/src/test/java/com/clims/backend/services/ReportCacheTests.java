@@ -0,0 +1,255 @@
+package com.clims.backend.services;
+
+import com.clims.backend.dto.ReportDtos;
+import com.clims.backend.events.AssetChangedEvent;
+import com.clims.backend.events.MaintenanceChangedEvent;
+import com.clims.backend.events.UserChangedEvent;
+import com.clims.backend.models.enums.AssetStatus;
+import com.clims.backend.models.enums.MaintenanceStatus;
+import com.clims.backend.repositories.CollectionVersion;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReportCacheTests {
+
+    @TempDir Path dir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger generations = new AtomicInteger();
+    // Departments, locations and vendors as the cache reads them
+    private List<CollectionVersion> lookups = List.of(new CollectionVersion(2, Instant.parse("2025-03-10T09:00:00Z")),
+            new CollectionVersion(2, null), new CollectionVersion(1, null));
+
+    private ReportCache cache(long maxBytes) {
+        return new ReportCache(new ObjectMapper().findAndRegisterModules(), meterRegistry, () -> lookups, true, maxBytes, dir.toString(), 5);
+    }
+
+    private ReportCache.Generator writes(String content, boolean truncated) {
+        return os -> {
+            generations.incrementAndGet();
+            os.write(content.getBytes(StandardCharsets.UTF_8));
+            return new ReportService.ReportResult(1, truncated);
+        };
+    }
+
+    private static void await(CountDownLatch latch) throws IOException {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new java.io.InterruptedIOException();
+        }
+    }
+
+    private static String serve(ReportCache cache, ReportCache.Key key, ReportCache.Generator generator) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cache.serve(key, out, generator);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void repeatRequest_isServedFromDiskWithTheOriginalOutcome() throws Exception {
+        ReportCache cache = cache(1024);
+        ReportCache.Key key = cache.key("inventory", ReportDtos.ReportFormat.CSV, null, 5000);
+
+        assertThat(serve(cache, key, writes("a,b\n", true))).isEqualTo("a,b\n");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ReportService.ReportResult again = cache.serve(key, out, writes("different", false));
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("a,b\n");
+        assertThat(again.truncated()).isTrue();
+        assertThat(generations).hasValue(1);
+        assertThat(meterRegistry.get("reports.cache.requests").tag("result", "hit").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void key_isCanonicalAcrossEquivalentFilters() {
+        ReportCache cache = cache(1024);
+        ReportDtos.InventoryFilter empty = new ReportDtos.InventoryFilter(null, null, null, null, null);
+        assertThat(cache.key("inventory", ReportDtos.ReportFormat.PDF, empty, 5000))
+                .isEqualTo(cache.key("inventory", ReportDtos.ReportFormat.PDF, null, 5000));
+
+        ReportDtos.InventoryFilter a = new ReportDtos.InventoryFilter(1L, AssetStatus.ASSIGNED, null, LocalDate.of(2024, 1, 1), null);
+        ReportDtos.InventoryFilter b = new ReportDtos.InventoryFilter(1L, AssetStatus.ASSIGNED, null, LocalDate.of(2024, 1, 1), null);
+        assertThat(cache.key("inventory", ReportDtos.ReportFormat.CSV, a, null)).isEqualTo(cache.key("inventory", ReportDtos.ReportFormat.CSV, b, null));
+        assertThat(cache.key("inventory", ReportDtos.ReportFormat.CSV, a, null)).isNotEqualTo(cache.key("inventory", ReportDtos.ReportFormat.PDF, a, null));
+    }
+
+    @Test
+    void dataWrites_bumpTheVersionAndEvictStaleFiles() throws Exception {
+        ReportCache cache = cache(1024);
+        serve(cache, cache.key("inventory", ReportDtos.ReportFormat.CSV, null, null), writes("v1", false));
+
+        cache.onAssetChanged(new AssetChangedEvent(1L, "UPDATE", AssetStatus.AVAILABLE, AssetStatus.ASSIGNED));
+        ReportCache.Key fresh = cache.key("inventory", ReportDtos.ReportFormat.CSV, null, null);
+        assertThat(serve(cache, fresh, writes("v2", false))).isEqualTo("v2");
+        assertThat(cache.entryCount()).isEqualTo(1);
+
+        cache.onMaintenanceChanged(new MaintenanceChangedEvent(3L, 1L, "CREATE", null, MaintenanceStatus.SCHEDULED, LocalDate.of(2030, 1, 1)));
+        assertThat(cache.key("inventory", ReportDtos.ReportFormat.CSV, null, null)).isNotEqualTo(fresh);
+
+        fresh = cache.key("inventory", ReportDtos.ReportFormat.CSV, null, null);
+        cache.onUserChanged(new UserChangedEvent(7L, "UPDATE_DEPARTMENT"));
+        assertThat(cache.key("inventory", ReportDtos.ReportFormat.CSV, null, null)).isNotEqualTo(fresh);
+    }
+
+    @Test
+    void lookupTableChanges_missTheCacheAndEvictStaleFiles() throws Exception {
+        ReportCache cache = cache(1024);
+        ReportCache.Key before = cache.key("inventory", ReportDtos.ReportFormat.CSV, null, null);
+        serve(cache, before, writes("Store Room", false));
+
+        // A location renamed in the database: no event, only its table's latest updatedAt moves
+        lookups = List.of(lookups.get(0), new CollectionVersion(2, Instant.parse("2025-03-11T08:00:00Z")), lookups.get(2));
+        ReportCache.Key after = cache.key("inventory", ReportDtos.ReportFormat.CSV, null, null);
+        assertThat(after).isNotEqualTo(before);
+        assertThat(serve(cache, after, writes("Back Office", false))).isEqualTo("Back Office");
+        assertThat(generations).hasValue(2);
+        assertThat(cache.entryCount()).isEqualTo(1);
+    }
+
+    @Test
+    void resultGeneratedAcrossAWrite_isNotCached() throws Exception {
+        ReportCache cache = cache(1024);
+        ReportCache.Key key = cache.key("maintenance", ReportDtos.ReportFormat.CSV, null, null);
+        serve(cache, key, os -> {
+            cache.onMaintenanceChanged(new MaintenanceChangedEvent(1L, 1L, "UPDATE", MaintenanceStatus.SCHEDULED, MaintenanceStatus.COMPLETED, null));
+            os.write('x');
+            return new ReportService.ReportResult(1, false);
+        });
+        assertThat(cache.entryCount()).isZero();
+        assertThat(dir).isEmptyDirectory();
+    }
+
+    @Test
+    void sizeBudget_evictsLeastRecentlyUsed() throws Exception {
+        ReportCache cache = cache(10);
+        ReportCache.Key a = cache.key("inventory", ReportDtos.ReportFormat.CSV, new ReportDtos.InventoryFilter(1L, null, null, null, null), null);
+        ReportCache.Key b = cache.key("inventory", ReportDtos.ReportFormat.CSV, new ReportDtos.InventoryFilter(2L, null, null, null, null), null);
+        ReportCache.Key c = cache.key("inventory", ReportDtos.ReportFormat.CSV, new ReportDtos.InventoryFilter(3L, null, null, null, null), null);
+
+        serve(cache, a, writes("aaaa", false));
+        serve(cache, b, writes("bbbb", false));
+        serve(cache, a, writes("aaaa", false)); // a becomes most recently used
+        serve(cache, c, writes("cccc", false));
+
+        assertThat(cache.sizeInBytes()).isEqualTo(8);
+        assertThat(generations).hasValue(3);
+        serve(cache, a, writes("aaaa", false));
+        assertThat(generations).hasValue(3);
+        serve(cache, b, writes("bbbb", false));
+        assertThat(generations).hasValue(4);
+        try (var files = Files.list(dir)) {
+            assertThat(files.count()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void failedGeneration_isNotCached() {
+        ReportCache cache = cache(1024);
+        ReportCache.Key key = cache.key("inventory", ReportDtos.ReportFormat.PDF, null, null);
+        assertThatThrownBy(() -> cache.serve(key, new ByteArrayOutputStream(), os -> {
+            os.write("partial".getBytes());
+            throw new IOException("client went away");
+        })).isInstanceOf(IOException.class);
+        assertThat(cache.entryCount()).isZero();
+        assertThat(dir).isEmptyDirectory();
+    }
+
+    @Test
+    void disabled_alwaysGeneratesWithoutReadingLookupVersions() throws Exception {
+        AtomicInteger lookupReads = new AtomicInteger();
+        ReportCache cache = new ReportCache(new ObjectMapper(), meterRegistry, () -> {
+            lookupReads.incrementAndGet();
+            return lookups;
+        }, false, 1024, dir.toString(), 5);
+        ReportCache.Key key = cache.key("inventory", ReportDtos.ReportFormat.CSV, null, null);
+        serve(cache, key, writes("x", false));
+        serve(cache, key, writes("x", false));
+        assertThat(generations).hasValue(2);
+        assertThat(dir).isEmptyDirectory();
+        assertThat(lookupReads).hasValue(0);
+    }
+
+    @Test
+    void concurrentIdenticalRequests_shareOneGeneration() throws Exception {
+        // Caching disabled: coalescing must not depend on the persistent cache
+        ReportCache cache = new ReportCache(new ObjectMapper(), meterRegistry, () -> lookups, false, 1024, dir.toString(), 5);
+        ReportCache.Key key = cache.key("inventory", ReportDtos.ReportFormat.PDF, null, 5000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ReportCache.Generator slow = os -> {
+            generations.incrementAndGet();
+            started.countDown();
+            await(release);
+            os.write("%PDF-shared".getBytes(StandardCharsets.UTF_8));
+            return new ReportService.ReportResult(5000, true);
+        };
+
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            Future<String> leader = pool.submit(() -> serve(cache, key, slow));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<String> f1 = pool.submit(() -> serve(cache, key, slow));
+            Future<String> f2 = pool.submit(() -> serve(cache, key, slow));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (cache.waitingFor(key) < 2 && System.currentTimeMillis() < deadline) Thread.sleep(5);
+            release.countDown();
+
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("%PDF-shared");
+            assertThat(f1.get(5, TimeUnit.SECONDS)).isEqualTo("%PDF-shared");
+            assertThat(f2.get(5, TimeUnit.SECONDS)).isEqualTo("%PDF-shared");
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(generations).hasValue(1);
+        assertThat(meterRegistry.get("reports.cache.requests").tag("result", "coalesced").counter().count()).isEqualTo(2);
+        assertThat(dir).isEmptyDirectory();
+    }
+
+    @Test
+    void followers_generateThemselvesWhenTheLeaderFails() throws Exception {
+        ReportCache cache = cache(1024);
+        ReportCache.Key key = cache.key("maintenance", ReportDtos.ReportFormat.CSV, null, null);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = pool.submit(() -> serve(cache, key, os -> {
+                started.countDown();
+                await(release);
+                throw new IOException("leader client disconnected");
+            }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<String> follower = pool.submit(() -> serve(cache, key, writes("own", false)));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (cache.waitingFor(key) < 1 && System.currentTimeMillis() < deadline) Thread.sleep(5);
+            release.countDown();
+
+            assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IOException.class);
+            assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("own");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.clims.backend.services;
+
+import com.clims.backend.services.ReportCompression.Encoding;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReportCompressionTests {
+
+    private final ReportCompression compression = new ReportCompression(6, 3, true);
+
+    @Test
+    void negotiate_prefersNamedZstdThenGzip() {
+        assertThat(compression.negotiate("gzip, deflate, br, zstd")).isEqualTo(Encoding.ZSTD);
+        assertThat(compression.negotiate("gzip;q=1.0, zstd;q=0.5")).isEqualTo(Encoding.GZIP);
+        assertThat(compression.negotiate("gzip")).isEqualTo(Encoding.GZIP);
+        assertThat(compression.negotiate("X-GZIP")).isEqualTo(Encoding.GZIP);
+        // A wildcard allows gzip but never opts a client into zstd
+        assertThat(compression.negotiate("*")).isEqualTo(Encoding.GZIP);
+    }
+
+    @Test
+    void negotiate_respectsRefusalsAndFallsBackToIdentity() {
+        assertThat(compression.negotiate(null)).isEqualTo(Encoding.IDENTITY);
+        assertThat(compression.negotiate("br, deflate")).isEqualTo(Encoding.IDENTITY);
+        assertThat(compression.negotiate("gzip;q=0")).isEqualTo(Encoding.IDENTITY);
+        assertThat(compression.negotiate("*;q=0, zstd")).isEqualTo(Encoding.ZSTD);
+        assertThat(new ReportCompression(6, 3, false).negotiate("zstd, gzip;q=0.1")).isEqualTo(Encoding.GZIP);
+    }
+
+    @Test
+    void wrap_finishesTheFrameWithoutClosingTheResponseStream() throws Exception {
+        boolean[] closed = {false};
+        ByteArrayOutputStream body = new ByteArrayOutputStream() {
+            @Override public void close() { closed[0] = true; }
+        };
+        try (OutputStream gz = compression.wrap(body, Encoding.GZIP)) {
+            gz.write("a,b\n".repeat(1000).getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertThat(closed[0]).isFalse();
+        assertThat(body.size()).isLessThan(200);
+        try (var in = new GZIPInputStream(new ByteArrayInputStream(body.toByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("a,b\n".repeat(1000));
+        }
+    }
+
+    @Test
+    void invalidGzipLevel_isRejected() {
+        assertThatThrownBy(() -> new ReportCompression(0, 3, true)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
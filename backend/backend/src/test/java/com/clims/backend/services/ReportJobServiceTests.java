@@ -0,0 +1,192 @@
+package com.clims.backend.services;
+
+import com.clims.backend.dto.ReportDtos;
+import com.clims.backend.exceptions.ReportQueueFullException;
+import com.clims.backend.models.entities.Report;
+import com.clims.backend.models.enums.ReportStatus;
+import com.clims.backend.repositories.ReportRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReportJobServiceTests {
+
+    @TempDir Path dir;
+
+    ReportRepository reportRepository;
+    ReportService reportService;
+    SimpleMeterRegistry meterRegistry;
+    ReportJobService jobs;
+    final Map<Long, Report> rows = new ConcurrentHashMap<>();
+    final List<ReportStatus> savedStatuses = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setup() {
+        reportRepository = Mockito.mock(ReportRepository.class);
+        reportService = Mockito.mock(ReportService.class);
+        meterRegistry = new SimpleMeterRegistry();
+
+        AtomicLong ids = new AtomicLong();
+        when(reportRepository.save(any(Report.class))).thenAnswer(inv -> {
+            Report r = inv.getArgument(0);
+            if (r.getId() == null) r.setId(ids.incrementAndGet());
+            rows.put(r.getId(), r);
+            savedStatuses.add(r.getStatus());
+            return r;
+        });
+        when(reportRepository.findById(any())).thenAnswer(inv -> Optional.ofNullable(rows.get(inv.<Long>getArgument(0))));
+        doAnswer(inv -> rows.remove(inv.<Report>getArgument(0).getId())).when(reportRepository).delete(any(Report.class));
+
+        jobs = new ReportJobService(reportRepository, reportService, new ObjectMapper().findAndRegisterModules(),
+                meterRegistry, 1, 1, dir.toString(), 24, true);
+    }
+
+    @AfterEach
+    void shutdown() {
+        jobs.shutdown();
+    }
+
+    private static ReportDtos.ReportJobRequest inventoryCsv() {
+        return new ReportDtos.ReportJobRequest(ReportDtos.ReportType.INVENTORY, ReportDtos.ReportFormat.CSV,
+                new ReportDtos.InventoryFilter(null, null, 7L, null, null), null);
+    }
+
+    @Test
+    void submit_generatesFileInTheBackgroundAndRecordsTheOutcome() throws Exception {
+        when(reportService.countInventoryRecords(any())).thenReturn(2L);
+        when(reportService.writeInventoryCsv(any(), any(), isNull(), any())).thenAnswer(inv -> {
+            OutputStream os = inv.getArgument(0);
+            LongConsumer onRow = inv.getArgument(3);
+            os.write("AssetTag\nA-1\nA-2\n".getBytes());
+            onRow.accept(1);
+            onRow.accept(2);
+            return new ReportService.ReportResult(2, false);
+        });
+
+        Report queued = jobs.submit(inventoryCsv(), null);
+        // The worker may already be running the same instance, so check what was persisted on submit
+        assertThat(savedStatuses.get(0)).isEqualTo(ReportStatus.QUEUED);
+        assertThat(queued.getFilterJson()).contains("\"vendorId\":7");
+
+        Report done = jobs.whenFinished(queued.getId()).get(5, TimeUnit.SECONDS);
+        assertThat(done.getStatus()).isEqualTo(ReportStatus.COMPLETED);
+        assertThat(done.getProgress()).isEqualTo(100);
+        assertThat(done.getRowCount()).isEqualTo(2);
+        assertThat(done.getDurationMs()).isNotNull();
+        assertThat(Files.readString(jobs.requireOutput(done))).isEqualTo("AssetTag\nA-1\nA-2\n");
+        verify(reportRepository).updateProgress(queued.getId(), 50);
+        assertThat(meterRegistry.get("reports.jobs.duration").tag("outcome", "completed").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void submit_whenWorkersAndQueueAreBusy_rejectsWithoutKeepingTheRow() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(reportService.writeInventoryCsv(any(), any(), isNull(), any())).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new ReportService.ReportResult(0, false);
+        });
+
+        Report running = jobs.submit(inventoryCsv(), null);
+        Report queued = jobs.submit(inventoryCsv(), null);
+        assertThatThrownBy(() -> jobs.submit(inventoryCsv(), null)).isInstanceOf(ReportQueueFullException.class);
+        assertThat(rows).containsOnlyKeys(running.getId(), queued.getId());
+        assertThat(meterRegistry.get("reports.jobs.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(jobs.whenFinished(queued.getId()).get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(ReportStatus.COMPLETED);
+    }
+
+    @Test
+    void failedGeneration_isRecordedAndLeavesNoPartialFile() throws Exception {
+        when(reportService.writeInventoryCsv(any(), any(), isNull(), any())).thenThrow(new RuntimeException("boom"));
+
+        Report job = jobs.submit(inventoryCsv(), null);
+        Report failed = jobs.whenFinished(job.getId()).get(5, TimeUnit.SECONDS);
+
+        assertThat(failed.getStatus()).isEqualTo(ReportStatus.FAILED);
+        assertThat(failed.getErrorMessage()).isEqualTo("boom");
+        assertThat(dir).isEmptyDirectory();
+        assertThatThrownBy(() -> jobs.requireOutput(failed)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void shutdown_failsJobsThatNeverStarted() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(reportService.writeInventoryCsv(any(), any(), isNull(), any())).thenAnswer(inv -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new ReportService.ReportResult(0, false);
+        });
+        Report running = jobs.submit(inventoryCsv(), null);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        Report queued = jobs.submit(inventoryCsv(), null);
+
+        jobs.shutdown();
+
+        verify(reportRepository).failQueued(eq(List.of(queued.getId())), any(), any());
+        release.countDown();
+        assertThat(jobs.whenFinished(running.getId()).get(5, TimeUnit.SECONDS).getStatus()).isNotEqualTo(ReportStatus.RUNNING);
+    }
+
+    @Test
+    void failInterruptedJobs_failsWhatAnEarlierRunLeftUnfinished() {
+        jobs.failInterruptedJobs();
+
+        verify(reportRepository).failUnfinished(eq(List.of(ReportStatus.QUEUED, ReportStatus.RUNNING)),
+                Mockito.argThat(cutoff -> !cutoff.isAfter(Instant.now())), eq("Interrupted by a server restart"), any());
+
+        ReportJobService shared = new ReportJobService(reportRepository, reportService, new ObjectMapper(),
+                meterRegistry, 1, 1, dir.toString(), 24, false);
+        shared.failInterruptedJobs();
+        shared.shutdown();
+        verify(reportRepository, Mockito.times(1)).failUnfinished(any(), any(), any(), any());
+    }
+
+    @Test
+    void expireOldOutputs_deletesFilesPastRetention() throws Exception {
+        Path file = Files.writeString(dir.resolve("9.csv"), "x");
+        Report old = new Report();
+        old.setId(9L);
+        old.setStatus(ReportStatus.COMPLETED);
+        old.setFilePath(file.toString());
+        old.setCompletedAt(Instant.now().minus(2, ChronoUnit.DAYS));
+        when(reportRepository.findByStatusAndCompletedAtBefore(eq(ReportStatus.COMPLETED), any())).thenReturn(List.of(old));
+
+        jobs.expireOldOutputs();
+
+        assertThat(file).doesNotExist();
+        assertThat(old.getStatus()).isEqualTo(ReportStatus.EXPIRED);
+        assertThat(old.getFilePath()).isNull();
+        verify(reportRepository, Mockito.never()).updateProgress(any(), anyInt());
+    }
+}
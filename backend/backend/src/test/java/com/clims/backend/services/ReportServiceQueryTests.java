@@ -0,0 +1,162 @@
+package com.clims.backend.services;
+
+import com.clims.backend.config.AppConfig;
+import com.clims.backend.dto.ReportDtos;
+import com.clims.backend.models.entities.AppUser;
+import com.clims.backend.models.entities.Asset;
+import com.clims.backend.models.entities.Department;
+import com.clims.backend.models.entities.Vendor;
+import com.clims.backend.models.enums.AssetStatus;
+import com.clims.backend.repositories.AppUserRepository;
+import com.clims.backend.repositories.AssetRepository;
+import com.clims.backend.repositories.DepartmentRepository;
+import com.clims.backend.repositories.MaintenanceRepository;
+import com.clims.backend.repositories.VendorRepository;
+import com.clims.backend.security.Role;
+import com.clims.backend.support.SqlStatementCounter;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+// Fetch window smaller than the data set so exports cross persistence-context clears
+@TestPropertySource(properties = {"app.reports.fetch-size=2", SqlStatementCounter.PROPERTY})
+@Import(AppConfig.class)
+class ReportServiceQueryTests {
+
+    @Autowired AssetRepository assetRepository;
+    @Autowired MaintenanceRepository maintenanceRepository;
+    @Autowired VendorRepository vendorRepository;
+    @Autowired DepartmentRepository departmentRepository;
+    @Autowired AppUserRepository userRepository;
+    @Autowired EntityManager em;
+
+    ReportService reportService;
+    Vendor dell;
+    Department finance;
+
+    @BeforeEach
+    void seed() {
+        reportService = new ReportService(assetRepository, maintenanceRepository);
+
+        dell = new Vendor(); dell.setName("Dell"); vendorRepository.save(dell);
+        Vendor hp = new Vendor(); hp.setName("HP"); vendorRepository.save(hp);
+        finance = new Department(); finance.setName("Finance-" + System.nanoTime()); departmentRepository.save(finance);
+
+        AppUser alice = new AppUser();
+        alice.setUsername("alice-" + System.nanoTime());
+        alice.setPasswordHash("x");
+        alice.setRole(Role.EMPLOYEE);
+        alice.setDepartment(finance);
+        userRepository.save(alice);
+
+        asset("T-1", dell, AssetStatus.AVAILABLE, LocalDate.of(2024, 1, 10), null);
+        asset("T-2", dell, AssetStatus.ASSIGNED, LocalDate.of(2024, 6, 1), alice);
+        asset("T-3", hp, AssetStatus.AVAILABLE, LocalDate.of(2023, 3, 5), null);
+    }
+
+    private void asset(String tag, Vendor vendor, AssetStatus status, LocalDate purchased, AppUser user) {
+        Asset a = new Asset();
+        a.setAssetTag(tag + "-" + System.nanoTime());
+        a.setSerialNumber("SN-" + tag);
+        a.setMake("Make");
+        a.setModel("Model");
+        a.setPurchaseDate(purchased);
+        a.setStatus(status);
+        a.setVendor(vendor);
+        a.setAssignedUser(user);
+        assetRepository.save(a);
+    }
+
+    @Test
+    void countInventory_appliesEveryFilterInTheDatabase() {
+        assertThat(reportService.countInventoryRecords(null)).isEqualTo(3);
+        assertThat(reportService.countInventoryRecords(new ReportDtos.InventoryFilter(null, null, dell.getId(), null, null))).isEqualTo(2);
+        assertThat(reportService.countInventoryRecords(new ReportDtos.InventoryFilter(finance.getId(), null, null, null, null))).isEqualTo(1);
+        assertThat(reportService.countInventoryRecords(new ReportDtos.InventoryFilter(null, AssetStatus.AVAILABLE, null, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)))).isEqualTo(1);
+    }
+
+    @Test
+    void writeInventoryCsv_limitIsAppliedByTheQuery() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ReportService.ReportResult result = reportService.writeInventoryCsv(out, null, 2);
+        assertThat(result.rows()).isEqualTo(2);
+        assertThat(result.truncated()).isTrue();
+        String[] lines = out.toString(StandardCharsets.UTF_8).trim().split("\r?\n");
+        assertThat(lines).hasSize(4); // header + 2 rows + the note
+        assertThat(lines[1]).startsWith("T-1");
+        assertThat(lines[3]).isEqualTo("Report limited to the first 2 rows. Apply a filter to export the remaining rows.");
+    }
+
+    @Test
+    void writeInventoryPdf_detectsTruncationFromTheExtraRow() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ReportService.ReportResult limited = reportService.writeInventoryPdf(out, null, 2);
+        assertThat(limited.rows()).isEqualTo(2);
+        assertThat(limited.truncated()).isTrue();
+        assertThat(out.toString(StandardCharsets.ISO_8859_1)).startsWith("%PDF-");
+
+        assertThat(reportService.writeInventoryPdf(new ByteArrayOutputStream(), null, 3).truncated()).isFalse();
+    }
+
+    @Test
+    void writeMaintenancePdf_emptyResultStillProducesADocument() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThat(reportService.writeMaintenancePdf(out, null, null).rows()).isZero();
+        assertThat(out.toString(StandardCharsets.ISO_8859_1)).startsWith("%PDF-").contains("%%EOF");
+    }
+
+    @Test
+    void writeInventoryCsv_streamsAcrossFetchWindows() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThat(reportService.writeInventoryCsv(out, null, null).truncated()).isFalse();
+        String[] lines = out.toString(StandardCharsets.UTF_8).trim().split("\r?\n");
+        assertThat(lines).hasSize(4);
+        assertThat(lines[2]).contains("alice-").contains(finance.getName()).contains("Dell");
+        assertThat(lines[3]).startsWith("T-3").contains("HP");
+    }
+
+    @Test
+    void streamAll_detachesAWindowOnlyOnceTheNextRowIsAskedFor() {
+        try (Stream<Asset> rows = assetRepository.streamAll(null, Sort.by("id"), null)) {
+            List<Asset> seen = new ArrayList<>();
+            rows.forEach(row -> {
+                assertThat(em.contains(row)).isTrue();
+                seen.add(row);
+            });
+            assertThat(seen).hasSize(3);
+            assertThat(em.contains(seen.get(0))).isFalse();
+            assertThat(em.contains(seen.get(1))).isFalse();
+        }
+    }
+
+    @Test
+    void exports_readRowsAndTheirAssociationsInOneStatement() {
+        em.flush();
+        em.clear();
+
+        SqlStatementCounter.reset();
+        reportService.writeInventoryCsv(new ByteArrayOutputStream(), null, null);
+        assertThat(SqlStatementCounter.count()).isEqualTo(1);
+
+        SqlStatementCounter.reset();
+        reportService.writeMaintenancePdf(new ByteArrayOutputStream(), null, null);
+        assertThat(SqlStatementCounter.count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,84 @@
+package com.clims.backend.services;
+
+import com.clims.backend.config.AppConfig;
+import com.clims.backend.models.entities.AppUser;
+import com.clims.backend.repositories.AppUserRepository;
+import com.clims.backend.repositories.DepartmentRepository;
+import com.clims.backend.security.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(AppConfig.class)
+class UserServiceScrollTests {
+
+    @Autowired AppUserRepository userRepository;
+    @Autowired DepartmentRepository departmentRepository;
+
+    UserService userService;
+
+    @BeforeEach
+    void seed() {
+        userService = new UserService(userRepository, departmentRepository, Mockito.mock(PasswordEncoder.class), new ModelMapper(), Mockito.mock(CountEstimator.class), Mockito.mock(ApplicationEventPublisher.class));
+        userRepository.deleteAll();
+        Role[] roles = {Role.EMPLOYEE, Role.ADMIN, Role.EMPLOYEE, Role.TECHNICIAN, Role.EMPLOYEE, Role.ADMIN, Role.EMPLOYEE};
+        for (int i = 0; i < roles.length; i++) {
+            AppUser u = new AppUser();
+            u.setUsername("scroll-" + i);
+            u.setEmail("scroll-" + i + "@example.com");
+            u.setPasswordHash("x");
+            u.setRole(roles[i]);
+            userRepository.save(u);
+        }
+    }
+
+    private List<AppUser> scrollAll(Sort sort, Role role, int size) {
+        List<AppUser> seen = new ArrayList<>();
+        ScrollPosition position = ScrollPosition.keyset();
+        Window<AppUser> window;
+        do {
+            window = userService.scroll(position, size, sort, role, null, "scroll-");
+            assertThat(window.size()).isLessThanOrEqualTo(size);
+            seen.addAll(window.getContent());
+            if (!window.isEmpty()) position = window.positionAt(window.size() - 1);
+        } while (window.hasNext());
+        return seen;
+    }
+
+    @Test
+    void scroll_visitsEveryRowOnceInSortOrderAcrossTiedKeys() {
+        List<AppUser> seen = scrollAll(Sort.by("role").descending(), null, 3);
+
+        assertThat(seen).hasSize(7);
+        assertThat(seen).extracting(AppUser::getId).doesNotHaveDuplicates();
+        // Ties on role are broken by ascending id, the way the keyset predicate pages through them
+        assertThat(seen).isSortedAccordingTo(Comparator.comparing((AppUser u) -> u.getRole().name()).reversed()
+                .thenComparing(AppUser::getId));
+    }
+
+    @Test
+    void scroll_appliesFiltersAndCountMatchesThem() {
+        List<AppUser> employees = scrollAll(Sort.by("id").ascending(), Role.EMPLOYEE, 2);
+
+        assertThat(employees).extracting(AppUser::getUsername).containsExactly("scroll-0", "scroll-2", "scroll-4", "scroll-6");
+        assertThat(userService.count(Role.EMPLOYEE, null, "scroll-")).isEqualTo(4);
+    }
+}
@@ -0,0 +1,31 @@
+package com.clims.backend.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the calling thread. Register it with
+ * {@code spring.jpa.properties.hibernate.session_factory.statement_inspector} (see {@link #PROPERTY}), call
+ * {@link #reset()} before the code under test and read {@link #count()} after it. Counting per thread keeps
+ * scheduled jobs and other background work out of the numbers.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    public static final String PROPERTY =
+            "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.clims.backend.support.SqlStatementCounter";
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    public static int count() {
+        return COUNT.get()[0];
+    }
+}